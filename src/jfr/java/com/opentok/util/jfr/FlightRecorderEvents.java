@@ -0,0 +1,43 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util.jfr;
+
+import com.opentok.util.SdkEvents;
+import jdk.jfr.EventType;
+
+/**
+ * {@link SdkEvents} backed by JDK Flight Recorder. Loaded reflectively, so that the SDK
+ * still runs on Java 8 where {@code jdk.jfr} does not exist.
+ */
+public final class FlightRecorderEvents extends SdkEvents {
+    // Looking the types up once registers them, so they show up in JMC before the first event
+    private static final EventType
+            REST_CALL = EventType.getEventType(RestCallEvent.class),
+            TOKEN_MINT = EventType.getEventType(TokenMintEvent.class);
+
+    @Override
+    public RestCall beginRestCall() {
+        if (!REST_CALL.isEnabled()) {
+            return null;
+        }
+        RestCallEvent event = new RestCallEvent();
+        event.callerThread = Thread.currentThread();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public TokenMint beginTokenMint() {
+        if (!TOKEN_MINT.isEnabled()) {
+            return null;
+        }
+        TokenMintEvent event = new TokenMintEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util.jfr;
+
+import com.opentok.util.SdkEvents;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.opentok.RestCall")
+@Label("OpenTok REST Call")
+@Category({"OpenTok", "REST"})
+@Description("A request to the OpenTok REST API, from execution until the response or failure.")
+@Enabled(false)
+@StackTrace(false)
+class RestCallEvent extends Event implements SdkEvents.RestCall {
+
+    @Label("Operation")
+    @Description("HTTP method and endpoint, with IDs replaced by {id}")
+    String operation;
+
+    @Label("Status")
+    @Description("HTTP status code, or 0 if the request failed without a response")
+    int status;
+
+    @Label("Request Size")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Caller Thread")
+    Thread callerThread;
+
+    @Override
+    public void complete(String operation, int status, long requestBytes, long responseBytes) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.status = status;
+            this.requestBytes = requestBytes;
+            this.responseBytes = responseBytes;
+            commit();
+        }
+    }
+}
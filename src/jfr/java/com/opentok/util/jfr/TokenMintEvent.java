@@ -0,0 +1,44 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util.jfr;
+
+import com.opentok.util.SdkEvents;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.opentok.TokenMint")
+@Label("OpenTok Token Generation")
+@Category({"OpenTok", "Tokens"})
+@Description("A client token generated by Session.generateToken.")
+@Enabled(false)
+@StackTrace(false)
+class TokenMintEvent extends Event implements SdkEvents.TokenMint {
+
+    @Label("Auth Mode")
+    @Description("\"project\" for API key and secret, \"application\" for a Vonage application and private key")
+    String authMode;
+
+    @Label("Legacy T1")
+    @Description("Whether the token uses the legacy T1 format instead of JWT")
+    boolean legacyT1;
+
+    @Override
+    public void complete(String authMode, boolean legacyT1) {
+        end();
+        if (shouldCommit()) {
+            this.authMode = authMode;
+            this.legacyT1 = legacyT1;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON response decoding for the list endpoints, using the same readers as {@link OpenTok}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseDecodingBenchmark {
+
+    /** The number of items in the list. 1000 is the largest page the REST API returns. */
+    @Param({"50", "1000"})
+    public int items;
+
+    private String archives, connections, renders;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("{\"count\":").append(items).append(",\"items\":[");
+        for (int i = 0; i < items; i++) {
+            json.append(i == 0 ? "" : ",")
+                .append("{\"createdAt\":1395187930000,\"duration\":").append(i)
+                .append(",\"hasAudio\":true,\"hasVideo\":true,\"id\":\"ef546c5a-4fd7-4e59-ab3d-f1cf")
+                .append(String.format("%08d", i)).append("\",\"name\":\"Weekly review\",")
+                .append("\"outputMode\":\"composed\",\"partnerId\":123456,\"reason\":\"\",")
+                .append("\"resolution\":\"1280x720\",\"sessionId\":\"").append(TokenBenchmark.SESSION_ID)
+                .append("\",\"size\":247145329,\"status\":\"available\",\"streamMode\":\"auto\",")
+                .append("\"url\":\"https://tokbox.com.archive2.s3.amazonaws.com/123456%2F")
+                .append(i).append("%2Farchive.mp4?Expires=1395188695\"}");
+        }
+        archives = json.append("]}").toString();
+
+        json = new StringBuilder("{\"count\":").append(items).append(",\"projectId\":\"123456\",\"sessionId\":\"")
+                .append(TokenBenchmark.SESSION_ID).append("\",\"items\":[");
+        for (int i = 0; i < items; i++) {
+            json.append(i == 0 ? "" : ",")
+                .append("{\"connectionId\":\"527775e1-626e-42c3-b0e8-e212")
+                .append(String.format("%08d", i)).append("\",\"createdAt\":1747655658197,")
+                .append("\"connectionState\":\"Connected\"}");
+        }
+        connections = json.append("]}").toString();
+
+        json = new StringBuilder("{\"count\":").append(items).append(",\"items\":[");
+        for (int i = 0; i < items; i++) {
+            json.append(i == 0 ? "" : ",")
+                .append("{\"id\":\"80abaf0d-25a3-4efc-968f-6268")
+                .append(String.format("%08d", i)).append("\",\"sessionId\":\"").append(TokenBenchmark.SESSION_ID)
+                .append("\",\"projectId\":\"123456\",\"createdAt\":1547080511760,\"updatedAt\":1547080518965,")
+                .append("\"url\":\"https://webapp.customer.com\",\"resolution\":\"1280x720\",")
+                .append("\"status\":\"started\",\"streamId\":\"d2334b35690a92f78945\"}");
+        }
+        renders = json.append("]}").toString();
+    }
+
+    @Benchmark
+    public ArchiveList archiveList() throws Exception {
+        return OpenTok.archiveListReader.readValue(archives);
+    }
+
+    @Benchmark
+    public ConnectionList connectionList() throws Exception {
+        return OpenTok.connectionListReader.readValue(connections);
+    }
+
+    @Benchmark
+    public List<Render> renderList() throws Exception {
+        return OpenTok.readRenderList(renders);
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util;
+
+import com.opentok.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON request body encoding for the calls that carry the largest bodies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestEncodingBenchmark {
+    private static final String SESSION_ID = "1_MX4xMjM0NTZ-flNhdCBNYXIgMTUgMTQ6NDI6MjMgUERUIDIwMTR-MC40OTAxMzAyNX4";
+    private static final String STYLESHEET = "stream.instructor {position: absolute; width: 100%; height: 50%;}";
+
+    private ArchiveProperties archiveProperties;
+    private BroadcastProperties broadcastProperties;
+
+    @State(Scope.Benchmark)
+    public static class StreamLayouts {
+
+        /** The number of streams in a layout update. */
+        @Param({"10", "100"})
+        public int streams;
+
+        private StreamListProperties properties;
+
+        @Setup
+        public void setUp() {
+            StreamListProperties.Builder streamList = new StreamListProperties.Builder();
+            for (int i = 0; i < streams; i++) {
+                streamList.addStreamProperties(new StreamProperties.Builder()
+                        .id("8b732909-0a06-46a2-8ea8-074e64d4" + String.format("%04d", i))
+                        .addLayoutClass("full")
+                        .addLayoutClass("focus")
+                        .build());
+            }
+            properties = streamList.build();
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        archiveProperties = new ArchiveProperties.Builder()
+                .name("Weekly review")
+                .resolution("1920x1080")
+                .outputMode(Archive.OutputMode.COMPOSED)
+                .layout(new ArchiveLayout(ArchiveLayout.Type.CUSTOM, STYLESHEET))
+                .multiArchiveTag("weekly-review")
+                .build();
+
+        BroadcastProperties.Builder broadcast = new BroadcastProperties.Builder()
+                .layout(new BroadcastLayout(BroadcastLayout.Type.CUSTOM, STYLESHEET))
+                .maxDuration(7200)
+                .resolution("1280x720")
+                .hasHls(true)
+                .hls(new Hls.Builder().dvr(true).build())
+                .multiBroadcastTag("weekly-review");
+        for (int i = 0; i < 5; i++) {
+            broadcast.addRtmpProperties(new RtmpProperties.Builder()
+                    .id("rtmp" + i)
+                    .serverUrl("rtmps://live.example.com:443/app" + i)
+                    .streamName("stream-key-" + i)
+                    .build());
+        }
+        broadcastProperties = broadcast.build();
+    }
+
+    @Benchmark
+    public String startArchive() throws Exception {
+        return HttpClient.startArchiveRequestBody(SESSION_ID, archiveProperties);
+    }
+
+    @Benchmark
+    public String startBroadcast() throws Exception {
+        return HttpClient.startBroadcastRequestBody(SESSION_ID, broadcastProperties);
+    }
+
+    @Benchmark
+    public String setStreamLayouts(StreamLayouts layouts) throws Exception {
+        return HttpClient.setStreamLayoutsRequestBody(layouts.properties);
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.load;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records call latencies for one operation on one worker thread. Recorders from all workers are
+ * merged once the run is over, so recording itself needs no synchronization.
+ */
+class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int count, errors;
+
+    void record(long nanos, boolean error) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    void addAll(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.latencies[i], false);
+        }
+        errors += other.errors;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    /**
+     * @return The latency at the given percentile (0-100) in milliseconds. Sorts the recorded values.
+     */
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(latencies, 0, count);
+        int index = Math.max((int) Math.ceil(percentile / 100 * count) - 1, 0);
+        return latencies[index] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,291 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.load;
+
+import com.opentok.ArchiveProperties;
+import com.opentok.OpenTok;
+import com.opentok.SignalProperties;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a real {@link OpenTok} client at a fixed concurrency against an in-process stub of the REST API
+ * and reports throughput, latency percentiles per operation, thread counts and allocation.
+ * <p>
+ * Options (all optional), passed as {@code --name=value}:
+ * <ul>
+ *     <li>{@code threads} -- concurrent callers (default 16)</li>
+ *     <li>{@code duration} -- measured run time in seconds (default 30)</li>
+ *     <li>{@code warmup} -- unmeasured run time before that, in seconds (default 5)</li>
+ *     <li>{@code latency} -- stub response delay in milliseconds (default 20)</li>
+ *     <li>{@code jitter} -- extra random stub delay of up to this many milliseconds (default 0)</li>
+ *     <li>{@code error-rate} -- share of stub responses replaced by a 500, from 0 to 1 (default 0)</li>
+ *     <li>{@code operations} -- comma-separated subset of signal, forceMute, startArchive, getArchive and
+ *     listConnections (default all), called in turn by each worker</li>
+ *     <li>{@code connections} -- items in the listConnections response (default 50)</li>
+ * </ul>
+ */
+public class LoadHarness {
+    private static final int API_KEY = 123456;
+    private static final String API_SECRET = "1234567890abcdef1234567890abcdef1234567890";
+    private static final String SESSION_ID = "SESSIONID";
+
+    enum Operation {
+        SIGNAL("signal") {
+            @Override
+            void call(OpenTok opentok) throws Exception {
+                opentok.signal(SESSION_ID, SIGNAL_PROPERTIES);
+            }
+        },
+        FORCE_MUTE("forceMute") {
+            @Override
+            void call(OpenTok opentok) throws Exception {
+                opentok.forceMuteStream(SESSION_ID, "STREAMID");
+            }
+        },
+        START_ARCHIVE("startArchive") {
+            @Override
+            void call(OpenTok opentok) throws Exception {
+                opentok.startArchive(SESSION_ID, ARCHIVE_PROPERTIES);
+            }
+        },
+        GET_ARCHIVE("getArchive") {
+            @Override
+            void call(OpenTok opentok) throws Exception {
+                opentok.getArchive(StubApi.ARCHIVE_ID);
+            }
+        },
+        LIST_CONNECTIONS("listConnections") {
+            @Override
+            void call(OpenTok opentok) throws Exception {
+                opentok.listConnections(SESSION_ID);
+            }
+        };
+
+        private static final SignalProperties SIGNAL_PROPERTIES = new SignalProperties.Builder()
+                .type("chat")
+                .data("{\"text\":\"Hello from the load harness\"}")
+                .build();
+        private static final ArchiveProperties ARCHIVE_PROPERTIES = new ArchiveProperties.Builder()
+                .name("Load test")
+                .build();
+
+        final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        abstract void call(OpenTok opentok) throws Exception;
+
+        static Operation fromLabel(String label) {
+            for (Operation operation : values()) {
+                if (operation.label.equalsIgnoreCase(label)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation: " + label);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int latency = Integer.parseInt(options.getOrDefault("latency", "20"));
+        int jitter = Integer.parseInt(options.getOrDefault("jitter", "0"));
+        double errorRate = Double.parseDouble(options.getOrDefault("error-rate", "0"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "50"));
+        List<Operation> operations = new ArrayList<>();
+        for (String label : options.getOrDefault("operations",
+                "signal,forceMute,startArchive,getArchive,listConnections").split(",")) {
+            operations.add(Operation.fromLabel(label.trim()));
+        }
+
+        System.out.printf("threads=%d duration=%ds warmup=%ds latency=%dms jitter=%dms error-rate=%.3f operations=%s%n",
+                threads, duration, warmup, latency, jitter, errorRate, options.getOrDefault("operations", "all"));
+
+        try (StubApi stub = new StubApi(API_KEY, threads, latency, jitter, errorRate, connections)) {
+            OpenTok opentok = new OpenTok.Builder(API_KEY, API_SECRET).apiUrl(stub.baseUrl()).build();
+            try {
+                if (warmup > 0) {
+                    run(opentok, operations, threads, TimeUnit.SECONDS.toNanos(warmup));
+                }
+                report(run(opentok, operations, threads, TimeUnit.SECONDS.toNanos(duration)), operations);
+            }
+            finally {
+                opentok.close();
+            }
+        }
+    }
+
+    static class Result {
+        final Map<Operation, LatencyRecorder> latencies = new EnumMap<>(Operation.class);
+        long elapsedNanos, callerAllocatedBytes, otherAllocatedBytes, gcCount, gcMillis;
+        int threadCount, peakThreadCount, clientThreadCount;
+    }
+
+    static Result run(OpenTok opentok, List<Operation> operations, int threads, long durationNanos)
+            throws InterruptedException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        threadBean.resetPeakThreadCount();
+        Map<Long, Long> allocatedBefore = allocatedBytes(threadBean);
+        long gcCountBefore = gcCount(), gcMillisBefore = gcMillis();
+
+        List<Map<Operation, LatencyRecorder>> recorders = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1), done = new CountDownLatch(threads);
+        LongAdder callerAllocated = new LongAdder();
+        long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            Map<Operation, LatencyRecorder> own = new EnumMap<>(Operation.class);
+            for (Operation operation : operations) {
+                own.put(operation, new LatencyRecorder());
+            }
+            recorders.add(own);
+            int offset = t;
+            Thread worker = new Thread(() -> {
+                long allocatedAtStart = -1;
+                try {
+                    start.await();
+                    // Sampled by the worker itself: once it has exited its allocation can no longer be read
+                    allocatedAtStart = currentThreadAllocatedBytes(threadBean);
+                    for (int i = offset; System.nanoTime() - deadline[0] < 0; i++) {
+                        Operation operation = operations.get(i % operations.size());
+                        long begin = System.nanoTime();
+                        boolean error = false;
+                        try {
+                            operation.call(opentok);
+                        }
+                        catch (Exception ex) {
+                            error = true;
+                        }
+                        own.get(operation).record(System.nanoTime() - begin, error);
+                    }
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                finally {
+                    if (allocatedAtStart >= 0) {
+                        callerAllocated.add(currentThreadAllocatedBytes(threadBean) - allocatedAtStart);
+                    }
+                    done.countDown();
+                }
+            }, "load-worker-" + t);
+            worker.start();
+        }
+
+        long begin = System.nanoTime();
+        deadline[0] = begin + durationNanos;
+        start.countDown();
+        done.await();
+
+        Result result = new Result();
+        result.elapsedNanos = System.nanoTime() - begin;
+        for (Operation operation : operations) {
+            LatencyRecorder merged = new LatencyRecorder();
+            for (Map<Operation, LatencyRecorder> own : recorders) {
+                merged.addAll(own.get(operation));
+            }
+            result.latencies.put(operation, merged);
+        }
+        result.callerAllocatedBytes = callerAllocated.sum();
+        // The workers have exited, so this covers the threads that outlive the run: HTTP client I/O and the stub
+        for (Map.Entry<Long, Long> entry : allocatedBytes(threadBean).entrySet()) {
+            result.otherAllocatedBytes += entry.getValue() - allocatedBefore.getOrDefault(entry.getKey(), 0L);
+        }
+        result.gcCount = gcCount() - gcCountBefore;
+        result.gcMillis = gcMillis() - gcMillisBefore;
+        result.threadCount = threadBean.getThreadCount();
+        result.peakThreadCount = threadBean.getPeakThreadCount();
+        for (ThreadInfo info : threadBean.getThreadInfo(threadBean.getAllThreadIds())) {
+            if (info != null && info.getThreadName().startsWith("AsyncHttpClient")) {
+                result.clientThreadCount++;
+            }
+        }
+        return result;
+    }
+
+    static void report(Result result, List<Operation> operations) {
+        double seconds = result.elapsedNanos / 1e9;
+        long calls = 0, errors = 0;
+        System.out.printf("%n%-16s %10s %8s %10s %9s %9s %9s %9s%n",
+                "operation", "calls", "errors", "calls/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Operation operation : operations) {
+            LatencyRecorder latencies = result.latencies.get(operation);
+            calls += latencies.count();
+            errors += latencies.errors();
+            System.out.printf("%-16s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.label, latencies.count(), latencies.errors(), latencies.count() / seconds,
+                    latencies.percentileMillis(50), latencies.percentileMillis(90),
+                    latencies.percentileMillis(99), latencies.percentileMillis(100));
+        }
+        System.out.printf("%-16s %10d %8d %10.1f%n%n", "total", calls, errors, calls / seconds);
+        System.out.printf("threads: %d live, %d peak, %d HTTP client I/O%n",
+                result.threadCount, result.peakThreadCount, result.clientThreadCount);
+        System.out.printf("allocation: %.1f MB/s, %d bytes/call on the calling threads%n",
+                result.callerAllocatedBytes / seconds / (1024 * 1024),
+                calls == 0 ? 0 : result.callerAllocatedBytes / calls);
+        System.out.printf("            %.1f MB/s, %d bytes/call on other threads (HTTP client I/O and the stub)%n",
+                result.otherAllocatedBytes / seconds / (1024 * 1024),
+                calls == 0 ? 0 : result.otherAllocatedBytes / calls);
+        System.out.printf("gc: %d collections, %d ms%n", result.gcCount, result.gcMillis);
+    }
+
+    private static Map<Long, Long> allocatedBytes(ThreadMXBean threadBean) {
+        Map<Long, Long> allocated = new HashMap<>();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) threadBean;
+            long[] ids = threadBean.getAllThreadIds();
+            long[] bytes = sunBean.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] >= 0) {
+                    allocated.put(ids[i], bytes[i]);
+                }
+            }
+        }
+        return allocated;
+    }
+
+    private static long currentThreadAllocatedBytes(ThreadMXBean threadBean) {
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(gc.getCollectionTime(), 0);
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.load;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * An in-process WireMock stub of the REST endpoints exercised by the {@link LoadHarness}, with
+ * injected latency and a configurable share of 500 responses.
+ */
+class StubApi implements AutoCloseable {
+    static final String ARCHIVE_ID = "b40ef09b-3811-4726-b508-e41a0f96c68f";
+
+    private final WireMockServer server;
+
+    StubApi(int apiKey, int threads, int latencyMillis, int jitterMillis, double errorRate, int connections) {
+        server = new WireMockServer(options()
+                .dynamicPort()
+                .containerThreads(Math.max(threads * 2, 16))
+                .jettyAcceptors(2)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(Math.max(threads, 8))
+                .disableRequestJournal()
+                .extensions(new FaultInjector(errorRate)));
+        server.start();
+
+        String project = "/v2/project/" + apiKey;
+        String archive = "{\"createdAt\":1395183243556,\"duration\":0,\"hasAudio\":true,\"hasVideo\":true,"
+                + "\"id\":\"" + ARCHIVE_ID + "\",\"name\":\"\",\"outputMode\":\"composed\",\"partnerId\":" + apiKey
+                + ",\"reason\":\"\",\"sessionId\":\"SESSIONID\",\"size\":0,\"status\":\"started\",\"url\":null}";
+        StringBuilder connectionList = new StringBuilder("{\"count\":").append(connections)
+                .append(",\"projectId\":\"").append(apiKey).append("\",\"sessionId\":\"SESSIONID\",\"items\":[");
+        for (int i = 0; i < connections; i++) {
+            connectionList.append(i == 0 ? "" : ",")
+                    .append("{\"connectionId\":\"527775e1-626e-42c3-b0e8-").append(String.format("%012d", i))
+                    .append("\",\"createdAt\":1747655658197,\"connectionState\":\"Connected\"}");
+        }
+        connectionList.append("]}");
+
+        server.stubFor(post(urlPathMatching(project + "/session/[^/]+/signal"))
+                .willReturn(delayed(aResponse().withStatus(204), latencyMillis, jitterMillis)));
+        server.stubFor(post(urlPathMatching(project + "/session/[^/]+/stream/[^/]+/mute"))
+                .willReturn(delayed(aResponse().withStatus(200), latencyMillis, jitterMillis)));
+        server.stubFor(post(urlPathEqualTo(project + "/archive"))
+                .willReturn(delayed(json(archive), latencyMillis, jitterMillis)));
+        server.stubFor(get(urlPathMatching(project + "/archive/[^/]+"))
+                .willReturn(delayed(json(archive), latencyMillis, jitterMillis)));
+        server.stubFor(get(urlPathMatching(project + "/session/[^/]+/connection"))
+                .willReturn(delayed(json(connectionList.toString()), latencyMillis, jitterMillis)));
+    }
+
+    String baseUrl() {
+        return server.baseUrl();
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+
+    private static ResponseDefinitionBuilder json(String body) {
+        return aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody(body);
+    }
+
+    private static ResponseDefinitionBuilder delayed(ResponseDefinitionBuilder response, int latencyMillis, int jitterMillis) {
+        if (jitterMillis > 0) {
+            return response.withUniformRandomDelay(latencyMillis, latencyMillis + jitterMillis);
+        }
+        return latencyMillis > 0 ? response.withFixedDelay(latencyMillis) : response;
+    }
+
+    /**
+     * Replaces the stubbed response with a 500 for the configured share of requests.
+     */
+    static class FaultInjector implements ResponseDefinitionTransformerV2 {
+        private final double errorRate;
+
+        FaultInjector(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        @Override
+        public ResponseDefinition transform(ServeEvent serveEvent) {
+            ResponseDefinition response = serveEvent.getResponseDefinition();
+            if (errorRate <= 0 || ThreadLocalRandom.current().nextDouble() >= errorRate) {
+                return response;
+            }
+            return ResponseDefinitionBuilder.like(response)
+                    .withStatus(500)
+                    .withBody("{\"code\":500,\"message\":\"Injected failure\"}")
+                    .build();
+        }
+
+        @Override
+        public String getName() {
+            return "fault-injector";
+        }
+    }
+}
@@ -0,0 +1,1046 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.OpenTokException;
+import com.opentok.exception.RequestException;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.asynchttpclient.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Downloads archive files to disk. The body of the response is written straight from Netty's direct buffers to a
+ * {@link FileChannel}, without being copied to the heap, so archives of gigabytes download with a small, constant
+ * memory footprint:
+ *
+ * <pre>
+ * ArchiveDownloader downloader = new ArchiveDownloader.Builder().build();
+ * downloader.download(opentok.getArchive(archiveId), Paths.get("archive.mp4"),
+ *         (downloaded, total) -&gt; log(downloaded + "/" + total))
+ *     .thenAccept(file -&gt; transcode(file));
+ * </pre>
+ *
+ * The file is written to {@code <target>.part}, and moved to the target only once it is complete and its size
+ * matches {@link Archive#getSize()}; a file already at the target is replaced. A download that is interrupted, by a
+ * dropped connection, a timeout or a server error, resumes from where it stopped with an HTTP {@code Range}
+ * request. A part file left by an earlier download, for example before the application was restarted, is resumed
+ * too: a small {@code <target>.part.journal} records the ETag (or modification date) of the file, and the request
+ * carries it in an {@code If-Range} header, so the server sends the whole file again if it has changed. Without a
+ * journal, or if the server gives neither validator, the download starts over.
+ * <p>
+ * A single connection is often slower than the storage can serve a file of gigabytes. With
+ * {@link Builder#connections(int)} set above 1, files larger than a chunk are split into chunks of
+ * {@link Builder#chunkSize(long)} bytes fetched over that many connections at once, each written at its offset in
+ * the pre-allocated part file. A chunk that is interrupted resumes on its own, without the others starting over.
+ * Each complete chunk is recorded in the journal once it is on disk, so a parallel download that fails, is cancelled
+ * or is cut short by a crash resumes with the chunks still missing. If the server does not support ranges or gives
+ * no validator, the file is downloaded over one connection.
+ * <p>
+ * The downloader uses its own HTTP client, so the OpenTok authentication header is never sent to the storage the
+ * files are downloaded from, and downloads are not bound by the OpenTok client's request timeout. Call
+ * {@link #close()} when you are done with it.
+ */
+public class ArchiveDownloader implements AutoCloseable {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+    // Progress is reported at most once per mebibyte, and at the end
+    private static final long PROGRESS_STEP = 1024 * 1024;
+
+    /**
+     * Receives the progress of a download. It is called on the downloader's I/O threads, so it must return quickly.
+     * Calls for the same download are never made at the same time.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param downloaded The number of bytes in the file so far.
+         * @param total The size of the archive, or 0 if it is not known.
+         */
+        void onProgress(long downloaded, long total);
+    }
+
+    private final AsyncHttpClient client;
+    private final ScheduledExecutorService retryExecutor;
+    private final int maxRetries, connections;
+    private final long retryDelayMillis, chunkSize;
+    private final LongAdder bytes = new LongAdder(), retries = new LongAdder();
+
+    private ArchiveDownloader(Builder builder) {
+        int id = INSTANCES.incrementAndGet();
+        client = new DefaultAsyncHttpClient(new DefaultAsyncHttpClientConfig.Builder()
+                // Body parts wrap the Netty buffers they were read into, instead of copies of them
+                .setResponseBodyPartFactory(AsyncHttpClientConfig.ResponseBodyPartFactory.LAZY)
+                .setRequestTimeout(-1)
+                .setReadTimeout((int) builder.readTimeoutMillis)
+                .setFollowRedirect(true)
+                .setMaxRequestRetry(0)
+                .setThreadPoolName("opentok-archive-downloader-" + id)
+                .build());
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "opentok-archive-downloader-" + id + "-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maxRetries = builder.maxRetries;
+        retryDelayMillis = builder.retryDelayMillis;
+        connections = builder.connections;
+        chunkSize = builder.chunkSize;
+    }
+
+    /**
+     * Downloads an archive file.
+     *
+     * @param archive The archive, with the status {@link Archive.Status#AVAILABLE}.
+     * @param target The file to write to. A part file left by an earlier download to it is resumed.
+     *
+     * @return A future completed with the target once the whole file is downloaded and its size checked.
+     */
+    public CompletableFuture<Path> download(Archive archive, Path target) throws InvalidArgumentException {
+        return download(archive, target, null);
+    }
+
+    /**
+     * Downloads an archive file, reporting the progress.
+     *
+     * @param archive The archive, with the status {@link Archive.Status#AVAILABLE}.
+     * @param target The file to write to. A part file left by an earlier download to it is resumed.
+     * @param listener Receives the progress, or {@code null}.
+     *
+     * @return A future completed with the target once the whole file is downloaded and its size checked.
+     */
+    public CompletableFuture<Path> download(Archive archive, Path target, ProgressListener listener)
+            throws InvalidArgumentException {
+        if (archive == null || archive.getUrl() == null) {
+            throw new InvalidArgumentException("The archive has no download URL. Its status is "
+                    + (archive != null ? archive.getStatus() : null) + ".");
+        }
+        return download(archive.getUrl(), archive.getSize(), target, listener);
+    }
+
+    /**
+     * Downloads a file.
+     *
+     * @param url The URL of the file.
+     * @param size The size of the file, or 0 if it is not known.
+     * @param target The file to write to. A part file left by an earlier download to it is resumed.
+     * @param listener Receives the progress, or {@code null}.
+     *
+     * @return A future completed with the target once the whole file is downloaded and its size checked.
+     */
+    public CompletableFuture<Path> download(String url, long size, Path target, ProgressListener listener)
+            throws InvalidArgumentException {
+        if (url == null || url.isEmpty() || target == null || size < 0) {
+            throw new InvalidArgumentException("The URL and target are required, and the size must not be negative.");
+        }
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        if (connections > 1 && (size == 0 || size > chunkSize)) {
+            new RangedTransfer(url, size, target, listener, future).start();
+        }
+        else {
+            new Transfer(url, size, target, listener, future).start();
+        }
+        return future;
+    }
+
+    /**
+     * @return The length of a {@code Content-Length} header, read as a long since archives can exceed 2 GiB; or
+     * -1 if there is no header or it cannot be read.
+     */
+    static long parseContentLength(String contentLength) {
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            long length = Long.parseLong(contentLength.trim());
+            return length >= 0 ? length : -1;
+        }
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return The start and total of a {@code Content-Range} header, the total being -1 if it is not known; or
+     * {@code null} if the header cannot be read.
+     */
+    static long[] parseContentRange(String contentRange) {
+        if (contentRange == null || !contentRange.startsWith("bytes ")) {
+            return null;
+        }
+        int dash = contentRange.indexOf('-'), slash = contentRange.indexOf('/');
+        try {
+            String total = contentRange.substring(slash + 1).trim();
+            return new long[] {Long.parseLong(contentRange.substring(6, dash).trim()),
+                    total.equals("*") ? -1 : Long.parseLong(total)};
+        }
+        catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static boolean isRetryable(int code) {
+        return code >= 500 || code == 408 || code == 429;
+    }
+
+    private static RequestException statusError(int code) {
+        return new RequestException("Could not download the archive. The server responded with status " + code + ".",
+                code);
+    }
+
+    private static RequestException sizeError(long size, long expected) {
+        return new RequestException("Could not download the archive. The file has " + size
+                + " bytes, but the archive has " + expected + ".");
+    }
+
+    /**
+     * @return The file a download to the target is written to until it is complete.
+     */
+    private static Path partOf(Path target) {
+        return target.resolveSibling(target.getFileName() + ".part");
+    }
+
+    /**
+     * @return The journal of the part file of a download to the target.
+     */
+    private static Path journalOf(Path target) {
+        return target.resolveSibling(target.getFileName() + ".part.journal");
+    }
+
+    /**
+     * @return The value for an {@code If-Range} header that resumes the file of a response only if it has not
+     * changed: its strong ETag, or else its modification date; {@code null} if it has neither.
+     */
+    private static String validatorOf(HttpHeaders headers) {
+        String etag = headers.get(HttpHeaderNames.ETAG);
+        if (etag != null && !etag.isEmpty() && !etag.startsWith("W/")) {
+            return etag;
+        }
+        String lastModified = headers.get(HttpHeaderNames.LAST_MODIFIED);
+        return lastModified != null && !lastModified.isEmpty() ? lastModified : null;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * What is known of a part file: the validator of the response it was downloaded from, the size of the file
+     * and, for a download in chunks, the chunks complete. A part file is only resumed if its journal is found and
+     * the server confirms, through {@code If-Range}, that the file has not changed since. A chunk is added to the
+     * journal only once it is on disk, so after a crash the journal never names a chunk that was not written.
+     */
+    private static class Journal {
+        final Path path;
+        final String validator;
+        // 0 for a download over one connection, whose part file is complete up to its length
+        final long size, chunkSize;
+        final BitSet complete = new BitSet();
+
+        Journal(Path path, String validator, long size, long chunkSize) {
+            this.path = path;
+            this.validator = validator;
+            this.size = size;
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * @return The journal, or {@code null} if it does not exist or cannot be read.
+         */
+        static Journal read(Path path) {
+            if (!Files.exists(path)) {
+                return null;
+            }
+            try {
+                String validator = null;
+                long size = 0, chunkSize = 0;
+                BitSet complete = new BitSet();
+                String[] lines = new String(Files.readAllBytes(path), StandardCharsets.UTF_8).split("\n", -1);
+                // The last line is either empty or was cut short before its end of line
+                for (String line : Arrays.copyOf(lines, lines.length - 1)) {
+                    int equals = line.indexOf('=');
+                    String key = equals > 0 ? line.substring(0, equals) : "", value = line.substring(equals + 1);
+                    if (key.equals("validator")) {
+                        validator = value;
+                    }
+                    else if (key.equals("size")) {
+                        size = Long.parseLong(value);
+                    }
+                    else if (key.equals("chunkSize")) {
+                        chunkSize = Long.parseLong(value);
+                    }
+                    else if (key.equals("chunk")) {
+                        complete.set(Integer.parseInt(value));
+                    }
+                }
+                if (validator == null || size <= 0 || chunkSize < 0) {
+                    return null;
+                }
+                Journal journal = new Journal(path, validator, size, chunkSize);
+                journal.complete.or(complete);
+                return journal;
+            }
+            catch (IOException | NumberFormatException e) {
+                return null;
+            }
+        }
+
+        /**
+         * @return The number of bytes at the start of the part file known to be complete.
+         */
+        long completeFrom(long partSize) {
+            long length = chunkSize == 0 ? size : Math.min(size, complete.nextClearBit(0) * chunkSize);
+            return Math.min(length, partSize);
+        }
+
+        /**
+         * Writes the journal, replacing any other.
+         */
+        void create() throws IOException {
+            StringBuilder lines = new StringBuilder("validator=").append(validator).append("\nsize=").append(size)
+                    .append("\nchunkSize=").append(chunkSize).append('\n');
+            for (int i = complete.nextSetBit(0); i >= 0; i = complete.nextSetBit(i + 1)) {
+                lines.append("chunk=").append(i).append('\n');
+            }
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temporary, lines.toString().getBytes(StandardCharsets.UTF_8));
+            move(temporary, path);
+        }
+
+        /**
+         * Records a chunk as complete. A line cut short by a crash has no end of line, and is ignored when the
+         * journal is read.
+         */
+        synchronized void complete(int chunk) throws IOException {
+            Files.write(path, ("chunk=" + chunk + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            complete.set(chunk);
+        }
+
+        static void delete(Path path) {
+            try {
+                Files.deleteIfExists(path);
+            }
+            catch (IOException e) {
+                // A journal left behind is replaced by the next download to the same target
+            }
+        }
+    }
+
+    /**
+     * One download, made of one request and as many resumed requests as interruptions.
+     */
+    private class Transfer implements AsyncHandler<Void> {
+        final String url;
+        final Path target, part, journalPath;
+        final ProgressListener listener;
+        final CompletableFuture<Path> future;
+        final long requested;
+        long expected, position, reported;
+        int attempts, code;
+        String validator;
+        FileChannel channel;
+        OpenTokException failure;
+        boolean retryable, satisfied;
+
+        Transfer(String url, long expected, Path target, ProgressListener listener, CompletableFuture<Path> future) {
+            this.url = url;
+            this.requested = expected;
+            this.expected = expected;
+            this.target = target;
+            this.part = partOf(target);
+            this.journalPath = journalOf(target);
+            this.listener = listener;
+            this.future = future;
+        }
+
+        void start() {
+            try {
+                channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                Journal journal = Journal.read(journalPath);
+                if (journal != null && (expected == 0 || journal.size == expected)) {
+                    validator = journal.validator;
+                    expected = journal.size;
+                    position = journal.completeFrom(channel.size());
+                }
+                else {
+                    // Not a part of this archive that can be resumed
+                    journal = null;
+                    position = 0;
+                    Journal.delete(journalPath);
+                }
+                channel.truncate(position);
+                reported = position;
+                if (journal != null && journal.chunkSize > 0) {
+                    // Left by a download in chunks; from now on the part file is complete up to its length
+                    new Journal(journalPath, validator, expected, 0).create();
+                }
+            }
+            catch (IOException e) {
+                fail(new RequestException("Could not open " + part + " for the download.", e));
+                return;
+            }
+            // Closing the file on cancellation aborts the request in flight at its next body part
+            future.whenComplete((result, error) -> closeQuietly());
+            send();
+        }
+
+        void send() {
+            failure = null;
+            retryable = true;
+            satisfied = false;
+            code = 0;
+            BoundRequestBuilder request = client.prepareGet(url);
+            try {
+                if (position > 0 && validator == null) {
+                    // Nothing tells whether the rest of the file would match, so it starts over
+                    channel.truncate(0);
+                    position = 0;
+                    reported = 0;
+                }
+                if (position > 0) {
+                    request.setHeader(HttpHeaderNames.RANGE, "bytes=" + position + "-")
+                           .setHeader(HttpHeaderNames.IF_RANGE, validator);
+                }
+                request.execute(this);
+            }
+            catch (IOException | RuntimeException e) {
+                fail(new RequestException("Could not download " + url + ".", e));
+            }
+        }
+
+        @Override
+        public State onStatusReceived(HttpResponseStatus status) throws IOException {
+            code = status.getStatusCode();
+            if (code == 200 && position > 0) {
+                // The server does not support ranges, or the file changed, so the download starts over
+                channel.truncate(0);
+                position = 0;
+                reported = 0;
+                expected = requested;
+            }
+            else if (code == 416 && position > 0) {
+                // Nothing is left to download; the size check tells whether the file is whole
+                satisfied = true;
+                return State.ABORT;
+            }
+            else if (code != 200 && code != 206) {
+                failure = statusError(code);
+                retryable = isRetryable(code);
+                return State.ABORT;
+            }
+            return State.CONTINUE;
+        }
+
+        @Override
+        public State onHeadersReceived(HttpHeaders headers) {
+            long[] range = parseContentRange(headers.get(HttpHeaderNames.CONTENT_RANGE));
+            long total = -1;
+            if (range != null) {
+                if (range[0] != position) {
+                    failure = new RequestException("Could not resume the download. The server sent bytes from "
+                            + range[0] + " instead of " + position + ".");
+                    retryable = false;
+                    return State.ABORT;
+                }
+                total = range[1];
+            }
+            else if (!headers.contains(HttpHeaderNames.CONTENT_RANGE)) {
+                long length = parseContentLength(headers.get(HttpHeaderNames.CONTENT_LENGTH));
+                if (length >= 0) {
+                    total = position + length;
+                }
+            }
+            if (total >= 0 && expected > 0 && total != expected) {
+                failure = sizeError(total, expected);
+                retryable = false;
+                return State.ABORT;
+            }
+            if (expected == 0 && total > 0) {
+                expected = total;
+            }
+            if (code == 200) {
+                // A new start: the part file is resumed later only against the file of this response
+                validator = validatorOf(headers);
+                try {
+                    if (validator != null && expected > 0) {
+                        new Journal(journalPath, validator, expected, 0).create();
+                    }
+                    else {
+                        Journal.delete(journalPath);
+                    }
+                }
+                catch (IOException e) {
+                    failure = new RequestException("Could not write " + journalPath + ".", e);
+                    retryable = false;
+                    return State.ABORT;
+                }
+            }
+            return State.CONTINUE;
+        }
+
+        @Override
+        public State onBodyPartReceived(HttpResponseBodyPart part) throws IOException {
+            if (future.isDone()) {
+                return State.ABORT;
+            }
+            ByteBuffer body = part.getBodyByteBuffer();
+            while (body.hasRemaining()) {
+                int written = channel.write(body, position);
+                position += written;
+                bytes.add(written);
+            }
+            if (listener != null && position - reported >= PROGRESS_STEP) {
+                reported = position;
+                listener.onProgress(position, expected);
+            }
+            return State.CONTINUE;
+        }
+
+        @Override
+        public void onThrowable(Throwable t) {
+            retry(new RequestException("Could not download " + url + ": " + t.getMessage(), t));
+        }
+
+        @Override
+        public Void onCompleted() {
+            if (failure != null) {
+                if (retryable) {
+                    retry(failure);
+                }
+                else {
+                    fail(failure);
+                }
+            }
+            else if (expected > 0 && position < expected && !satisfied) {
+                retry(new RequestException("Could not download the archive. The connection closed after "
+                        + position + " of " + expected + " bytes."));
+            }
+            else {
+                finish();
+            }
+            return null;
+        }
+
+        private void retry(OpenTokException error) {
+            if (future.isDone()) {
+                return;
+            }
+            if (attempts >= maxRetries) {
+                fail(error);
+                return;
+            }
+            long delay = retryDelayMillis << Math.min(attempts, 10);
+            attempts++;
+            retries.increment();
+            try {
+                retryExecutor.schedule(this::send, delay, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException e) {
+                fail(error);
+            }
+        }
+
+        private void finish() {
+            try {
+                long size = channel.size();
+                if (size > position) {
+                    // Left from an earlier, longer file
+                    channel.truncate(position);
+                    size = position;
+                }
+                if (expected > 0 && size != expected) {
+                    fail(sizeError(size, expected));
+                    return;
+                }
+                channel.force(false);
+                channel.close();
+                move(part, target);
+                Journal.delete(journalPath);
+            }
+            catch (IOException e) {
+                fail(new RequestException("Could not write " + target + ".", e));
+                return;
+            }
+            if (listener != null) {
+                listener.onProgress(position, expected);
+            }
+            future.complete(target);
+        }
+
+        private void fail(OpenTokException error) {
+            closeQuietly();
+            future.completeExceptionally(error);
+        }
+
+        private void closeQuietly() {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+            catch (IOException e) {
+                // Already failed
+            }
+        }
+    }
+
+    /**
+     * One download over several connections: a probe for the size and range support, then the chunks, each made
+     * of one request and as many resumed requests as interruptions.
+     */
+    private class RangedTransfer implements AsyncHandler<Void> {
+        final String url;
+        final Path target, part, journalPath;
+        final ProgressListener listener;
+        final CompletableFuture<Path> future;
+        final Queue<Chunk> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger remaining = new AtomicInteger();
+        final AtomicLong downloaded = new AtomicLong();
+        long expected, probedSize = -1;
+        volatile long reported;
+        String validator;
+        Journal journal;
+        FileChannel channel;
+
+        RangedTransfer(String url, long expected, Path target, ProgressListener listener,
+                CompletableFuture<Path> future) {
+            this.url = url;
+            this.expected = expected;
+            this.target = target;
+            this.part = partOf(target);
+            this.journalPath = journalOf(target);
+            this.listener = listener;
+            this.future = future;
+        }
+
+        void start() {
+            try {
+                client.prepareGet(url).setHeader(HttpHeaderNames.RANGE, "bytes=0-0").execute(this);
+            }
+            catch (RuntimeException e) {
+                future.completeExceptionally(new RequestException("Could not download " + url + ".", e));
+            }
+        }
+
+        @Override
+        public State onStatusReceived(HttpResponseStatus status) {
+            return status.getStatusCode() == 206 ? State.CONTINUE : State.ABORT;
+        }
+
+        @Override
+        public State onHeadersReceived(HttpHeaders headers) {
+            long[] range = parseContentRange(headers.get(HttpHeaderNames.CONTENT_RANGE));
+            if (range != null && range[0] == 0) {
+                probedSize = range[1];
+                validator = validatorOf(headers);
+            }
+            return State.ABORT;
+        }
+
+        @Override
+        public State onBodyPartReceived(HttpResponseBodyPart part) {
+            return State.ABORT;
+        }
+
+        @Override
+        public void onThrowable(Throwable t) {
+            // The single connection download retries on its own
+            probed();
+        }
+
+        @Override
+        public Void onCompleted() {
+            probed();
+            return null;
+        }
+
+        private void probed() {
+            if (future.isDone()) {
+                return;
+            }
+            if (probedSize > 0 && expected > 0 && probedSize != expected) {
+                future.completeExceptionally(sizeError(probedSize, expected));
+                return;
+            }
+            if (probedSize <= chunkSize || validator == null) {
+                // No ranges, an unknown size, a small file, or nothing to check chunks against
+                new Transfer(url, Math.max(expected, probedSize), target, listener, future).start();
+                return;
+            }
+            expected = probedSize;
+            Journal previous = Journal.read(journalPath);
+            long grid = chunkSize;
+            BitSet done = new BitSet();
+            try {
+                channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                long partSize = channel.size();
+                if (previous != null && previous.validator.equals(validator) && previous.size == expected) {
+                    if (previous.chunkSize > 0) {
+                        grid = previous.chunkSize;
+                        done.or(previous.complete);
+                    }
+                    else {
+                        // A part file written over one connection is complete up to its length
+                        done.set(0, (int) (partSize >= expected ? (expected + grid - 1) / grid : partSize / grid));
+                    }
+                }
+                else {
+                    channel.truncate(0);
+                    partSize = 0;
+                }
+                int count = (int) ((expected + grid - 1) / grid);
+                for (int i = done.nextSetBit(0); i >= 0; i = done.nextSetBit(i + 1)) {
+                    if (i >= count || Math.min((i + 1) * grid, expected) > partSize) {
+                        // Never written, whatever the journal says
+                        done.clear(i);
+                    }
+                }
+                journal = new Journal(journalPath, validator, expected, grid);
+                journal.complete.or(done);
+                journal.create();
+                if (partSize < expected) {
+                    // Pre-allocated, so that chunks can be written at their offsets in any order
+                    channel.write(ByteBuffer.allocate(1), expected - 1);
+                }
+                long complete = 0;
+                for (int i = 0; i < count; i++) {
+                    long start = i * grid, end = Math.min(start + grid, expected) - 1;
+                    if (done.get(i)) {
+                        complete += end + 1 - start;
+                    }
+                    else {
+                        pending.add(new Chunk(i, start, end));
+                    }
+                }
+                remaining.set(pending.size());
+                downloaded.set(complete);
+                reported = complete;
+            }
+            catch (IOException e) {
+                closeQuietly();
+                future.completeExceptionally(new RequestException("Could not open " + part + " for the download.", e));
+                return;
+            }
+            // The part file and its journal are kept for the next download to resume
+            future.whenComplete((result, error) -> closeQuietly());
+            if (pending.isEmpty()) {
+                finish();
+                return;
+            }
+            for (int i = 0; i < connections; i++) {
+                next();
+            }
+        }
+
+        private void next() {
+            Chunk chunk = pending.poll();
+            if (chunk != null && !future.isDone()) {
+                chunk.send();
+            }
+        }
+
+        private void progress(long written) {
+            long total = downloaded.addAndGet(written);
+            if (listener != null && total - reported >= PROGRESS_STEP) {
+                synchronized (this) {
+                    if (total - reported >= PROGRESS_STEP) {
+                        reported = total;
+                        listener.onProgress(total, expected);
+                    }
+                }
+            }
+        }
+
+        private void finish() {
+            try {
+                channel.force(false);
+                channel.close();
+                move(part, target);
+                Journal.delete(journalPath);
+            }
+            catch (IOException e) {
+                future.completeExceptionally(new RequestException("Could not write " + target + ".", e));
+                return;
+            }
+            if (listener != null) {
+                synchronized (this) {
+                    listener.onProgress(expected, expected);
+                }
+            }
+            future.complete(target);
+        }
+
+        private void closeQuietly() {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+            catch (IOException e) {
+                // Already failed
+            }
+        }
+
+        private class Chunk implements AsyncHandler<Void> {
+            final int index;
+            final long start, end;
+            long position;
+            int attempts;
+            OpenTokException failure;
+            boolean retryable;
+
+            Chunk(int index, long start, long end) {
+                this.index = index;
+                this.start = start;
+                this.end = end;
+                this.position = start;
+            }
+
+            void send() {
+                failure = null;
+                retryable = true;
+                try {
+                    client.prepareGet(url)
+                            .setHeader(HttpHeaderNames.RANGE, "bytes=" + position + "-" + end)
+                            .setHeader(HttpHeaderNames.IF_RANGE, validator)
+                            .execute(this);
+                }
+                catch (RuntimeException e) {
+                    future.completeExceptionally(new RequestException("Could not download " + url + ".", e));
+                }
+            }
+
+            @Override
+            public State onStatusReceived(HttpResponseStatus status) {
+                int code = status.getStatusCode();
+                if (code != 206) {
+                    failure = code == 200
+                            ? new RequestException("Could not download the archive. The server sent the whole file "
+                                    + "for a range, so it changed during the download or stopped honoring ranges.")
+                            : statusError(code);
+                    retryable = isRetryable(code);
+                    return State.ABORT;
+                }
+                return State.CONTINUE;
+            }
+
+            @Override
+            public State onHeadersReceived(HttpHeaders headers) {
+                long[] range = parseContentRange(headers.get(HttpHeaderNames.CONTENT_RANGE));
+                if (range == null || range[0] != position || (range[1] >= 0 && range[1] != expected)) {
+                    failure = new RequestException("Could not download the archive. The server sent "
+                            + headers.get(HttpHeaderNames.CONTENT_RANGE) + " for bytes " + position + "-" + end + ".");
+                    retryable = false;
+                    return State.ABORT;
+                }
+                return State.CONTINUE;
+            }
+
+            @Override
+            public State onBodyPartReceived(HttpResponseBodyPart part) throws IOException {
+                if (future.isDone()) {
+                    return State.ABORT;
+                }
+                ByteBuffer body = part.getBodyByteBuffer();
+                if (body.remaining() > end + 1 - position) {
+                    body.limit(body.position() + (int) (end + 1 - position));
+                }
+                long written = 0;
+                while (body.hasRemaining()) {
+                    int count = channel.write(body, position);
+                    position += count;
+                    written += count;
+                }
+                bytes.add(written);
+                progress(written);
+                return State.CONTINUE;
+            }
+
+            @Override
+            public void onThrowable(Throwable t) {
+                retry(new RequestException("Could not download " + url + ": " + t.getMessage(), t));
+            }
+
+            @Override
+            public Void onCompleted() {
+                if (failure != null) {
+                    if (retryable) {
+                        retry(failure);
+                    }
+                    else {
+                        future.completeExceptionally(failure);
+                    }
+                    return null;
+                }
+                if (position <= end) {
+                    retry(new RequestException("Could not download the archive. The connection closed after "
+                            + (position - start) + " of " + (end + 1 - start) + " bytes of a chunk."));
+                    return null;
+                }
+                try {
+                    // The chunk is on disk before the journal says so
+                    channel.force(false);
+                    journal.complete(index);
+                }
+                catch (IOException e) {
+                    future.completeExceptionally(new RequestException("Could not write " + part + ".", e));
+                    return null;
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    finish();
+                }
+                else {
+                    next();
+                }
+                return null;
+            }
+
+            private void retry(OpenTokException error) {
+                if (future.isDone()) {
+                    return;
+                }
+                if (attempts >= maxRetries) {
+                    future.completeExceptionally(error);
+                    return;
+                }
+                long delay = retryDelayMillis << Math.min(attempts, 10);
+                attempts++;
+                retries.increment();
+                try {
+                    retryExecutor.schedule(this::send, delay, TimeUnit.MILLISECONDS);
+                }
+                catch (RejectedExecutionException e) {
+                    future.completeExceptionally(error);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of bytes downloaded, over all downloads.
+     */
+    public long getBytesDownloaded() {
+        return bytes.sum();
+    }
+
+    /**
+     * @return The number of times downloads, or chunks of parallel downloads, were resumed after an interruption.
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Stops the downloader. Downloads in progress fail.
+     */
+    @Override
+    public void close() {
+        retryExecutor.shutdownNow();
+        try {
+            client.close();
+        }
+        catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+
+    /**
+     * Used to create an ArchiveDownloader object.
+     */
+    public static class Builder {
+        private int maxRetries = 5, connections = 1;
+        private long retryDelayMillis = 1000, readTimeoutMillis = 60_000, chunkSize = 16 * 1024 * 1024;
+
+        /**
+         * Sets how many connections each download uses at once. Above 1, files larger than a chunk are downloaded
+         * in chunks over that many connections. The default is 1.
+         */
+        public Builder connections(int connections) throws InvalidArgumentException {
+            if (connections < 1) {
+                throw new InvalidArgumentException("The number of connections must be positive.");
+            }
+            this.connections = connections;
+            return this;
+        }
+
+        /**
+         * Sets the size of the chunks of downloads over several connections. The default is 16 mebibytes.
+         */
+        public Builder chunkSize(long chunkSize) throws InvalidArgumentException {
+            if (chunkSize <= 0) {
+                throw new InvalidArgumentException("The chunk size must be positive.");
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets how many times a download, or each chunk of a parallel download, is resumed after an interruption
+         * before it fails. The default is 5.
+         */
+        public Builder maxRetries(int maxRetries) throws InvalidArgumentException {
+            if (maxRetries < 0) {
+                throw new InvalidArgumentException("The maximum number of retries must not be negative.");
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the delay before the first resumption; it doubles with each one after. The default is 1 second.
+         */
+        public Builder retryDelay(long delay, TimeUnit unit) throws InvalidArgumentException {
+            if (delay < 0 || unit == null) {
+                throw new InvalidArgumentException("The retry delay must not be negative.");
+            }
+            this.retryDelayMillis = unit.toMillis(delay);
+            return this;
+        }
+
+        /**
+         * Sets how long the download waits for data before it is treated as interrupted. The default is 60 seconds.
+         */
+        public Builder readTimeout(long timeout, TimeUnit unit) throws InvalidArgumentException {
+            if (timeout <= 0 || unit == null || unit.toMillis(timeout) > Integer.MAX_VALUE) {
+                throw new InvalidArgumentException("The read timeout must be positive.");
+            }
+            this.readTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Builds the ArchiveDownloader object.
+         *
+         * @return The ArchiveDownloader object.
+         */
+        public ArchiveDownloader build() {
+            return new ArchiveDownloader(this);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.callback.ArchiveEvent;
+import com.opentok.callback.CallbackEvent;
+import com.opentok.callback.CallbackListener;
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.RequestException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Waits for many archives to reach a final status, such as {@link Archive.Status#AVAILABLE} or
+ * {@link Archive.Status#UPLOADED} after {@link OpenTok#stopArchive(String)}, without a polling loop per archive:
+ *
+ * <pre>
+ * ArchiveWatcher watcher = new ArchiveWatcher.Builder(opentok).build();
+ * ...
+ * watcher.watch(opentok.stopArchive(archiveId)).thenAccept(archive -&gt; download(archive.getUrl()));
+ * </pre>
+ *
+ * The archives watched are grouped by session, and a session with several of them is polled with one call to
+ * {@link OpenTok#listArchives(String)}. Each archive is polled less often the longer its recording is, since
+ * long recordings take longer to process, and the longer it has been watched. Register the watcher as a
+ * listener of a {@link com.opentok.callback.CallbackReceiver}, or pass it the events your own endpoint parses,
+ * and archive callbacks complete the archives they report without waiting for the next poll.
+ * <p>
+ * Call {@link #close()} to stop the polling; archives still watched are then cancelled.
+ */
+public class ArchiveWatcher implements CallbackListener, AutoCloseable {
+    private static final EnumSet<Archive.Status> FINAL_STATUSES = EnumSet.of(Archive.Status.AVAILABLE,
+            Archive.Status.UPLOADED, Archive.Status.FAILED, Archive.Status.DELETED, Archive.Status.EXPIRED);
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final OpenTok opentok;
+    private final long minIntervalNanos, maxIntervalNanos;
+    private final ConcurrentHashMap<String, Watch> watches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Group> groups = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService pollExecutor;
+    private final LongAdder polls = new LongAdder(), pollFailures = new LongAdder(), completedByCallback = new LongAdder();
+    private volatile boolean closed;
+
+    private static class Watch {
+        final String archiveId, sessionId;
+        final CompletableFuture<Archive> future = new CompletableFuture<>();
+        final long watchedAt = System.nanoTime();
+        volatile long dueAt;
+
+        Watch(String archiveId, String sessionId) {
+            this.archiveId = archiveId;
+            this.sessionId = sessionId;
+        }
+    }
+
+    /**
+     * The archives watched in one session, which are polled together.
+     */
+    private static class Group {
+        final Map<String, Watch> watches = new ConcurrentHashMap<>(4);
+        final AtomicBoolean polling = new AtomicBoolean();
+    }
+
+    private ArchiveWatcher(Builder builder) {
+        opentok = builder.opentok;
+        minIntervalNanos = builder.minIntervalNanos;
+        maxIntervalNanos = builder.maxIntervalNanos;
+        int id = INSTANCES.incrementAndGet();
+        AtomicInteger threads = new AtomicInteger();
+        pollExecutor = Executors.newScheduledThreadPool(builder.pollThreads, runnable -> {
+            Thread thread = new Thread(runnable, "opentok-archive-watcher-" + id + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tick = Math.max(TimeUnit.MILLISECONDS.toNanos(10), minIntervalNanos / 4);
+        pollExecutor.scheduleWithFixedDelay(this::pollDue, tick, tick, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Watches an archive until it reaches a final status: {@link Archive.Status#AVAILABLE},
+     * {@link Archive.Status#UPLOADED}, {@link Archive.Status#FAILED}, {@link Archive.Status#DELETED} or
+     * {@link Archive.Status#EXPIRED}. Watching an archive again returns the same future.
+     *
+     * @param archive The archive, as returned by {@link OpenTok#stopArchive(String)} or
+     * {@link OpenTok#getArchive(String)}.
+     *
+     * @return A future completed with the archive in its final status, or completed exceptionally with a
+     * {@link RequestException} if the archive is not found. Cancelling it stops watching the archive.
+     */
+    public CompletableFuture<Archive> watch(Archive archive) throws InvalidArgumentException {
+        if (archive == null || archive.getId() == null || archive.getSessionId() == null) {
+            throw new InvalidArgumentException("The archive ID and session ID are required.");
+        }
+        if (isFinal(archive)) {
+            return CompletableFuture.completedFuture(archive);
+        }
+        long now = System.nanoTime();
+        Watch watch = watches.computeIfAbsent(archive.getId(), archiveId -> {
+            Watch added = new Watch(archiveId, archive.getSessionId());
+            added.dueAt = now + delayNanos(added, archive, now);
+            return added;
+        });
+        groups.compute(watch.sessionId, (sessionId, group) -> {
+            Group _group = group != null ? group : new Group();
+            if (!watch.future.isDone()) {
+                _group.watches.put(watch.archiveId, watch);
+            }
+            return _group.watches.isEmpty() ? null : _group;
+        });
+        watch.future.whenComplete((result, error) -> forget(watch));
+        if (closed) {
+            watch.future.cancel(false);
+        }
+        return watch.future;
+    }
+
+    /**
+     * Completes the archives reported in a final status by archive callbacks. Other events are ignored.
+     *
+     * @param event The event.
+     */
+    @Override
+    public void onEvent(CallbackEvent event) {
+        if (!(event instanceof ArchiveEvent)) {
+            return;
+        }
+        Archive archive = ((ArchiveEvent) event).getArchive();
+        Watch watch = archive != null && archive.getId() != null ? watches.get(archive.getId()) : null;
+        if (watch == null) {
+            return;
+        }
+        if (isFinal(archive)) {
+            if (watch.future.complete(archive)) {
+                completedByCallback.increment();
+            }
+        }
+        else {
+            long now = System.nanoTime();
+            watch.dueAt = now + delayNanos(watch, archive, now);
+        }
+    }
+
+    private void forget(Watch watch) {
+        watches.remove(watch.archiveId, watch);
+        groups.computeIfPresent(watch.sessionId, (sessionId, group) -> {
+            group.watches.remove(watch.archiveId, watch);
+            return group.watches.isEmpty() ? null : group;
+        });
+    }
+
+    private void pollDue() {
+        long now = System.nanoTime();
+        groups.forEach((sessionId, group) -> {
+            if (closed || group.polling.get()) {
+                return;
+            }
+            for (Watch watch : group.watches.values()) {
+                if (now - watch.dueAt >= 0) {
+                    if (group.polling.compareAndSet(false, true)) {
+                        try {
+                            pollExecutor.execute(() -> poll(sessionId, group));
+                        }
+                        catch (RejectedExecutionException e) {
+                            // Closed
+                        }
+                    }
+                    return;
+                }
+            }
+        });
+    }
+
+    private void poll(String sessionId, Group group) {
+        try {
+            List<Watch> pending = new ArrayList<>(group.watches.values());
+            Map<String, Archive> listed = new HashMap<>();
+            if (pending.size() > 1) {
+                // One call covers every archive of the session, unless it has more than 1000
+                try {
+                    polls.increment();
+                    CallOptions.BACKGROUND.call(() -> opentok.listArchives(sessionId))
+                            .forEach(archive -> listed.put(archive.getId(), archive));
+                }
+                catch (RuntimeException e) {
+                    pollFailures.increment();
+                    long now = System.nanoTime();
+                    pending.forEach(watch -> watch.dueAt = now + delayNanos(watch, null, now));
+                    return;
+                }
+            }
+            for (Watch watch : pending) {
+                if (closed || watch.future.isDone()) {
+                    continue;
+                }
+                Archive archive = listed.get(watch.archiveId);
+                if (archive == null) {
+                    try {
+                        polls.increment();
+                        archive = CallOptions.BACKGROUND.call(() -> opentok.getArchive(watch.archiveId));
+                    }
+                    catch (RequestException e) {
+                        pollFailures.increment();
+                        if (e.getStatusCode() == 404) {
+                            watch.future.completeExceptionally(e);
+                        }
+                    }
+                    catch (RuntimeException e) {
+                        pollFailures.increment();
+                    }
+                }
+                long now = System.nanoTime();
+                if (archive != null && isFinal(archive)) {
+                    watch.future.complete(archive);
+                }
+                else {
+                    watch.dueAt = now + delayNanos(watch, archive, now);
+                }
+            }
+        }
+        finally {
+            group.polling.set(false);
+        }
+    }
+
+    private long delayNanos(Watch watch, Archive archive, long now) {
+        if (archive != null && (archive.getStatus() == Archive.Status.STARTED
+                || archive.getStatus() == Archive.Status.PAUSED)) {
+            // Still recording, so it will not be ready before it is stopped
+            return maxIntervalNanos;
+        }
+        long byDuration = archive != null ? TimeUnit.SECONDS.toNanos(archive.getDuration()) / 20 : 0;
+        long byAge = (now - watch.watchedAt) / 4;
+        return Math.min(maxIntervalNanos, Math.max(minIntervalNanos, Math.max(byDuration, byAge)));
+    }
+
+    private static boolean isFinal(Archive archive) {
+        return archive.getStatus() != null && FINAL_STATUSES.contains(archive.getStatus());
+    }
+
+    /**
+     * @return The number of archives watched.
+     */
+    public int getWatchedCount() {
+        return watches.size();
+    }
+
+    /**
+     * @return The number of calls made to poll archives.
+     */
+    public long getPolls() {
+        return polls.sum();
+    }
+
+    /**
+     * @return The number of polling calls that failed.
+     */
+    public long getPollFailures() {
+        return pollFailures.sum();
+    }
+
+    /**
+     * @return The number of archives completed by callbacks rather than by polling.
+     */
+    public long getCompletedByCallback() {
+        return completedByCallback.sum();
+    }
+
+    /**
+     * Stops the polling and cancels the futures of the archives still watched. This does not close the
+     * OpenTok object.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pollExecutor.shutdownNow();
+        new ArrayList<>(watches.values()).forEach(watch -> watch.future.cancel(false));
+    }
+
+    /**
+     * Used to create an ArchiveWatcher object.
+     */
+    public static class Builder {
+        private final OpenTok opentok;
+        private long minIntervalNanos = TimeUnit.SECONDS.toNanos(1), maxIntervalNanos = TimeUnit.SECONDS.toNanos(30);
+        private int pollThreads = 2;
+
+        /**
+         * @param opentok The OpenTok object used to poll the archives.
+         */
+        public Builder(OpenTok opentok) {
+            this.opentok = Objects.requireNonNull(opentok, "OpenTok is required.");
+        }
+
+        /**
+         * Sets the bounds of the time between two polls of an archive. The defaults are 1 second and 30 seconds.
+         * Archives still being recorded are polled at the longest interval.
+         */
+        public Builder pollInterval(long min, long max, TimeUnit unit) throws InvalidArgumentException {
+            if (min <= 0 || max < min || unit == null) {
+                throw new InvalidArgumentException("The poll intervals must be positive, and min must not exceed max.");
+            }
+            this.minIntervalNanos = unit.toNanos(min);
+            this.maxIntervalNanos = unit.toNanos(max);
+            return this;
+        }
+
+        /**
+         * Sets the number of threads polling sessions at the same time. The default is 2.
+         */
+        public Builder pollThreads(int pollThreads) throws InvalidArgumentException {
+            if (pollThreads < 1) {
+                throw new InvalidArgumentException("The number of poll threads must be at least 1.");
+            }
+            this.pollThreads = pollThreads;
+            return this;
+        }
+
+        /**
+         * Builds the ArchiveWatcher object.
+         *
+         * @return The ArchiveWatcher object.
+         */
+        public ArchiveWatcher build() {
+            return new ArchiveWatcher(this);
+        }
+    }
+}
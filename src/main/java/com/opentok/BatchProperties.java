@@ -0,0 +1,114 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.exception.InvalidArgumentException;
+
+/**
+ * Defines values for the <code>properties</code> parameter of the bulk moderation methods, such as
+ * {@link OpenTok#forceDisconnect(String, java.util.Collection, BatchProperties)} and
+ * {@link OpenTok#forceMuteStreams(String, java.util.Collection, BatchProperties)}.
+ */
+public class BatchProperties {
+    private final int maxConcurrency, maxRetries;
+    private final long retryBackoffMillis;
+
+    private BatchProperties(Builder builder) {
+        maxConcurrency = builder.maxConcurrency;
+        maxRetries = builder.maxRetries;
+        retryBackoffMillis = builder.retryBackoffMillis;
+    }
+
+    /**
+     * Use this class to create a BatchProperties object.
+     *
+     * @see BatchProperties
+     */
+    public static class Builder {
+        private int maxConcurrency = OpenTok.DEFAULT_BATCH_CONCURRENCY, maxRetries = 2;
+        private long retryBackoffMillis = 250;
+
+        /**
+         * Sets the maximum number of calls in flight at a time. The default is 16.
+         *
+         * @param maxConcurrency The maximum number of concurrent calls (at least 1).
+         *
+         * @return The BatchProperties.Builder object with the concurrency setting.
+         */
+        public Builder maxConcurrency(int maxConcurrency) throws InvalidArgumentException {
+            if (maxConcurrency < 1) {
+                throw new InvalidArgumentException("maxConcurrency must be at least 1");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets how many times a call is retried when it is rate limited (HTTP 429), fails with a server
+         * error (HTTP 5xx) or gets no response. Other errors, such as a client that is not connected, are
+         * not retried. The default is 2.
+         *
+         * @param maxRetries The maximum number of retries per ID (0 to disable retries).
+         *
+         * @return The BatchProperties.Builder object with the retry setting.
+         */
+        public Builder maxRetries(int maxRetries) throws InvalidArgumentException {
+            if (maxRetries < 0) {
+                throw new InvalidArgumentException("maxRetries must not be negative");
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the delay before the first retry, in milliseconds. The delay doubles with each further
+         * retry, with random jitter. The default is 250.
+         *
+         * @param retryBackoffMillis The initial retry delay.
+         *
+         * @return The BatchProperties.Builder object with the retry delay setting.
+         */
+        public Builder retryBackoff(long retryBackoffMillis) throws InvalidArgumentException {
+            if (retryBackoffMillis < 0) {
+                throw new InvalidArgumentException("retryBackoff must not be negative");
+            }
+            this.retryBackoffMillis = retryBackoffMillis;
+            return this;
+        }
+
+        /**
+         * Builds the BatchProperties object.
+         *
+         * @return The BatchProperties object.
+         */
+        public BatchProperties build() {
+            return new BatchProperties(this);
+        }
+    }
+
+    /**
+     * Returns the maximum number of calls in flight at a time.
+     */
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Returns the maximum number of retries per ID.
+     */
+    public int maxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Returns the delay before the first retry, in milliseconds.
+     */
+    public long retryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+}
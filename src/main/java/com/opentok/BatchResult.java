@@ -0,0 +1,62 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.exception.RequestException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of a call made for many targets at once, such as
+ * {@link OpenTok#signal(String, Map, int)}. Every target is attempted; the failure of one
+ * does not stop the others.
+ */
+public class BatchResult {
+    private final List<String> succeeded;
+    private final Map<String, RequestException> failures;
+
+    /**
+     * Constructor. Do not use.
+     */
+    public BatchResult(List<String> succeeded, Map<String, RequestException> failures) {
+        this.succeeded = Collections.unmodifiableList(succeeded);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return The IDs (for example, connection IDs) for which the call succeeded, in the order they were given.
+     */
+    public List<String> getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * The IDs for which the call failed, in the order they were given, mapped to the error. Call
+     * {@link RequestException#getStatusCode()} to tell the cause apart, for example 404 when a
+     * client is not connected to the session or 413 when a signal is too large.
+     *
+     * @return The failures.
+     */
+    public Map<String, RequestException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return Whether the call succeeded for every ID.
+     */
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{succeeded=" + succeeded.size() + ", failed=" + failures.keySet() + "}";
+    }
+}
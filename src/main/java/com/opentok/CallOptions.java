@@ -0,0 +1,220 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.exception.InvalidArgumentException;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Defines a deadline, a cancellation token and a priority for calls to the OpenTok REST API. The options
+ * apply to every call made by the OpenTok object within {@link OpenTok#withOptions(CallOptions, Supplier)},
+ * including calls retried internally and the several calls some methods make, so the deadline bounds the
+ * whole operation rather than each HTTP request:
+ *
+ * <pre>
+ * CallOptions options = new CallOptions.Builder().timeout(300, TimeUnit.MILLISECONDS).build();
+ * Archive archive = opentok.withOptions(options, () -&gt; opentok.getArchive(archiveId));
+ * </pre>
+ *
+ * A call that is still waiting to be sent or in flight when the deadline passes fails with a
+ * {@link com.opentok.exception.RequestException} that wraps a {@link java.util.concurrent.TimeoutException}.
+ * The deadline never extends the request timeout set with {@link OpenTok.Builder#requestTimeout(int)}.
+ * <p>
+ * When options are used within the scope of other options, the earlier deadline applies, and the
+ * cancellation token and priority of the inner options apply when they are set.
+ */
+public class CallOptions {
+    private static final ThreadLocal<CallOptions> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Options for background work, such as polling, reconciling and refilling pools, that no caller waits for:
+     * {@link RequestPriority#BULK} priority and no deadline, so that when a request scheduler is set such calls
+     * wait behind the calls of your application.
+     */
+    public static final CallOptions BACKGROUND = new Builder().priority(RequestPriority.BULK).build();
+
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+    private final CancellationToken cancellationToken;
+    private final RequestPriority priority;
+
+    private CallOptions(boolean hasDeadline, long deadlineNanos, CancellationToken cancellationToken,
+            RequestPriority priority) {
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+        this.cancellationToken = cancellationToken;
+        this.priority = priority;
+    }
+
+    /**
+     * Use this class to create a CallOptions object.
+     *
+     * @see CallOptions
+     */
+    public static class Builder {
+        private boolean hasDeadline;
+        private long deadlineNanos;
+        private CancellationToken cancellationToken;
+        private RequestPriority priority;
+
+        /**
+         * Sets the deadline to the given time from now.
+         *
+         * @param timeout The time the calls may take.
+         * @param unit The unit of the timeout.
+         *
+         * @return The CallOptions.Builder object with the deadline.
+         */
+        public Builder timeout(long timeout, TimeUnit unit) throws InvalidArgumentException {
+            if (timeout < 0 || unit == null) {
+                throw new InvalidArgumentException("Timeout must not be negative");
+            }
+            hasDeadline = true;
+            deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * Sets the deadline to an absolute time, for example the deadline of the request your application
+         * is handling.
+         *
+         * @param deadline The time by which the calls must complete.
+         *
+         * @return The CallOptions.Builder object with the deadline.
+         */
+        public Builder deadline(Instant deadline) throws InvalidArgumentException {
+            if (deadline == null) {
+                throw new InvalidArgumentException("Deadline must not be null");
+            }
+            long millis = deadline.toEpochMilli() - System.currentTimeMillis();
+            hasDeadline = true;
+            deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+            return this;
+        }
+
+        /**
+         * Sets the token that cancels the calls.
+         *
+         * @param cancellationToken The cancellation token.
+         *
+         * @return The CallOptions.Builder object with the cancellation token.
+         */
+        public Builder cancellationToken(CancellationToken cancellationToken) {
+            this.cancellationToken = cancellationToken;
+            return this;
+        }
+
+        /**
+         * Sets the priority of the calls, instead of the priority of their endpoints. The priority only
+         * matters when a scheduler is set with {@link OpenTok.Builder#requestScheduler(SchedulerProperties)}.
+         *
+         * @param priority The priority.
+         *
+         * @return The CallOptions.Builder object with the priority.
+         */
+        public Builder priority(RequestPriority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Builds the CallOptions object.
+         *
+         * @return The CallOptions object.
+         */
+        public CallOptions build() {
+            return new CallOptions(hasDeadline, deadlineNanos, cancellationToken, priority);
+        }
+    }
+
+    /**
+     * Returns the options in effect on the current thread, or {@code null} if there are none.
+     */
+    public static CallOptions current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the operation with these options in effect on the current thread, combined with the options
+     * already in effect. {@link OpenTok#withOptions(CallOptions, Supplier)} calls this.
+     *
+     * @param operation The operation.
+     *
+     * @return The result of the operation.
+     */
+    public <T> T call(Supplier<T> operation) {
+        CallOptions outer = CURRENT.get();
+        CURRENT.set(outer != null ? within(outer) : this);
+        try {
+            return operation.get();
+        }
+        finally {
+            if (outer != null) {
+                CURRENT.set(outer);
+            }
+            else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    private CallOptions within(CallOptions outer) {
+        boolean deadline = hasDeadline || outer.hasDeadline;
+        long nanos = !outer.hasDeadline || (hasDeadline && deadlineNanos - outer.deadlineNanos < 0)
+                ? deadlineNanos : outer.deadlineNanos;
+        return new CallOptions(deadline, nanos,
+                cancellationToken != null ? cancellationToken : outer.cancellationToken,
+                priority != null ? priority : outer.priority);
+    }
+
+    /**
+     * Returns whether a deadline is set.
+     */
+    public boolean hasDeadline() {
+        return hasDeadline;
+    }
+
+    /**
+     * Returns the time left until the deadline in milliseconds, which is negative once it has passed,
+     * or {@link Long#MAX_VALUE} if no deadline is set.
+     */
+    public long remainingMillis() {
+        return hasDeadline ? TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns whether the deadline has passed.
+     */
+    public boolean isExpired() {
+        return hasDeadline && deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Returns the cancellation token, or {@code null} if none is set.
+     */
+    public CancellationToken cancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * Returns whether the cancellation token is set and cancelled.
+     */
+    public boolean isCancelled() {
+        return cancellationToken != null && cancellationToken.isCancelled();
+    }
+
+    /**
+     * Returns the priority, or {@code null} to use the priority of each endpoint.
+     */
+    public RequestPriority priority() {
+        return priority;
+    }
+}
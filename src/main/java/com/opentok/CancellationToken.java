@@ -0,0 +1,80 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cancels the calls to the OpenTok REST API made with the {@link CallOptions} that carry this token.
+ * Calls waiting to be sent are dropped, and calls in flight are aborted, closing their connection.
+ * A call that is cancelled fails with a {@link com.opentok.exception.RequestException}.
+ * <p>
+ * A token can only be cancelled once; calls made with a token that is already cancelled fail without
+ * being sent. One token may be shared by many calls, for example all the calls made to handle one
+ * incoming request of your application.
+ */
+public class CancellationToken {
+    private final Set<Runnable> listeners = new HashSet<>();
+    private volatile boolean cancelled;
+
+    /**
+     * Cancels the calls made with this token. Calling this more than once has no further effect.
+     */
+    public void cancel() {
+        List<Runnable> toRun;
+        synchronized (listeners) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toRun = new ArrayList<>(listeners);
+            listeners.clear();
+        }
+        for (Runnable listener : toRun) {
+            listener.run();
+        }
+    }
+
+    /**
+     * @return Whether {@link #cancel()} has been called.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Registers a listener run by {@link #cancel()}, or straight away if the token is already cancelled.
+     * Do not use. This method is used by the SDK to abort calls in flight.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(Runnable listener) {
+        synchronized (listeners) {
+            if (!cancelled) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    /**
+     * Removes a listener added with {@link #addListener(Runnable)}, once the call it aborts has completed.
+     * Do not use. This method is used by the SDK.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(Runnable listener) {
+        synchronized (listeners) {
+            listeners.remove(listener);
+        }
+    }
+}
@@ -38,7 +38,7 @@ public class Connection {
         }
     }
 
-    @JsonProperty private String connectionId;
+    @JsonProperty @JsonAlias("id") private String connectionId;
     @JsonProperty private long createdAt;
     @JsonProperty private ConnectionState connectionState;
 
@@ -0,0 +1,445 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.RequestException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces the layout changes made many times a second, for example by active speaker detection, into a few
+ * calls. The changes to each target (the stream layouts of a session, the layout of an archive or of a
+ * broadcast) are buffered for a short window and then sent as one update. Stream layout changes are merged
+ * stream by stream, the last change to each stream winning; archive and broadcast layout changes replace each
+ * other, the last one winning.
+ * <p>
+ * Each target has at most one update in flight. Changes made while an update is in flight are sent in the
+ * next one, so the last change made to a target is always the last one applied:
+ *
+ * <pre>
+ * LayoutCoalescer layouts = new LayoutCoalescer.Builder(opentok)
+ *     .window(200, TimeUnit.MILLISECONDS)
+ *     .streamLayoutManager(new StreamLayoutManager(opentok))
+ *     .build();
+ * layouts.setStreamLayouts(sessionId, speakerLayout);
+ * </pre>
+ *
+ * The futures returned complete when the update holding the change is applied, on the coalescer's threads,
+ * so callbacks attached to them must not block. An update that fails with a server error (5xx), a 408 or 429
+ * response or no response at all is put back under the changes made since and sent again, with exponential
+ * backoff; the futures only fail when the server rejects the update with another status, or when the coalescer
+ * is closed. {@link #close()} sends the changes still buffered.
+ */
+public class LayoutCoalescer implements AutoCloseable {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+    private static final long RETRY_BACKOFF_MS = 100, MAX_RETRY_BACKOFF_MS = 30_000;
+
+    private final OpenTok opentok;
+    private final StreamLayoutManager streamLayoutManager;
+    private final long windowNanos;
+    private final ConcurrentHashMap<String, Target<?>> targets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    private final LongAdder changes = new LongAdder(), updates = new LongAdder(), failedUpdates = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * The changes buffered for one target. Guarded by itself; lock the target map entry first when both are locked.
+     */
+    private abstract class Target<T> implements Runnable {
+        final String key;
+        T pending;
+        List<CompletableFuture<Void>> waiting = new ArrayList<>(1);
+        boolean scheduled, inFlight;
+        int failures;
+
+        Target(String key) {
+            this.key = key;
+        }
+
+        abstract T merge(T pending, T change);
+
+        abstract void send(T update);
+
+        void add(T change, CompletableFuture<Void> future) {
+            if (!scheduled && !inFlight) {
+                // Scheduled first, so a change is only buffered if it will be sent
+                executor.schedule(this, windowNanos, TimeUnit.NANOSECONDS);
+                scheduled = true;
+            }
+            pending = pending == null ? change : merge(pending, change);
+            waiting.add(future);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                T update;
+                List<CompletableFuture<Void>> futures;
+                synchronized (this) {
+                    scheduled = false;
+                    update = pending;
+                    futures = waiting;
+                    pending = null;
+                    waiting = new ArrayList<>(1);
+                    inFlight = update != null;
+                }
+                if (update == null) {
+                    break;
+                }
+                RuntimeException error = null;
+                try {
+                    send(update);
+                    updates.increment();
+                }
+                catch (RuntimeException e) {
+                    failedUpdates.increment();
+                    error = e;
+                }
+                if (error != null && isRetryable(error) && retry(update, futures)) {
+                    return;
+                }
+                synchronized (this) {
+                    failures = 0;
+                }
+                for (CompletableFuture<Void> future : futures) {
+                    if (error == null) {
+                        future.complete(null);
+                    }
+                    else {
+                        future.completeExceptionally(error);
+                    }
+                }
+                synchronized (this) {
+                    inFlight = false;
+                    if (pending == null) {
+                        break;
+                    }
+                    if (!closed) {
+                        // Changed while in flight: the next update waits a window too, to gather more changes
+                        scheduled = true;
+                        executor.schedule(this, windowNanos, TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                }
+            }
+            targets.computeIfPresent(key, (k, target) -> {
+                synchronized (target) {
+                    return target == this && pending == null && !scheduled && !inFlight ? null : target;
+                }
+            });
+        }
+
+        /**
+         * Puts a failed update back, under the changes made while it was in flight, and schedules it again.
+         *
+         * @return Whether the update will be sent again, false if the coalescer is closed.
+         */
+        private synchronized boolean retry(T update, List<CompletableFuture<Void>> futures) {
+            if (closed) {
+                return false;
+            }
+            long delay = Math.min(RETRY_BACKOFF_MS << Math.min(failures, 16), MAX_RETRY_BACKOFF_MS);
+            delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+            try {
+                executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException e) {
+                return false;
+            }
+            failures++;
+            pending = pending == null ? update : merge(update, pending);
+            futures.addAll(waiting);
+            waiting = futures;
+            inFlight = false;
+            scheduled = true;
+            return true;
+        }
+    }
+
+    private static boolean isRetryable(RuntimeException e) {
+        if (!(e instanceof RequestException)) {
+            return false;
+        }
+        int status = ((RequestException) e).getStatusCode();
+        return status >= 500 || status == 408 || status == 429 || (status == 0 && e.getCause() != null);
+    }
+
+    private class StreamLayoutsTarget extends Target<Map<String, StreamProperties>> {
+        final String sessionId;
+
+        StreamLayoutsTarget(String sessionId) {
+            super("session/" + sessionId);
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        Map<String, StreamProperties> merge(Map<String, StreamProperties> pending, Map<String, StreamProperties> change) {
+            pending.putAll(change);
+            return pending;
+        }
+
+        @Override
+        void send(Map<String, StreamProperties> update) {
+            StreamListProperties.Builder properties = new StreamListProperties.Builder();
+            update.values().forEach(properties::addStreamProperties);
+            if (streamLayoutManager != null) {
+                streamLayoutManager.setStreamLayouts(sessionId, properties.build());
+            }
+            else {
+                opentok.setStreamLayouts(sessionId, properties.build());
+            }
+        }
+    }
+
+    private class ArchiveLayoutTarget extends Target<ArchiveProperties> {
+        final String archiveId;
+
+        ArchiveLayoutTarget(String archiveId) {
+            super("archive/" + archiveId);
+            this.archiveId = archiveId;
+        }
+
+        @Override
+        ArchiveProperties merge(ArchiveProperties pending, ArchiveProperties change) {
+            return change;
+        }
+
+        @Override
+        void send(ArchiveProperties update) {
+            opentok.setArchiveLayout(archiveId, update);
+        }
+    }
+
+    private class BroadcastLayoutTarget extends Target<BroadcastProperties> {
+        final String broadcastId;
+
+        BroadcastLayoutTarget(String broadcastId) {
+            super("broadcast/" + broadcastId);
+            this.broadcastId = broadcastId;
+        }
+
+        @Override
+        BroadcastProperties merge(BroadcastProperties pending, BroadcastProperties change) {
+            return change;
+        }
+
+        @Override
+        void send(BroadcastProperties update) {
+            opentok.setBroadcastLayout(broadcastId, update);
+        }
+    }
+
+    private LayoutCoalescer(Builder builder) {
+        opentok = builder.opentok;
+        streamLayoutManager = builder.streamLayoutManager;
+        windowNanos = builder.windowNanos;
+        int id = INSTANCES.incrementAndGet();
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(builder.threads, runnable -> {
+            Thread thread = new Thread(runnable, "opentok-layout-coalescer-" + id + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Changes the layout class lists of streams in a session, as
+     * {@link OpenTok#setStreamLayouts(String, StreamListProperties)} does. The change is merged with the other
+     * changes to the session's streams made within the window.
+     *
+     * @param sessionId The session ID of the session the streams belong to.
+     * @param properties The class lists of the streams.
+     *
+     * @return A future completed when the change is applied.
+     *
+     * @throws RequestException If the coalescer is closed.
+     */
+    public CompletableFuture<Void> setStreamLayouts(String sessionId, StreamListProperties properties)
+            throws RequestException {
+        if (sessionId == null || sessionId.isEmpty() || properties == null) {
+            throw new InvalidArgumentException("SessionId is not valid or properties are null");
+        }
+        Map<String, StreamProperties> change = new LinkedHashMap<>();
+        properties.getStreamList().forEach(stream -> change.put(stream.id(), stream));
+        return submit("session/" + sessionId, () -> new StreamLayoutsTarget(sessionId), change);
+    }
+
+    /**
+     * Changes the layout of a composed archive, as {@link OpenTok#setArchiveLayout(String, ArchiveProperties)}
+     * does. Only the last change made within the window is sent.
+     *
+     * @param archiveId The archive ID.
+     * @param properties The ArchiveProperties object defining the archive layout.
+     *
+     * @return A future completed when the change is applied, or replaced by a later change that is.
+     *
+     * @throws RequestException If the coalescer is closed.
+     */
+    public CompletableFuture<Void> setArchiveLayout(String archiveId, ArchiveProperties properties)
+            throws RequestException {
+        if (archiveId == null || archiveId.isEmpty() || properties == null) {
+            throw new InvalidArgumentException("ArchiveId is not valid or properties are null");
+        }
+        return submit("archive/" + archiveId, () -> new ArchiveLayoutTarget(archiveId), properties);
+    }
+
+    /**
+     * Changes the layout of a broadcast, as {@link OpenTok#setBroadcastLayout(String, BroadcastProperties)}
+     * does. Only the last change made within the window is sent.
+     *
+     * @param broadcastId The broadcast ID.
+     * @param properties The BroadcastProperties object defining the broadcast layout.
+     *
+     * @return A future completed when the change is applied, or replaced by a later change that is.
+     *
+     * @throws RequestException If the coalescer is closed.
+     */
+    public CompletableFuture<Void> setBroadcastLayout(String broadcastId, BroadcastProperties properties)
+            throws RequestException {
+        if (broadcastId == null || broadcastId.isEmpty() || properties == null) {
+            throw new InvalidArgumentException("BroadcastId is not valid or properties are null");
+        }
+        return submit("broadcast/" + broadcastId, () -> new BroadcastLayoutTarget(broadcastId), properties);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<Void> submit(String key, Supplier<Target<T>> create, T change) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            targets.compute(key, (k, target) -> {
+                Target<T> _target = target != null ? (Target<T>) target : create.get();
+                synchronized (_target) {
+                    if (closed) {
+                        throw new RejectedExecutionException();
+                    }
+                    _target.add(change, future);
+                }
+                return _target;
+            });
+        }
+        catch (RejectedExecutionException e) {
+            throw new RequestException("Could not change the layout. The coalescer is closed.");
+        }
+        changes.increment();
+        return future;
+    }
+
+    /**
+     * @return The number of layout changes made.
+     */
+    public long getChanges() {
+        return changes.sum();
+    }
+
+    /**
+     * @return The number of updates sent for those changes.
+     */
+    public long getUpdates() {
+        return updates.sum();
+    }
+
+    /**
+     * @return The number of times an update failed, counting each failed attempt of an update sent again.
+     */
+    public long getFailedUpdates() {
+        return failedUpdates.sum();
+    }
+
+    /**
+     * Stops accepting changes and waits up to 30 seconds for the changes still buffered to be sent.
+     */
+    @Override
+    public void close() {
+        close(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops accepting changes and waits up to the given time for the changes still buffered to be sent. Updates
+     * that fail after the coalescer is closed are not sent again.
+     *
+     * @param timeout The time to wait.
+     * @param unit The unit of the timeout.
+     *
+     * @return Whether every change was sent in time.
+     */
+    public boolean close(long timeout, TimeUnit unit) {
+        closed = true;
+        // Updates already scheduled still run after the shutdown, and send what changed while they were in flight
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout, unit);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Used to create a LayoutCoalescer object.
+     */
+    public static class Builder {
+        private final OpenTok opentok;
+        private StreamLayoutManager streamLayoutManager;
+        private long windowNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        private int threads = 2;
+
+        /**
+         * @param opentok The OpenTok object used to set the layouts.
+         */
+        public Builder(OpenTok opentok) {
+            this.opentok = Objects.requireNonNull(opentok, "OpenTok is required.");
+        }
+
+        /**
+         * Sets how long changes to a target are buffered before they are sent. The default is 100 milliseconds.
+         */
+        public Builder window(long window, TimeUnit unit) throws InvalidArgumentException {
+            if (window < 0 || unit == null) {
+                throw new InvalidArgumentException("The window must not be negative.");
+            }
+            this.windowNanos = unit.toNanos(window);
+            return this;
+        }
+
+        /**
+         * Sends stream layout changes through a {@link StreamLayoutManager}, so that only the streams whose
+         * classes changed are sent. By default they are sent with {@link OpenTok#setStreamLayouts}.
+         */
+        public Builder streamLayoutManager(StreamLayoutManager streamLayoutManager) {
+            this.streamLayoutManager = streamLayoutManager;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads sending updates, which is the number of targets updated at the same time.
+         * The default is 2.
+         */
+        public Builder threads(int threads) throws InvalidArgumentException {
+            if (threads < 1) {
+                throw new InvalidArgumentException("The number of threads must be at least 1.");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Builds the LayoutCoalescer object.
+         *
+         * @return The LayoutCoalescer object.
+         */
+        public LayoutCoalescer build() {
+            return new LayoutCoalescer(this);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+/**
+ * A change in the state of a broadcast or an Experience Composer seen by a {@link LifecycleWatcher}.
+ * For a broadcast, a change of its HLS status or of the status of any of its RTMP streams is a change of
+ * state too, even when {@link Broadcast#getStatus()} stays the same.
+ */
+public class LifecycleEvent {
+
+    /**
+     * Enumerates the kinds of objects watched.
+     */
+    public enum Type {
+        /**
+         * A live streaming broadcast.
+         */
+        BROADCAST,
+        /**
+         * An Experience Composer.
+         */
+        RENDER
+    }
+
+    private final Type type;
+    private final String id;
+    private final String sessionId;
+    private final Object previous;
+    private final Object current;
+    private final boolean terminal;
+
+    LifecycleEvent(Type type, String id, String sessionId, Object previous, Object current, boolean terminal) {
+        this.type = type;
+        this.id = id;
+        this.sessionId = sessionId;
+        this.previous = previous;
+        this.current = current;
+        this.terminal = terminal;
+    }
+
+    /**
+     * @return Whether a broadcast or an Experience Composer changed.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The broadcast or Experience Composer ID.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return The session ID.
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * @return The status before the change, such as "started", or {@code null} if it was not known.
+     */
+    public String getPreviousStatus() {
+        return LifecycleWatcher.statusOf(previous);
+    }
+
+    /**
+     * @return The status after the change, such as "stopped".
+     */
+    public String getStatus() {
+        return LifecycleWatcher.statusOf(current);
+    }
+
+    /**
+     * @return Whether the new status is final, in which case the object is no longer watched.
+     */
+    public boolean isTerminal() {
+        return terminal;
+    }
+
+    /**
+     * @return The broadcast after the change, or {@code null} if this is not a broadcast event.
+     */
+    public Broadcast getBroadcast() {
+        return current instanceof Broadcast ? (Broadcast) current : null;
+    }
+
+    /**
+     * @return The broadcast before the change, or {@code null} if this is not a broadcast event or the
+     * broadcast was not known before.
+     */
+    public Broadcast getPreviousBroadcast() {
+        return previous instanceof Broadcast ? (Broadcast) previous : null;
+    }
+
+    /**
+     * @return The Experience Composer after the change, or {@code null} if this is not a render event.
+     */
+    public Render getRender() {
+        return current instanceof Render ? (Render) current : null;
+    }
+
+    /**
+     * @return The Experience Composer before the change, or {@code null} if this is not a render event or
+     * the Experience Composer was not known before.
+     */
+    public Render getPreviousRender() {
+        return previous instanceof Render ? (Render) previous : null;
+    }
+}
@@ -0,0 +1,439 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.callback.BroadcastEvent;
+import com.opentok.callback.CallbackEvent;
+import com.opentok.callback.CallbackListener;
+import com.opentok.callback.RenderEvent;
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.RequestException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Watches live streaming broadcasts and Experience Composers through their lifecycle, and tells listeners
+ * about each change of state, so that many threads do not each poll {@link OpenTok#getBroadcast(String)} or
+ * {@link OpenTok#getRender(String)}:
+ *
+ * <pre>
+ * LifecycleWatcher watcher = new LifecycleWatcher.Builder(opentok).build();
+ * watcher.addListener(event -&gt; log(event.getId() + ": " + event.getPreviousStatus() + " -&gt; " + event.getStatus()));
+ * watcher.watchBroadcast(opentok.startBroadcast(sessionId, properties));
+ * </pre>
+ *
+ * Every object watched is polled on one small pool of timer threads. An object is polled often right after it
+ * changes, and less and less often while it stays the same; the intervals are jittered so that objects watched
+ * together do not keep polling together. An object stops being watched when it reaches a final status: "stopped"
+ * or "failed" for a broadcast, {@link RenderStatus#STOPPED} or {@link RenderStatus#FAILED} for an Experience
+ * Composer. Register the watcher as a listener of a {@link com.opentok.callback.CallbackReceiver}, or pass it the
+ * events your own endpoint parses, and status callbacks are applied without waiting for the next poll.
+ * <p>
+ * Listeners are called on the timer threads, one event at a time for each object, and should return quickly.
+ * Call {@link #close()} to stop watching; the futures of the objects still watched are then cancelled.
+ */
+public class LifecycleWatcher implements CallbackListener, AutoCloseable {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final OpenTok opentok;
+    private final long minIntervalNanos, maxIntervalNanos;
+    private final ConcurrentHashMap<String, Watch<?>> watches = new ConcurrentHashMap<>();
+    private final List<Consumer<? super LifecycleEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService timer;
+    private final LongAdder polls = new LongAdder(), pollFailures = new LongAdder(), listenerErrors = new LongAdder();
+    private volatile boolean closed;
+
+    private class Watch<T> implements Runnable {
+        final LifecycleEvent.Type type;
+        final String id;
+        final Supplier<T> fetch;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T last;
+        String lastState;
+        long intervalNanos = minIntervalNanos;
+        ScheduledFuture<?> next;
+
+        Watch(LifecycleEvent.Type type, String id, Supplier<T> fetch) {
+            this.type = type;
+            this.id = id;
+            this.fetch = fetch;
+        }
+
+        @Override
+        public void run() {
+            T value;
+            try {
+                polls.increment();
+                value = CallOptions.BACKGROUND.call(fetch);
+            }
+            catch (RequestException e) {
+                pollFailures.increment();
+                if (e.getStatusCode() == 404) {
+                    future.completeExceptionally(e);
+                }
+                else {
+                    backOff();
+                }
+                return;
+            }
+            catch (RuntimeException e) {
+                pollFailures.increment();
+                backOff();
+                return;
+            }
+            update(value, false);
+        }
+
+        synchronized void update(T value, boolean fromCallback) {
+            if (future.isDone()) {
+                return;
+            }
+            String state = stateOf(value);
+            boolean terminal = isTerminal(value);
+            if (fromCallback && !terminal && last != null && Objects.equals(statusOf(value), statusOf(last))) {
+                // Callbacks carry less detail than the REST API, so only their main status is trusted
+                return;
+            }
+            if (!state.equals(lastState)) {
+                if (lastState != null || fromCallback) {
+                    fire(new LifecycleEvent(type, id, sessionIdOf(value), last, value, terminal));
+                }
+                // Changes tend to come in runs, such as a broadcast going live and then each RTMP stream
+                intervalNanos = minIntervalNanos;
+            }
+            else {
+                intervalNanos = Math.min(maxIntervalNanos, intervalNanos + intervalNanos / 2);
+            }
+            last = value;
+            lastState = state;
+            if (terminal) {
+                future.complete(value);
+            }
+            else {
+                schedule();
+            }
+        }
+
+        synchronized void backOff() {
+            if (future.isDone() || closed) {
+                // Stopped while the poll was in flight
+                return;
+            }
+            intervalNanos = Math.min(maxIntervalNanos, intervalNanos * 2);
+            schedule();
+        }
+
+        private void schedule() {
+            if (next != null) {
+                next.cancel(false);
+            }
+            // +/- 10% so that objects watched together spread out
+            long delay = (long) (intervalNanos * ThreadLocalRandom.current().nextDouble(0.9, 1.1));
+            try {
+                next = timer.schedule(this, delay, TimeUnit.NANOSECONDS);
+            }
+            catch (RejectedExecutionException e) {
+                // Closed
+            }
+        }
+
+        synchronized void stop() {
+            watches.remove(id, this);
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+    }
+
+    private LifecycleWatcher(Builder builder) {
+        opentok = builder.opentok;
+        minIntervalNanos = builder.minIntervalNanos;
+        maxIntervalNanos = builder.maxIntervalNanos;
+        int id = INSTANCES.incrementAndGet();
+        AtomicInteger threads = new AtomicInteger();
+        timer = Executors.newScheduledThreadPool(builder.timerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "opentok-lifecycle-watcher-" + id + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a listener for the changes of state of every object watched.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(Consumer<? super LifecycleEvent> listener) {
+        listeners.add(Objects.requireNonNull(listener, "The listener is required."));
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(Consumer<? super LifecycleEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Watches a broadcast until it stops, starting from its state when this is called.
+     *
+     * @param broadcastId The broadcast ID.
+     *
+     * @return A future completed with the broadcast in its final status, or completed exceptionally with a
+     * {@link RequestException} if the broadcast is not found. Cancelling it stops watching the broadcast.
+     */
+    public CompletableFuture<Broadcast> watchBroadcast(String broadcastId) throws InvalidArgumentException {
+        return watch(LifecycleEvent.Type.BROADCAST, broadcastId, null, () -> opentok.getBroadcast(broadcastId));
+    }
+
+    /**
+     * Watches a broadcast until it stops, starting from the given state.
+     *
+     * @param broadcast The broadcast, as returned by {@link OpenTok#startBroadcast(String, BroadcastProperties)}.
+     *
+     * @return A future completed with the broadcast in its final status, or completed exceptionally with a
+     * {@link RequestException} if the broadcast is not found. Cancelling it stops watching the broadcast.
+     */
+    public CompletableFuture<Broadcast> watchBroadcast(Broadcast broadcast) throws InvalidArgumentException {
+        String broadcastId = broadcast != null ? broadcast.getId() : null;
+        return watch(LifecycleEvent.Type.BROADCAST, broadcastId, broadcast, () -> opentok.getBroadcast(broadcastId));
+    }
+
+    /**
+     * Watches an Experience Composer until it stops or fails, starting from its state when this is called.
+     *
+     * @param renderId The Experience Composer ID.
+     *
+     * @return A future completed with the Experience Composer in its final status, or completed exceptionally
+     * with a {@link RequestException} if it is not found. Cancelling it stops watching the Experience Composer.
+     */
+    public CompletableFuture<Render> watchRender(String renderId) throws InvalidArgumentException {
+        return watch(LifecycleEvent.Type.RENDER, renderId, null, () -> opentok.getRender(renderId));
+    }
+
+    /**
+     * Watches an Experience Composer until it stops or fails, starting from the given state.
+     *
+     * @param render The Experience Composer, as returned by {@link OpenTok#startRender(String, String, RenderProperties)}.
+     *
+     * @return A future completed with the Experience Composer in its final status, or completed exceptionally
+     * with a {@link RequestException} if it is not found. Cancelling it stops watching the Experience Composer.
+     */
+    public CompletableFuture<Render> watchRender(Render render) throws InvalidArgumentException {
+        String renderId = render != null ? render.getId() : null;
+        return watch(LifecycleEvent.Type.RENDER, renderId, render, () -> opentok.getRender(renderId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> watch(LifecycleEvent.Type type, String id, T initial, Supplier<T> fetch) {
+        if (id == null || id.isEmpty()) {
+            throw new InvalidArgumentException("The ID is required.");
+        }
+        if (initial != null && isTerminal(initial)) {
+            return CompletableFuture.completedFuture(initial);
+        }
+        boolean[] added = new boolean[1];
+        Watch<?> watch = watches.computeIfAbsent(id, key -> {
+            added[0] = true;
+            return new Watch<>(type, id, fetch);
+        });
+        if (watch.type != type) {
+            throw new InvalidArgumentException("The ID is already watched as a " + watch.type.name().toLowerCase() + ".");
+        }
+        Watch<T> _watch = (Watch<T>) watch;
+        if (added[0]) {
+            _watch.future.whenComplete((result, error) -> _watch.stop());
+            synchronized (_watch) {
+                if (initial != null) {
+                    _watch.last = initial;
+                    _watch.lastState = stateOf(initial);
+                    _watch.schedule();
+                }
+                else {
+                    // The first poll only learns the state to compare the next ones with
+                    try {
+                        _watch.next = timer.schedule(_watch, 0, TimeUnit.NANOSECONDS);
+                    }
+                    catch (RejectedExecutionException e) {
+                        // Closed
+                    }
+                }
+            }
+            if (closed) {
+                _watch.future.cancel(false);
+            }
+        }
+        return _watch.future;
+    }
+
+    /**
+     * Applies broadcast and Experience Composer status callbacks to the objects watched. Other events are
+     * ignored.
+     *
+     * @param event The event.
+     */
+    @Override
+    public void onEvent(CallbackEvent event) {
+        if (event instanceof BroadcastEvent) {
+            apply(LifecycleEvent.Type.BROADCAST, ((BroadcastEvent) event).getBroadcast());
+        }
+        else if (event instanceof RenderEvent) {
+            apply(LifecycleEvent.Type.RENDER, ((RenderEvent) event).getRender());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void apply(LifecycleEvent.Type type, T value) {
+        String id = value instanceof Broadcast ? ((Broadcast) value).getId()
+                : value instanceof Render ? ((Render) value).getId() : null;
+        Watch<?> watch = id != null ? watches.get(id) : null;
+        if (watch != null && watch.type == type && statusOf(value) != null) {
+            ((Watch<T>) watch).update(value, true);
+        }
+    }
+
+    private void fire(LifecycleEvent event) {
+        for (Consumer<? super LifecycleEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            }
+            catch (RuntimeException e) {
+                listenerErrors.increment();
+            }
+        }
+    }
+
+    static String statusOf(Object value) {
+        if (value instanceof Broadcast) {
+            return ((Broadcast) value).getStatus();
+        }
+        if (value instanceof Render) {
+            RenderStatus status = ((Render) value).getStatus();
+            return status != null ? status.toString() : null;
+        }
+        return null;
+    }
+
+    private static String sessionIdOf(Object value) {
+        return value instanceof Broadcast ? ((Broadcast) value).getSessionId() : ((Render) value).getSessionId();
+    }
+
+    private static boolean isTerminal(Object value) {
+        String status = statusOf(value);
+        return "stopped".equals(status) || "failed".equals(status);
+    }
+
+    /**
+     * The state compared between polls: the status, and for a broadcast the HLS and RTMP stream statuses.
+     */
+    private static String stateOf(Object value) {
+        StringBuilder state = new StringBuilder(String.valueOf(statusOf(value)));
+        if (value instanceof Broadcast) {
+            Broadcast broadcast = (Broadcast) value;
+            state.append("|hls=").append(broadcast.getHlsStatus());
+            for (Rtmp rtmp : broadcast.getRtmpList()) {
+                state.append("|").append(rtmp.getId()).append("=").append(rtmp.getStatus());
+            }
+        }
+        return state.toString();
+    }
+
+    /**
+     * @return The number of broadcasts and Experience Composers watched.
+     */
+    public int getWatchedCount() {
+        return watches.size();
+    }
+
+    /**
+     * @return The number of calls made to poll broadcasts and Experience Composers.
+     */
+    public long getPolls() {
+        return polls.sum();
+    }
+
+    /**
+     * @return The number of polling calls that failed.
+     */
+    public long getPollFailures() {
+        return pollFailures.sum();
+    }
+
+    /**
+     * @return The number of exceptions thrown by listeners.
+     */
+    public long getListenerErrors() {
+        return listenerErrors.sum();
+    }
+
+    /**
+     * Stops watching and cancels the futures of the objects still watched. This does not close the OpenTok
+     * object.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        timer.shutdownNow();
+        new ArrayList<>(watches.values()).forEach(watch -> watch.future.cancel(false));
+    }
+
+    /**
+     * Used to create a LifecycleWatcher object.
+     */
+    public static class Builder {
+        private final OpenTok opentok;
+        private long minIntervalNanos = TimeUnit.SECONDS.toNanos(1), maxIntervalNanos = TimeUnit.SECONDS.toNanos(30);
+        private int timerThreads = 1;
+
+        /**
+         * @param opentok The OpenTok object used to poll broadcasts and Experience Composers.
+         */
+        public Builder(OpenTok opentok) {
+            this.opentok = Objects.requireNonNull(opentok, "OpenTok is required.");
+        }
+
+        /**
+         * Sets the bounds of the time between two polls of an object. The defaults are 1 second and 30 seconds.
+         */
+        public Builder pollInterval(long min, long max, TimeUnit unit) throws InvalidArgumentException {
+            if (min <= 0 || max < min || unit == null) {
+                throw new InvalidArgumentException("The poll intervals must be positive, and min must not exceed max.");
+            }
+            this.minIntervalNanos = unit.toNanos(min);
+            this.maxIntervalNanos = unit.toNanos(max);
+            return this;
+        }
+
+        /**
+         * Sets the number of timer threads the polls run on. The default is 1.
+         */
+        public Builder timerThreads(int timerThreads) throws InvalidArgumentException {
+            if (timerThreads < 1) {
+                throw new InvalidArgumentException("The number of timer threads must be at least 1.");
+            }
+            this.timerThreads = timerThreads;
+            return this;
+        }
+
+        /**
+         * Builds the LifecycleWatcher object.
+         *
+         * @return The LifecycleWatcher object.
+         */
+        public LifecycleWatcher build() {
+            return new LifecycleWatcher(this);
+        }
+    }
+}
@@ -15,6 +15,8 @@ import com.opentok.constants.DefaultUserAgent;
 import com.opentok.exception.InvalidArgumentException;
 import com.opentok.exception.OpenTokException;
 import com.opentok.exception.RequestException;
+import com.opentok.util.BatchRunner;
+import com.opentok.util.CallDeduplicator;
 import com.opentok.util.Crypto;
 import com.opentok.util.HttpClient;
 import com.opentok.util.HttpClient.ProxyAuthScheme;
@@ -22,11 +24,20 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 /**
  * Contains methods for creating OpenTok sessions, generating tokens, and working with archives.
@@ -43,6 +54,16 @@ public class OpenTok {
     private final String apiSecret, applicationId;
     private final Path privateKeyPath;
     protected HttpClient client;
+    private CallDeduplicator startDeduplicator;
+
+    static final int DEFAULT_BATCH_CONCURRENCY = 16;
+    private static final int WARM_UP_CYCLES = 16;
+    private static final String WARM_UP_ARCHIVE = "{\"id\":\"warm-up\",\"sessionId\":\"warm-up\",\"name\":\"warm-up\","
+            + "\"status\":\"available\",\"outputMode\":\"composed\",\"createdAt\":0,\"duration\":0,\"size\":0,"
+            + "\"hasAudio\":true,\"hasVideo\":true}",
+        WARM_UP_ARCHIVE_LIST = "{\"count\":1,\"items\":[" + WARM_UP_ARCHIVE + "]}",
+        WARM_UP_SESSION = "[{\"session_id\":\"warm-up\",\"project_id\":\"0\",\"create_dt\":\"\","
+            + "\"media_server_url\":\"\"}]";
 
     protected static final ObjectReader
         archiveReader = new ObjectMapper().readerFor(Archive.class),
@@ -359,6 +380,58 @@ public class OpenTok {
         client.signal(sessionId, connectionId, props);
     }
 
+    /**
+     * Sends a signal to each of many clients connected to a session, with up to 16 signals in flight at a time.
+     *
+     * @param sessionId The session ID.
+     * @param signals The signal to send to each client, keyed by connection ID.
+     *
+     * @return The outcome for each connection.
+     *
+     * @see #signal(String, Map, int)
+     */
+    public BatchResult signal(String sessionId, Map<String, SignalProperties> signals) throws OpenTokException {
+        return signal(sessionId, signals, DEFAULT_BATCH_CONCURRENCY);
+    }
+
+    /**
+     * Sends a signal to each of many clients connected to a session. The signals are sent concurrently over
+     * the client's pooled connections, with at most <code>maxConcurrency</code> in flight, and the order in
+     * which clients receive them is not defined. A failed signal does not stop the others: the result maps
+     * each connection ID to success or to its error, for example a {@link RequestException} with status code
+     * 404 when the client is not connected or 413 when the signal is too large.
+     *
+     * <p>
+     * For more information, see the
+     * <a href="https://tokbox.com/developer/guides/signaling/">Signaling developer guide</a>.
+     *
+     * @param sessionId The session ID.
+     * @param signals The signal to send to each client, keyed by connection ID.
+     * @param maxConcurrency The maximum number of signals in flight at a time.
+     *
+     * @return The outcome for each connection.
+     */
+    public BatchResult signal(String sessionId, Map<String, SignalProperties> signals, int maxConcurrency) throws OpenTokException {
+        if (sessionId == null || sessionId.isEmpty()) {
+            throw new InvalidArgumentException("Session string null or empty");
+        }
+        if (signals == null) {
+            throw new InvalidArgumentException("Signals must not be null");
+        }
+        if (maxConcurrency < 1) {
+            throw new InvalidArgumentException("maxConcurrency must be at least 1");
+        }
+        Map<String, SignalProperties> _signals = new LinkedHashMap<>(signals);
+        for (String connectionId : _signals.keySet()) {
+            if (connectionId == null || connectionId.isEmpty()) {
+                throw new InvalidArgumentException("Connection string null or empty");
+            }
+        }
+        return awaitBatch(BatchRunner.run(_signals.keySet(),
+                connectionId -> client.signalAsync(sessionId, connectionId, _signals.get(connectionId)),
+                maxConcurrency), "Could not send signals.");
+    }
+
     /**
      * Gets an {@link Archive} object for the given archive ID.
      *
@@ -464,12 +537,16 @@ public class OpenTok {
         if (sessionId == null || sessionId.isEmpty()) {
             throw new InvalidArgumentException("Session not valid");
         }
-        boolean hasResolution = properties != null && properties.resolution() != null && !properties.resolution().isEmpty();
-        if (properties != null && properties.outputMode().equals(Archive.OutputMode.INDIVIDUAL) && hasResolution) {
-            throw new InvalidArgumentException("The resolution cannot be specified for individual output mode.");
-        }
         // TODO: do validation on sessionId and name
-        String archive = client.startArchive(sessionId, properties);
+        if (startDeduplicator != null) {
+            String tag = properties != null ? properties.getMultiArchiveTag() : null;
+            return startDeduplicator.call(Arrays.asList("archive", sessionId, tag),
+                    () -> readArchive(client.startArchive(sessionId, properties)));
+        }
+        return readArchive(client.startArchive(sessionId, properties));
+    }
+
+    private static Archive readArchive(String archive) throws RequestException {
         try {
             return archiveReader.readValue(archive);
         } catch (Exception e) {
@@ -596,8 +673,14 @@ public class OpenTok {
         if (StringUtils.isEmpty(sessionId) || properties == null) {
             throw new InvalidArgumentException("Session not valid or broadcast properties is null");
         }
+        if (startDeduplicator != null) {
+            return startDeduplicator.call(Arrays.asList("broadcast", sessionId, properties.getMultiBroadcastTag()),
+                    () -> readBroadcast(client.startBroadcast(sessionId, properties)));
+        }
+        return readBroadcast(client.startBroadcast(sessionId, properties));
+    }
 
-        String broadcast = client.startBroadcast(sessionId, properties);
+    private static Broadcast readBroadcast(String broadcast) throws RequestException {
         try {
             return broadcastReader.readValue(broadcast);
         } catch (Exception e) {
@@ -737,6 +820,73 @@ public class OpenTok {
         client.forceDisconnect(sessionId, connectionId);
     }
 
+    /**
+     * Disconnects many clients from a session at once, with the default {@link BatchProperties}.
+     *
+     * @param sessionId The session ID.
+     * @param connectionIds The connection IDs of the clients to disconnect.
+     *
+     * @return The outcome for each connection.
+     *
+     * @see #forceDisconnect(String, Collection, BatchProperties)
+     */
+    public BatchResult forceDisconnect(String sessionId, Collection<String> connectionIds) throws OpenTokException {
+        return forceDisconnect(sessionId, connectionIds, new BatchProperties.Builder().build());
+    }
+
+    /**
+     * Disconnects many clients from a session at once. The calls run concurrently, up to the limit set in
+     * <code>properties</code>, and calls that are rate limited or fail with a server error are retried.
+     * A failure does not stop the other calls: the result maps each connection ID to success or to its error,
+     * for example a {@link RequestException} with status code 404 when the client is not connected.
+     *
+     * @param sessionId The session ID.
+     * @param connectionIds The connection IDs of the clients to disconnect.
+     * @param properties The concurrency and retry settings.
+     *
+     * @return The outcome for each connection.
+     */
+    public BatchResult forceDisconnect(String sessionId, Collection<String> connectionIds, BatchProperties properties)
+            throws OpenTokException {
+        validateBatch(sessionId, connectionIds, properties, "Connection");
+        return awaitBatch(BatchRunner.run(connectionIds,
+                connectionId -> client.retrying(() -> client.forceDisconnectAsync(sessionId, connectionId),
+                        properties.maxRetries(), properties.retryBackoffMillis()),
+                properties.maxConcurrency()), "Could not force disconnect.");
+    }
+
+    /**
+     * Disconnects every client connected to a session, with the default {@link BatchProperties}.
+     *
+     * @param sessionId The session ID.
+     *
+     * @return The outcome for each connection.
+     *
+     * @see #forceDisconnectAll(String, BatchProperties)
+     */
+    public BatchResult forceDisconnectAll(String sessionId) throws OpenTokException {
+        return forceDisconnectAll(sessionId, new BatchProperties.Builder().build());
+    }
+
+    /**
+     * Disconnects every client connected to a session. The connections are listed with
+     * {@link #listConnections(String)} and then disconnected as
+     * {@link #forceDisconnect(String, Collection, BatchProperties)} does. Clients that connect after the
+     * connections are listed are not disconnected.
+     *
+     * @param sessionId The session ID.
+     * @param properties The concurrency and retry settings.
+     *
+     * @return The outcome for each connection.
+     */
+    public BatchResult forceDisconnectAll(String sessionId, BatchProperties properties) throws OpenTokException {
+        List<String> connectionIds = new ArrayList<>();
+        for (Connection connection : listConnections(sessionId)) {
+            connectionIds.add(connection.getConnectionId());
+        }
+        return forceDisconnect(sessionId, connectionIds, properties);
+    }
+
     /**
      * Force the publisher of a specific stream to mute its audio.
      * <p>
@@ -756,6 +906,43 @@ public class OpenTok {
         client.forceMuteStream(sessionId, streamId);
     }
 
+    /**
+     * Forces the publishers of many streams in a session to mute their audio, with the default
+     * {@link BatchProperties}.
+     *
+     * @param sessionId The session ID.
+     * @param streamIds The IDs of the streams to mute.
+     *
+     * @return The outcome for each stream.
+     *
+     * @see #forceMuteStreams(String, Collection, BatchProperties)
+     */
+    public BatchResult forceMuteStreams(String sessionId, Collection<String> streamIds) throws OpenTokException {
+        return forceMuteStreams(sessionId, streamIds, new BatchProperties.Builder().build());
+    }
+
+    /**
+     * Forces the publishers of many streams in a session to mute their audio. Unlike
+     * {@link #forceMuteAll(String, MuteAllProperties)}, only the given streams are muted and streams
+     * published later are not affected. The calls run concurrently, up to the limit set in
+     * <code>properties</code>, and calls that are rate limited or fail with a server error are retried.
+     * A failure does not stop the other calls: the result maps each stream ID to success or to its error.
+     *
+     * @param sessionId The session ID.
+     * @param streamIds The IDs of the streams to mute.
+     * @param properties The concurrency and retry settings.
+     *
+     * @return The outcome for each stream.
+     */
+    public BatchResult forceMuteStreams(String sessionId, Collection<String> streamIds, BatchProperties properties)
+            throws OpenTokException {
+        validateBatch(sessionId, streamIds, properties, "Stream");
+        return awaitBatch(BatchRunner.run(streamIds,
+                streamId -> client.retrying(() -> client.forceMuteStreamAsync(sessionId, streamId),
+                        properties.maxRetries(), properties.retryBackoffMillis()),
+                properties.maxConcurrency()), "Could not mute streams.");
+    }
+
     /**
      * Forces all streams (except for an optional array of streams) in a session
      * to mute published audio.
@@ -1016,13 +1203,17 @@ public class OpenTok {
     public List<Render> listRenders(Integer offset, Integer count) throws OpenTokException {
         String response = client.listRenders(offset, count);
         try {
-            JsonNode root = new ObjectMapper().readTree(response);
-            return renderListReader.readValue(root.get("items"));
+            return readRenderList(response);
         } catch (IOException e) {
             throw new RequestException("Exception mapping json: " + e.getMessage());
         }
     }
 
+    static List<Render> readRenderList(String response) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(response);
+        return renderListReader.readValue(root.get("items"));
+    }
+
     /**
      * Use the Live Captions API to transcribe audio streams and generate real-time captions for your application.
      * Live Captions is enabled by default for all projects, and it is a usage-based product. The Live Captions
@@ -1047,9 +1238,15 @@ public class OpenTok {
         if (StringUtils.isEmpty(token)) {
             throw new InvalidArgumentException("Token is required.");
         }
-        String captions = client.startCaption(sessionId, token,
-                properties != null ? properties : CaptionProperties.Builder().build()
-        );
+        CaptionProperties _properties = properties != null ? properties : CaptionProperties.Builder().build();
+        if (startDeduplicator != null) {
+            return startDeduplicator.call(Arrays.asList("captions", sessionId),
+                    () -> readCaption(client.startCaption(sessionId, token, _properties)));
+        }
+        return readCaption(client.startCaption(sessionId, token, _properties));
+    }
+
+    private static Caption readCaption(String captions) throws RequestException {
         try {
             return captionReader.readValue(captions);
         } catch (JsonProcessingException e) {
@@ -1072,6 +1269,110 @@ public class OpenTok {
         client.stopCaption(captionsId);
     }
 
+    /**
+     * Prepares this OpenTok object for its first calls, so that they are as fast as later ones: resolves the
+     * host of the OpenTok REST API, opens pooled keep-alive connections (including the TLS handshake) with
+     * an OPTIONS request over each, which runs no API operation and has no side effects, initializes the
+     * REST authentication and client token signers, and encodes and decodes a few messages. Call this when
+     * your application starts, for example before it takes traffic during a rolling deploy, or use
+     * {@link Builder#warmUp(int)}.
+     * <p>
+     * Connections that cannot be opened, or that get an error response, are not reported as errors; the
+     * first calls then set them up as usual. Rejected credentials are reported, since every call would fail.
+     *
+     * @param connections The number of connections to open. Idle connections are closed after 60 seconds.
+     *
+     * @return The number of connections opened that got a successful (2xx) response.
+     *
+     * @throws RequestException If the API key and secret, or the application credentials, were rejected.
+     */
+    public int warmUp(int connections) throws InvalidArgumentException, RequestException {
+        if (connections < 0) {
+            throw new InvalidArgumentException("connections must not be negative");
+        }
+        int warmed = client.warmUp(connections, WARM_UP_CYCLES);
+        String sessionId = applicationId != null ? "warm-up" : "1_" + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("1~" + apiKey + "~~warm-up~").getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < WARM_UP_CYCLES; i++) {
+            try {
+                archiveReader.readValue(WARM_UP_ARCHIVE);
+                archiveListReader.readValue(WARM_UP_ARCHIVE_LIST);
+                createdSessionReader.readValue(WARM_UP_SESSION);
+            } catch (IOException e) {
+                // The messages are constants
+            }
+            generateToken(sessionId);
+        }
+        return warmed;
+    }
+
+    /**
+     * Calls OpenTok methods with a deadline, a cancellation token or a priority. Every call to the OpenTok
+     * REST API that the operation makes on this thread, including internal retries and the several calls
+     * made by methods such as {@link #forceDisconnectAll(String)}, shares the options, so the deadline
+     * bounds the whole operation:
+     *
+     * <pre>
+     * CallOptions options = new CallOptions.Builder().timeout(300, TimeUnit.MILLISECONDS).build();
+     * Archive archive = opentok.withOptions(options, () -&gt; opentok.startArchive(sessionId));
+     * </pre>
+     *
+     * A call that misses the deadline throws a {@link RequestException} that wraps a
+     * {@link java.util.concurrent.TimeoutException}, and a call that is cancelled throws a RequestException.
+     *
+     * @param options The call options.
+     * @param operation The operation, which calls methods of this OpenTok object.
+     *
+     * @return The result of the operation.
+     */
+    public <T> T withOptions(CallOptions options, Supplier<T> operation) throws OpenTokException {
+        if (options == null || operation == null) {
+            throw new InvalidArgumentException("Call options and operation must not be null");
+        }
+        return options.call(operation);
+    }
+
+    /**
+     * Calls OpenTok methods that return no result with a deadline, a cancellation token or a priority.
+     *
+     * @param options The call options.
+     * @param operation The operation, which calls methods of this OpenTok object.
+     *
+     * @see #withOptions(CallOptions, Supplier)
+     */
+    public void withOptions(CallOptions options, Runnable operation) throws OpenTokException {
+        if (operation == null) {
+            throw new InvalidArgumentException("Call options and operation must not be null");
+        }
+        withOptions(options, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    private static void validateBatch(String sessionId, Collection<String> ids, BatchProperties properties,
+            String idName) throws InvalidArgumentException {
+        if (sessionId == null || sessionId.isEmpty()) {
+            throw new InvalidArgumentException("Session string null or empty");
+        }
+        if (ids == null || properties == null) {
+            throw new InvalidArgumentException(idName + " IDs and batch properties must not be null");
+        }
+        for (String id : ids) {
+            if (id == null || id.isEmpty()) {
+                throw new InvalidArgumentException(idName + " string null or empty");
+            }
+        }
+    }
+
+    private static BatchResult awaitBatch(CompletableFuture<BatchResult> batch, String error) throws RequestException {
+        try {
+            return batch.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RequestException(error, e);
+        }
+    }
+
     /**
      * Used to create an OpenTok object with advanced settings. You can set
      * the request timeout for API calls and a proxy to use for API calls.
@@ -1080,11 +1381,16 @@ public class OpenTok {
      * {@link OpenTok OpenTok()} constructor to build the OpenTok object.
      */
     public static class Builder {
-        private int apiKey, requestTimeout;
+        private int apiKey, requestTimeout, authTokenTtl;
+        private boolean registerMBeans;
         private String apiSecret, applicationId, apiUrl, appendUserAgent, principal, password;
         private Path privateKeyPath;
         private Proxy proxy;
         private ProxyAuthScheme proxyAuthScheme;
+        private SchedulerProperties schedulerProperties;
+        private int warmUpConnections;
+        private boolean useOpenSsl;
+        private int deduplicationWindow = -1;
 
         /**
          * Constructs a new OpenTok.Builder object.
@@ -1153,6 +1459,113 @@ public class OpenTok {
             return this;
         }
 
+        /**
+         * Registers a JMX MBean for this OpenTok object under {@code com.opentok:type=HttpClient}, exposing
+         * the active and idle pooled connections, the in-flight requests per endpoint, rolling latency
+         * percentiles, error counts by HTTP status code and the REST authentication token cache hit ratio.
+         * The MBean is unregistered by {@link OpenTok#close()}. By default no MBean is registered.
+         *
+         * @param registerMBeans Whether to register the MBean.
+         *
+         * @return This Builder.
+         */
+        public Builder registerMBeans(boolean registerMBeans) {
+            this.registerMBeans = registerMBeans;
+            return this;
+        }
+
+        /**
+         * Reuses the token that authenticates calls to the OpenTok REST API for up to the given number of
+         * seconds, instead of signing a new token for every call. The default is 0 (no reuse).
+         *
+         * @param authTokenTtl How long to reuse a token for, in seconds (between 0 and 120).
+         *
+         * @return This Builder.
+         */
+        public Builder reuseAuthTokens(int authTokenTtl) {
+            if (authTokenTtl < 0 || authTokenTtl > 120) {
+                throw new InvalidArgumentException("Auth token reuse must be between 0 and 120 seconds.");
+            }
+            this.authTokenTtl = authTokenTtl;
+            return this;
+        }
+
+        /**
+         * Sends calls to the OpenTok REST API through a scheduler that limits how many are in flight and
+         * queues the rest by {@link RequestPriority}, so that bulk jobs such as listing archives or
+         * pre-creating sessions do not delay interactive calls such as signals made on the same OpenTok
+         * object. The number of queued calls is published in the MBean registered with
+         * {@link #registerMBeans(boolean)}. By default calls are sent directly, limited only by the HTTP
+         * connection pool.
+         *
+         * @param schedulerProperties The SchedulerProperties object defining the limits and priority weights.
+         *
+         * @return This Builder.
+         */
+        public Builder requestScheduler(SchedulerProperties schedulerProperties) {
+            this.schedulerProperties = schedulerProperties;
+            return this;
+        }
+
+        /**
+         * Uses the OpenSSL (BoringSSL) TLS engine of Netty instead of the JDK TLS provider for calls to the
+         * OpenTok REST API. It costs less CPU per handshake and per byte, caches TLS sessions so that new
+         * pooled connections resume them with a session ticket instead of a full handshake, and prefers
+         * AES-GCM and ChaCha20 cipher suites with forward secrecy. It requires the
+         * {@code io.netty:netty-tcnative-boringssl-static} artifact, matching the Netty version of the SDK,
+         * on the classpath, or {@link #build()} throws an {@link InvalidArgumentException}. By default the JDK
+         * provider is used.
+         *
+         * @param useOpenSsl Whether to use OpenSSL.
+         *
+         * @return This Builder.
+         */
+        public Builder useOpenSsl(boolean useOpenSsl) {
+            this.useOpenSsl = useOpenSsl;
+            return this;
+        }
+
+        /**
+         * Guards {@link OpenTok#startArchive(String, ArchiveProperties)},
+         * {@link OpenTok#startBroadcast(String, BroadcastProperties)} and
+         * {@link OpenTok#startCaptions(String, String, CaptionProperties)} against duplicate calls, such as
+         * those caused by double clicks or client retries. Calls for the same session (and the same
+         * multiArchiveTag or multiBroadcastTag, if set) made while one is in flight do not send another
+         * request: they wait for the first call and return its Archive, Broadcast or Caption, or throw
+         * its exception. Calls made within the given window after the first call succeeded return the
+         * same result as well. The properties of the duplicate calls are ignored. By default every call
+         * sends a request.
+         *
+         * @param windowMillis How long after a successful start to keep returning its result, in
+         * milliseconds (0 to only join calls in flight).
+         *
+         * @return This Builder.
+         */
+        public Builder deduplicateStarts(int windowMillis) {
+            if (windowMillis < 0) {
+                throw new InvalidArgumentException("The deduplication window must not be negative.");
+            }
+            this.deduplicationWindow = windowMillis;
+            return this;
+        }
+
+        /**
+         * Warms up the OpenTok object when it is built, opening the given number of pooled connections
+         * to the OpenTok REST API. See {@link OpenTok#warmUp(int)}. By default there is no warm-up. If the
+         * credentials are rejected, {@link #build()} throws the {@link RequestException}.
+         *
+         * @param connections The number of connections to open.
+         *
+         * @return This Builder.
+         */
+        public Builder warmUp(int connections) {
+            if (connections < 0) {
+                throw new InvalidArgumentException("connections must not be negative");
+            }
+            this.warmUpConnections = connections;
+            return this;
+        }
+
         /**
          * Builds the OpenTok object with the settings provided to this
          * Builder object.
@@ -1174,8 +1587,24 @@ public class OpenTok {
             if (appendUserAgent != null && !appendUserAgent.trim().isEmpty()) {
                 clientBuilder.userAgent(DefaultUserAgent.DEFAULT_USER_AGENT+" "+appendUserAgent);
             }
-
-            return new OpenTok(apiKey, apiSecret, applicationId, privateKeyPath, clientBuilder.build());
+            clientBuilder.registerMBeans(registerMBeans)
+                    .authTokenTtlMS(authTokenTtl * 1000)
+                    .scheduler(schedulerProperties)
+                    .useOpenSsl(useOpenSsl);
+
+            OpenTok opentok = new OpenTok(apiKey, apiSecret, applicationId, privateKeyPath, clientBuilder.build());
+            if (deduplicationWindow >= 0) {
+                opentok.startDeduplicator = new CallDeduplicator(deduplicationWindow);
+            }
+            if (warmUpConnections > 0) {
+                try {
+                    opentok.warmUp(warmUpConnections);
+                } catch (RequestException e) {
+                    opentok.close();
+                    throw e;
+                }
+            }
+            return opentok;
         }
     }
 
@@ -0,0 +1,33 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+/**
+ * The priority class of a call to the OpenTok REST API, used by the request scheduler enabled with
+ * {@link OpenTok.Builder#requestScheduler(SchedulerProperties)} to decide which waiting call is sent next.
+ * <p>
+ * Unless a priority is given for the call, it is taken from the endpoint: creating sessions, signaling,
+ * disconnecting clients and muting streams are {@link #INTERACTIVE}, listing archives, broadcasts,
+ * Experience Composers, streams and connections is {@link #BULK}, and everything else is {@link #NORMAL}.
+ */
+public enum RequestPriority {
+    /**
+     * Calls a user is waiting on, which should be sent ahead of other traffic.
+     */
+    INTERACTIVE,
+
+    /**
+     * The default for calls that are not interactive or bulk.
+     */
+    NORMAL,
+
+    /**
+     * Background jobs, such as listings, polling and pre-creating sessions, which may wait behind other traffic.
+     */
+    BULK
+}
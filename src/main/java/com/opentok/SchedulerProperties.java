@@ -0,0 +1,134 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.exception.InvalidArgumentException;
+
+/**
+ * Defines values for the <code>properties</code> parameter of the
+ * {@link OpenTok.Builder#requestScheduler(SchedulerProperties)} method.
+ * <p>
+ * The scheduler limits how many calls to the OpenTok REST API are in flight at once, both in total and
+ * for each {@link RequestPriority}. Calls over the limits wait in a queue per priority, and when a call
+ * completes the next one is picked by weighted round robin between the priorities with calls waiting:
+ * with the default weights of 8, 4 and 1, up to 8 interactive calls are sent for every bulk call, but
+ * bulk calls are never starved.
+ */
+public class SchedulerProperties {
+    private final int maxInFlight;
+    private final int[] maxInFlightByPriority, weights;
+
+    private SchedulerProperties(Builder builder) {
+        maxInFlight = builder.maxInFlight;
+        maxInFlightByPriority = builder.maxInFlightByPriority.clone();
+        for (int i = 0; i < maxInFlightByPriority.length; i++) {
+            if (maxInFlightByPriority[i] == 0 || maxInFlightByPriority[i] > maxInFlight) {
+                maxInFlightByPriority[i] = maxInFlight;
+            }
+        }
+        weights = builder.weights.clone();
+    }
+
+    /**
+     * Use this class to create a SchedulerProperties object.
+     *
+     * @see SchedulerProperties
+     */
+    public static class Builder {
+        private int maxInFlight = 64;
+        private final int[] maxInFlightByPriority = new int[RequestPriority.values().length];
+        private final int[] weights = {8, 4, 1};
+
+        /**
+         * Sets the maximum number of calls in flight at a time, across all priorities. The default is 64.
+         *
+         * @param maxInFlight The maximum number of calls in flight (at least 1).
+         *
+         * @return The SchedulerProperties.Builder object with the limit.
+         */
+        public Builder maxInFlight(int maxInFlight) throws InvalidArgumentException {
+            if (maxInFlight < 1) {
+                throw new InvalidArgumentException("maxInFlight must be at least 1");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of calls of one priority in flight at a time, for example to keep some
+         * connections free for interactive calls while a bulk job runs. By default each priority may use
+         * all of {@link #maxInFlight(int)}.
+         *
+         * @param priority The priority.
+         * @param maxInFlight The maximum number of calls of that priority in flight (at least 1).
+         *
+         * @return The SchedulerProperties.Builder object with the limit.
+         */
+        public Builder maxInFlight(RequestPriority priority, int maxInFlight) throws InvalidArgumentException {
+            if (priority == null) {
+                throw new InvalidArgumentException("Priority must not be null");
+            }
+            if (maxInFlight < 1) {
+                throw new InvalidArgumentException("maxInFlight must be at least 1");
+            }
+            maxInFlightByPriority[priority.ordinal()] = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Sets the share of a priority when calls of several priorities are waiting. The defaults are 8 for
+         * {@link RequestPriority#INTERACTIVE}, 4 for {@link RequestPriority#NORMAL} and 1 for
+         * {@link RequestPriority#BULK}.
+         *
+         * @param priority The priority.
+         * @param weight The weight (at least 1).
+         *
+         * @return The SchedulerProperties.Builder object with the weight.
+         */
+        public Builder weight(RequestPriority priority, int weight) throws InvalidArgumentException {
+            if (priority == null) {
+                throw new InvalidArgumentException("Priority must not be null");
+            }
+            if (weight < 1) {
+                throw new InvalidArgumentException("weight must be at least 1");
+            }
+            weights[priority.ordinal()] = weight;
+            return this;
+        }
+
+        /**
+         * Builds the SchedulerProperties object.
+         *
+         * @return The SchedulerProperties object.
+         */
+        public SchedulerProperties build() {
+            return new SchedulerProperties(this);
+        }
+    }
+
+    /**
+     * Returns the maximum number of calls in flight at a time, across all priorities.
+     */
+    public int maxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Returns the maximum number of calls of the given priority in flight at a time.
+     */
+    public int maxInFlight(RequestPriority priority) {
+        return maxInFlightByPriority[priority.ordinal()];
+    }
+
+    /**
+     * Returns the weight of the given priority.
+     */
+    public int weight(RequestPriority priority) {
+        return weights[priority.ordinal()];
+    }
+}
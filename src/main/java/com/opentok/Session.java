@@ -21,6 +21,7 @@ import java.util.Random;
 
 import com.opentok.exception.InvalidArgumentException;
 import com.opentok.util.Crypto;
+import com.opentok.util.SdkEvents;
 import com.opentok.util.TokenGenerator;
 import org.apache.commons.codec.binary.Base64;
 import org.jose4j.jwt.JwtClaims;
@@ -130,6 +131,16 @@ public class Session {
             throw new InvalidArgumentException("Token options cannot be null");
         }
 
+        SdkEvents.TokenMint event = SdkEvents.get().beginTokenMint();
+        String token = mintToken(tokenOptions);
+        if (event != null) {
+            event.complete(applicationId != null ? "application" : "project", tokenOptions.isLegacyT1Token());
+        }
+        return token;
+    }
+
+    private String mintToken(TokenOptions tokenOptions) throws OpenTokException {
+
         Role role = tokenOptions.getRole();
         String data = tokenOptions.getData();
         int nonce = new Random().nextInt();
@@ -0,0 +1,355 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.OpenTokException;
+import com.opentok.util.LatencyWindow;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps sessions created ahead of time, so that starting a meeting does not wait for a call to the OpenTok
+ * REST API. Each session profile (a {@link SessionProperties} combination of media mode, archive mode,
+ * end-to-end encryption and location) has its own pool, which is refilled in the background whenever it
+ * drops to its low watermark.
+ * <p>
+ * The following example keeps up to 20 routed sessions ready:
+ *
+ * <pre>
+ * SessionProperties routed = new SessionProperties.Builder().mediaMode(MediaMode.ROUTED).build();
+ * SessionPool pool = new SessionPool.Builder(opentok).profile(routed, 20).build();
+ * ...
+ * Session session = pool.take(routed);
+ * </pre>
+ *
+ * Call {@link #close()} when you are done with the pool, to stop the background refills.
+ * Sessions left in the pool are never used and need no cleanup.
+ */
+public class SessionPool implements SessionPoolMXBean, AutoCloseable {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final OpenTok opentok;
+    private final Map<Map<String, List<String>>, Profile> profiles = new HashMap<>();
+    private final ScheduledExecutorService refillExecutor;
+    private final long retryDelayMillis;
+    private final LongAdder taken = new LongAdder(), createdOnDemand = new LongAdder(), refillFailures = new LongAdder();
+    private final LatencyWindow refillLatencies = new LatencyWindow(256);
+    private volatile boolean closed;
+    private ObjectName name;
+
+    private class Profile implements Runnable {
+        final SessionProperties properties;
+        final String label;
+        final int capacity, lowWatermark;
+        final Queue<Session> sessions = new ConcurrentLinkedQueue<>();
+        // ConcurrentLinkedQueue.size() is O(n), so the size is tracked separately
+        final AtomicInteger available = new AtomicInteger();
+        final AtomicBoolean refilling = new AtomicBoolean();
+
+        Profile(SessionProperties properties, int capacity, int lowWatermark) {
+            this.properties = properties;
+            this.label = labelOf(properties);
+            this.capacity = capacity;
+            this.lowWatermark = lowWatermark;
+        }
+
+        Session poll() {
+            Session session = sessions.poll();
+            if (session != null && available.decrementAndGet() <= lowWatermark) {
+                refill();
+            }
+            return session;
+        }
+
+        void refill() {
+            if (!closed && refilling.compareAndSet(false, true)) {
+                refillExecutor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed && available.get() < capacity) {
+                    long start = System.nanoTime();
+                    Session session = CallOptions.BACKGROUND.call(() -> opentok.createSession(properties));
+                    refillLatencies.record(System.nanoTime() - start);
+                    sessions.add(session);
+                    available.incrementAndGet();
+                }
+                refilling.set(false);
+                if (available.get() <= lowWatermark) {
+                    // Taken below the watermark while this refill was finishing
+                    refill();
+                }
+            }
+            catch (RuntimeException ex) {
+                refillFailures.increment();
+                retry();
+            }
+            catch (Error ex) {
+                // Not retried, but the next take starts another refill
+                refillFailures.increment();
+                refilling.set(false);
+                throw ex;
+            }
+        }
+
+        private void retry() {
+            try {
+                refillExecutor.schedule(this, retryDelayMillis, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException ex) {
+                // Closed
+            }
+        }
+    }
+
+    private static class ProfileSpec {
+        final SessionProperties properties;
+        final int size, lowWatermark;
+
+        ProfileSpec(SessionProperties properties, int size, int lowWatermark) {
+            this.properties = properties;
+            this.size = size;
+            this.lowWatermark = lowWatermark;
+        }
+    }
+
+    private SessionPool(Builder builder) {
+        opentok = builder.opentok;
+        retryDelayMillis = builder.retryDelayMillis;
+        for (ProfileSpec spec : builder.profiles) {
+            profiles.put(spec.properties.toMap(), new Profile(spec.properties, spec.size, spec.lowWatermark));
+        }
+        AtomicInteger threads = new AtomicInteger();
+        refillExecutor = Executors.newScheduledThreadPool(Math.min(profiles.size(), builder.refillThreads), runnable -> {
+            Thread thread = new Thread(runnable, "opentok-session-pool-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (builder.registerMBean) {
+            try {
+                name = new ObjectName("com.opentok:type=SessionPool,id=" + INSTANCES.incrementAndGet());
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+            catch (JMException ex) {
+                throw new IllegalStateException("Could not register the OpenTok session pool MBean", ex);
+            }
+        }
+        profiles.values().forEach(Profile::refill);
+    }
+
+    /**
+     * Takes a pre-created session for the profile of the given properties. If the pool for that profile is
+     * empty, or the profile was not configured for the pool, the session is created on the caller's thread,
+     * as {@link OpenTok#createSession(SessionProperties)} does.
+     *
+     * @param properties The session properties, or {@code null} for the defaults of {@link OpenTok#createSession()}.
+     *
+     * @return A session that has not been handed out before.
+     */
+    public Session take(SessionProperties properties) throws OpenTokException {
+        SessionProperties _properties = properties != null ? properties : new SessionProperties.Builder().build();
+        Profile profile = profiles.get(_properties.toMap());
+        Session session = profile != null ? profile.poll() : null;
+        if (session != null) {
+            taken.increment();
+            return session;
+        }
+        if (profile != null) {
+            profile.refill();
+        }
+        createdOnDemand.increment();
+        return opentok.createSession(_properties);
+    }
+
+    /**
+     * @return The number of sessions ready to be handed out for the profile of the given properties.
+     */
+    public int available(SessionProperties properties) {
+        SessionProperties _properties = properties != null ? properties : new SessionProperties.Builder().build();
+        Profile profile = profiles.get(_properties.toMap());
+        return profile != null ? profile.available.get() : 0;
+    }
+
+    /**
+     * @return The name the MBean of this pool is registered under, or {@code null} if it is not registered.
+     */
+    public ObjectName getObjectName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, Integer> getAvailableSessions() {
+        Map<String, Integer> result = new TreeMap<>();
+        profiles.values().forEach(profile -> result.put(profile.label, profile.available.get()));
+        return result;
+    }
+
+    @Override
+    public long getPooledSessionsTaken() {
+        return taken.sum();
+    }
+
+    @Override
+    public long getSessionsCreatedOnDemand() {
+        return createdOnDemand.sum();
+    }
+
+    @Override
+    public long getRefillFailures() {
+        return refillFailures.sum();
+    }
+
+    @Override
+    public double getRefillLatency50thPercentileMillis() {
+        return refillLatencies.percentileMillis(0.5);
+    }
+
+    @Override
+    public double getRefillLatency99thPercentileMillis() {
+        return refillLatencies.percentileMillis(0.99);
+    }
+
+    @Override
+    public double getRefillLatencyMaxMillis() {
+        return refillLatencies.percentileMillis(1);
+    }
+
+    /**
+     * Stops refilling the pool and unregisters its MBean. This does not close the OpenTok object.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        refillExecutor.shutdownNow();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (name != null && server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+        catch (JMException ex) {
+            // Already gone
+        }
+    }
+
+    private static String labelOf(SessionProperties properties) {
+        StringBuilder label = new StringBuilder();
+        new TreeMap<>(properties.toMap()).forEach((param, values) ->
+                label.append(label.length() == 0 ? "" : ",").append(param).append('=').append(values.get(0)));
+        return label.toString();
+    }
+
+    /**
+     * Used to create a SessionPool object.
+     */
+    public static class Builder {
+        private final OpenTok opentok;
+        private final List<ProfileSpec> profiles = new ArrayList<>();
+        private final Set<Map<String, List<String>>> keys = new HashSet<>();
+        private int refillThreads = 2;
+        private long retryDelayMillis = 5000;
+        private boolean registerMBean;
+
+        /**
+         * @param opentok The OpenTok object used to create the sessions.
+         */
+        public Builder(OpenTok opentok) {
+            this.opentok = Objects.requireNonNull(opentok, "OpenTok is required.");
+        }
+
+        /**
+         * Keeps up to {@code size} sessions with the given properties, refilling the pool when half of them
+         * have been taken.
+         *
+         * @param properties The session properties.
+         * @param size The number of sessions to keep.
+         *
+         * @return This Builder.
+         */
+        public Builder profile(SessionProperties properties, int size) throws InvalidArgumentException {
+            return profile(properties, size, size / 2);
+        }
+
+        /**
+         * Keeps up to {@code size} sessions with the given properties, refilling the pool when it drops to
+         * {@code lowWatermark} sessions.
+         *
+         * @param properties The session properties.
+         * @param size The number of sessions to keep (at least 1).
+         * @param lowWatermark The number of remaining sessions that triggers a refill (between 0 and size - 1).
+         *
+         * @return This Builder.
+         */
+        public Builder profile(SessionProperties properties, int size, int lowWatermark) throws InvalidArgumentException {
+            if (size < 1) {
+                throw new InvalidArgumentException("The pool size must be at least 1.");
+            }
+            if (lowWatermark < 0 || lowWatermark >= size) {
+                throw new InvalidArgumentException("The low watermark must be between 0 and " + (size - 1) + ".");
+            }
+            SessionProperties _properties = properties != null ? properties : new SessionProperties.Builder().build();
+            if (!keys.add(_properties.toMap())) {
+                throw new InvalidArgumentException("The session profile is already pooled: " + labelOf(_properties));
+            }
+            profiles.add(new ProfileSpec(_properties, size, lowWatermark));
+            return this;
+        }
+
+        /**
+         * Sets the number of threads that create sessions in the background. The default is 2.
+         */
+        public Builder refillThreads(int refillThreads) throws InvalidArgumentException {
+            if (refillThreads < 1) {
+                throw new InvalidArgumentException("At least one refill thread is required.");
+            }
+            this.refillThreads = refillThreads;
+            return this;
+        }
+
+        /**
+         * Sets how long to wait before retrying when a background session creation fails. The default is 5 seconds.
+         */
+        public Builder retryDelay(long retryDelay, TimeUnit unit) {
+            this.retryDelayMillis = unit.toMillis(retryDelay);
+            return this;
+        }
+
+        /**
+         * Registers a JMX MBean for the pool under {@code com.opentok:type=SessionPool}, exposing the available
+         * sessions per profile and the refill latency. The MBean is unregistered by {@link SessionPool#close()}.
+         */
+        public Builder registerMBean(boolean registerMBean) {
+            this.registerMBean = registerMBean;
+            return this;
+        }
+
+        /**
+         * Builds the pool and starts filling it in the background.
+         *
+         * @return The SessionPool.
+         */
+        public SessionPool build() {
+            if (profiles.isEmpty()) {
+                throw new IllegalStateException("At least one session profile is required.");
+            }
+            return new SessionPool(this);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import java.util.Map;
+
+/**
+ * Management interface for a {@link SessionPool}, registered under {@code com.opentok:type=SessionPool}
+ * when enabled with {@link SessionPool.Builder#registerMBean(boolean)}.
+ */
+public interface SessionPoolMXBean {
+
+    /**
+     * @return The number of pre-created sessions ready to be handed out, keyed by session profile,
+     * e.g. {@code archiveMode=manual,p2p.preference=disabled}.
+     */
+    Map<String, Integer> getAvailableSessions();
+
+    /**
+     * @return The number of sessions handed out from the pool.
+     */
+    long getPooledSessionsTaken();
+
+    /**
+     * @return The number of sessions created on the caller's thread because the pool for the profile was empty.
+     */
+    long getSessionsCreatedOnDemand();
+
+    /**
+     * @return The number of background session creations that failed.
+     */
+    long getRefillFailures();
+
+    /**
+     * @return The median time taken to create a session in the background, in milliseconds.
+     */
+    double getRefillLatency50thPercentileMillis();
+
+    /**
+     * @return The 99th percentile time taken to create a session in the background, in milliseconds.
+     */
+    double getRefillLatency99thPercentileMillis();
+
+    /**
+     * @return The longest recent time taken to create a session in the background, in milliseconds.
+     */
+    double getRefillLatencyMaxMillis();
+}
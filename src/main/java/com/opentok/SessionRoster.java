@@ -0,0 +1,435 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.callback.CallbackEvent;
+import com.opentok.callback.CallbackListener;
+import com.opentok.callback.ConnectionEvent;
+import com.opentok.callback.StreamEvent;
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.RequestException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the connections and streams of sessions up to date from the session monitoring callbacks, so that
+ * knowing who is in a session does not take calls to {@link OpenTok#listConnections(String)} and
+ * {@link OpenTok#listStreams(String)}. Register the roster as a listener of a
+ * {@link com.opentok.callback.CallbackReceiver}, or pass it the events your own endpoint parses:
+ *
+ * <pre>
+ * SessionRoster roster = new SessionRoster.Builder(opentok).build();
+ * receiver.addListener(roster);
+ * ...
+ * int participants = roster.getConnectionCount(sessionId);
+ * </pre>
+ *
+ * A session is tracked from its first connectionCreated or streamCreated event, or from
+ * {@link #track(String)}, and dropped when its last connection leaves, unless it was tracked explicitly.
+ * Since callbacks can be lost, each tracked session is reconciled with the REST API in the background,
+ * by default every 5 minutes; changes made by events during a reconciliation are kept. The reconciliations
+ * run on a small pool of threads, 4 by default; with thousands of sessions, size it with
+ * {@link Builder#reconcileThreads(int)} so that a round of calls fits in the interval.
+ * <p>
+ * Call {@link #close()} to stop the reconciliations.
+ */
+public class SessionRoster implements CallbackListener, AutoCloseable {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final OpenTok opentok;
+    private final long reconcileIntervalNanos;
+    private final ConcurrentHashMap<String, Room> rooms = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reconcileExecutor;
+    private final LongAdder reconciliations = new LongAdder(), reconcileFailures = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * The roster of one session. Maps start small, since most sessions have a handful of participants. Rooms are
+     * only changed inside {@code rooms.compute}, so an event never writes to a room that was just dropped, and a
+     * reconciliation is applied in one step between events.
+     */
+    private static class Room {
+        final Map<String, Connection> connections = new ConcurrentHashMap<>(4);
+        final Map<String, Stream> streams = new ConcurrentHashMap<>(4);
+        // The connection that published each stream, when an event said so
+        final Map<String, String> streamOwners = new ConcurrentHashMap<>(4);
+        // When events last changed each connection or stream, so a reconciliation does not undo them
+        final Map<String, Long> changedAt = new ConcurrentHashMap<>(4);
+        volatile boolean pinned;
+        volatile long reconciledAt = System.nanoTime();
+        // Set while a background reconciliation is waiting or running, so a slow one is not queued twice
+        final AtomicBoolean reconciling = new AtomicBoolean();
+
+        boolean isEmpty() {
+            return connections.isEmpty() && streams.isEmpty();
+        }
+    }
+
+    private SessionRoster(Builder builder) {
+        opentok = builder.opentok;
+        reconcileIntervalNanos = builder.reconcileIntervalNanos;
+        int id = INSTANCES.incrementAndGet();
+        AtomicInteger threads = new AtomicInteger();
+        reconcileExecutor = Executors.newScheduledThreadPool(builder.reconcileThreads, runnable -> {
+            Thread thread = new Thread(runnable, "opentok-session-roster-" + id + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (reconcileIntervalNanos > 0) {
+            // Checks often and reconciles only the sessions that are due, so the calls are spread out
+            long tick = Math.max(TimeUnit.MILLISECONDS.toNanos(10), reconcileIntervalNanos / 16);
+            reconcileExecutor.scheduleWithFixedDelay(this::reconcileDue, tick, tick, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Applies a session monitoring event. Other events are ignored.
+     *
+     * @param event The event.
+     */
+    @Override
+    public void onEvent(CallbackEvent event) {
+        String sessionId = event.getSessionId();
+        if (closed || sessionId == null) {
+            return;
+        }
+        if (event instanceof ConnectionEvent) {
+            ConnectionEvent connectionEvent = (ConnectionEvent) event;
+            Connection connection = connectionEvent.getConnection();
+            if (connection == null || connection.getConnectionId() == null) {
+                return;
+            }
+            String connectionId = connection.getConnectionId();
+            boolean created = connectionEvent.isCreated();
+            rooms.compute(sessionId, (id, room) -> {
+                if (room == null) {
+                    if (!created) {
+                        return null;
+                    }
+                    room = new Room();
+                }
+                // Recorded first, so a reconciliation never takes the change for an older one
+                room.changedAt.put(connectionId, System.nanoTime());
+                if (created) {
+                    room.connections.put(connectionId, connection);
+                }
+                else {
+                    room.connections.remove(connectionId);
+                    // The streams of a client go with it, even if their own events are lost
+                    Room current = room;
+                    room.streamOwners.forEach((streamId, owner) -> {
+                        if (owner.equals(connectionId)) {
+                            current.streams.remove(streamId);
+                            current.streamOwners.remove(streamId);
+                        }
+                    });
+                }
+                return keep(room);
+            });
+        }
+        else if (event instanceof StreamEvent) {
+            StreamEvent streamEvent = (StreamEvent) event;
+            Stream stream = streamEvent.getStream();
+            if (stream == null || stream.getId() == null) {
+                return;
+            }
+            boolean created = streamEvent.isCreated();
+            Connection owner = streamEvent.getConnection();
+            rooms.compute(sessionId, (id, room) -> {
+                if (room == null) {
+                    if (!created) {
+                        return null;
+                    }
+                    room = new Room();
+                }
+                room.changedAt.put(stream.getId(), System.nanoTime());
+                if (created) {
+                    room.streams.put(stream.getId(), stream);
+                    if (owner != null && owner.getConnectionId() != null) {
+                        room.streamOwners.put(stream.getId(), owner.getConnectionId());
+                    }
+                }
+                else {
+                    room.streams.remove(stream.getId());
+                    room.streamOwners.remove(stream.getId());
+                }
+                return keep(room);
+            });
+        }
+    }
+
+    /**
+     * @return The room, or {@code null} to drop it when its last connection and stream are gone.
+     */
+    private static Room keep(Room room) {
+        return !room.pinned && room.isEmpty() ? null : room;
+    }
+
+    /**
+     * Tracks a session even while it has no connections, and reconciles it with the REST API in the
+     * background straight away, so that its roster includes the clients that connected before.
+     *
+     * @param sessionId The session ID.
+     */
+    public void track(String sessionId) throws InvalidArgumentException {
+        if (sessionId == null || sessionId.isEmpty()) {
+            throw new InvalidArgumentException("Session ID is null or empty.");
+        }
+        Room room = rooms.compute(sessionId, (id, current) -> {
+            Room tracked = current != null ? current : new Room();
+            tracked.pinned = true;
+            return tracked;
+        });
+        try {
+            reconcileExecutor.execute(() -> reconcile(sessionId, room));
+        }
+        catch (RejectedExecutionException e) {
+            // Closed
+        }
+    }
+
+    /**
+     * Stops tracking a session and forgets its roster.
+     *
+     * @param sessionId The session ID.
+     */
+    public void untrack(String sessionId) {
+        rooms.remove(sessionId);
+    }
+
+    /**
+     * Reconciles the roster of a tracked session with the REST API on the calling thread.
+     *
+     * @param sessionId The session ID.
+     */
+    public void reconcile(String sessionId) {
+        Room room = rooms.get(sessionId);
+        if (room != null) {
+            reconcile(sessionId, room);
+        }
+    }
+
+    private void reconcileDue() {
+        long now = System.nanoTime();
+        rooms.forEach((sessionId, room) -> {
+            if (!closed && now - room.reconciledAt >= reconcileIntervalNanos && room.reconciling.compareAndSet(false, true)) {
+                // Each on its own task, so the pool's threads make the calls of different sessions at once
+                try {
+                    reconcileExecutor.execute(() -> {
+                        try {
+                            if (!closed) {
+                                reconcile(sessionId, room);
+                            }
+                        }
+                        finally {
+                            room.reconciling.set(false);
+                        }
+                    });
+                }
+                catch (RejectedExecutionException e) {
+                    room.reconciling.set(false);
+                }
+            }
+        });
+    }
+
+    private void reconcile(String sessionId, Room room) {
+        long start = System.nanoTime();
+        room.reconciledAt = start;
+        List<Connection> connections;
+        List<Stream> streams;
+        try {
+            connections = CallOptions.BACKGROUND.call(() -> opentok.listConnections(sessionId));
+            streams = CallOptions.BACKGROUND.call(() -> opentok.listStreams(sessionId));
+        }
+        catch (RequestException e) {
+            reconcileFailures.increment();
+            if (e.getStatusCode() == 404) {
+                // The session is gone
+                rooms.remove(sessionId, room);
+            }
+            return;
+        }
+        catch (RuntimeException e) {
+            reconcileFailures.increment();
+            return;
+        }
+        Map<String, Connection> listedConnections = new HashMap<>();
+        connections.forEach(connection -> listedConnections.put(connection.getConnectionId(), connection));
+        Map<String, Stream> listedStreams = new HashMap<>();
+        streams.forEach(stream -> listedStreams.put(stream.getId(), stream));
+        rooms.computeIfPresent(sessionId, (id, current) -> {
+            if (current != room) {
+                // Untracked and tracked again since the lists were read
+                return current;
+            }
+            apply(room, room.connections, listedConnections, start);
+            apply(room, room.streams, listedStreams, start);
+            room.streamOwners.keySet().retainAll(room.streams.keySet());
+            room.changedAt.values().removeIf(changedAt -> changedAt - start < 0);
+            return keep(room);
+        });
+        reconciliations.increment();
+    }
+
+    private static <T> void apply(Room room, Map<String, T> current, Map<String, T> listed, long start) {
+        for (String id : current.keySet()) {
+            if (!listed.containsKey(id) && !changedSince(room, id, start)) {
+                current.remove(id);
+            }
+        }
+        listed.forEach((id, value) -> {
+            if (!changedSince(room, id, start)) {
+                current.put(id, value);
+            }
+        });
+    }
+
+    private static boolean changedSince(Room room, String id, long start) {
+        Long changedAt = room.changedAt.get(id);
+        return changedAt != null && changedAt - start >= 0;
+    }
+
+    /**
+     * @return The IDs of the sessions tracked.
+     */
+    public Set<String> getSessionIds() {
+        return Collections.unmodifiableSet(rooms.keySet());
+    }
+
+    /**
+     * @return Whether the session is tracked.
+     */
+    public boolean isTracked(String sessionId) {
+        return rooms.containsKey(sessionId);
+    }
+
+    /**
+     * @return A live, read-only view of the connections of the session, empty if it is not tracked.
+     */
+    public Collection<Connection> getConnections(String sessionId) {
+        Room room = rooms.get(sessionId);
+        return room != null ? Collections.unmodifiableCollection(room.connections.values()) : Collections.emptyList();
+    }
+
+    /**
+     * @return The connection, or {@code null} if the client is not connected to the session.
+     */
+    public Connection getConnection(String sessionId, String connectionId) {
+        Room room = rooms.get(sessionId);
+        return room != null ? room.connections.get(connectionId) : null;
+    }
+
+    /**
+     * @return The number of connections of the session.
+     */
+    public int getConnectionCount(String sessionId) {
+        Room room = rooms.get(sessionId);
+        return room != null ? room.connections.size() : 0;
+    }
+
+    /**
+     * @return A live, read-only view of the streams of the session, empty if it is not tracked.
+     */
+    public Collection<Stream> getStreams(String sessionId) {
+        Room room = rooms.get(sessionId);
+        return room != null ? Collections.unmodifiableCollection(room.streams.values()) : Collections.emptyList();
+    }
+
+    /**
+     * @return The stream, or {@code null} if it is not published in the session.
+     */
+    public Stream getStream(String sessionId, String streamId) {
+        Room room = rooms.get(sessionId);
+        return room != null ? room.streams.get(streamId) : null;
+    }
+
+    /**
+     * @return The number of streams of the session.
+     */
+    public int getStreamCount(String sessionId) {
+        Room room = rooms.get(sessionId);
+        return room != null ? room.streams.size() : 0;
+    }
+
+    /**
+     * @return The number of reconciliations made.
+     */
+    public long getReconciliations() {
+        return reconciliations.sum();
+    }
+
+    /**
+     * @return The number of reconciliations that failed.
+     */
+    public long getReconcileFailures() {
+        return reconcileFailures.sum();
+    }
+
+    /**
+     * Stops the reconciliations. This does not close the OpenTok object.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        reconcileExecutor.shutdownNow();
+    }
+
+    /**
+     * Used to create a SessionRoster object.
+     */
+    public static class Builder {
+        private final OpenTok opentok;
+        private long reconcileIntervalNanos = TimeUnit.MINUTES.toNanos(5);
+        private int reconcileThreads = 4;
+
+        /**
+         * @param opentok The OpenTok object used to reconcile the rosters.
+         */
+        public Builder(OpenTok opentok) {
+            this.opentok = Objects.requireNonNull(opentok, "OpenTok is required.");
+        }
+
+        /**
+         * Sets how often each tracked session is reconciled with the REST API. The default is 5 minutes;
+         * 0 turns the background reconciliation off.
+         */
+        public Builder reconcileInterval(long interval, TimeUnit unit) throws InvalidArgumentException {
+            if (interval < 0 || unit == null) {
+                throw new InvalidArgumentException("The reconcile interval must not be negative.");
+            }
+            this.reconcileIntervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        /**
+         * Sets the number of threads that reconcile sessions in the background, each making its two calls at a
+         * time. The default is 4.
+         */
+        public Builder reconcileThreads(int reconcileThreads) throws InvalidArgumentException {
+            if (reconcileThreads < 1) {
+                throw new InvalidArgumentException("At least one reconcile thread is required.");
+            }
+            this.reconcileThreads = reconcileThreads;
+            return this;
+        }
+
+        /**
+         * Builds the SessionRoster object.
+         *
+         * @return The SessionRoster object.
+         */
+        public SessionRoster build() {
+            return new SessionRoster(this);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.OpenTokException;
+import com.opentok.exception.RequestException;
+import com.opentok.util.HttpClient;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends signals so that the signals to each session are delivered in the order they were sent, while
+ * many sessions are signaled in parallel. Each session has its own FIFO queue, and its signals are sent
+ * over the OpenTok object's asynchronous HTTP transport with a bounded number in flight, so no thread is
+ * dedicated to a session or blocked while a signal is in flight.
+ * <p>
+ * When a session's queue reaches its maximum depth, the {@link OverflowPolicy} decides what happens to the
+ * next signal: the caller blocks until there is room, the signal is rejected, or the oldest queued signal
+ * is dropped.
+ *
+ * <pre>
+ * SignalDispatcher dispatcher = new SignalDispatcher.Builder(opentok)
+ *     .maxQueueDepth(500)
+ *     .overflowPolicy(SignalDispatcher.OverflowPolicy.DROP_OLDEST)
+ *     .build();
+ * dispatcher.send(sessionId, properties).whenComplete((result, error) -&gt; ...);
+ * </pre>
+ *
+ * The futures returned by {@link #send} complete on the HTTP client's I/O threads, so callbacks attached to
+ * them must not block.
+ */
+public class SignalDispatcher implements AutoCloseable {
+
+    /**
+     * Defines what happens when a signal is sent to a session whose queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The caller of {@link SignalDispatcher#send} waits until there is room in the queue.
+         */
+        BLOCK,
+
+        /**
+         * {@link SignalDispatcher#send} throws a {@link RequestException}.
+         */
+        REJECT,
+
+        /**
+         * The oldest signal waiting in the queue is dropped, and its future fails with a {@link RequestException}.
+         */
+        DROP_OLDEST
+    }
+
+    private final HttpClient client;
+    private final int maxInFlight, maxQueueDepth;
+    private final OverflowPolicy overflowPolicy;
+    private final ConcurrentHashMap<String, SessionQueue> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder sent = new LongAdder(), failed = new LongAdder(), dropped = new LongAdder(),
+            rejected = new LongAdder();
+    private volatile boolean closed;
+
+    private static class Signal {
+        final String connectionId;
+        final SignalProperties properties;
+        final CallOptions options = CallOptions.current();
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Signal(String connectionId, SignalProperties properties) {
+            this.connectionId = connectionId;
+            this.properties = properties;
+        }
+    }
+
+    private static class SessionQueue {
+        final String sessionId;
+        final ArrayDeque<Signal> waiting = new ArrayDeque<>();
+        final AtomicInteger dispatching = new AtomicInteger();
+        int inFlight;
+        // Set once the queue is empty and idle and has been removed from the map; senders then start a new one
+        boolean retired;
+
+        SessionQueue(String sessionId) {
+            this.sessionId = sessionId;
+        }
+    }
+
+    private SignalDispatcher(Builder builder) {
+        client = builder.opentok.client;
+        maxInFlight = builder.maxInFlight;
+        maxQueueDepth = builder.maxQueueDepth;
+        overflowPolicy = builder.overflowPolicy;
+    }
+
+    /**
+     * Queues a signal to all clients connected to a session.
+     *
+     * @param sessionId The session ID.
+     * @param properties The SignalProperties object that defines the data and type of the signal.
+     *
+     * @return A future completed when the signal has been accepted by the OpenTok server, or failed with a
+     * {@link RequestException}.
+     */
+    public CompletableFuture<Void> send(String sessionId, SignalProperties properties) throws OpenTokException {
+        return send(sessionId, null, properties);
+    }
+
+    /**
+     * Queues a signal to a specific client connected to a session. It is ordered with all other signals
+     * sent to the session through this dispatcher.
+     *
+     * @param sessionId The session ID.
+     * @param connectionId The connection ID of the client to receive the signal, or {@code null} for all clients.
+     * @param properties The SignalProperties object that defines the data and type of the signal.
+     *
+     * @return A future completed when the signal has been accepted by the OpenTok server, or failed with a
+     * {@link RequestException}, e.g. with status code 404 when the client is not connected.
+     *
+     * @throws RequestException If the dispatcher is closed, or the queue is full and the overflow policy is
+     * {@link OverflowPolicy#REJECT}, or the caller is interrupted while waiting for room in the queue.
+     */
+    public CompletableFuture<Void> send(String sessionId, String connectionId, SignalProperties properties)
+            throws OpenTokException {
+        if (sessionId == null || sessionId.isEmpty()) {
+            throw new InvalidArgumentException("Session string null or empty");
+        }
+        if (properties == null) {
+            throw new InvalidArgumentException("Signal properties must not be null");
+        }
+        Signal signal = new Signal(connectionId, properties);
+        Signal evicted = null;
+        SessionQueue queue;
+        retry:
+        while (true) {
+            if (closed) {
+                throw new RequestException("Could not send a signal. The dispatcher is closed.");
+            }
+            queue = sessions.computeIfAbsent(sessionId, SessionQueue::new);
+            synchronized (queue) {
+                if (queue.retired || closed) {
+                    continue;
+                }
+                while (queue.waiting.size() >= maxQueueDepth) {
+                    if (overflowPolicy == OverflowPolicy.REJECT) {
+                        rejected.increment();
+                        throw new RequestException("Could not send a signal. The queue for session " + sessionId
+                                + " is full.");
+                    }
+                    if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                        evicted = queue.waiting.poll();
+                        queued.decrementAndGet();
+                        break;
+                    }
+                    try {
+                        queue.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RequestException("Could not send a signal. Interrupted while the queue was full.", e);
+                    }
+                    // The queue may have drained and been retired, or the dispatcher closed, while this waited
+                    if (closed || queue.retired) {
+                        continue retry;
+                    }
+                }
+                queue.waiting.add(signal);
+                queued.incrementAndGet();
+                break;
+            }
+        }
+        if (evicted != null) {
+            dropped.increment();
+            evicted.future.completeExceptionally(new RequestException("Could not send a signal. It was dropped "
+                    + "because the queue for session " + sessionId + " was full."));
+        }
+        dispatch(queue);
+        return signal.future;
+    }
+
+    /**
+     * Sends the queue's waiting signals while there is room in flight. Signals that fail on the calling thread,
+     * such as those too large to send, re-enter here; they only flag another pass, so the stack does not grow
+     * with the queue.
+     */
+    private void dispatch(SessionQueue queue) {
+        if (queue.dispatching.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            dispatchReady(queue);
+        }
+        while (queue.dispatching.decrementAndGet() != 0);
+    }
+
+    private void dispatchReady(SessionQueue queue) {
+        List<Signal> ready = new ArrayList<>();
+        synchronized (queue) {
+            while (queue.inFlight < maxInFlight && !queue.waiting.isEmpty()) {
+                ready.add(queue.waiting.poll());
+                queue.inFlight++;
+            }
+            if (!ready.isEmpty()) {
+                queued.addAndGet(-ready.size());
+                queue.notifyAll();
+            }
+            else if (queue.inFlight == 0 && queue.waiting.isEmpty()) {
+                queue.retired = true;
+                sessions.remove(queue.sessionId, queue);
+            }
+        }
+        for (Signal signal : ready) {
+            send(queue.sessionId, signal).whenComplete((body, e) -> {
+                synchronized (queue) {
+                    queue.inFlight--;
+                }
+                if (e == null) {
+                    sent.increment();
+                    signal.future.complete(null);
+                }
+                else {
+                    failed.increment();
+                    signal.future.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+                }
+                dispatch(queue);
+            });
+        }
+    }
+
+    private CompletableFuture<String> send(String sessionId, Signal signal) {
+        if (signal.options == null) {
+            return client.signalAsync(sessionId, signal.connectionId, signal.properties);
+        }
+        // Sent later, possibly from another thread, with the options in effect when it was queued
+        return signal.options.call(() -> client.signalAsync(sessionId, signal.connectionId, signal.properties));
+    }
+
+    /**
+     * @return The number of signals waiting to be sent, across all sessions.
+     */
+    public int getQueuedSignals() {
+        return queued.get();
+    }
+
+    /**
+     * @return The number of signals waiting to be sent to the given session.
+     */
+    public int getQueueDepth(String sessionId) {
+        SessionQueue queue = sessions.get(sessionId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.waiting.size();
+        }
+    }
+
+    /**
+     * @return The number of signals accepted by the OpenTok server.
+     */
+    public long getSentSignals() {
+        return sent.sum();
+    }
+
+    /**
+     * @return The number of signals that were sent and failed.
+     */
+    public long getFailedSignals() {
+        return failed.sum();
+    }
+
+    /**
+     * @return The number of queued signals dropped by the {@link OverflowPolicy#DROP_OLDEST} policy.
+     */
+    public long getDroppedSignals() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return The number of signals rejected by the {@link OverflowPolicy#REJECT} policy.
+     */
+    public long getRejectedSignals() {
+        return rejected.sum();
+    }
+
+    /**
+     * Stops accepting signals. Signals already queued are still sent. Callers waiting for room in a full queue
+     * fail with a {@link RequestException}. This does not close the OpenTok object.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (SessionQueue queue : sessions.values()) {
+            synchronized (queue) {
+                queue.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Used to create a SignalDispatcher object.
+     */
+    public static class Builder {
+        private final OpenTok opentok;
+        private int maxInFlight = 1, maxQueueDepth = 1000;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        /**
+         * @param opentok The OpenTok object whose HTTP client sends the signals.
+         */
+        public Builder(OpenTok opentok) {
+            if (opentok == null) {
+                throw new InvalidArgumentException("OpenTok is required.");
+            }
+            this.opentok = opentok;
+        }
+
+        /**
+         * Sets how many signals to each session may be in flight at once. The default, 1, guarantees that
+         * signals arrive in the order they were sent. Higher values send them in order without waiting for the
+         * previous response, so two signals in flight together may arrive in either order.
+         *
+         * @return This Builder.
+         */
+        public Builder maxInFlightPerSession(int maxInFlight) throws InvalidArgumentException {
+            if (maxInFlight < 1) {
+                throw new InvalidArgumentException("maxInFlightPerSession must be at least 1");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Sets how many signals may wait in each session's queue before the overflow policy applies.
+         * The default is 1000.
+         *
+         * @return This Builder.
+         */
+        public Builder maxQueueDepth(int maxQueueDepth) throws InvalidArgumentException {
+            if (maxQueueDepth < 1) {
+                throw new InvalidArgumentException("maxQueueDepth must be at least 1");
+            }
+            this.maxQueueDepth = maxQueueDepth;
+            return this;
+        }
+
+        /**
+         * Sets what happens when a session's queue is full. The default is {@link OverflowPolicy#BLOCK}.
+         *
+         * @return This Builder.
+         */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            if (overflowPolicy == null) {
+                throw new InvalidArgumentException("Overflow policy must not be null");
+            }
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Builds the SignalDispatcher object with the settings provided to this Builder object.
+         *
+         * @return The SignalDispatcher object.
+         */
+        public SignalDispatcher build() {
+            return new SignalDispatcher(this);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.callback.CallbackEvent;
+import com.opentok.callback.CallbackListener;
+import com.opentok.callback.StreamEvent;
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.OpenTokException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sets the layout class lists of streams, sending only the streams whose classes changed. The manager
+ * remembers the class lists each session last acknowledged, starting from those returned by
+ * {@link OpenTok#listStreams(String)} the first time a session is updated, so a layout engine can pass the
+ * full layout on every change and still have a single speaker change cost a one-stream update:
+ *
+ * <pre>
+ * StreamLayoutManager layouts = new StreamLayoutManager(opentok);
+ * layouts.setStreamLayouts(sessionId, fullLayout);
+ * </pre>
+ *
+ * An update in which no stream changed makes no call at all. Updates to the same session are applied one at
+ * a time, so the remembered class lists always match what the last update acknowledged. If an update fails,
+ * its streams are forgotten and sent again by the next update.
+ * <p>
+ * The class lists are only known to the manager when they are set through it. If they are also set in
+ * other ways, call {@link #forget(String)} so the session is read again. Registering the manager as a
+ * callback listener forgets destroyed streams.
+ */
+public class StreamLayoutManager implements CallbackListener {
+    private final OpenTok opentok;
+    private final ConcurrentHashMap<String, SessionLayout> sessions = new ConcurrentHashMap<>();
+    private final LongAdder updates = new LongAdder(), streamsSent = new LongAdder(), streamsSkipped = new LongAdder(),
+            skippedUpdates = new LongAdder();
+
+    /**
+     * The class lists a session last acknowledged, by stream ID. Guarded by itself.
+     */
+    private static class SessionLayout {
+        final Map<String, List<String>> classes = new HashMap<>();
+        boolean seeded;
+    }
+
+    /**
+     * @param opentok The OpenTok object used to read and set the layouts.
+     */
+    public StreamLayoutManager(OpenTok opentok) {
+        this.opentok = Objects.requireNonNull(opentok, "OpenTok is required.");
+    }
+
+    /**
+     * Sets the layout class lists of streams in a session, as {@link OpenTok#setStreamLayouts(String, StreamListProperties)}
+     * does, but sends only the streams whose class lists differ from the ones last acknowledged. If a stream is
+     * listed more than once, the last entry wins.
+     *
+     * @param sessionId The session ID of the session the streams belong to.
+     * @param properties The class lists of the streams, possibly of every stream in the session.
+     *
+     * @return The number of streams sent; 0 if nothing changed and no call was made.
+     */
+    public int setStreamLayouts(String sessionId, StreamListProperties properties) throws OpenTokException {
+        if (sessionId == null || sessionId.isEmpty() || properties == null) {
+            throw new InvalidArgumentException("SessionId is not valid or properties are null");
+        }
+        Map<String, StreamProperties> requested = new LinkedHashMap<>();
+        for (StreamProperties stream : properties.getStreamList()) {
+            requested.put(stream.id(), stream);
+        }
+        SessionLayout layout = sessions.computeIfAbsent(sessionId, id -> new SessionLayout());
+        synchronized (layout) {
+            if (!layout.seeded) {
+                seed(sessionId, layout);
+            }
+            StreamListProperties.Builder changes = new StreamListProperties.Builder();
+            List<StreamProperties> changed = new ArrayList<>(requested.size());
+            for (StreamProperties stream : requested.values()) {
+                if (stream.getLayoutClassList().equals(layout.classes.get(stream.id()))) {
+                    streamsSkipped.increment();
+                }
+                else {
+                    changes.addStreamProperties(stream);
+                    changed.add(stream);
+                }
+            }
+            if (changed.isEmpty()) {
+                skippedUpdates.increment();
+                return 0;
+            }
+            try {
+                opentok.setStreamLayouts(sessionId, changes.build());
+            }
+            catch (OpenTokException e) {
+                // The update may have been applied in part, so these streams are sent again next time
+                changed.forEach(stream -> layout.classes.remove(stream.id()));
+                throw e;
+            }
+            changed.forEach(stream -> layout.classes.put(stream.id(), new ArrayList<>(stream.getLayoutClassList())));
+            updates.increment();
+            streamsSent.add(changed.size());
+            return changed.size();
+        }
+    }
+
+    private void seed(String sessionId, SessionLayout layout) {
+        try {
+            for (Stream stream : opentok.listStreams(sessionId)) {
+                List<String> classes = stream.getLayoutClassList();
+                layout.classes.put(stream.getId(), classes != null ? new ArrayList<>(classes) : new ArrayList<>());
+            }
+            layout.seeded = true;
+        }
+        catch (OpenTokException e) {
+            // Without the current class lists, every stream is sent; the session is read again next time
+        }
+    }
+
+    /**
+     * @return The class list a stream last acknowledged, or {@code null} if it is not known.
+     */
+    public List<String> getLayoutClassList(String sessionId, String streamId) {
+        SessionLayout layout = sessions.get(sessionId);
+        if (layout == null) {
+            return null;
+        }
+        synchronized (layout) {
+            List<String> classes = layout.classes.get(streamId);
+            return classes != null ? Collections.unmodifiableList(new ArrayList<>(classes)) : null;
+        }
+    }
+
+    /**
+     * Forgets the class lists of a session, so that the next update reads them again.
+     *
+     * @param sessionId The session ID.
+     */
+    public void forget(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Forgets the class list of a stream, so that the next update that lists it sends it.
+     *
+     * @param sessionId The session ID.
+     * @param streamId The stream ID.
+     */
+    public void forget(String sessionId, String streamId) {
+        SessionLayout layout = sessions.get(sessionId);
+        if (layout != null) {
+            synchronized (layout) {
+                layout.classes.remove(streamId);
+            }
+        }
+    }
+
+    /**
+     * Forgets the class lists of destroyed streams. Other events are ignored.
+     *
+     * @param event The event.
+     */
+    @Override
+    public void onEvent(CallbackEvent event) {
+        if (event instanceof StreamEvent && !((StreamEvent) event).isCreated()) {
+            Stream stream = ((StreamEvent) event).getStream();
+            if (stream != null && stream.getId() != null) {
+                forget(event.getSessionId(), stream.getId());
+            }
+        }
+    }
+
+    /**
+     * @return The number of updates sent.
+     */
+    public long getUpdates() {
+        return updates.sum();
+    }
+
+    /**
+     * @return The number of streams sent, over all updates.
+     */
+    public long getStreamsSent() {
+        return streamsSent.sum();
+    }
+
+    /**
+     * @return The number of streams left out of updates because their class lists had not changed.
+     */
+    public long getStreamsSkipped() {
+        return streamsSkipped.sum();
+    }
+
+    /**
+     * @return The number of updates that made no call because no stream changed.
+     */
+    public long getSkippedUpdates() {
+        return skippedUpdates.sum();
+    }
+}
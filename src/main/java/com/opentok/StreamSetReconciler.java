@@ -0,0 +1,404 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok;
+
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.RequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the streams of archives and broadcasts that use {@link Archive.StreamMode#MANUAL} or
+ * {@link Broadcast.StreamMode#MANUAL} in step with the streams published, without a call for every publish
+ * and unpublish. The changes to each stream of an archive or broadcast are gathered for a short window, and
+ * changes that undo each other, such as a stream added and removed again within the window, cancel out and
+ * make no call:
+ *
+ * <pre>
+ * StreamSetReconciler streams = new StreamSetReconciler.Builder(opentok).build();
+ * // On streamCreated
+ * streams.addArchiveStream(archiveId, streamId, true, true);
+ * // On streamDestroyed
+ * streams.removeArchiveStream(archiveId, streamId);
+ * </pre>
+ *
+ * The net changes are applied by a bounded number of threads. Each stream has at most one change in flight,
+ * so the changes to a stream are applied in the order they were made, and the last one always wins.
+ * <p>
+ * The futures returned complete when the change is applied, or cancelled out, on the reconciler's threads,
+ * so callbacks attached to them must not block. The streams added are remembered until {@link #forget(String)}
+ * is called for their archive or broadcast. {@link #close()} applies the changes still gathered.
+ */
+public class StreamSetReconciler implements AutoCloseable {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final OpenTok opentok;
+    private final long windowNanos;
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    private final LongAdder changes = new LongAdder(), sent = new LongAdder(), cancelled = new LongAdder(),
+            failed = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Whether a stream is in the archive or broadcast, and with what media.
+     */
+    private static class Membership {
+        static final Membership REMOVED = new Membership(false, false, false, true);
+        // Added at some point before, with media that are not known
+        static final Membership ADDED = new Membership(true, true, true, false);
+
+        final boolean added, hasAudio, hasVideo, known;
+
+        Membership(boolean added, boolean hasAudio, boolean hasVideo, boolean known) {
+            this.added = added;
+            this.hasAudio = hasAudio;
+            this.hasVideo = hasVideo;
+            this.known = known;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Membership)) {
+                return false;
+            }
+            Membership other = (Membership) o;
+            return added == other.added && hasAudio == other.hasAudio && hasVideo == other.hasVideo
+                    && known == other.known;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(added, hasAudio, hasVideo, known);
+        }
+    }
+
+    /**
+     * The changes gathered for one stream of an archive or broadcast. Guarded by itself; lock the slot map
+     * entry first when both are locked.
+     */
+    private class Slot implements Runnable {
+        final String key, compositionId, streamId;
+        final boolean broadcast;
+        // What the last change applied left, or null if not known
+        Membership applied;
+        Membership first, desired;
+        List<CompletableFuture<Void>> waiting = new ArrayList<>(1);
+        boolean scheduled, inFlight;
+
+        Slot(String key, boolean broadcast, String compositionId, String streamId) {
+            this.key = key;
+            this.broadcast = broadcast;
+            this.compositionId = compositionId;
+            this.streamId = streamId;
+        }
+
+        void add(Membership change, CompletableFuture<Void> future) {
+            if (!scheduled && !inFlight) {
+                executor.schedule(this, windowNanos, TimeUnit.NANOSECONDS);
+                scheduled = true;
+            }
+            if (desired == null) {
+                first = change;
+            }
+            desired = change;
+            waiting.add(future);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Membership change;
+                List<CompletableFuture<Void>> futures;
+                boolean undone;
+                synchronized (this) {
+                    scheduled = false;
+                    change = desired;
+                    futures = waiting;
+                    // Without a change applied before, the stream is taken to be where the first change moved it from
+                    Membership before = applied != null ? applied : first != null && first.added
+                            ? Membership.REMOVED : Membership.ADDED;
+                    desired = null;
+                    first = null;
+                    waiting = new ArrayList<>(1);
+                    undone = change != null && change.equals(before);
+                    inFlight = change != null && !undone;
+                }
+                if (undone) {
+                    // The changes undid each other
+                    cancelled.add(futures.size());
+                    futures.forEach(future -> future.complete(null));
+                    continue;
+                }
+                if (change == null) {
+                    break;
+                }
+                RuntimeException error = null;
+                try {
+                    send(change);
+                    sent.increment();
+                }
+                catch (RuntimeException e) {
+                    failed.increment();
+                    error = e;
+                }
+                for (CompletableFuture<Void> future : futures) {
+                    if (error == null) {
+                        future.complete(null);
+                    }
+                    else {
+                        future.completeExceptionally(error);
+                    }
+                }
+                synchronized (this) {
+                    inFlight = false;
+                    applied = error == null ? change : null;
+                    if (desired == null) {
+                        break;
+                    }
+                    if (!closed) {
+                        scheduled = true;
+                        executor.schedule(this, windowNanos, TimeUnit.NANOSECONDS);
+                        return;
+                    }
+                }
+            }
+            // Streams left in the archive or broadcast are remembered, so removing and adding them again cancels out
+            slots.computeIfPresent(key, (k, slot) -> slot == this && isIdle(false) ? null : slot);
+        }
+
+        synchronized boolean isIdle(boolean forgetAdded) {
+            return desired == null && !scheduled && !inFlight && (forgetAdded || applied == null || !applied.added);
+        }
+
+        private void send(Membership change) {
+            if (broadcast) {
+                if (change.added) {
+                    opentok.addBroadcastStream(compositionId, streamId, change.hasAudio, change.hasVideo);
+                }
+                else {
+                    opentok.removeBroadcastStream(compositionId, streamId);
+                }
+            }
+            else if (change.added) {
+                opentok.addArchiveStream(compositionId, streamId, change.hasAudio, change.hasVideo);
+            }
+            else {
+                opentok.removeArchiveStream(compositionId, streamId);
+            }
+        }
+    }
+
+    private StreamSetReconciler(Builder builder) {
+        opentok = builder.opentok;
+        windowNanos = builder.windowNanos;
+        int id = INSTANCES.incrementAndGet();
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(builder.maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "opentok-stream-set-" + id + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a stream to an archive, as {@link OpenTok#addArchiveStream(String, String, boolean, boolean)} does.
+     *
+     * @return A future completed when the change is applied or cancelled out by a later one.
+     *
+     * @throws RequestException If the reconciler is closed.
+     */
+    public CompletableFuture<Void> addArchiveStream(String archiveId, String streamId, boolean hasAudio,
+            boolean hasVideo) throws RequestException {
+        return submit(false, archiveId, streamId, new Membership(true, hasAudio, hasVideo, true));
+    }
+
+    /**
+     * Removes a stream from an archive, as {@link OpenTok#removeArchiveStream(String, String)} does.
+     *
+     * @return A future completed when the change is applied or cancelled out by a later one.
+     *
+     * @throws RequestException If the reconciler is closed.
+     */
+    public CompletableFuture<Void> removeArchiveStream(String archiveId, String streamId) throws RequestException {
+        return submit(false, archiveId, streamId, Membership.REMOVED);
+    }
+
+    /**
+     * Adds a stream to a broadcast, as {@link OpenTok#addBroadcastStream(String, String, boolean, boolean)} does.
+     *
+     * @return A future completed when the change is applied or cancelled out by a later one.
+     *
+     * @throws RequestException If the reconciler is closed.
+     */
+    public CompletableFuture<Void> addBroadcastStream(String broadcastId, String streamId, boolean hasAudio,
+            boolean hasVideo) throws RequestException {
+        return submit(true, broadcastId, streamId, new Membership(true, hasAudio, hasVideo, true));
+    }
+
+    /**
+     * Removes a stream from a broadcast, as {@link OpenTok#removeBroadcastStream(String, String)} does.
+     *
+     * @return A future completed when the change is applied or cancelled out by a later one.
+     *
+     * @throws RequestException If the reconciler is closed.
+     */
+    public CompletableFuture<Void> removeBroadcastStream(String broadcastId, String streamId) throws RequestException {
+        return submit(true, broadcastId, streamId, Membership.REMOVED);
+    }
+
+    private CompletableFuture<Void> submit(boolean broadcast, String compositionId, String streamId, Membership change) {
+        if (compositionId == null || compositionId.isEmpty() || streamId == null || streamId.isEmpty()) {
+            throw new InvalidArgumentException("The " + (broadcast ? "broadcast" : "archive")
+                    + " ID and stream ID are required.");
+        }
+        String key = (broadcast ? "broadcast/" : "archive/") + compositionId + "/" + streamId;
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            slots.compute(key, (k, slot) -> {
+                Slot _slot = slot != null ? slot : new Slot(key, broadcast, compositionId, streamId);
+                synchronized (_slot) {
+                    if (closed) {
+                        throw new RejectedExecutionException();
+                    }
+                    _slot.add(change, future);
+                }
+                return _slot;
+            });
+        }
+        catch (RejectedExecutionException e) {
+            throw new RequestException("Could not change the streams. The reconciler is closed.");
+        }
+        changes.increment();
+        return future;
+    }
+
+    /**
+     * Forgets the streams of an archive or broadcast that has stopped. Changes still gathered for it are
+     * applied.
+     *
+     * @param id The archive or broadcast ID.
+     */
+    public void forget(String id) {
+        slots.forEach((key, slot) -> {
+            if (slot.compositionId.equals(id)) {
+                slots.computeIfPresent(key, (k, _slot) -> _slot == slot && slot.isIdle(true) ? null : _slot);
+            }
+        });
+    }
+
+    /**
+     * @return The number of stream changes made.
+     */
+    public long getChanges() {
+        return changes.sum();
+    }
+
+    /**
+     * @return The number of calls made to apply them.
+     */
+    public long getSent() {
+        return sent.sum();
+    }
+
+    /**
+     * @return The number of changes that cancelled out and made no call.
+     */
+    public long getCancelled() {
+        return cancelled.sum();
+    }
+
+    /**
+     * @return The number of calls that failed.
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * Stops accepting changes and waits up to 30 seconds for the changes still gathered to be applied.
+     */
+    @Override
+    public void close() {
+        close(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops accepting changes and waits up to the given time for the changes still gathered to be applied.
+     *
+     * @param timeout The time to wait.
+     * @param unit The unit of the timeout.
+     *
+     * @return Whether every change was applied in time.
+     */
+    public boolean close(long timeout, TimeUnit unit) {
+        closed = true;
+        // Changes already scheduled still run after the shutdown
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout, unit);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Used to create a StreamSetReconciler object.
+     */
+    public static class Builder {
+        private final OpenTok opentok;
+        private long windowNanos = TimeUnit.SECONDS.toNanos(1);
+        private int maxConcurrency = 4;
+
+        /**
+         * @param opentok The OpenTok object used to change the streams.
+         */
+        public Builder(OpenTok opentok) {
+            this.opentok = Objects.requireNonNull(opentok, "OpenTok is required.");
+        }
+
+        /**
+         * Sets how long the changes to a stream are gathered before the net change is applied. The default
+         * is 1 second, long enough for a client that republishes at once.
+         */
+        public Builder window(long window, TimeUnit unit) throws InvalidArgumentException {
+            if (window < 0 || unit == null) {
+                throw new InvalidArgumentException("The window must not be negative.");
+            }
+            this.windowNanos = unit.toNanos(window);
+            return this;
+        }
+
+        /**
+         * Sets the most changes applied at the same time. The default is 4.
+         */
+        public Builder maxConcurrency(int maxConcurrency) throws InvalidArgumentException {
+            if (maxConcurrency < 1) {
+                throw new InvalidArgumentException("The maximum concurrency must be at least 1.");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Builds the StreamSetReconciler object.
+         *
+         * @return The StreamSetReconciler object.
+         */
+        public StreamSetReconciler build() {
+            return new StreamSetReconciler(this);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+import com.opentok.Archive;
+
+/**
+ * An archive status callback.
+ */
+public class ArchiveEvent extends CallbackEvent {
+    private final Archive archive;
+
+    ArchiveEvent(String event, String sessionId, Archive archive) {
+        super(Type.ARCHIVE, event, sessionId);
+        this.archive = archive;
+    }
+
+    /**
+     * The archive, with its status at the time of the callback.
+     */
+    public Archive getArchive() {
+        return archive;
+    }
+}
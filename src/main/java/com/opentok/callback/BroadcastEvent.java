@@ -0,0 +1,29 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+import com.opentok.Broadcast;
+
+/**
+ * A live streaming broadcast status callback.
+ */
+public class BroadcastEvent extends CallbackEvent {
+    private final Broadcast broadcast;
+
+    BroadcastEvent(String event, String sessionId, Broadcast broadcast) {
+        super(Type.BROADCAST, event, sessionId);
+        this.broadcast = broadcast;
+    }
+
+    /**
+     * The broadcast, with its status at the time of the callback.
+     */
+    public Broadcast getBroadcast() {
+        return broadcast;
+    }
+}
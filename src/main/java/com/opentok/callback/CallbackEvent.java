@@ -0,0 +1,85 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+/**
+ * An event parsed from a callback by {@link CallbackParser}. Events of the known types are instances of
+ * the subclasses for the type, such as {@link ArchiveEvent} for archive status changes.
+ */
+public class CallbackEvent {
+
+    /**
+     * Enumerates the kinds of callbacks.
+     */
+    public enum Type {
+        /**
+         * An archive status change, an {@link ArchiveEvent}.
+         */
+        ARCHIVE,
+        /**
+         * A live streaming broadcast status change, a {@link BroadcastEvent}.
+         */
+        BROADCAST,
+        /**
+         * An Experience Composer status change, a {@link RenderEvent}.
+         */
+        RENDER,
+        /**
+         * A live captions status change, a {@link CaptionsEvent}.
+         */
+        CAPTIONS,
+        /**
+         * A SIP call event, a {@link SipCallEvent}.
+         */
+        SIP_CALL,
+        /**
+         * A session monitoring connection event, a {@link ConnectionEvent}.
+         */
+        CONNECTION,
+        /**
+         * A session monitoring stream event, a {@link StreamEvent}.
+         */
+        STREAM,
+        /**
+         * A callback of a kind the SDK does not know.
+         */
+        UNKNOWN
+    }
+
+    private final Type type;
+    private final String event;
+    private final String sessionId;
+
+    protected CallbackEvent(Type type, String event, String sessionId) {
+        this.type = type;
+        this.event = event;
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * The kind of callback.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * The <code>event</code> property of the callback, such as "archive" or "connectionCreated",
+     * or {@code null} if the callback has none.
+     */
+    public String getEvent() {
+        return event;
+    }
+
+    /**
+     * The session ID of the callback.
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+/**
+ * Receives the events of the callbacks received by a {@link CallbackReceiver}.
+ */
+@FunctionalInterface
+public interface CallbackListener {
+
+    /**
+     * Called on a worker thread of the receiver for each event. An exception thrown here is counted
+     * and does not stop the receiver.
+     *
+     * @param event The event.
+     */
+    void onEvent(CallbackEvent event);
+}
@@ -0,0 +1,231 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.opentok.Archive;
+import com.opentok.Broadcast;
+import com.opentok.Connection;
+import com.opentok.Render;
+import com.opentok.Sip;
+import com.opentok.Stream;
+import com.opentok.exception.OpenTokException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses the bodies of the callbacks the OpenTok platform sends to your application server: archive,
+ * broadcast, Experience Composer and live captions status callbacks, SIP call events and session monitoring
+ * connection and stream events.
+ * <p>
+ * A body may hold one callback, a JSON array of callbacks, or callbacks one after the other. Bodies are read
+ * from bytes with a streaming parser, without decoding them to a String first, and the readers are shared,
+ * so parsing is safe from any number of threads. The kind of each callback is told by its
+ * <code>event</code> property, or by its shape for the callbacks that have none (captions and Experience
+ * Composer callbacks).
+ */
+public class CallbackParser {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final JsonFactory factory = mapper.getFactory();
+    private static final ObjectReader archiveReader = mapper.readerFor(Archive.class),
+            broadcastReader = mapper.readerFor(Broadcast.class),
+            renderReader = mapper.readerFor(Render.class),
+            captionsReader = mapper.readerFor(CaptionsEvent.class),
+            monitoringReader = mapper.readerFor(Monitoring.class);
+
+    /**
+     * The payload of session monitoring and SIP call events.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class Monitoring {
+        @JsonProperty long timestamp;
+        @JsonProperty Connection connection;
+        @JsonProperty MonitoredStream stream;
+        @JsonProperty Sip call;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class MonitoredStream extends Stream {
+        @JsonProperty Connection connection;
+    }
+
+    private CallbackParser() {
+    }
+
+    /**
+     * Parses a callback body.
+     *
+     * @param body The body, encoded as UTF-8.
+     *
+     * @return The events in the body, in order.
+     */
+    public static List<CallbackEvent> parse(byte[] body) throws OpenTokException {
+        return parse(body, 0, body.length);
+    }
+
+    /**
+     * Parses a callback body held in part of an array.
+     *
+     * @param body The array holding the body, encoded as UTF-8.
+     * @param offset The index of the first byte of the body.
+     * @param length The length of the body.
+     *
+     * @return The events in the body, in order.
+     */
+    public static List<CallbackEvent> parse(byte[] body, int offset, int length) throws OpenTokException {
+        List<CallbackEvent> events = new ArrayList<>(1);
+        parse(body, offset, length, events::add);
+        return events;
+    }
+
+    /**
+     * Parses the remaining bytes of a buffer as a callback body. The position of the buffer is not changed.
+     *
+     * @param body The body, encoded as UTF-8.
+     *
+     * @return The events in the body, in order.
+     */
+    public static List<CallbackEvent> parse(ByteBuffer body) throws OpenTokException {
+        List<CallbackEvent> events = new ArrayList<>(1);
+        parse(body, events::add);
+        return events;
+    }
+
+    /**
+     * Parses a callback body held in part of an array, passing each event to the consumer as it is read.
+     * If the body is malformed, the events before the error have already been passed on.
+     *
+     * @param body The array holding the body, encoded as UTF-8.
+     * @param offset The index of the first byte of the body.
+     * @param length The length of the body.
+     * @param consumer Receives the events, in order.
+     */
+    public static void parse(byte[] body, int offset, int length, Consumer<? super CallbackEvent> consumer)
+            throws OpenTokException {
+        try (JsonParser parser = factory.createParser(body, offset, length)) {
+            parse(parser, consumer);
+        } catch (IOException e) {
+            throw new OpenTokException("Could not parse the callback body.", e);
+        }
+    }
+
+    /**
+     * Parses the remaining bytes of a buffer as a callback body, passing each event to the consumer as it
+     * is read. The position of the buffer is not changed.
+     *
+     * @param body The body, encoded as UTF-8.
+     * @param consumer Receives the events, in order.
+     */
+    public static void parse(ByteBuffer body, Consumer<? super CallbackEvent> consumer) throws OpenTokException {
+        if (body.hasArray()) {
+            parse(body.array(), body.arrayOffset() + body.position(), body.remaining(), consumer);
+            return;
+        }
+        try (JsonParser parser = factory.createParser(new ByteBufferBackedInputStream(body.duplicate()))) {
+            parse(parser, consumer);
+        } catch (IOException e) {
+            throw new OpenTokException("Could not parse the callback body.", e);
+        }
+    }
+
+    private static void parse(JsonParser parser, Consumer<? super CallbackEvent> consumer) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.START_ARRAY) {
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    consumer.accept(event(parser, token));
+                }
+            }
+            else {
+                consumer.accept(event(parser, token));
+            }
+        }
+    }
+
+    private static CallbackEvent event(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a callback object but found " + token);
+        }
+        TokenBuffer buffer = new TokenBuffer(parser);
+        buffer.copyCurrentStructure(parser);
+
+        // The properties that tell the kind of callback may come in any order, so look for them first
+        String event = null, sessionId = null;
+        boolean captions = false, url = false;
+        try (JsonParser fields = buffer.asParser()) {
+            fields.nextToken();
+            while (fields.nextToken() == JsonToken.FIELD_NAME) {
+                String name = fields.currentName();
+                fields.nextToken();
+                switch (name) {
+                    case "event":
+                        event = fields.getValueAsString();
+                        break;
+                    case "sessionId":
+                        sessionId = fields.getValueAsString();
+                        break;
+                    case "captionsId":
+                    case "captionId":
+                        captions = true;
+                        break;
+                    case "group":
+                        captions |= "captions".equals(fields.getValueAsString());
+                        break;
+                    case "url":
+                        url = true;
+                        break;
+                    default:
+                }
+                fields.skipChildren();
+            }
+        }
+
+        if (event == null ? captions : event.equals("captions")) {
+            return captionsReader.withValueToUpdate(new CaptionsEvent(event, sessionId)).readValue(buffer.asParser());
+        }
+        if (event == null) {
+            return url ? new RenderEvent(null, sessionId, renderReader.readValue(buffer.asParser()))
+                    : new CallbackEvent(CallbackEvent.Type.UNKNOWN, null, sessionId);
+        }
+        switch (event) {
+            case "archive":
+                return new ArchiveEvent(event, sessionId, archiveReader.readValue(buffer.asParser()));
+            case "broadcast":
+                return new BroadcastEvent(event, sessionId, broadcastReader.readValue(buffer.asParser()));
+            case "render":
+                return new RenderEvent(event, sessionId, renderReader.readValue(buffer.asParser()));
+            default:
+        }
+        if (event.startsWith("connection")) {
+            Monitoring monitoring = monitoringReader.readValue(buffer.asParser());
+            return new ConnectionEvent(event, sessionId, monitoring.timestamp, monitoring.connection);
+        }
+        if (event.startsWith("stream")) {
+            Monitoring monitoring = monitoringReader.readValue(buffer.asParser());
+            MonitoredStream stream = monitoring.stream;
+            return new StreamEvent(event, sessionId, monitoring.timestamp, stream, stream != null ? stream.connection : null);
+        }
+        if (event.startsWith("call")) {
+            return new SipCallEvent(event, sessionId, monitoringReader.<Monitoring>readValue(buffer.asParser()).call);
+        }
+        return new CallbackEvent(CallbackEvent.Type.UNKNOWN, event, sessionId);
+    }
+}
@@ -0,0 +1,535 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.OpenTokException;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A small HTTP server that receives the callbacks of the OpenTok platform and passes their events to
+ * {@link CallbackListener}s. Set the URL of the receiver as the callback URL of your project, or as the
+ * status callback URL of captions.
+ * <p>
+ * Callback bodies are parsed on the Netty event loop as they arrive, and their events are queued for a pool
+ * of worker threads that call the listeners, so slow listeners do not delay the responses the platform waits
+ * for. The queue is bounded: a callback whose events do not fit is answered with status 503, and the
+ * platform sends it again later. A callback with more events than the whole queue holds could never fit, and
+ * is answered with status 413. A malformed callback is answered with status 400.
+ *
+ * <pre>
+ * CallbackReceiver receiver = new CallbackReceiver.Builder().port(8080).path("/opentok/callbacks").build();
+ * receiver.addListener(ArchiveEvent.class, event -&gt; store(event.getArchive()));
+ * receiver.start();
+ * </pre>
+ *
+ * {@link #close()} stops accepting callbacks and waits for the queued events to be passed to the listeners;
+ * the events still queued at the drain timeout are dropped and counted.
+ */
+public class CallbackReceiver implements CallbackReceiverMXBean, AutoCloseable {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final String host;
+    private final int port, maxContentLength, queueCapacity, workerCount;
+    private final String path;
+    private final boolean registerMBean;
+    private final long drainTimeoutMillis;
+    private final List<CallbackListener> listeners = new CopyOnWriteArrayList<>();
+    private final LinkedBlockingQueue<CallbackEvent> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final LongAdder received = new LongAdder(), dispatched = new LongAdder(), rejected = new LongAdder(),
+            malformed = new LongAdder(), listenerErrors = new LongAdder(), dropped = new LongAdder();
+    private final List<Thread> workers = new ArrayList<>();
+    private EventLoopGroup group;
+    private Channel channel;
+    private ObjectName name;
+    // Closing: new callbacks are refused. Stopping: workers exit once the queue is empty.
+    private volatile boolean closing, stopping;
+
+    private CallbackReceiver(Builder builder) {
+        host = builder.host;
+        port = builder.port;
+        path = builder.path;
+        maxContentLength = builder.maxContentLength;
+        queueCapacity = builder.queueCapacity;
+        workerCount = builder.workers;
+        registerMBean = builder.registerMBean;
+        drainTimeoutMillis = builder.drainTimeoutMillis;
+        capacity = new Semaphore(queueCapacity);
+    }
+
+    /**
+     * Use this class to create a CallbackReceiver object.
+     *
+     * @see CallbackReceiver
+     */
+    public static class Builder {
+        private String host;
+        private int port = 0, maxContentLength = 1024 * 1024, queueCapacity = 10_000, workers = 1;
+        private String path;
+        private boolean registerMBean;
+        private long drainTimeoutMillis = 30_000;
+
+        /**
+         * Sets the local address to listen on. By default the receiver listens on all addresses.
+         *
+         * @param host The host name or IP address.
+         *
+         * @return The CallbackReceiver.Builder object with the address.
+         */
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * Sets the port to listen on. The default, 0, picks a free port; see {@link CallbackReceiver#getPort()}.
+         *
+         * @param port The port.
+         *
+         * @return The CallbackReceiver.Builder object with the port.
+         */
+        public Builder port(int port) throws InvalidArgumentException {
+            if (port < 0 || port > 65535) {
+                throw new InvalidArgumentException("Port must be between 0 and 65535");
+            }
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Sets the only path callbacks are accepted on; requests to other paths are answered with status 404.
+         * By default callbacks are accepted on any path.
+         *
+         * @param path The path, such as "/opentok/callbacks".
+         *
+         * @return The CallbackReceiver.Builder object with the path.
+         */
+        public Builder path(String path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Sets the largest callback body accepted, in bytes. The default is 1 MB.
+         *
+         * @param maxContentLength The maximum body size.
+         *
+         * @return The CallbackReceiver.Builder object with the size.
+         */
+        public Builder maxContentLength(int maxContentLength) throws InvalidArgumentException {
+            if (maxContentLength < 1) {
+                throw new InvalidArgumentException("maxContentLength must be at least 1");
+            }
+            this.maxContentLength = maxContentLength;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of events waiting for a worker. The default is 10000.
+         *
+         * @param queueCapacity The queue capacity.
+         *
+         * @return The CallbackReceiver.Builder object with the capacity.
+         */
+        public Builder queueCapacity(int queueCapacity) throws InvalidArgumentException {
+            if (queueCapacity < 1) {
+                throw new InvalidArgumentException("queueCapacity must be at least 1");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets the number of worker threads calling the listeners. The default is 1, which passes the events
+         * to the listeners in the order they were received; with more workers, events are passed on
+         * concurrently and their order is not defined.
+         *
+         * @param workers The number of workers.
+         *
+         * @return The CallbackReceiver.Builder object with the number of workers.
+         */
+        public Builder workers(int workers) throws InvalidArgumentException {
+            if (workers < 1) {
+                throw new InvalidArgumentException("workers must be at least 1");
+            }
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Sets how long {@link CallbackReceiver#close()} waits for the queued events to be passed to the
+         * listeners. The default is 30 seconds.
+         *
+         * @param timeout The time to wait.
+         * @param unit The unit of the timeout.
+         *
+         * @return The CallbackReceiver.Builder object with the timeout.
+         */
+        public Builder drainTimeout(long timeout, TimeUnit unit) throws InvalidArgumentException {
+            if (timeout < 0 || unit == null) {
+                throw new InvalidArgumentException("Timeout must not be negative");
+            }
+            this.drainTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Registers a JMX MBean ({@code com.opentok:type=CallbackReceiver}) with the queue depth and the
+         * counts of received, dispatched and rejected callbacks while the receiver runs.
+         *
+         * @param registerMBean Whether to register the MBean.
+         *
+         * @return The CallbackReceiver.Builder object with the setting.
+         */
+        public Builder registerMBean(boolean registerMBean) {
+            this.registerMBean = registerMBean;
+            return this;
+        }
+
+        /**
+         * Builds the CallbackReceiver object. Call {@link CallbackReceiver#start()} to start receiving.
+         *
+         * @return The CallbackReceiver object.
+         */
+        public CallbackReceiver build() {
+            return new CallbackReceiver(this);
+        }
+    }
+
+    /**
+     * Registers a listener for all events.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(CallbackListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers a listener for the events of one class, such as {@link ArchiveEvent}.
+     *
+     * @param type The class of the events.
+     * @param listener The listener.
+     *
+     * @return The listener registered, to pass to {@link #removeListener(CallbackListener)}.
+     */
+    public <T extends CallbackEvent> CallbackListener addListener(Class<T> type, Consumer<? super T> listener) {
+        CallbackListener typed = event -> {
+            if (type.isInstance(event)) {
+                listener.accept(type.cast(event));
+            }
+        };
+        listeners.add(typed);
+        return typed;
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(CallbackListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts the workers and listens for callbacks.
+     *
+     * @return This receiver.
+     */
+    public synchronized CallbackReceiver start() throws OpenTokException {
+        if (channel != null) {
+            return this;
+        }
+        int id = INSTANCES.incrementAndGet();
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "opentok-callback-" + id + "-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        group = new NioEventLoopGroup(1, new DefaultThreadFactory("opentok-callback-io-" + id, true));
+        ReceiverHandler handler = new ReceiverHandler();
+        ServerBootstrap bootstrap = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new HttpServerCodec(), new HttpObjectAggregator(maxContentLength), handler);
+                    }
+                });
+        try {
+            channel = (host != null ? bootstrap.bind(host, port) : bootstrap.bind(port)).sync().channel();
+        }
+        catch (Exception e) {
+            stopping = true;
+            group.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+            throw new OpenTokException("Could not start the callback receiver", e);
+        }
+        if (registerMBean) {
+            try {
+                name = new ObjectName("com.opentok:type=CallbackReceiver,port=" + getPort() + ",id=" + id);
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+            catch (JMException e) {
+                // Not left listening with no way to close it
+                closing = true;
+                stopping = true;
+                channel.close().syncUninterruptibly();
+                group.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+                channel = null;
+                throw new IllegalStateException("Could not register the callback receiver MBean", e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return The port the receiver listens on, or -1 if it is not started.
+     */
+    public synchronized int getPort() {
+        return channel != null ? ((InetSocketAddress) channel.localAddress()).getPort() : -1;
+    }
+
+    /**
+     * Stops accepting callbacks, answers the requests already received, and waits up to the drain timeout
+     * for the queued events to be passed to the listeners.
+     */
+    @Override
+    public void close() {
+        close(drainTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops accepting callbacks, answers the requests already received, and waits up to the given time
+     * for the queued events to be passed to the listeners. Callbacks arriving meanwhile are answered with
+     * status 503, so the platform sends them again to another receiver. The events still queued at the
+     * deadline are dropped, and the workers still calling a listener are then interrupted.
+     *
+     * @param timeout The time to wait.
+     * @param unit The unit of the timeout.
+     *
+     * @return The number of queued events dropped, 0 if all were passed to the listeners in time.
+     */
+    public synchronized int close(long timeout, TimeUnit unit) {
+        if (channel == null || stopping) {
+            return 0;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        closing = true;
+        channel.close().syncUninterruptibly();
+        // Lets the connections already open finish the requests they are handling
+        group.shutdownGracefully(0, Math.max(1, unit.toMillis(timeout)), TimeUnit.MILLISECONDS).awaitUninterruptibly();
+        // No more events are queued now, so the workers can exit once the queue is empty
+        stopping = true;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // Taken from the queue first, so that no worker starts on them once interrupted
+        List<CallbackEvent> left = new ArrayList<>();
+        queue.drainTo(left);
+        capacity.release(left.size());
+        dropped.add(left.size());
+        for (Thread worker : workers) {
+            if (worker.isAlive()) {
+                worker.interrupt();
+            }
+        }
+        if (name != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            }
+            catch (JMException e) {
+                // Already gone
+            }
+        }
+        return left.size();
+    }
+
+    private void work() {
+        while (true) {
+            CallbackEvent event;
+            try {
+                event = queue.poll(100, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+            if (event == null) {
+                if (stopping) {
+                    return;
+                }
+                continue;
+            }
+            capacity.release();
+            for (CallbackListener listener : listeners) {
+                try {
+                    listener.onEvent(event);
+                }
+                catch (RuntimeException e) {
+                    listenerErrors.increment();
+                }
+            }
+            dispatched.increment();
+        }
+    }
+
+    @ChannelHandler.Sharable
+    private final class ReceiverHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+            if (!request.decoderResult().isSuccess()) {
+                respond(ctx, request, HttpResponseStatus.BAD_REQUEST);
+                return;
+            }
+            if (path != null && !path.equals(new QueryStringDecoder(request.uri()).path())) {
+                respond(ctx, request, HttpResponseStatus.NOT_FOUND);
+                return;
+            }
+            if (!HttpMethod.POST.equals(request.method())) {
+                respond(ctx, request, HttpResponseStatus.METHOD_NOT_ALLOWED);
+                return;
+            }
+            List<CallbackEvent> events;
+            try {
+                events = CallbackParser.parse(request.content().nioBuffer());
+            }
+            catch (OpenTokException e) {
+                malformed.increment();
+                respond(ctx, request, HttpResponseStatus.BAD_REQUEST);
+                return;
+            }
+            if (closing) {
+                rejected.increment();
+                respond(ctx, request, HttpResponseStatus.SERVICE_UNAVAILABLE);
+                return;
+            }
+            if (events.size() > queueCapacity) {
+                rejected.increment();
+                respond(ctx, request, HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+            // All the events of a callback are queued or none are, so a retried callback is not half repeated
+            if (!capacity.tryAcquire(events.size())) {
+                rejected.increment();
+                respond(ctx, request, HttpResponseStatus.SERVICE_UNAVAILABLE);
+                return;
+            }
+            queue.addAll(events);
+            received.add(events.size());
+            respond(ctx, request, HttpResponseStatus.OK);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+
+        private void respond(ChannelHandlerContext ctx, FullHttpRequest request, HttpResponseStatus status) {
+            FullHttpResponse response = new DefaultFullHttpResponse(request.protocolVersion(), status);
+            response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, 0);
+            boolean keepAlive = HttpUtil.isKeepAlive(request) && !closing;
+            if (keepAlive) {
+                if (!request.protocolVersion().isKeepAliveDefault()) {
+                    response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+                }
+                ctx.writeAndFlush(response);
+            }
+            else {
+                response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+                ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+    }
+
+    @Override
+    public int getQueuedEvents() {
+        return queue.size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public long getReceivedEvents() {
+        return received.sum();
+    }
+
+    @Override
+    public long getDispatchedEvents() {
+        return dispatched.sum();
+    }
+
+    @Override
+    public long getRejectedRequests() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getMalformedRequests() {
+        return malformed.sum();
+    }
+
+    @Override
+    public long getListenerErrors() {
+        return listenerErrors.sum();
+    }
+
+    @Override
+    public long getDroppedEvents() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+/**
+ * Management interface for the state of a {@link CallbackReceiver}, registered under
+ * {@code com.opentok:type=CallbackReceiver} when enabled with
+ * {@link CallbackReceiver.Builder#registerMBean(boolean)}.
+ */
+public interface CallbackReceiverMXBean {
+
+    /**
+     * @return The number of events waiting for a worker.
+     */
+    int getQueuedEvents();
+
+    /**
+     * @return The maximum number of events waiting for a worker.
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return The number of events received and queued.
+     */
+    long getReceivedEvents();
+
+    /**
+     * @return The number of events passed to the listeners.
+     */
+    long getDispatchedEvents();
+
+    /**
+     * @return The number of requests rejected with status 503 because the queue was full or the receiver was
+     * closing, or with status 413 because they held more events than the queue.
+     */
+    long getRejectedRequests();
+
+    /**
+     * @return The number of requests rejected with status 400 because their body was not a callback.
+     */
+    long getMalformedRequests();
+
+    /**
+     * @return The number of exceptions thrown by listeners.
+     */
+    long getListenerErrors();
+
+    /**
+     * @return The number of queued events dropped because they were not passed to the listeners before the
+     * drain timeout of {@link CallbackReceiver#close(long, java.util.concurrent.TimeUnit)}.
+     */
+    long getDroppedEvents();
+}
@@ -0,0 +1,88 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A live captions status callback, sent to the status callback URL set with
+ * {@link com.opentok.CaptionProperties.Builder#statusCallbackUrl(String)}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CaptionsEvent extends CallbackEvent {
+    @JsonProperty @JsonAlias("captionId") private String captionsId;
+    @JsonProperty private String status;
+    @JsonProperty private String reason;
+    @JsonProperty private String languageCode;
+    @JsonProperty private String provider;
+    @JsonProperty private long createdAt;
+    @JsonProperty private long updatedAt;
+    @JsonProperty private int duration;
+
+    CaptionsEvent(String event, String sessionId) {
+        super(Type.CAPTIONS, event, sessionId);
+    }
+
+    /**
+     * The captions ID, as returned by {@link com.opentok.OpenTok#startCaptions}.
+     */
+    public String getCaptionsId() {
+        return captionsId;
+    }
+
+    /**
+     * The status of the captions: "started", "stopped", "paused" or "failed".
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * The reason for the status, for example why the captions stopped or failed.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * The language code of the captions, such as "en-US".
+     */
+    public String getLanguageCode() {
+        return languageCode;
+    }
+
+    /**
+     * The transcription provider.
+     */
+    public String getProvider() {
+        return provider;
+    }
+
+    /**
+     * The time the captions were started, in milliseconds since the Unix epoch.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * The time the status last changed, in milliseconds since the Unix epoch.
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * The duration of the captions so far, in seconds.
+     */
+    public int getDuration() {
+        return duration;
+    }
+}
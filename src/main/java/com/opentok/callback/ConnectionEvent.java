@@ -0,0 +1,46 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+import com.opentok.Connection;
+
+/**
+ * A session monitoring callback for a client connecting to ("connectionCreated") or disconnecting from
+ * ("connectionDestroyed") a session.
+ */
+public class ConnectionEvent extends CallbackEvent {
+    private final long timestamp;
+    private final Connection connection;
+
+    ConnectionEvent(String event, String sessionId, long timestamp, Connection connection) {
+        super(Type.CONNECTION, event, sessionId);
+        this.timestamp = timestamp;
+        this.connection = connection;
+    }
+
+    /**
+     * The time of the event, in milliseconds since the Unix epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * The connection.
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Whether the client connected ("connectionCreated").
+     */
+    public boolean isCreated() {
+        return "connectionCreated".equals(getEvent());
+    }
+}
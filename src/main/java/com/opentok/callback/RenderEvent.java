@@ -0,0 +1,29 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+import com.opentok.Render;
+
+/**
+ * An Experience Composer status callback.
+ */
+public class RenderEvent extends CallbackEvent {
+    private final Render render;
+
+    RenderEvent(String event, String sessionId, Render render) {
+        super(Type.RENDER, event, sessionId);
+        this.render = render;
+    }
+
+    /**
+     * The Experience Composer, with its status at the time of the callback.
+     */
+    public Render getRender() {
+        return render;
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+import com.opentok.Sip;
+
+/**
+ * A SIP call callback, such as "callCreated" or "callDestroyed".
+ */
+public class SipCallEvent extends CallbackEvent {
+    private final Sip call;
+
+    SipCallEvent(String event, String sessionId, Sip call) {
+        super(Type.SIP_CALL, event, sessionId);
+        this.call = call;
+    }
+
+    /**
+     * The SIP call.
+     */
+    public Sip getCall() {
+        return call;
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.callback;
+
+import com.opentok.Connection;
+import com.opentok.Stream;
+
+/**
+ * A session monitoring callback for a stream being published to ("streamCreated") or unpublished from
+ * ("streamDestroyed") a session.
+ */
+public class StreamEvent extends CallbackEvent {
+    private final long timestamp;
+    private final Stream stream;
+    private final Connection connection;
+
+    StreamEvent(String event, String sessionId, long timestamp, Stream stream, Connection connection) {
+        super(Type.STREAM, event, sessionId);
+        this.timestamp = timestamp;
+        this.stream = stream;
+        this.connection = connection;
+    }
+
+    /**
+     * The time of the event, in milliseconds since the Unix epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * The stream.
+     */
+    public Stream getStream() {
+        return stream;
+    }
+
+    /**
+     * The connection of the client publishing the stream.
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Whether the stream was published ("streamCreated").
+     */
+    public boolean isCreated() {
+        return "streamCreated".equals(getEvent());
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+/**
+ * Parses the callbacks the OpenTok platform sends to your application server into typed events.
+ */
+package com.opentok.callback;
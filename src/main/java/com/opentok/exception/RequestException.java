@@ -14,11 +14,21 @@ public class RequestException extends OpenTokException {
 
     private static final long serialVersionUID = -3852834447530956514L;
 
+    private final int statusCode;
+
     /**
      * Constructor. Do not use.
      */
     public RequestException(String message) {
+        this(message, 0);
+    }
+
+    /**
+     * Constructor. Do not use.
+     */
+    public RequestException(String message, int statusCode) {
         super(message);
+        this.statusCode = statusCode;
     }
 
     /**
@@ -26,6 +36,16 @@ public class RequestException extends OpenTokException {
      */
     public RequestException(String message, Throwable cause) {
         super(message, cause);
+        statusCode = 0;
+    }
+
+    /**
+     * The HTTP status code of the failed call, for example 404 when a signal's target client is not connected.
+     *
+     * @return The status code, or 0 if it is not known (for example, when no response was received).
+     */
+    public int getStatusCode() {
+        return statusCode;
     }
 
 }
@@ -0,0 +1,127 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util;
+
+import com.opentok.BatchResult;
+import com.opentok.CallOptions;
+import com.opentok.exception.OpenTokException;
+import com.opentok.exception.RequestException;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs an asynchronous call for each of many IDs with at most a given number in flight, collecting the
+ * outcome of every call instead of stopping at the first failure. New calls are started from the
+ * completion of earlier ones, so no thread waits while the calls are in flight.
+ */
+public class BatchRunner {
+    private final List<String> ids;
+    private final Function<String, CompletableFuture<?>> call;
+    private final int maxConcurrency;
+    private final CallOptions options = CallOptions.current();
+    private final Map<String, RequestException> failures = new ConcurrentHashMap<>();
+    private final CompletableFuture<BatchResult> result = new CompletableFuture<>();
+    private final AtomicInteger inFlight = new AtomicInteger(), remaining, pumping = new AtomicInteger();
+    private int next;
+
+    private BatchRunner(Collection<String> ids, Function<String, CompletableFuture<?>> call, int maxConcurrency) {
+        this.ids = new ArrayList<>(new LinkedHashSet<>(ids));
+        this.call = call;
+        this.maxConcurrency = maxConcurrency;
+        remaining = new AtomicInteger(this.ids.size());
+    }
+
+    /**
+     * @param ids The IDs to make the call for. Duplicates are only called once.
+     * @param call Starts the call for one ID.
+     * @param maxConcurrency The maximum number of calls in flight.
+     *
+     * @return A future completed with the outcome for every ID once all calls have completed.
+     */
+    public static CompletableFuture<BatchResult> run(Collection<String> ids,
+            Function<String, CompletableFuture<?>> call, int maxConcurrency) {
+        BatchRunner runner = new BatchRunner(ids, call, maxConcurrency);
+        if (runner.ids.isEmpty()) {
+            runner.complete();
+        }
+        else {
+            runner.pump();
+        }
+        return runner.result;
+    }
+
+    /**
+     * Starts calls until the limit is reached. Completions that happen on the calling thread re-enter
+     * here; they only flag another pass, so the stack does not grow with the number of IDs.
+     */
+    private void pump() {
+        if (pumping.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (next < ids.size() && inFlight.get() < maxConcurrency) {
+                inFlight.incrementAndGet();
+                start(ids.get(next++));
+            }
+        }
+        while (pumping.decrementAndGet() != 0);
+    }
+
+    private void start(String id) {
+        CompletableFuture<?> future;
+        try {
+            // Calls after the first ones start on I/O threads, so the caller's options go with them
+            future = options != null ? options.call(() -> call.apply(id)) : call.apply(id);
+        }
+        catch (RuntimeException e) {
+            CompletableFuture<Object> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            future = failed;
+        }
+        future.whenComplete((value, e) -> {
+            if (e != null) {
+                failures.put(id, toRequestException(e));
+            }
+            inFlight.decrementAndGet();
+            if (remaining.decrementAndGet() == 0) {
+                complete();
+            }
+            else {
+                pump();
+            }
+        });
+    }
+
+    private void complete() {
+        List<String> succeeded = new ArrayList<>();
+        Map<String, RequestException> failed = new LinkedHashMap<>();
+        for (String id : ids) {
+            RequestException failure = failures.get(id);
+            if (failure == null) {
+                succeeded.add(id);
+            }
+            else {
+                failed.put(id, failure);
+            }
+        }
+        result.complete(new BatchResult(succeeded, failed));
+    }
+
+    static RequestException toRequestException(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RequestException) {
+            return (RequestException) cause;
+        }
+        return new RequestException(cause instanceof OpenTokException ? cause.getMessage() : cause.toString(), cause);
+    }
+}
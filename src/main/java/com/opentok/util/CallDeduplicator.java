@@ -0,0 +1,121 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util;
+
+import com.opentok.CallOptions;
+import com.opentok.exception.RequestException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Makes one call for concurrent calls with the same key: the first caller makes the call, and callers
+ * arriving while it is in flight wait for its result instead. A successful result is also returned to
+ * callers arriving within a window after it completed; a failure is only shared with the callers that
+ * were already waiting.
+ */
+public class CallDeduplicator {
+    private static final int SWEEP_INTERVAL = 256;
+
+    private final long windowNanos;
+    private final ConcurrentHashMap<Object, Call> calls = new ConcurrentHashMap<>();
+    private final AtomicInteger started = new AtomicInteger();
+
+    private static class Call {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        // Written before the result is completed, so readers that see the result see this too
+        volatile long expiresAt;
+
+        boolean isExpired(long now) {
+            return result.isDone() && now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * @param windowMillis How long a successful result is returned to later callers, in milliseconds.
+     */
+    public CallDeduplicator(long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    /**
+     * Makes the call, or returns the result of the call in flight or recently completed for the key.
+     * A caller waiting for another caller's call gives up at the deadline of its {@link CallOptions}.
+     *
+     * @param key The key of the call; calls with equal keys are duplicates.
+     * @param call Makes the call.
+     *
+     * @return The result of the call.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T call(Object key, Supplier<T> call) throws RequestException {
+        while (true) {
+            Call mine = new Call();
+            Call existing = calls.putIfAbsent(key, mine);
+            if (existing != null) {
+                if (existing.isExpired(System.nanoTime())) {
+                    calls.remove(key, existing);
+                    continue;
+                }
+                return (T) await(existing);
+            }
+            if (started.incrementAndGet() % SWEEP_INTERVAL == 0) {
+                sweep();
+            }
+            T value;
+            try {
+                value = call.get();
+            } catch (Throwable e) {
+                // Errors too, or the call would stay in flight and its waiters would never return
+                calls.remove(key, mine);
+                mine.result.completeExceptionally(e);
+                throw e;
+            }
+            mine.expiresAt = System.nanoTime() + windowNanos;
+            mine.result.complete(value);
+            if (windowNanos == 0) {
+                calls.remove(key, mine);
+            }
+            return value;
+        }
+    }
+
+    private static Object await(Call call) throws RequestException {
+        CallOptions options = CallOptions.current();
+        try {
+            if (options != null && options.hasDeadline()) {
+                return call.result.get(Math.max(0, options.remainingMillis()), TimeUnit.MILLISECONDS);
+            }
+            return call.result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RequestException("The duplicated call failed.", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RequestException("The call deadline passed while waiting for a duplicated call.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestException("Interrupted while waiting for a duplicated call.", e);
+        }
+    }
+
+    private void sweep() {
+        long now = System.nanoTime();
+        calls.forEach((key, call) -> {
+            if (call.isExpired(now)) {
+                calls.remove(key, call);
+            }
+        });
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util;
+
+import org.asynchttpclient.ClientStats;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the request counters of an {@link HttpClient} and publishes them over JMX.
+ */
+public class ClientMetrics implements ClientMetricsMXBean {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+    private static final int LATENCY_WINDOW = 1024;
+
+    private final ConcurrentHashMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder authTokenHits = new LongAdder(), authTokenMisses = new LongAdder();
+    private final LatencyWindow latencies = new LatencyWindow(LATENCY_WINDOW);
+    private HttpClient client;
+    private ObjectName name;
+
+    void register(HttpClient client, String apiKey) {
+        this.client = client;
+        try {
+            name = new ObjectName("com.opentok:type=HttpClient,apiKey=" + ObjectName.quote(apiKey)
+                    + ",id=" + INSTANCES.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        }
+        catch (JMException ex) {
+            throw new IllegalStateException("Could not register the OpenTok client MBean", ex);
+        }
+    }
+
+    void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (name != null && server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+        catch (JMException ex) {
+            // Already gone
+        }
+    }
+
+    /**
+     * @return The name this client's MBean is registered under, or {@code null} if it is not registered.
+     */
+    public ObjectName getObjectName() {
+        return name;
+    }
+
+    long requestStarted(String endpoint) {
+        inFlight.computeIfAbsent(endpoint, e -> new AtomicInteger()).incrementAndGet();
+        return System.nanoTime();
+    }
+
+    void requestCompleted(String endpoint, int status, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        inFlight.get(endpoint).decrementAndGet();
+        completed.increment();
+        if (status == 0 || status >= 400) {
+            errors.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+        latencies.record(elapsed);
+    }
+
+    void authTokenLookup(boolean hit) {
+        (hit ? authTokenHits : authTokenMisses).increment();
+    }
+
+    @Override
+    public long getActiveConnections() {
+        ClientStats stats = client.getClientStats();
+        return stats.getTotalActiveConnectionCount();
+    }
+
+    @Override
+    public long getIdleConnections() {
+        ClientStats stats = client.getClientStats();
+        return stats.getTotalIdleConnectionCount();
+    }
+
+    @Override
+    public int getInFlightRequests() {
+        int total = 0;
+        for (AtomicInteger count : inFlight.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Integer> getInFlightRequestsByEndpoint() {
+        Map<String, Integer> result = new TreeMap<>();
+        inFlight.forEach((endpoint, count) -> {
+            if (count.get() > 0) {
+                result.put(endpoint, count.get());
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public int getQueuedRequests() {
+        RequestScheduler scheduler = client.getScheduler();
+        return scheduler != null ? scheduler.getQueuedRequests() : 0;
+    }
+
+    @Override
+    public Map<String, Integer> getQueuedRequestsByPriority() {
+        Map<String, Integer> result = new TreeMap<>();
+        RequestScheduler scheduler = client.getScheduler();
+        if (scheduler != null) {
+            scheduler.getQueuedRequestsByPriority().forEach((priority, count) -> result.put(priority.name(), count));
+        }
+        return result;
+    }
+
+    @Override
+    public long getCompletedRequests() {
+        return completed.sum();
+    }
+
+    @Override
+    public Map<Integer, Long> getErrorsByStatus() {
+        Map<Integer, Long> result = new TreeMap<>();
+        errors.forEach((status, count) -> result.put(status, count.sum()));
+        return result;
+    }
+
+    @Override
+    public double getLatency50thPercentileMillis() {
+        return latencies.percentileMillis(0.5);
+    }
+
+    @Override
+    public double getLatency90thPercentileMillis() {
+        return latencies.percentileMillis(0.9);
+    }
+
+    @Override
+    public double getLatency99thPercentileMillis() {
+        return latencies.percentileMillis(0.99);
+    }
+
+    @Override
+    public double getLatencyMaxMillis() {
+        return latencies.percentileMillis(1);
+    }
+
+    @Override
+    public long getAuthTokenCacheHits() {
+        return authTokenHits.sum();
+    }
+
+    @Override
+    public long getAuthTokenCacheMisses() {
+        return authTokenMisses.sum();
+    }
+
+    @Override
+    public double getAuthTokenCacheHitRatio() {
+        long hits = authTokenHits.sum(), total = hits + authTokenMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util;
+
+import java.util.Map;
+
+/**
+ * Management interface for the state of an OpenTok client's HTTP transport, registered under
+ * {@code com.opentok:type=HttpClient} when JMX is enabled with
+ * {@link com.opentok.OpenTok.Builder#registerMBeans(boolean)}.
+ */
+public interface ClientMetricsMXBean {
+
+    /**
+     * @return The number of pooled connections currently serving a request.
+     */
+    long getActiveConnections();
+
+    /**
+     * @return The number of pooled connections waiting to be reused.
+     */
+    long getIdleConnections();
+
+    /**
+     * @return The number of requests sent and not yet completed.
+     */
+    int getInFlightRequests();
+
+    /**
+     * @return The in-flight requests keyed by endpoint, e.g. {@code POST /archive/{id}/stop}.
+     */
+    Map<String, Integer> getInFlightRequestsByEndpoint();
+
+    /**
+     * @return The number of requests waiting for the request scheduler to send them, or 0 without a scheduler.
+     */
+    int getQueuedRequests();
+
+    /**
+     * @return The requests waiting for the request scheduler keyed by priority, e.g. {@code BULK}.
+     */
+    Map<String, Integer> getQueuedRequestsByPriority();
+
+    /**
+     * @return The number of requests completed since the client was created, including failures.
+     */
+    long getCompletedRequests();
+
+    /**
+     * @return The failed requests keyed by HTTP status code, with {@code 0} counting requests that got no response.
+     */
+    Map<Integer, Long> getErrorsByStatus();
+
+    /**
+     * @return The median latency of the most recent requests, in milliseconds.
+     */
+    double getLatency50thPercentileMillis();
+
+    /**
+     * @return The 90th percentile latency of the most recent requests, in milliseconds.
+     */
+    double getLatency90thPercentileMillis();
+
+    /**
+     * @return The 99th percentile latency of the most recent requests, in milliseconds.
+     */
+    double getLatency99thPercentileMillis();
+
+    /**
+     * @return The highest latency of the most recent requests, in milliseconds.
+     */
+    double getLatencyMaxMillis();
+
+    /**
+     * @return The number of requests signed with a cached REST authentication token.
+     */
+    long getAuthTokenCacheHits();
+
+    /**
+     * @return The number of requests that needed a newly generated REST authentication token.
+     */
+    long getAuthTokenCacheMisses();
+
+    /**
+     * @return The fraction of requests signed with a cached REST authentication token, between 0 and 1.
+     */
+    double getAuthTokenCacheHitRatio();
+}
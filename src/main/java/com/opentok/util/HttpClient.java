@@ -28,30 +28,404 @@ import org.asynchttpclient.filter.FilterContext;
 import org.asynchttpclient.filter.FilterException;
 import org.asynchttpclient.filter.RequestFilter;
 import org.asynchttpclient.proxy.ProxyServer;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.SupportedCipherSuiteFilter;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
 import java.io.ByteArrayOutputStream;
+import javax.net.ssl.SSLException;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.SocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class HttpClient extends DefaultAsyncHttpClient {
     private final String apiUrl, apiKey;
+    private final ClientMetrics metrics;
+    private final RequestScheduler scheduler;
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+    private static final int TLS_SESSION_CACHE_SIZE = 1024, TLS_SESSION_TIMEOUT_SECONDS = 24 * 3600;
+    // AES-GCM first for CPUs with AES instructions, then ChaCha20; TLS 1.2 suites only with forward secrecy
+    private static final List<String> OPENSSL_CIPHERS = Arrays.asList(
+            "TLS_AES_128_GCM_SHA256",
+            "TLS_AES_256_GCM_SHA384",
+            "TLS_CHACHA20_POLY1305_SHA256",
+            "TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256",
+            "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256",
+            "TLS_ECDHE_ECDSA_WITH_AES_256_GCM_SHA384",
+            "TLS_ECDHE_RSA_WITH_AES_256_GCM_SHA384",
+            "TLS_ECDHE_ECDSA_WITH_CHACHA20_POLY1305_SHA256",
+            "TLS_ECDHE_RSA_WITH_CHACHA20_POLY1305_SHA256");
+    private Timer timer;
 
     private HttpClient(Builder builder) {
         super(builder.config);
         apiKey = builder.apiKey;
         apiUrl = builder.apiUrl;
+        scheduler = builder.scheduler != null ? new RequestScheduler(this, builder.scheduler) : null;
+        metrics = builder.metrics;
+        if (metrics != null) {
+            metrics.register(this, apiKey);
+        }
     }
 
     public String getApiUrl() {
         return apiUrl;
     }
 
+    /**
+     * @return The metrics published over JMX for this client, or {@code null} if JMX is not enabled.
+     */
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return The scheduler that queues requests by priority, or {@code null} if requests are sent directly.
+     */
+    public RequestScheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public void close() {
+        if (metrics != null) {
+            metrics.unregister();
+        }
+        synchronized (this) {
+            if (timer != null) {
+                timer.stop();
+            }
+        }
+        super.close();
+    }
+
+    @Override
+    public <T> ListenableFuture<T> executeRequest(Request request, AsyncHandler<T> handler) {
+        CallOptions options = CallOptions.current();
+        if (scheduler != null) {
+            RequestPriority priority = options != null ? options.priority() : null;
+            if (priority == null) {
+                priority = RequestScheduler.priorityOf(endpointOf(request));
+            }
+            return scheduler.submit(priority, request, handler, options);
+        }
+        return send(request, handler, options);
+    }
+
+    /**
+     * Sends a request without going through the scheduler, bounding its timeout by the deadline of the
+     * call options and aborting it when they are cancelled.
+     */
+    <T> ListenableFuture<T> send(Request request, AsyncHandler<T> handler, CallOptions options) {
+        if (options == null) {
+            return send(request, handler);
+        }
+        Throwable failure = callFailure(options);
+        if (failure != null) {
+            handler.onThrowable(failure);
+            return new ListenableFuture.CompletedFailure<>(failure);
+        }
+        if (options.hasDeadline()) {
+            int timeout = request.getRequestTimeout() > 0 ? request.getRequestTimeout() : getConfig().getRequestTimeout();
+            long remaining = Math.max(1, options.remainingMillis());
+            if (timeout <= 0 || remaining < timeout) {
+                request = request.toBuilder().setRequestTimeout((int) remaining).build();
+            }
+        }
+        ListenableFuture<T> future = send(request, handler);
+        CancellationToken token = options.cancellationToken();
+        if (token != null) {
+            Runnable abort = () -> future.abort(cancelled());
+            token.addListener(abort);
+            future.addListener(() -> token.removeListener(abort), null);
+        }
+        return future;
+    }
+
+    /**
+     * The failure of a cancelled call. It is not a {@link CancellationException}, which futures would rethrow
+     * as is rather than wrapped in an {@link ExecutionException}, bypassing the error handling of the calls.
+     */
+    static RequestException cancelled() {
+        return new RequestException("The call was cancelled.");
+    }
+
+    /**
+     * @return Why a call with the given options must not be sent, or {@code null} if it may be sent.
+     */
+    static Throwable callFailure(CallOptions options) {
+        if (options.isCancelled()) {
+            return cancelled();
+        }
+        if (options.isExpired()) {
+            return new TimeoutException("The call deadline passed");
+        }
+        return null;
+    }
+
+    /**
+     * Sends a request, recording it in the metrics and JFR events.
+     */
+    private <T> ListenableFuture<T> send(Request request, AsyncHandler<T> handler) {
+        SdkEvents.RestCall event = SdkEvents.get().beginRestCall();
+        String endpoint = event != null || metrics != null ? endpointOf(request) : null;
+        long startNanos = metrics != null ? metrics.requestStarted(endpoint) : 0;
+        ListenableFuture<T> future = super.executeRequest(request, handler);
+        if (endpoint != null) {
+            future.addListener(() -> {
+                int status = 0;
+                long responseBytes = 0;
+                try {
+                    Object result = future.get();
+                    if (result instanceof Response) {
+                        Response response = (Response) result;
+                        status = response.getStatusCode();
+                        responseBytes = event != null ? contentLength(response) : 0;
+                    }
+                }
+                catch (InterruptedException | ExecutionException | CancellationException e) {
+                    // No response, status stays 0
+                }
+                if (metrics != null) {
+                    metrics.requestCompleted(endpoint, status, startNanos);
+                }
+                if (event != null) {
+                    event.complete(endpoint, status, contentLength(request), responseBytes);
+                }
+            }, null);
+        }
+        return future;
+    }
+
+    /**
+     * Describes the endpoint of a request by its method and path, with the IDs in the path replaced by
+     * {@code {id}}, so that calls to the same endpoint can be grouped, e.g.
+     * {@code POST /archive/{id}/stop}.
+     */
+    static String endpointOf(Request request) {
+        String path = request.getUri().getPath();
+        StringBuilder endpoint = new StringBuilder(48).append(request.getMethod()).append(' ');
+        int projectPath = path.indexOf("/v2/project/");
+        if (projectPath < 0) {
+            return endpoint.append(path).toString();
+        }
+        // Skip the API key; after it, resource names and IDs alternate
+        int start = path.indexOf('/', projectPath + 12);
+        if (start < 0) {
+            return endpoint.append('/').toString();
+        }
+        boolean id = false;
+        for (int i = start; i < path.length(); id = !id) {
+            int end = path.indexOf('/', i + 1);
+            if (end < 0) {
+                end = path.length();
+            }
+            if (end > i + 1) {
+                endpoint.append('/');
+                if (id) {
+                    endpoint.append("{id}");
+                }
+                else {
+                    endpoint.append(path, i + 1, end);
+                }
+            }
+            i = end;
+        }
+        return endpoint.toString();
+    }
+
+    private static long contentLength(Request request) {
+        if (request.getByteData() != null) {
+            return request.getByteData().length;
+        }
+        if (request.getStringData() != null) {
+            return Utf8.encodedLength(request.getStringData());
+        }
+        long length = 0;
+        for (Param param : request.getFormParams()) {
+            length += Utf8.encodedLength(param.getName()) + Utf8.encodedLength(param.getValue()) + 2;
+        }
+        return length;
+    }
+
+    private static long contentLength(Response response) {
+        String header = response.getHeader("Content-Length");
+        if (header != null) {
+            try {
+                return Long.parseLong(header);
+            }
+            catch (NumberFormatException e) {
+                // Fall through and measure the body
+            }
+        }
+        return response.hasResponseBody() ? response.getResponseBodyAsBytes().length : 0;
+    }
+
+    /**
+     * Executes a request without blocking, mapping its response with {@code check}. Transport failures
+     * become a {@link RequestException} with the given message and no status code.
+     */
+    private static CompletableFuture<String> executeAsync(BoundRequestBuilder request,
+            Function<Response, String> check, String error) {
+        CompletableFuture<Response> response;
+        try {
+            response = request.execute().toCompletableFuture();
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        return response.handle((result, e) -> {
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                throw cause instanceof OpenTokException ? (OpenTokException) cause : new RequestException(error, cause);
+            }
+            return check.apply(result);
+        });
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * Makes an asynchronous call, retrying it when it is rate limited (HTTP 429), fails with a server error
+     * or gets no response. Retries wait {@code backoffMillis}, doubling on each attempt with random jitter,
+     * on a timer rather than a blocked thread. Every attempt is made with the call options of the calling
+     * thread, and no retry is made that would start after their deadline.
+     */
+    public <T> CompletableFuture<T> retrying(Supplier<CompletableFuture<T>> call, int maxRetries, long backoffMillis) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(call, CallOptions.current(), result, 0, maxRetries, backoffMillis);
+        return result;
+    }
+
+    private <T> void attempt(Supplier<CompletableFuture<T>> call, CallOptions options, CompletableFuture<T> result,
+            int attempt, int maxRetries, long backoffMillis) {
+        CompletableFuture<T> future;
+        try {
+            future = options != null ? options.call(call) : call.get();
+        } catch (RuntimeException e) {
+            future = failed(e);
+        }
+        future.whenComplete((value, e) -> {
+            if (e == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (attempt >= maxRetries || !isRetryable(cause) || isClosed()) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delay = Math.min(backoffMillis << Math.min(attempt, 16), MAX_RETRY_BACKOFF_MS);
+            delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+            if (options != null && (options.isCancelled() || delay >= options.remainingMillis())) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            try {
+                timer().newTimeout(timeout -> attempt(call, options, result, attempt + 1, maxRetries, backoffMillis),
+                        delay, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException ex) {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    static boolean isRetryable(Throwable e) {
+        if (!(e instanceof RequestException)) {
+            return false;
+        }
+        int status = ((RequestException) e).getStatusCode();
+        return status == 429 || status >= 500 || (status == 0 && e.getCause() != null);
+    }
+
+    /**
+     * @return The timer for retries and call deadlines, started on first use and stopped by {@link #close()}.
+     */
+    synchronized Timer timer() {
+        if (timer == null) {
+            timer = new HashedWheelTimer(runnable -> {
+                Thread thread = new Thread(runnable, "opentok-timer");
+                thread.setDaemon(true);
+                return thread;
+            }, 10, TimeUnit.MILLISECONDS);
+        }
+        return timer;
+    }
+
+    /**
+     * Prepares the client for its first calls: resolves the API host, opens up to {@code connections}
+     * pooled keep-alive connections by sending that many concurrent OPTIONS requests for the project's
+     * archives, which also initializes the REST authentication token signer, and encodes a few request
+     * bodies. OPTIONS is safe: it lists the allowed methods without running the request, so the warm-up
+     * creates, reads and counts nothing. Connection failures and error responses are not reported; the
+     * first calls then pay for the setup as usual.
+     *
+     * @param connections The number of connections to open.
+     * @param cycles The number of request bodies to encode.
+     *
+     * @return The number of connections that received a successful (2xx) response.
+     *
+     * @throws RequestException If the credentials were rejected (401 or 403).
+     */
+    public int warmUp(int connections, int cycles) throws RequestException {
+        try {
+            InetAddress.getAllByName(new URI(apiUrl).getHost());
+        } catch (URISyntaxException | UnknownHostException e) {
+            // Reported by the first call
+        }
+        List<Future<Response>> requests = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            requests.add(this.prepareOptions(this.apiUrl + "/v2/project/" + this.apiKey + "/archive").execute());
+        }
+        ArchiveProperties properties = new ArchiveProperties.Builder().name("warm-up").build();
+        for (int i = 0; i < cycles; i++) {
+            startArchiveRequestBody("warm-up", properties);
+        }
+        int warmed = 0, rejected = 0;
+        for (Future<Response> request : requests) {
+            try {
+                int status = request.get().getStatusCode();
+                if (status >= 200 && status < 300) {
+                    warmed++;
+                } else if (status == 401 || status == 403) {
+                    rejected = status;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                // The connection could not be opened
+            }
+        }
+        if (rejected != 0) {
+            throw new RequestException("Could not warm up the client. The request was not authorized.", rejected);
+        }
+        return warmed;
+    }
+
     public String createSession(Map<String, List<String>> params) throws RequestException {
         Future<Response> request = this.preparePost(this.apiUrl + "/session/create")
                 .setFormParams(params)
@@ -73,6 +447,30 @@ public class HttpClient extends DefaultAsyncHttpClient {
     }
 
     public String signal(String sessionId, String connectionId, SignalProperties properties) throws OpenTokException {
+        Future<Response> request = prepareSignal(sessionId, connectionId, properties).execute();
+
+        try {
+            return signalResponse(request.get());
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RequestException("Could not send a signal.", e);
+        }
+    }
+
+    /**
+     * Sends a signal without blocking. The returned future fails with a {@link RequestException}
+     * carrying the status code of the response, e.g. 404 when the client is not connected.
+     */
+    public CompletableFuture<String> signalAsync(String sessionId, String connectionId, SignalProperties properties) {
+        try {
+            return executeAsync(prepareSignal(sessionId, connectionId, properties), HttpClient::signalResponse,
+                    "Could not send a signal.");
+        } catch (OpenTokException e) {
+            return failed(e);
+        }
+    }
+
+    private BoundRequestBuilder prepareSignal(String sessionId, String connectionId, SignalProperties properties) throws OpenTokException {
+        Validator.validate(properties);
         String url = this.apiUrl + "/v2/project/" + this.apiKey + "/session/" + sessionId + (connectionId != null && !connectionId.isEmpty() ? "/connection/" + connectionId : "") + "/signal";
         JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
         ObjectNode requestJson = nodeFactory.objectNode();
@@ -86,30 +484,26 @@ public class HttpClient extends DefaultAsyncHttpClient {
         } catch (JsonProcessingException e) {
             throw new OpenTokException("Could not send a signal. The JSON body encoding failed.", e);
         }
-        Future<Response> request = this.preparePost(url)
+        return this.preparePost(url)
                 .setBody(requestBody)
-                .setHeader("Content-Type", "application/json")
-                .execute();
+                .setHeader("Content-Type", "application/json");
+    }
 
-        try {
-            Response response = request.get();
-            switch (response.getStatusCode()) {
-                case 204:
-                    return response.getResponseBody();
-                case 400:
-                    throw new RequestException("Could not send a signal: "+response.getResponseBody());
-                case 403:
-                    throw new RequestException("Could not send a signal. The request was not authorized.");
-                case 404:
-                    throw new RequestException("Could not send a signal. The client specified by the connectionId property is not connected to the session.");
-                case 413:
-                    throw new RequestException("Could not send a signal. The type string exceeds the maximum length (128 bytes), or the data string exceeds the maximum size (8 kB)");
-                default:
-                    throw new RequestException("Could not send a signal " +
-                            " response code: " + response.getStatusCode());
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RequestException("Could not send a signal.", e);
+    private static String signalResponse(Response response) throws RequestException {
+        switch (response.getStatusCode()) {
+            case 204:
+                return response.getResponseBody();
+            case 400:
+                throw new RequestException("Could not send a signal: "+response.getResponseBody(), 400);
+            case 403:
+                throw new RequestException("Could not send a signal. The request was not authorized.", 403);
+            case 404:
+                throw new RequestException("Could not send a signal. The client specified by the connectionId property is not connected to the session.", 404);
+            case 413:
+                throw new RequestException(Validator.SIGNAL_TOO_LARGE, 413);
+            default:
+                throw new RequestException("Could not send a signal " +
+                        " response code: " + response.getStatusCode(), response.getStatusCode());
         }
     }
 
@@ -182,8 +576,43 @@ public class HttpClient extends DefaultAsyncHttpClient {
     }
 
     public String startArchive(String sessionId, ArchiveProperties properties) throws OpenTokException {
+        Validator.validate(properties);
         String url = this.apiUrl + "/v2/project/" + this.apiKey + "/archive";
+        String requestBody = startArchiveRequestBody(sessionId, properties);
 
+        Future<Response> request = this.preparePost(url)
+                .setBody(requestBody)
+                .setHeader("Content-Type", "application/json")
+                .setHeader("Accept", "application/json")
+                .execute();
+
+        try {
+            Response response = request.get();
+            switch (response.getStatusCode()) {
+                case 200:
+                    return response.getResponseBody();
+                case 400:
+                    throw new RequestException("Could not start an OpenTok Archive: "+response.getResponseBody());
+                case 403:
+                    throw new RequestException("Could not start an OpenTok Archive. The request was not authorized.");
+                case 404:
+                    throw new RequestException("Could not start an OpenTok Archive. The sessionId does not exist. " +
+                            "sessionId = " + sessionId);
+                case 409:
+                    throw new RequestException("Could not start an OpenTok Archive. The session is either " +
+                            "peer-to-peer or already recording. sessionId = " + sessionId);
+                case 500:
+                    throw new RequestException("Could not start an OpenTok Archive. A server error occurred.");
+                default:
+                    throw new RequestException("Could not start an OpenTok Archive. The server response was invalid." +
+                            " response code: " + response.getStatusCode());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RequestException("Could not start an OpenTok Archive.", e);
+        }
+    }
+
+    static String startArchiveRequestBody(String sessionId, ArchiveProperties properties) throws OpenTokException {
         JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
         ObjectNode requestJson = nodeFactory.objectNode()
             .put("sessionId", sessionId)
@@ -196,9 +625,6 @@ public class HttpClient extends DefaultAsyncHttpClient {
             ObjectNode layout = requestJson.putObject("layout");
             layout.put("type", properties.layout().getType().toString());
             if (properties.layout().getScreenshareType() != null) {
-                if (properties.layout().getType() != ArchiveLayout.Type.BESTFIT) {
-                    throw new InvalidArgumentException("Could not start Archive. When screenshareType is set in the layout, type must be bestFit");
-                }
                 layout.put("screenshareType", properties.layout().getScreenshareType().toString());
             }
             if (!(properties.layout().getStylesheet() == null)) {
@@ -218,42 +644,11 @@ public class HttpClient extends DefaultAsyncHttpClient {
             requestJson.put("multiArchiveTag", properties.getMultiArchiveTag());
         }
 
-        String requestBody;
         try {
-            requestBody = new ObjectMapper().writeValueAsString(requestJson);
+            return new ObjectMapper().writeValueAsString(requestJson);
         } catch (JsonProcessingException e) {
             throw new OpenTokException("Could not start an OpenTok Archive. The JSON body encoding failed.", e);
         }
-        Future<Response> request = this.preparePost(url)
-                .setBody(requestBody)
-                .setHeader("Content-Type", "application/json")
-                .setHeader("Accept", "application/json")
-                .execute();
-
-        try {
-            Response response = request.get();
-            switch (response.getStatusCode()) {
-                case 200:
-                    return response.getResponseBody();
-                case 400:
-                    throw new RequestException("Could not start an OpenTok Archive: "+response.getResponseBody());
-                case 403:
-                    throw new RequestException("Could not start an OpenTok Archive. The request was not authorized.");
-                case 404:
-                    throw new RequestException("Could not start an OpenTok Archive. The sessionId does not exist. " +
-                            "sessionId = " + sessionId);
-                case 409:
-                    throw new RequestException("Could not start an OpenTok Archive. The session is either " +
-                            "peer-to-peer or already recording. sessionId = " + sessionId);
-                case 500:
-                    throw new RequestException("Could not start an OpenTok Archive. A server error occurred.");
-                default:
-                    throw new RequestException("Could not start an OpenTok Archive. The server response was invalid." +
-                            " response code: " + response.getStatusCode());
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RequestException("Could not start an OpenTok Archive.", e);
-        }
     }
 
     public String stopArchive(String archiveId) throws RequestException {
@@ -368,26 +763,11 @@ public class HttpClient extends DefaultAsyncHttpClient {
     }
 
     public String setArchiveLayout(String archiveId, ArchiveProperties properties) throws OpenTokException {
-        if (properties.layout() == null) {
-            throw new RequestException("Could not set the layout. Either an invalid JSON or an invalid layout options.");
-        }
+        Validator.validateLayoutUpdate(properties.layout(),
+                "Could not set the Archive layout. When screenshareType is set, type must be bestFit");
         String type = properties.layout().getType().toString();
-        String stylesheet = properties.layout().getStylesheet();
-        String screenshareType = null;
-
-        if (StringUtils.isEmpty(type)) {
-            throw new RequestException("Could not set the layout. Either an invalid JSON or an invalid layout options.");
-        }
-        if ((type.equals(ArchiveLayout.Type.CUSTOM.toString()) && StringUtils.isEmpty(stylesheet)) ||
-                (!type.equals(ArchiveLayout.Type.CUSTOM.toString()) && !StringUtils.isEmpty(stylesheet))) {
-            throw new RequestException("Could not set the layout. Either an invalid JSON or an invalid layout options.");
-        }
-        if (properties.layout().getScreenshareType() != null) {
-            if (properties.layout().getType() != ArchiveLayout.Type.BESTFIT) {
-                throw new InvalidArgumentException("Could not set the Archive layout. When screenshareType is set, type must be bestFit");
-            }
-            screenshareType = properties.layout().getScreenshareType().toString();
-        }
+        String screenshareType = properties.layout().getScreenshareType() != null
+                ? properties.layout().getScreenshareType().toString() : null;
 
         String url = this.apiUrl + "/v2/project/" + this.apiKey + "/archive/" + archiveId + "/layout";
         JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
@@ -418,14 +798,14 @@ public class HttpClient extends DefaultAsyncHttpClient {
                 case 200:
                     return response.getResponseBody();
                 case 400:
-                    throw new RequestException("Could not set the layout: "+response.getResponseBody());
+                    throw new RequestException("Could not set the layout: "+response.getResponseBody(), 400);
                 case 403:
-                    throw new RequestException("Could not set the layout. The request was not authorized.");
+                    throw new RequestException("Could not set the layout. The request was not authorized.", 403);
                 case 500:
-                    throw new RequestException("Could not set the layout. A server error occurred.");
+                    throw new RequestException("Could not set the layout. A server error occurred.", 500);
                 default:
                     throw new RequestException("Could not set the layout. The server response was invalid." +
-                            " response code: " + response.getStatusCode());
+                            " response code: " + response.getStatusCode(), response.getStatusCode());
             }
         } catch (InterruptedException | ExecutionException e) {
             throw new RequestException("Could not set the layout, archiveId = " + archiveId, e);
@@ -433,8 +813,36 @@ public class HttpClient extends DefaultAsyncHttpClient {
     }
 
     public String setStreamLayouts(String sessionId, StreamListProperties properties) throws OpenTokException {
-        char doubleQuotes = '"';
+        Validator.validate(properties);
         String url = this.apiUrl + "/v2/project/" + this.apiKey + "/session/" + sessionId + "/stream";
+        String requestBody = setStreamLayoutsRequestBody(properties);
+
+        Future<Response> request = this.preparePut(url)
+                .setBody(requestBody)
+                .setHeader("Content-Type", "application/json")
+                .execute();
+        try {
+            Response response = request.get();
+            switch (response.getStatusCode()) {
+                case 200:
+                    return response.getResponseBody();
+                case 400:
+                    throw new RequestException("Could not set the layout: "+response.getResponseBody(), 400);
+                case 403:
+                    throw new RequestException("Could not set the layout. The request was not authorized.", 403);
+                case 500:
+                    throw new RequestException("Could not set the layout. A server error occurred.", 500);
+                default:
+                    throw new RequestException("Could not set the layout. The server response was invalid." +
+                            " response code: " + response.getStatusCode(), response.getStatusCode());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RequestException("Could not delete an OpenTok Archive, sessionId = " + sessionId, e);
+        }
+    }
+
+    static String setStreamLayoutsRequestBody(StreamListProperties properties) throws OpenTokException {
+        char doubleQuotes = '"';
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         try {
             JsonFactory factory = new JsonFactory();
@@ -463,36 +871,45 @@ public class HttpClient extends DefaultAsyncHttpClient {
         } catch (Exception e) {
             throw new OpenTokException("Could not set the layout. The JSON body encoding failed.", e);
         }
+        return outputStream.toString();
+    }
 
-        Future<Response> request = this.preparePut(url)
-                .setBody(outputStream.toString())
+    public String startBroadcast(String sessionId, BroadcastProperties properties) throws OpenTokException {
+        Validator.validate(properties);
+        String url = this.apiUrl + "/v2/project/" + this.apiKey + "/broadcast";
+        String requestBody = startBroadcastRequestBody(sessionId, properties);
+
+        Future<Response> request = this.preparePost(url)
+                .setBody(requestBody)
                 .setHeader("Content-Type", "application/json")
+                .setHeader("Accept", "application/json")
                 .execute();
+
         try {
             Response response = request.get();
             switch (response.getStatusCode()) {
                 case 200:
                     return response.getResponseBody();
                 case 400:
-                    throw new RequestException("Could not set the layout: "+response.getResponseBody());
+                    throw new RequestException("Could not start an OpenTok Broadcast: "+response.getResponseBody());
                 case 403:
-                    throw new RequestException("Could not set the layout. The request was not authorized.");
+                    throw new RequestException("Could not start an OpenTok Broadcast. The request was not authorized.");
+                case 409:
+                    throw new RequestException("The broadcast has already been started for the session. SessionId = " + sessionId);
                 case 500:
-                    throw new RequestException("Could not set the layout. A server error occurred.");
+                    throw new RequestException("Could not start an OpenTok Broadcast. A server error occurred.");
                 default:
-                    throw new RequestException("Could not set the layout. The server response was invalid." +
+                    throw new RequestException("Could not start an OpenTok Broadcast. The server response was invalid." +
                             " response code: " + response.getStatusCode());
             }
         } catch (InterruptedException | ExecutionException e) {
-            throw new RequestException("Could not delete an OpenTok Archive, sessionId = " + sessionId, e);
+            throw new RequestException("Could not start an OpenTok Broadcast.", e);
         }
     }
 
-    public String startBroadcast(String sessionId, BroadcastProperties properties) throws OpenTokException {
+    static String startBroadcastRequestBody(String sessionId, BroadcastProperties properties) throws OpenTokException {
         ScreenShareLayoutType screenshareType;
 
-        String url = this.apiUrl + "/v2/project/" + this.apiKey + "/broadcast";
-
         JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
         ObjectNode requestJson = nodeFactory.objectNode();
         requestJson.put("sessionId", sessionId);
@@ -505,9 +922,6 @@ public class HttpClient extends DefaultAsyncHttpClient {
             screenshareType = properties.layout().getScreenshareType();
             String type = properties.layout().getType().toString();
             layout.put("type", type);
-            if (screenshareType != null && !type.equals(ArchiveLayout.Type.BESTFIT.toString())) {
-                throw new InvalidArgumentException("Could not start OpenTok Broadcast, Layout Type must be bestfit when screenshareType is set.");
-            }
             if (screenshareType != null) {
                 layout.put("screenshareType", screenshareType.toString());
             }
@@ -548,39 +962,11 @@ public class HttpClient extends DefaultAsyncHttpClient {
             rtmp.add(rtmpProps);
         }
 
-        String requestBody;
         try {
-            requestBody = new ObjectMapper().writeValueAsString(requestJson);
+            return new ObjectMapper().writeValueAsString(requestJson);
         } catch (JsonProcessingException e) {
             throw new OpenTokException("Could not start an OpenTok Broadcast. The JSON body encoding failed.", e);
         }
-
-        Future<Response> request = this.preparePost(url)
-                .setBody(requestBody)
-                .setHeader("Content-Type", "application/json")
-                .setHeader("Accept", "application/json")
-                .execute();
-
-        try {
-            Response response = request.get();
-            switch (response.getStatusCode()) {
-                case 200:
-                    return response.getResponseBody();
-                case 400:
-                    throw new RequestException("Could not start an OpenTok Broadcast: "+response.getResponseBody());
-                case 403:
-                    throw new RequestException("Could not start an OpenTok Broadcast. The request was not authorized.");
-                case 409:
-                    throw new RequestException("The broadcast has already been started for the session. SessionId = " + sessionId);
-                case 500:
-                    throw new RequestException("Could not start an OpenTok Broadcast. A server error occurred.");
-                default:
-                    throw new RequestException("Could not start an OpenTok Broadcast. The server response was invalid." +
-                            " response code: " + response.getStatusCode());
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RequestException("Could not start an OpenTok Broadcast.", e);
-        }
     }
 
     public String stopBroadcast(String broadcastId) throws OpenTokException {
@@ -697,26 +1083,11 @@ public class HttpClient extends DefaultAsyncHttpClient {
     }
 
     public String setBroadcastLayout(String broadcastId, BroadcastProperties properties) throws OpenTokException {
-        if (properties.layout() == null) {
-            throw new RequestException("Could not set the layout. Either an invalid JSON or an invalid layout options.");
-        }
+        Validator.validateLayoutUpdate(properties.layout(),
+                "Could not set layout. Type must be bestfit when screenshareLayout is set.");
         String type = properties.layout().getType().toString();
-        String stylesheet = properties.layout().getStylesheet();
-        String screenshareLayout = null;
-
-        if (StringUtils.isEmpty(type)) {
-            throw new RequestException("Could not set the layout. Either an invalid JSON or an invalid layout options.");
-        }
-        if ((type.equals(BroadcastLayout.Type.CUSTOM.toString()) && StringUtils.isEmpty(stylesheet)) ||
-                (!type.equals(BroadcastLayout.Type.CUSTOM.toString()) && !StringUtils.isEmpty(stylesheet))) {
-            throw new RequestException("Could not set the layout. Either an invalid JSON or an invalid layout options.");
-        }
-        if (properties.layout().getScreenshareType() != null) {
-            if (properties.layout().getType() != ArchiveLayout.Type.BESTFIT) {
-                throw new InvalidArgumentException("Could not set layout. Type must be bestfit when screenshareLayout is set.");
-            }
-            screenshareLayout = properties.layout().getScreenshareType().toString();
-        }
+        String screenshareLayout = properties.layout().getScreenshareType() != null
+                ? properties.layout().getScreenshareType().toString() : null;
 
         String url = this.apiUrl + "/v2/project/" + this.apiKey + "/broadcast/" + broadcastId + "/layout";
 
@@ -748,14 +1119,14 @@ public class HttpClient extends DefaultAsyncHttpClient {
                 case 200:
                     return response.getResponseBody();
                 case 400:
-                    throw new RequestException("Could not set the layout: "+response.getResponseBody());
+                    throw new RequestException("Could not set the layout: "+response.getResponseBody(), 400);
                 case 403:
-                    throw new RequestException("Could not set the layout. The request was not authorized.");
+                    throw new RequestException("Could not set the layout. The request was not authorized.", 403);
                 case 500:
-                    throw new RequestException("Could not set the layout. A server error occurred.");
+                    throw new RequestException("Could not set the layout. A server error occurred.", 500);
                 default:
                     throw new RequestException("Could not set the layout. The server response was invalid." +
-                            " response code: " + response.getStatusCode());
+                            " response code: " + response.getStatusCode(), response.getStatusCode());
             }
         } catch (InterruptedException | ExecutionException e) {
             throw new RequestException("Could not set the layout, broadcastId = " + broadcastId, e);
@@ -763,30 +1134,43 @@ public class HttpClient extends DefaultAsyncHttpClient {
     }
 
     public String forceDisconnect(String sessionId, String connectionId) throws OpenTokException {
-        String url = this.apiUrl + "/v2/project/" + this.apiKey + "/session/" + sessionId + "/connection/" + connectionId;
-        Future<Response> request = this.prepareDelete(url).execute();
+        Future<Response> request = prepareForceDisconnect(sessionId, connectionId).execute();
 
         try {
-            Response response = request.get();
-            switch (response.getStatusCode()) {
-                case 204:
-                    return response.getResponseBody();
-                case 400:
-                    throw new RequestException("Could not force disconnect: "+response.getResponseBody());
-                case 403:
-                    throw new RequestException("Could not force disconnect. You are not authorized to forceDisconnect, check your authentication credentials.");
-                case 404:
-                    throw new RequestException("Could not force disconnect. The client specified by the connectionId property is not connected to the session.");
-                default:
-                    throw new RequestException("Could not force disconnect. The server response was invalid." +
-                            " response code: " + response.getStatusCode());
-            }
+            return forceDisconnectResponse(request.get());
         } catch (InterruptedException | ExecutionException e) {
             throw new RequestException("Could not force disconnect", e);
         }
     }
 
+    public CompletableFuture<String> forceDisconnectAsync(String sessionId, String connectionId) {
+        return executeAsync(prepareForceDisconnect(sessionId, connectionId), HttpClient::forceDisconnectResponse,
+                "Could not force disconnect");
+    }
+
+    private BoundRequestBuilder prepareForceDisconnect(String sessionId, String connectionId) {
+        String url = this.apiUrl + "/v2/project/" + this.apiKey + "/session/" + sessionId + "/connection/" + connectionId;
+        return this.prepareDelete(url);
+    }
+
+    private static String forceDisconnectResponse(Response response) throws RequestException {
+        switch (response.getStatusCode()) {
+            case 204:
+                return response.getResponseBody();
+            case 400:
+                throw new RequestException("Could not force disconnect: "+response.getResponseBody(), 400);
+            case 403:
+                throw new RequestException("Could not force disconnect. You are not authorized to forceDisconnect, check your authentication credentials.", 403);
+            case 404:
+                throw new RequestException("Could not force disconnect. The client specified by the connectionId property is not connected to the session.", 404);
+            default:
+                throw new RequestException("Could not force disconnect. The server response was invalid." +
+                        " response code: " + response.getStatusCode(), response.getStatusCode());
+        }
+    }
+
     public String sipDial(String sessionId, String token, SipProperties props) throws OpenTokException {
+        Validator.validate(props);
         String url = this.apiUrl + "/v2/project/" + this.apiKey + "/dial";
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         Character dQuotes = '"';
@@ -879,6 +1263,7 @@ public class HttpClient extends DefaultAsyncHttpClient {
     }
 
     public String playDtmf(String url, String dtmfDigits) throws OpenTokException {
+        Validator.validateDtmf(dtmfDigits);
         JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
         ObjectNode requestJson = nodeFactory.objectNode();
         requestJson.put("digits", dtmfDigits);
@@ -946,31 +1331,43 @@ public class HttpClient extends DefaultAsyncHttpClient {
     }
 
     public String forceMuteStream(String sessionId, String streamId) throws RequestException {
-        String url = this.apiUrl + "/v2/project/" + this.apiKey + "/session/" + sessionId + "/stream/" + streamId + "/mute";
-        Future<Response> request = this.preparePost(url).execute();
+        Future<Response> request = prepareForceMuteStream(sessionId, streamId).execute();
 
         try {
-            Response response = request.get();
-            switch (response.getStatusCode()) {
-                case 200:
-                    return response.getResponseBody();
-                case 400:
-                    throw new RequestException(response.getResponseBody());
-                case 403:
-                    throw new RequestException("Invalid OpenTok API key or JWT token.");
-                case 408:
-                    throw new RequestException("You passed in an invalid stream ID: "+streamId);
-                case 500:
-                    throw new RequestException("OpenTok server error.");
-                default:
-                    throw new RequestException("Could not mute stream. The server response was invalid." +
-                            " response code: " + response.getStatusCode());
-            }
+            return forceMuteStreamResponse(request.get(), streamId);
         } catch (InterruptedException | ExecutionException e) {
             throw new RequestException("Could not get stream information", e);
         }
     }
 
+    public CompletableFuture<String> forceMuteStreamAsync(String sessionId, String streamId) {
+        return executeAsync(prepareForceMuteStream(sessionId, streamId),
+                response -> forceMuteStreamResponse(response, streamId), "Could not mute stream");
+    }
+
+    private BoundRequestBuilder prepareForceMuteStream(String sessionId, String streamId) {
+        String url = this.apiUrl + "/v2/project/" + this.apiKey + "/session/" + sessionId + "/stream/" + streamId + "/mute";
+        return this.preparePost(url);
+    }
+
+    private static String forceMuteStreamResponse(Response response, String streamId) throws RequestException {
+        switch (response.getStatusCode()) {
+            case 200:
+                return response.getResponseBody();
+            case 400:
+                throw new RequestException(response.getResponseBody(), 400);
+            case 403:
+                throw new RequestException("Invalid OpenTok API key or JWT token.", 403);
+            case 408:
+                throw new RequestException("You passed in an invalid stream ID: "+streamId, 408);
+            case 500:
+                throw new RequestException("OpenTok server error.", 500);
+            default:
+                throw new RequestException("Could not mute stream. The server response was invalid." +
+                        " response code: " + response.getStatusCode(), response.getStatusCode());
+        }
+    }
+
     public String forceMuteAllStream(String sessionId, MuteAllProperties properties) throws OpenTokException {
         char doubleQuotes = '"';
         String url = this.apiUrl + "/v2/project/" + this.apiKey + "/session/" + sessionId + "/mute";
@@ -1181,6 +1578,7 @@ public class HttpClient extends DefaultAsyncHttpClient {
     }
 
     public String startRender(String sessionId, String token, RenderProperties properties) throws OpenTokException {
+        Validator.validate(properties);
         String url = this.apiUrl + "/v2/project/" + this.apiKey + "/render";
 
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
@@ -1317,6 +1715,7 @@ public class HttpClient extends DefaultAsyncHttpClient {
     }
 
     public String startCaption(String sessionId, String token, CaptionProperties properties) throws OpenTokException {
+        Validator.validate(properties);
         String url = this.apiUrl + "/v2/project/" + this.apiKey + "/captions";
 
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
@@ -1411,7 +1810,10 @@ public class HttpClient extends DefaultAsyncHttpClient {
         private String apiUrl;
         private String userAgent = DefaultUserAgent.DEFAULT_USER_AGENT;
         private AsyncHttpClientConfig config;
-        private int requestTimeoutMS;
+        private int requestTimeoutMS, authTokenTtlMS;
+        private ClientMetrics metrics;
+        private SchedulerProperties scheduler;
+        private boolean useOpenSsl;
 
         public Builder(int apiKey, String apiSecret) {
             this(apiKey, apiSecret, null, null);
@@ -1473,13 +1875,68 @@ public class HttpClient extends DefaultAsyncHttpClient {
             return this;
         }
 
+        /**
+         * Publishes the client's connection pool, request and authentication token counters as a JMX MBean
+         * under {@code com.opentok:type=HttpClient}. The MBean is unregistered when the client is closed.
+         *
+         * @param registerMBeans Whether to register the MBean.
+         *
+         * @return This Builder.
+         */
+        public Builder registerMBeans(boolean registerMBeans) {
+            this.metrics = registerMBeans ? new ClientMetrics() : null;
+            return this;
+        }
+
+        /**
+         * Reuses each generated REST API authentication token for the given time instead of signing
+         * a new one for every request. The default of 0 generates a token per request.
+         *
+         * @param authTokenTtlMS How long to reuse a token for, in milliseconds.
+         *
+         * @return This Builder.
+         */
+        public Builder authTokenTtlMS(int authTokenTtlMS) {
+            this.authTokenTtlMS = authTokenTtlMS;
+            return this;
+        }
+
+        /**
+         * Queues requests by priority, with the limits on requests in flight given by the properties.
+         * By default requests are sent directly.
+         *
+         * @param scheduler The scheduler properties, or {@code null} to send requests directly.
+         *
+         * @return This Builder.
+         */
+        public Builder scheduler(SchedulerProperties scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Uses Netty's OpenSSL engine for TLS instead of the JDK provider, with a client session cache
+         * for resumption and a cipher order preferring AES-GCM. Requires
+         * {@code io.netty:netty-tcnative-boringssl-static} on the classpath.
+         *
+         * @param useOpenSsl Whether to use OpenSSL.
+         *
+         * @return This Builder.
+         */
+        public Builder useOpenSsl(boolean useOpenSsl) {
+            this.useOpenSsl = useOpenSsl;
+            return this;
+        }
+
         public HttpClient build() {
+            TokenAuthRequestFilter authFilter = vonage ?
+                    new TokenAuthRequestFilter(UUID.fromString(apiKey), privateKeyPath) :
+                    new TokenAuthRequestFilter(Integer.parseInt(apiKey), apiSecret);
+            authFilter.cache(authTokenTtlMS, metrics);
+
             DefaultAsyncHttpClientConfig.Builder configBuilder = new DefaultAsyncHttpClientConfig.Builder()
                     .setUserAgent(userAgent)
-                    .addRequestFilter(vonage ?
-                            new TokenAuthRequestFilter(UUID.fromString(apiKey), privateKeyPath) :
-                            new TokenAuthRequestFilter(Integer.parseInt(apiKey), apiSecret)
-                    );
+                    .addRequestFilter(authFilter);
 
             if (apiUrl == null) {
                 apiUrl = vonage ? DefaultApiUrl.VONAGE_API_URL : DefaultApiUrl.DEFAULT_API_URI;
@@ -1490,12 +1947,35 @@ public class HttpClient extends DefaultAsyncHttpClient {
             if (requestTimeoutMS != 0) {
                 configBuilder.setRequestTimeout(requestTimeoutMS);
             }
+            if (useOpenSsl) {
+                configBuilder.setSslContext(openSslContext());
+            }
 
             config = configBuilder.build();
             // NOTE: not thread-safe, config could be modified by another thread here?
             return new HttpClient(this);
         }
 
+        static SslContext openSslContext() throws InvalidArgumentException {
+            if (!OpenSsl.isAvailable()) {
+                throw new InvalidArgumentException("OpenSSL is not available. Add "
+                        + "io.netty:netty-tcnative-boringssl-static to the classpath: " + OpenSsl.unavailabilityCause());
+            }
+            try {
+                // Sessions are cached per host and port, so recycled pooled connections resume them
+                // (by session ticket where the server issues them) instead of a full handshake
+                return SslContextBuilder.forClient()
+                        .sslProvider(SslProvider.OPENSSL)
+                        .protocols("TLSv1.3", "TLSv1.2")
+                        .ciphers(OPENSSL_CIPHERS, SupportedCipherSuiteFilter.INSTANCE)
+                        .sessionCacheSize(TLS_SESSION_CACHE_SIZE)
+                        .sessionTimeout(TLS_SESSION_TIMEOUT_SECONDS)
+                        .build();
+            } catch (SSLException e) {
+                throw new InvalidArgumentException("Could not create the OpenSSL context: " + e.getMessage());
+            }
+        }
+
         // credit: https://github.com/AsyncHttpClient/async-http-client/blob/b52a8de5d6a862b5d1652d62f87ce774cbcff156/src/main/java/com/ning/http/client/ProxyServer.java#L99-L127
         static ProxyServer createProxyServer(final Proxy proxy, ProxyAuthScheme proxyAuthScheme, String principal, String password) {
             switch (proxy.type()) {
@@ -1549,6 +2029,23 @@ public class HttpClient extends DefaultAsyncHttpClient {
     static class TokenAuthRequestFilter implements RequestFilter {
         private final Supplier<String> tokenGenerator;
         private final String headerName;
+        private long ttlNanos;
+        private ClientMetrics metrics;
+        private volatile CachedToken cached;
+
+        /**
+         * A token with the time it expires from the cache, published together so that no reader pairs a
+         * token with another token's expiry.
+         */
+        private static final class CachedToken {
+            final String token;
+            final long until;
+
+            CachedToken(String token, long until) {
+                this.token = token;
+                this.until = until;
+            }
+        }
 
         public TokenAuthRequestFilter(int apiKey, String apiSecret) {
             headerName = "X-OPENTOK-AUTH";
@@ -1566,11 +2063,39 @@ public class HttpClient extends DefaultAsyncHttpClient {
             }
         }
 
+        void cache(long ttlMS, ClientMetrics metrics) {
+            this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMS);
+            this.metrics = metrics;
+        }
+
+        String token() {
+            if (ttlNanos > 0) {
+                CachedToken current = cached;
+                if (current != null && System.nanoTime() - current.until < 0) {
+                    if (metrics != null) {
+                        metrics.authTokenLookup(true);
+                    }
+                    return current.token;
+                }
+            }
+            if (metrics != null) {
+                metrics.authTokenLookup(false);
+            }
+            // Counted from before the token is generated, so it never outlives its own expiry
+            long generatedAt = System.nanoTime();
+            String token = tokenGenerator.get();
+            if (ttlNanos > 0) {
+                // Racing threads may each generate a token; any of them is valid to reuse
+                cached = new CachedToken(token, generatedAt + ttlNanos);
+            }
+            return token;
+        }
+
         @Override
         public <T> FilterContext<T> filter(FilterContext<T> ctx) throws FilterException {
             return new FilterContext.FilterContextBuilder<>(ctx)
                     .request(ctx.getRequest().toBuilder()
-                        .addHeader(headerName, tokenGenerator.get())
+                        .addHeader(headerName, token())
                         .build()
                     ).build();
         }
@@ -0,0 +1,47 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the most recent latency samples in a ring buffer and reports percentiles over them.
+ */
+public class LatencyWindow {
+    private final long[] samples;
+    private int count, index;
+
+    public LatencyWindow(int size) {
+        samples = new long[size];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[index] = nanos;
+        index = (index + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * @param percentile Between 0 and 1, where 1 is the maximum.
+     *
+     * @return The latency at the given percentile of the recorded samples, in milliseconds, or 0 if there are none.
+     */
+    public double percentileMillis(double percentile) {
+        long[] window;
+        synchronized (this) {
+            window = Arrays.copyOf(samples, count);
+        }
+        if (window.length == 0) {
+            return 0;
+        }
+        Arrays.sort(window);
+        int i = (int) Math.ceil(percentile * window.length) - 1;
+        return window[Math.max(i, 0)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,354 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util;
+
+import com.opentok.CallOptions;
+import com.opentok.CancellationToken;
+import com.opentok.RequestPriority;
+import com.opentok.SchedulerProperties;
+import io.netty.util.Timeout;
+import org.asynchttpclient.AsyncHandler;
+import org.asynchttpclient.ListenableFuture;
+import org.asynchttpclient.Request;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the requests an {@link HttpClient} has in flight, in total and per {@link RequestPriority}.
+ * Requests over the limits wait in a FIFO queue per priority; as requests complete, the next one is
+ * picked by smooth weighted round robin between the priorities that have requests waiting and are
+ * under their own limit. A request that finds no queue and a free slot is sent directly.
+ */
+public class RequestScheduler {
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+
+    private final HttpClient client;
+    private final int maxInFlight;
+    private final int[] maxInFlightByPriority = new int[PRIORITIES.length], weights = new int[PRIORITIES.length],
+            credits = new int[PRIORITIES.length], inFlightByPriority = new int[PRIORITIES.length];
+    private final ArrayDeque<Task<?>>[] queues;
+    private final AtomicInteger draining = new AtomicInteger();
+    private int inFlight, queued;
+
+    @SuppressWarnings("unchecked")
+    RequestScheduler(HttpClient client, SchedulerProperties properties) {
+        this.client = client;
+        maxInFlight = properties.maxInFlight();
+        queues = new ArrayDeque[PRIORITIES.length];
+        for (RequestPriority priority : PRIORITIES) {
+            maxInFlightByPriority[priority.ordinal()] = properties.maxInFlight(priority);
+            weights[priority.ordinal()] = properties.weight(priority);
+            queues[priority.ordinal()] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * The priority of a request for which none was given, by its endpoint as described by
+     * {@link HttpClient#endpointOf(Request)}.
+     */
+    static RequestPriority priorityOf(String endpoint) {
+        if (endpoint.equals("POST /session/create") || endpoint.startsWith("DELETE /session/")
+                || endpoint.endsWith("/signal") || endpoint.endsWith("/mute")) {
+            return RequestPriority.INTERACTIVE;
+        }
+        if (endpoint.startsWith("GET ") && !endpoint.endsWith("{id}")) {
+            return RequestPriority.BULK;
+        }
+        return RequestPriority.NORMAL;
+    }
+
+    <T> ListenableFuture<T> submit(RequestPriority priority, Request request, AsyncHandler<T> handler,
+            CallOptions options) {
+        int p = priority.ordinal();
+        Task<T> task;
+        synchronized (this) {
+            if (queued == 0 && inFlight < maxInFlight && inFlightByPriority[p] < maxInFlightByPriority[p]) {
+                inFlight++;
+                inFlightByPriority[p]++;
+                task = null;
+            }
+            else {
+                task = new Task<>(priority, request, handler, options);
+                queues[p].add(task);
+                queued++;
+            }
+        }
+        if (task == null) {
+            return send(priority, request, handler, options);
+        }
+        if (options != null) {
+            task.watch(options);
+        }
+        drain();
+        return task;
+    }
+
+    private <T> ListenableFuture<T> send(RequestPriority priority, Request request, AsyncHandler<T> handler,
+            CallOptions options) {
+        ListenableFuture<T> future;
+        try {
+            future = client.send(request, handler, options);
+        }
+        catch (RuntimeException e) {
+            release(priority);
+            throw e;
+        }
+        future.addListener(() -> release(priority), null);
+        return future;
+    }
+
+    private void release(RequestPriority priority) {
+        synchronized (this) {
+            inFlight--;
+            inFlightByPriority[priority.ordinal()]--;
+        }
+        drain();
+    }
+
+    /**
+     * Starts waiting requests while there are free slots. Requests that complete on the calling thread
+     * re-enter here; they only flag another pass, so the stack does not grow with the queue.
+     */
+    private void drain() {
+        if (draining.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            Task<?> task;
+            while ((task = next()) != null) {
+                task.start();
+            }
+        }
+        while (draining.decrementAndGet() != 0);
+    }
+
+    private synchronized Task<?> next() {
+        if (inFlight >= maxInFlight) {
+            return null;
+        }
+        int best = -1, total = 0;
+        for (int p = 0; p < PRIORITIES.length; p++) {
+            if (!queues[p].isEmpty() && inFlightByPriority[p] < maxInFlightByPriority[p]) {
+                credits[p] += weights[p];
+                total += weights[p];
+                if (best < 0 || credits[p] > credits[best]) {
+                    best = p;
+                }
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        credits[best] -= total;
+        queued--;
+        inFlight++;
+        inFlightByPriority[best]++;
+        return queues[best].poll();
+    }
+
+    private synchronized boolean remove(Task<?> task) {
+        if (queues[task.priority.ordinal()].remove(task)) {
+            queued--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of requests waiting to be sent.
+     */
+    public synchronized int getQueuedRequests() {
+        return queued;
+    }
+
+    /**
+     * @return The number of requests waiting to be sent, by priority.
+     */
+    public synchronized Map<RequestPriority, Integer> getQueuedRequestsByPriority() {
+        Map<RequestPriority, Integer> result = new EnumMap<>(RequestPriority.class);
+        for (RequestPriority priority : PRIORITIES) {
+            result.put(priority, queues[priority.ordinal()].size());
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of requests sent through the scheduler and not yet completed, by priority.
+     */
+    public synchronized Map<RequestPriority, Integer> getInFlightRequestsByPriority() {
+        Map<RequestPriority, Integer> result = new EnumMap<>(RequestPriority.class);
+        for (RequestPriority priority : PRIORITIES) {
+            result.put(priority, inFlightByPriority[priority.ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * The future of a queued request, bound to the transport's future once the request is sent.
+     * Cancelling or aborting it while it waits removes it from the queue without sending it, as do
+     * the deadline and cancellation token of its call options.
+     */
+    private final class Task<T> implements ListenableFuture<T> {
+        final RequestPriority priority;
+        final Request request;
+        final AsyncHandler<T> handler;
+        final CallOptions options;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        volatile ListenableFuture<T> delegate;
+
+        Task(RequestPriority priority, Request request, AsyncHandler<T> handler, CallOptions options) {
+            this.priority = priority;
+            this.request = request;
+            this.handler = handler;
+            this.options = options;
+        }
+
+        void watch(CallOptions options) {
+            CancellationToken token = options.cancellationToken();
+            if (token != null) {
+                Runnable cancel = () -> expire(HttpClient.cancelled());
+                token.addListener(cancel);
+                result.whenComplete((value, e) -> token.removeListener(cancel));
+            }
+            if (options.hasDeadline()) {
+                Timeout timeout = client.timer().newTimeout(t -> expire(new TimeoutException("The call deadline "
+                        + "passed while it waited to be sent")), Math.max(0, options.remainingMillis()), TimeUnit.MILLISECONDS);
+                result.whenComplete((value, e) -> timeout.cancel());
+            }
+        }
+
+        private void expire(Throwable failure) {
+            if (remove(this)) {
+                result.completeExceptionally(failure);
+                handler.onThrowable(failure);
+            }
+        }
+
+        void start() {
+            if (result.isDone()) {
+                // Cancelled between leaving the queue and being started
+                release(priority);
+                return;
+            }
+            ListenableFuture<T> future;
+            try {
+                future = send(priority, request, handler, options);
+            }
+            catch (RuntimeException e) {
+                // The handler is told too, as when the request is aborted while it waits
+                result.completeExceptionally(e);
+                handler.onThrowable(e);
+                return;
+            }
+            delegate = future;
+            future.addListener(() -> {
+                try {
+                    result.complete(future.get());
+                }
+                catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                }
+                catch (InterruptedException | CancellationException e) {
+                    result.cancel(false);
+                }
+            }, null);
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        }
+
+        @Override
+        public void done() {
+            ListenableFuture<T> future = delegate;
+            if (future != null) {
+                future.done();
+            }
+        }
+
+        @Override
+        public void abort(Throwable t) {
+            if (remove(this)) {
+                result.completeExceptionally(t);
+                handler.onThrowable(t);
+                return;
+            }
+            ListenableFuture<T> future = delegate;
+            if (future != null) {
+                future.abort(t);
+            }
+            else {
+                result.completeExceptionally(t);
+            }
+        }
+
+        @Override
+        public void touch() {
+            ListenableFuture<T> future = delegate;
+            if (future != null) {
+                future.touch();
+            }
+        }
+
+        @Override
+        public ListenableFuture<T> addListener(Runnable listener, Executor exec) {
+            if (exec == null) {
+                result.whenComplete((value, e) -> listener.run());
+            }
+            else {
+                result.whenCompleteAsync((value, e) -> listener.run(), exec);
+            }
+            return this;
+        }
+
+        @Override
+        public CompletableFuture<T> toCompletableFuture() {
+            return result;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = result.cancel(mayInterruptIfRunning);
+            if (!remove(this)) {
+                ListenableFuture<T> future = delegate;
+                if (future != null) {
+                    future.cancel(mayInterruptIfRunning);
+                }
+            }
+            return cancelled;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return result.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return result.isDone();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            return result.get();
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return result.get(timeout, unit);
+        }
+    }
+}
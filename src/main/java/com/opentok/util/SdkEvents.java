@@ -0,0 +1,73 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util;
+
+/**
+ * Entry point for the SDK's JDK Flight Recorder events. On runtimes that provide {@code jdk.jfr}
+ * (Java 11 and later) this is backed by {@code com.opentok.util.jfr.FlightRecorderEvents}; elsewhere
+ * every {@code begin} method returns {@code null} and callers skip all event bookkeeping.
+ * <p>
+ * The events are registered as disabled, so they must be switched on explicitly in the recording
+ * settings (for example {@code jfr configure +com.opentok.RestCall#enabled=true}).
+ */
+public abstract class SdkEvents {
+    private static final SdkEvents INSTANCE = load();
+
+    /**
+     * An in-progress REST call event.
+     */
+    public interface RestCall {
+        void complete(String operation, int status, long requestBytes, long responseBytes);
+    }
+
+    /**
+     * An in-progress token generation event.
+     */
+    public interface TokenMint {
+        void complete(String authMode, boolean legacyT1);
+    }
+
+    public static SdkEvents get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts timing a REST call.
+     *
+     * @return The event to complete once the response is received, or {@code null} if the event is disabled.
+     */
+    public abstract RestCall beginRestCall();
+
+    /**
+     * Starts timing a client token generation.
+     *
+     * @return The event to complete once the token is generated, or {@code null} if the event is disabled.
+     */
+    public abstract TokenMint beginTokenMint();
+
+    private static SdkEvents load() {
+        try {
+            Class.forName("jdk.jfr.Event", false, SdkEvents.class.getClassLoader());
+            return (SdkEvents) Class.forName("com.opentok.util.jfr.FlightRecorderEvents")
+                    .getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException | LinkageError ex) {
+            return new SdkEvents() {
+                @Override
+                public RestCall beginRestCall() {
+                    return null;
+                }
+
+                @Override
+                public TokenMint beginTokenMint() {
+                    return null;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util;
+
+public class Utf8 {
+
+    /**
+     * Counts the bytes needed to encode a string as UTF-8 without encoding it.
+     * Unpaired surrogates are counted as the single '?' byte the JDK encoder substitutes.
+     *
+     * @param s The string to measure.
+     * @return The UTF-8 length in bytes, or 0 for {@code null}.
+     */
+    public static int encodedLength(CharSequence s) {
+        if (s == null) {
+            return 0;
+        }
+        int length = s.length(), bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            }
+            else if (Character.isSurrogate(c)) {
+                // A valid pair takes 4 bytes (already counted as 2); an unpaired surrogate stays at 1
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    bytes += 2;
+                    i++;
+                }
+            }
+            else {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+}
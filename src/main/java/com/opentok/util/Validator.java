@@ -0,0 +1,228 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opentok.Archive;
+import com.opentok.ArchiveLayout;
+import com.opentok.ArchiveProperties;
+import com.opentok.BroadcastProperties;
+import com.opentok.CaptionProperties;
+import com.opentok.RenderProperties;
+import com.opentok.SignalProperties;
+import com.opentok.SipProperties;
+import com.opentok.StreamListProperties;
+import com.opentok.StreamProperties;
+import com.opentok.exception.InvalidArgumentException;
+import com.opentok.exception.OpenTokException;
+import com.opentok.exception.RequestException;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Checks the properties of calls against the limits the OpenTok REST API documents, before they are encoded,
+ * so that calls the server would reject fail without a round trip. Only documented limits are checked, the same
+ * ones the property builders state; anything else is left to the server. The checks only read the properties;
+ * none of them encode or copy the values they measure.
+ * <p>
+ * Properties that break a limit fail with an {@link InvalidArgumentException}, except signals that are too
+ * large, which fail with the same {@link RequestException} and 413 status code as the server response, and
+ * layouts to set that are not valid, which fail with the {@link RequestException} those calls always threw.
+ */
+public class Validator {
+    public static final int MAX_SIGNAL_TYPE_BYTES = 128, MAX_SIGNAL_DATA_BYTES = 8 * 1024;
+    public static final int MIN_BITRATE = 100_000, MAX_BITRATE = 6_000_000;
+    public static final int MIN_QUANTIZATION_PARAMETER = 15, MAX_QUANTIZATION_PARAMETER = 45;
+    public static final int MIN_RENDER_DURATION = 60, MAX_RENDER_DURATION = 36_000;
+    public static final int MAX_CAPTIONS_DURATION = 14_400;
+
+    static final String SIGNAL_TOO_LARGE = "Could not send a signal. The type string exceeds the maximum length "
+            + "(128 bytes), or the data string exceeds the maximum size (8 kB)";
+    static final String INVALID_LAYOUT = "Could not set the layout. Either an invalid JSON or an invalid layout options.";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Validator() {
+    }
+
+    /**
+     * Checks that the signal type is at most 128 bytes and the data at most 8 kB, counted as UTF-8.
+     */
+    public static void validate(SignalProperties properties) throws RequestException {
+        if (properties == null) {
+            return;
+        }
+        if (Utf8.encodedLength(properties.type()) > MAX_SIGNAL_TYPE_BYTES
+                || Utf8.encodedLength(properties.data()) > MAX_SIGNAL_DATA_BYTES) {
+            throw new RequestException(SIGNAL_TOO_LARGE, 413);
+        }
+    }
+
+    /**
+     * Checks the layout, maxBitrate and quantizationParameter of an archive to start, and that composed archives
+     * alone have a resolution.
+     */
+    public static void validate(ArchiveProperties properties) throws InvalidArgumentException {
+        if (properties == null) {
+            return;
+        }
+        validate(properties.layout(), "Could not start Archive. When screenshareType is set in the layout, "
+                + "type must be bestFit");
+        if (!StringUtils.isEmpty(properties.resolution())) {
+            if (properties.outputMode() == Archive.OutputMode.INDIVIDUAL) {
+                throw new InvalidArgumentException("The resolution cannot be specified for individual output mode.");
+            }
+        }
+        if (properties.maxBitrate() != null && properties.quantizationParameter() != null) {
+            throw new InvalidArgumentException("maxBitrate and quantizationParameter cannot both be set.");
+        }
+        if (properties.maxBitrate() != null) {
+            bitrate(properties.maxBitrate());
+        }
+        Integer qp = properties.quantizationParameter();
+        if (qp != null && (qp < MIN_QUANTIZATION_PARAMETER || qp > MAX_QUANTIZATION_PARAMETER)) {
+            throw new InvalidArgumentException("quantizationParameter must be between " + MIN_QUANTIZATION_PARAMETER
+                    + " and " + MAX_QUANTIZATION_PARAMETER + ".");
+        }
+    }
+
+    /**
+     * Checks the layout and maxBitrate of a broadcast to start.
+     */
+    public static void validate(BroadcastProperties properties) throws InvalidArgumentException {
+        if (properties == null) {
+            return;
+        }
+        validate(properties.layout(), "Could not start OpenTok Broadcast, Layout Type must be bestfit when "
+                + "screenshareType is set.");
+        if (properties.maxBitrate() > 0) {
+            bitrate(properties.maxBitrate());
+        }
+    }
+
+    /**
+     * Checks that a custom layout to start with has a stylesheet, and that screenshareType is only set with the
+     * bestFit layout.
+     */
+    private static void validate(ArchiveLayout layout, String screenshareMessage) throws InvalidArgumentException {
+        if (layout == null || layout.getType() == null) {
+            return;
+        }
+        if (layout.getScreenshareType() != null && layout.getType() != ArchiveLayout.Type.BESTFIT) {
+            throw new InvalidArgumentException(screenshareMessage);
+        }
+        if (layout.getType() == ArchiveLayout.Type.CUSTOM && StringUtils.isEmpty(layout.getStylesheet())) {
+            throw new InvalidArgumentException("A custom layout needs a stylesheet.");
+        }
+    }
+
+    /**
+     * Checks a layout to set on a running archive or broadcast: it has a type, a custom layout has a stylesheet
+     * and other layouts do not, and screenshareType is only set with the bestFit layout.
+     */
+    public static void validateLayoutUpdate(ArchiveLayout layout, String screenshareMessage) throws OpenTokException {
+        if (layout == null || layout.getType() == null) {
+            throw new RequestException(INVALID_LAYOUT);
+        }
+        boolean custom = layout.getType() == ArchiveLayout.Type.CUSTOM;
+        if (custom == StringUtils.isEmpty(layout.getStylesheet())) {
+            throw new RequestException(INVALID_LAYOUT);
+        }
+        if (layout.getScreenshareType() != null && layout.getType() != ArchiveLayout.Type.BESTFIT) {
+            throw new InvalidArgumentException(screenshareMessage);
+        }
+    }
+
+    /**
+     * Checks that every stream whose layout classes are set has an ID.
+     */
+    public static void validate(StreamListProperties properties) throws InvalidArgumentException {
+        if (properties == null) {
+            return;
+        }
+        for (StreamProperties stream : properties.getStreamList()) {
+            if (stream == null || StringUtils.isEmpty(stream.id())) {
+                throw new InvalidArgumentException("Could not set the layout. Every stream needs an ID.");
+            }
+        }
+    }
+
+    /**
+     * Checks that the SIP URI, which is required, is set, and that the headers are a JSON object, since they are
+     * sent as they are in the body of the request.
+     */
+    public static void validate(SipProperties properties) throws InvalidArgumentException {
+        if (properties == null) {
+            return;
+        }
+        if (StringUtils.isEmpty(properties.sipUri())) {
+            throw new InvalidArgumentException("The SIP URI is required.");
+        }
+        String headers = properties.headersJsonStartingWithXDash();
+        if (!StringUtils.isEmpty(headers)) {
+            JsonNode node;
+            try {
+                node = MAPPER.readTree(headers);
+            } catch (JsonProcessingException e) {
+                throw new InvalidArgumentException("The SIP headers are not valid JSON.");
+            }
+            if (node == null || !node.isObject()) {
+                throw new InvalidArgumentException("The SIP headers must be a JSON object.");
+            }
+        }
+    }
+
+    /**
+     * Checks that DTMF digits are not empty and only include 0-9, *, # and p.
+     */
+    public static void validateDtmf(String digits) throws InvalidArgumentException {
+        if (StringUtils.isEmpty(digits)) {
+            throw new InvalidArgumentException("DTMF digits are required.");
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (!(c >= '0' && c <= '9' || c == '*' || c == '#' || c == 'p')) {
+                throw new InvalidArgumentException("DTMF digits can only include 0-9, *, # and p.");
+            }
+        }
+    }
+
+    /**
+     * Checks the maxDuration of an Experience Composer render to start.
+     */
+    public static void validate(RenderProperties properties) throws InvalidArgumentException {
+        if (properties == null) {
+            return;
+        }
+        if (properties.maxDuration() < MIN_RENDER_DURATION || properties.maxDuration() > MAX_RENDER_DURATION) {
+            throw new InvalidArgumentException("maxDuration value must be between " + MIN_RENDER_DURATION
+                    + " and " + MAX_RENDER_DURATION + " (inclusive).");
+        }
+    }
+
+    /**
+     * Checks the maxDuration of captions to start, with the range {@link CaptionProperties.Builder} allows.
+     */
+    public static void validate(CaptionProperties properties) throws InvalidArgumentException {
+        if (properties == null) {
+            return;
+        }
+        if (properties.getMaxDuration() < 0 || properties.getMaxDuration() > MAX_CAPTIONS_DURATION) {
+            throw new InvalidArgumentException("maxDuration value must be between 0 and " + MAX_CAPTIONS_DURATION
+                    + " (inclusive).");
+        }
+    }
+
+    private static void bitrate(int bitrate) throws InvalidArgumentException {
+        if (bitrate < MIN_BITRATE || bitrate > MAX_BITRATE) {
+            throw new InvalidArgumentException("maxBitrate value must be between " + MIN_BITRATE
+                    + " and " + MAX_BITRATE + ".");
+        }
+    }
+}
@@ -15,10 +15,16 @@ import static com.github.tomakehurst.wiremock.client.WireMock.matching;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.opentok.Archive.OutputMode;
+import com.opentok.callback.*;
 import com.opentok.constants.DefaultUserAgent;
+import com.opentok.emulator.ArchiveFileServer;
+import com.opentok.emulator.OpenTokEmulator;
 import com.opentok.exception.InvalidArgumentException;
 import com.opentok.exception.OpenTokException;
 import com.opentok.exception.RequestException;
+import com.opentok.util.CallDeduplicator;
+import com.opentok.util.HttpClient;
+import com.opentok.util.Validator;
 import io.jsonwebtoken.Jwts;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Before;
@@ -27,6 +33,8 @@ import org.junit.Test;
 
 import java.io.UnsupportedEncodingException;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -38,6 +46,13 @@ import java.security.spec.X509EncodedKeySpec;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.Assert.*;
@@ -2990,4 +3005,1411 @@ public class OpenTokTest {
         assertThrows(InvalidArgumentException.class, () -> sdk.listConnections(""));
         assertThrows(InvalidArgumentException.class, () -> sdk.listConnections(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        String sessionId = "SESSIONID";
+        String path = "/v2/project/" + apiKey + "/session/" + sessionId + "/signal";
+        stubFor(post(urlEqualTo(path))
+              .willReturn(aResponse()
+                    .withStatus(204)));
+        SignalProperties properties = new SignalProperties.Builder()
+              .type("test")
+              .data("Signal test string")
+              .build();
+
+        Path dump = Files.createTempFile("opentok", ".jfr");
+        try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+            recording.enable("com.opentok.RestCall");
+            recording.enable("com.opentok.TokenMint");
+            recording.start();
+            sdk.signal(sessionId, properties);
+            Session session = new Session(this.sessionId, apiKey, apiSecret);
+            session.generateToken(new TokenOptions.Builder().build());
+            // The REST event is committed by the I/O thread once the response completes
+            Thread.sleep(200);
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<jdk.jfr.consumer.RecordedEvent> events = jdk.jfr.consumer.RecordingFile.readAllEvents(dump);
+        Files.delete(dump);
+        jdk.jfr.consumer.RecordedEvent restCall = events.stream()
+              .filter(e -> e.getEventType().getName().equals("com.opentok.RestCall"))
+              .findFirst().orElseThrow(AssertionError::new);
+        assertEquals("POST /session/{id}/signal", restCall.getString("operation"));
+        assertEquals(204, restCall.getInt("status"));
+        assertTrue(restCall.getLong("requestBytes") > 0);
+        jdk.jfr.consumer.RecordedEvent tokenMint = events.stream()
+              .filter(e -> e.getEventType().getName().equals("com.opentok.TokenMint"))
+              .findFirst().orElseThrow(AssertionError::new);
+        assertEquals("project", tokenMint.getString("authMode"));
+        assertFalse(tokenMint.getBoolean("legacyT1"));
+    }
+
+    @Test
+    public void testClientMBean() throws Exception {
+        String sessionId = "SESSIONID";
+        String path = "/v2/project/" + apiKey + "/session/" + sessionId + "/signal";
+        stubFor(post(urlEqualTo(path))
+              .willReturn(aResponse()
+                    .withStatus(204)));
+        stubFor(post(urlEqualTo(path.replace(sessionId, "BADSESSION")))
+              .willReturn(aResponse()
+                    .withStatus(404)));
+        SignalProperties properties = new SignalProperties.Builder()
+              .type("test")
+              .data("Signal test string")
+              .build();
+
+        OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(apiUrl)
+              .registerMBeans(true).reuseAuthTokens(60).build();
+        javax.management.ObjectName name = opentok.client.getMetrics().getObjectName();
+        javax.management.MBeanServer server = java.lang.management.ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.isRegistered(name));
+
+        opentok.signal(sessionId, properties);
+        opentok.signal(sessionId, properties);
+        assertThrows(RequestException.class, () -> opentok.signal("BADSESSION", properties));
+        // Completion is recorded by the I/O thread
+        Thread.sleep(100);
+
+        assertEquals(3L, server.getAttribute(name, "CompletedRequests"));
+        assertEquals(0, server.getAttribute(name, "InFlightRequests"));
+        assertEquals(2L, server.getAttribute(name, "AuthTokenCacheHits"));
+        assertEquals(1L, server.getAttribute(name, "AuthTokenCacheMisses"));
+        assertTrue((Double) server.getAttribute(name, "Latency99thPercentileMillis") > 0);
+        javax.management.openmbean.TabularData errors =
+              (javax.management.openmbean.TabularData) server.getAttribute(name, "ErrorsByStatus");
+        assertEquals(1, errors.size());
+        assertEquals(1L, errors.get(new Object[]{404}).get("value"));
+        assertTrue(TestHelpers.verifyTokenAuth(apiKey, apiSecret, findAll(postRequestedFor(urlMatching(path)))));
+
+        opentok.close();
+        assertFalse(server.isRegistered(name));
+        assertThrows(InvalidArgumentException.class, () -> new OpenTok.Builder(apiKey, apiSecret).reuseAuthTokens(121));
+    }
+
+    @Test
+    public void testEmulator() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret)
+                .archiveProcessingTime(100).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            String sessionId = opentok.createSession(new SessionProperties.Builder()
+                    .mediaMode(MediaMode.ROUTED).build()).getSessionId();
+            assertThrows(RequestException.class, () -> opentok.startArchive(opentok.createSession().getSessionId()));
+
+            // Archiving needs a connected client, and only one archive may run at a time
+            RequestException noClients = assertThrows(RequestException.class, () -> opentok.startArchive(sessionId));
+            assertTrue(noClients.getMessage(), noClients.getMessage().contains("sessionId does not exist"));
+            String connectionId = emulator.connect(sessionId);
+            String streamId = emulator.publish(sessionId, connectionId);
+            Archive archive = opentok.startArchive(sessionId);
+            assertEquals(Archive.Status.STARTED, archive.getStatus());
+            RequestException conflict = assertThrows(RequestException.class, () -> opentok.startArchive(sessionId));
+            assertTrue(conflict.getMessage().contains("session is either"));
+            assertEquals(Archive.Status.STOPPED, opentok.stopArchive(archive.getId()).getStatus());
+            assertEquals(Archive.Status.STOPPED, opentok.getArchive(archive.getId()).getStatus());
+            Thread.sleep(150);
+            assertEquals(Archive.Status.AVAILABLE, opentok.getArchive(archive.getId()).getStatus());
+            for (int i = 0; i < 3; i++) {
+                opentok.stopArchive(opentok.startArchive(sessionId).getId());
+            }
+            assertEquals(4, opentok.listArchives(sessionId, 0, 1000).size());
+            assertEquals(2, opentok.listArchives(sessionId, 2, 1000).size());
+
+            // Signal limits
+            opentok.signal(sessionId, new SignalProperties.Builder().type("chat").data("hello").build());
+            opentok.signal(sessionId, connectionId, new SignalProperties.Builder().type("chat").data("hi").build());
+            assertEquals(2, emulator.getSignalCount(sessionId));
+            SignalProperties tooLarge = new SignalProperties.Builder()
+                    .type("chat").data(StringUtils.repeat('x', 8193)).build();
+            RequestException signalError = assertThrows(RequestException.class, () -> opentok.signal(sessionId, tooLarge));
+            assertTrue(signalError.getMessage().contains("maximum length"));
+
+            assertEquals(1, opentok.listConnections(sessionId).size());
+            opentok.forceMuteStream(sessionId, streamId);
+            assertTrue(emulator.isAudioMuted(sessionId, streamId));
+            opentok.forceDisconnect(sessionId, connectionId);
+            assertEquals(0, opentok.listStreams(sessionId).size());
+            opentok.close();
+
+            // Requests signed with another secret are rejected
+            OpenTok impostor = new OpenTok.Builder(apiKey, "0000000000abcdef1234567890abcdef1234567890")
+                    .apiUrl(emulator.getApiUrl()).build();
+            RequestException forbidden = assertThrows(RequestException.class, () -> impostor.listArchives());
+            assertTrue(forbidden.getMessage().contains("not authorized"));
+            impostor.close();
+        }
+    }
+
+    @Test
+    public void testSessionPool() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            SessionProperties routed = new SessionProperties.Builder().mediaMode(MediaMode.ROUTED).build();
+            SessionProperties archived = new SessionProperties.Builder()
+                    .mediaMode(MediaMode.ROUTED).archiveMode(ArchiveMode.ALWAYS).build();
+            SessionPool pool = new SessionPool.Builder(opentok)
+                    .profile(new SessionProperties.Builder().mediaMode(MediaMode.ROUTED).build(), 4, 1)
+                    .profile(null, 2)
+                    .build();
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((pool.available(routed) < 4 || pool.available(null) < 2) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(4, pool.available(routed));
+            long requests = emulator.getRequestCount();
+
+            Set<String> sessionIds = new HashSet<>();
+            for (int i = 0; i < 3; i++) {
+                Session session = pool.take(routed);
+                assertEquals(MediaMode.ROUTED, session.getProperties().mediaMode());
+                sessionIds.add(session.getSessionId());
+            }
+            assertEquals(3, sessionIds.size());
+            assertEquals(3, pool.getPooledSessionsTaken());
+            assertEquals(0, pool.getSessionsCreatedOnDemand());
+            // Taking from the pool makes no API call on the caller's thread, so the refill accounts for all of them
+            while (pool.available(routed) < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(4, pool.available(routed));
+            assertEquals(requests + 3, emulator.getRequestCount());
+            assertTrue(pool.getRefillLatencyMaxMillis() > 0);
+            assertEquals(Integer.valueOf(4), pool.getAvailableSessions().get("archiveMode=manual,p2p.preference=disabled"));
+
+            // Profiles that are not pooled are created on demand
+            assertEquals(ArchiveMode.ALWAYS, pool.take(archived).getProperties().archiveMode());
+            assertEquals(1, pool.getSessionsCreatedOnDemand());
+            assertThrows(InvalidArgumentException.class, () -> new SessionPool.Builder(opentok).profile(routed, 2, 2));
+            assertThrows(InvalidArgumentException.class, () -> new SessionPool.Builder(opentok)
+                    .profile(routed, 2).profile(new SessionProperties.Builder().mediaMode(MediaMode.ROUTED).build(), 3));
+            pool.close();
+
+            // A refill stopped by an error is started again by the next take
+            AtomicInteger errors = new AtomicInteger(1);
+            OpenTok failing = new OpenTok(apiKey, apiSecret) {
+                @Override
+                public Session createSession(SessionProperties properties) throws OpenTokException {
+                    if (errors.getAndDecrement() > 0) {
+                        throw new OutOfMemoryError("Refill");
+                    }
+                    return opentok.createSession(properties);
+                }
+            };
+            SessionPool recovering = new SessionPool.Builder(failing).profile(routed, 2).build();
+            deadline = System.currentTimeMillis() + 5000;
+            while (recovering.getRefillFailures() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, recovering.getRefillFailures());
+            recovering.take(routed);
+            while (recovering.available(routed) < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, recovering.available(routed));
+            recovering.close();
+            failing.close();
+            opentok.close();
+        }
+    }
+
+    @Test
+    public void testBulkSignal() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).latency(5).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            String sessionId = emulator.createSession();
+            SignalProperties hello = new SignalProperties.Builder().type("chat").data("hello").build();
+            Map<String, SignalProperties> signals = new LinkedHashMap<>();
+            for (int i = 0; i < 40; i++) {
+                signals.put(emulator.connect(sessionId), hello);
+            }
+            String gone = emulator.connect(sessionId);
+            emulator.disconnect(sessionId, gone);
+            signals.put(gone, hello);
+            String tooLarge = emulator.connect(sessionId);
+            signals.put(tooLarge, new SignalProperties.Builder().type("chat").data(StringUtils.repeat('x', 8193)).build());
+
+            BatchResult result = opentok.signal(sessionId, signals, 4);
+            assertFalse(result.isSuccessful());
+            assertEquals(40, result.getSucceeded().size());
+            assertEquals(new ArrayList<>(signals.keySet()).subList(0, 40), result.getSucceeded());
+            assertEquals(Arrays.asList(gone, tooLarge), new ArrayList<>(result.getFailures().keySet()));
+            assertEquals(404, result.getFailures().get(gone).getStatusCode());
+            assertEquals(413, result.getFailures().get(tooLarge).getStatusCode());
+            assertEquals(40, emulator.getSignalCount(sessionId));
+
+            assertTrue(opentok.signal(sessionId, Collections.emptyMap()).isSuccessful());
+            assertThrows(InvalidArgumentException.class, () -> opentok.signal(sessionId, signals, 0));
+            opentok.close();
+        }
+    }
+
+    @Test
+    public void testSignalDispatcher() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).latency(2).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            List<String> sessionIds = Arrays.asList(emulator.createSession(), emulator.createSession(), emulator.createSession());
+            SignalDispatcher dispatcher = new SignalDispatcher.Builder(opentok).build();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                for (String sessionId : sessionIds) {
+                    futures.add(dispatcher.send(sessionId, new SignalProperties.Builder()
+                            .type("seq").data(Integer.toString(i)).build()));
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                expected.add(Integer.toString(i));
+            }
+            for (String sessionId : sessionIds) {
+                assertEquals(expected, emulator.getRecentSignals(sessionId));
+            }
+            assertEquals(90, dispatcher.getSentSignals());
+            assertEquals(0, dispatcher.getQueuedSignals());
+
+            // A failed signal does not stop the queue
+            CompletableFuture<Void> notConnected = dispatcher.send(sessionIds.get(0), "NOTCONNECTED",
+                    new SignalProperties.Builder().type("seq").data("lost").build());
+            CompletableFuture<Void> next = dispatcher.send(sessionIds.get(0),
+                    new SignalProperties.Builder().type("seq").data("next").build());
+            next.get(5, TimeUnit.SECONDS);
+            ExecutionException error = assertThrows(ExecutionException.class, notConnected::get);
+            assertEquals(404, ((RequestException) error.getCause()).getStatusCode());
+
+            SignalDispatcher dropping = new SignalDispatcher.Builder(opentok).maxQueueDepth(2)
+                    .overflowPolicy(SignalDispatcher.OverflowPolicy.DROP_OLDEST).build();
+            SignalDispatcher rejecting = new SignalDispatcher.Builder(opentok).maxQueueDepth(2)
+                    .overflowPolicy(SignalDispatcher.OverflowPolicy.REJECT).build();
+            String sessionId = sessionIds.get(1);
+            List<CompletableFuture<Void>> sent = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                // The first one is in flight, the rest compete for two places in the queue
+                sent.add(dropping.send(sessionId, new SignalProperties.Builder().type("drop").data("d" + i).build()));
+            }
+            assertThrows(ExecutionException.class, () -> sent.get(1).get(5, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> sent.get(2).get(5, TimeUnit.SECONDS));
+            CompletableFuture.allOf(sent.get(0), sent.get(3), sent.get(4)).get(5, TimeUnit.SECONDS);
+            assertEquals(2, dropping.getDroppedSignals());
+            List<String> recent = emulator.getRecentSignals(sessionId);
+            assertEquals(Arrays.asList("d0", "d3", "d4"), recent.subList(recent.size() - 3, recent.size()));
+
+            for (int i = 0; i < 3; i++) {
+                rejecting.send(sessionId, new SignalProperties.Builder().type("reject").data("r" + i).build());
+            }
+            assertThrows(RequestException.class, () ->
+                    rejecting.send(sessionId, new SignalProperties.Builder().type("reject").data("r3").build()));
+            assertEquals(1, rejecting.getRejectedSignals());
+
+            // A long queue of signals that fail without a request does not grow the stack
+            String tooLarge = StringUtils.repeat('x', Validator.MAX_SIGNAL_DATA_BYTES + 1);
+            List<CompletableFuture<Void>> large = new ArrayList<>();
+            SignalDispatcher deep = new SignalDispatcher.Builder(opentok).maxQueueDepth(50_000).build();
+            large.add(deep.send(sessionId, new SignalProperties.Builder().type("big").data("ok").build()));
+            for (int i = 0; i < 20_000; i++) {
+                large.add(deep.send(sessionId, new SignalProperties.Builder().type("big").data(tooLarge).build()));
+            }
+            large.get(0).get(5, TimeUnit.SECONDS);
+            ExecutionException tooLargeError = assertThrows(ExecutionException.class,
+                    () -> large.get(large.size() - 1).get(5, TimeUnit.SECONDS));
+            assertEquals(413, ((RequestException) tooLargeError.getCause()).getStatusCode());
+            assertEquals(20_000, deep.getFailedSignals());
+
+            dispatcher.close();
+            assertThrows(RequestException.class, () -> dispatcher.send(sessionId, new SignalProperties.Builder().build()));
+            opentok.close();
+        }
+
+        // Closing fails the callers blocked on a full queue instead of accepting their signals later
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).latency(300).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            String sessionId = emulator.createSession();
+            SignalDispatcher blocking = new SignalDispatcher.Builder(opentok).maxQueueDepth(1).build();
+            blocking.send(sessionId, new SignalProperties.Builder().type("block").data("b0").build());
+            blocking.send(sessionId, new SignalProperties.Builder().type("block").data("b1").build());
+            CompletableFuture<CompletableFuture<Void>> blocked = CompletableFuture.supplyAsync(() ->
+                    blocking.send(sessionId, new SignalProperties.Builder().type("block").data("b2").build()));
+            Thread.sleep(50);
+            assertFalse(blocked.isDone());
+            blocking.close();
+            ExecutionException closed = assertThrows(ExecutionException.class, () -> blocked.get(1, TimeUnit.SECONDS));
+            assertTrue(closed.getCause() instanceof RequestException);
+            opentok.close();
+        }
+    }
+
+    @Test
+    public void testBulkModeration() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            String sessionId = emulator.createSession();
+            List<String> streamIds = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                String connectionId = emulator.connect(sessionId);
+                if (i % 3 == 0) {
+                    streamIds.add(emulator.publish(sessionId, connectionId));
+                }
+            }
+            List<String> toMute = new ArrayList<>(streamIds);
+            toMute.add("NOSUCHSTREAM");
+            BatchResult muted = opentok.forceMuteStreams(sessionId, toMute,
+                    new BatchProperties.Builder().maxConcurrency(4).build());
+            assertEquals(streamIds, muted.getSucceeded());
+            assertEquals(404, muted.getFailures().get("NOSUCHSTREAM").getStatusCode());
+            for (String streamId : streamIds) {
+                assertTrue(emulator.isAudioMuted(sessionId, streamId));
+            }
+
+            BatchResult disconnected = opentok.forceDisconnectAll(sessionId);
+            assertTrue(disconnected.isSuccessful());
+            assertEquals(30, disconnected.getSucceeded().size());
+            assertEquals(0, opentok.listConnections(sessionId).size());
+            opentok.close();
+        }
+
+        // Server errors and rate limiting are retried, other errors are not
+        String path = "/v2/project/" + apiKey + "/session/SESSIONID/connection/";
+        stubFor(delete(urlEqualTo(path + "FLAKY")).inScenario("flaky").whenScenarioStateIs(com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED)
+              .willReturn(aResponse().withStatus(503)).willSetStateTo("throttled"));
+        stubFor(delete(urlEqualTo(path + "FLAKY")).inScenario("flaky").whenScenarioStateIs("throttled")
+              .willReturn(aResponse().withStatus(429)).willSetStateTo("recovered"));
+        stubFor(delete(urlEqualTo(path + "FLAKY")).inScenario("flaky").whenScenarioStateIs("recovered")
+              .willReturn(aResponse().withStatus(204)));
+        stubFor(delete(urlEqualTo(path + "GONE")).willReturn(aResponse().withStatus(404)));
+        stubFor(delete(urlEqualTo(path + "DOWN")).willReturn(aResponse().withStatus(500)));
+
+        BatchResult result = sdk.forceDisconnect("SESSIONID", Arrays.asList("FLAKY", "GONE", "DOWN"),
+                new BatchProperties.Builder().maxRetries(2).retryBackoff(5).build());
+        assertEquals(Collections.singletonList("FLAKY"), result.getSucceeded());
+        assertEquals(404, result.getFailures().get("GONE").getStatusCode());
+        assertEquals(500, result.getFailures().get("DOWN").getStatusCode());
+        verify(3, deleteRequestedFor(urlEqualTo(path + "FLAKY")));
+        verify(1, deleteRequestedFor(urlEqualTo(path + "GONE")));
+        verify(3, deleteRequestedFor(urlEqualTo(path + "DOWN")));
+    }
+
+    @Test
+    public void testDeduplicateStarts() throws Exception {
+        String sessionId = "SESSIONID";
+        stubFor(post(urlEqualTo(archivePath))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(300)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"id\":\"ARCHIVEID\",\"sessionId\":\"SESSIONID\",\"status\":\"started\"}")));
+        OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl("http://localhost:8080")
+                .deduplicateStarts(500).build();
+
+        // A double click sends one request, and both calls get its Archive
+        CompletableFuture<Archive> first = CompletableFuture.supplyAsync(() -> opentok.startArchive(sessionId));
+        CompletableFuture<Archive> second = CompletableFuture.supplyAsync(() -> opentok.startArchive(sessionId));
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        // So does a retry shortly after it completed
+        assertSame(first.get(), opentok.startArchive(sessionId));
+        verify(1, postRequestedFor(urlMatching(archivePath)));
+
+        // Another multiArchiveTag is another archive
+        opentok.startArchive(sessionId, new ArchiveProperties.Builder().multiArchiveTag("second").build());
+        verify(2, postRequestedFor(urlMatching(archivePath)));
+
+        Thread.sleep(600);
+        assertNotSame(first.get(), opentok.startArchive(sessionId));
+        verify(3, postRequestedFor(urlMatching(archivePath)));
+
+        // Failures are not remembered
+        stubFor(post(urlEqualTo(archivePath)).willReturn(aResponse().withStatus(409)));
+        OpenTok noWindow = new OpenTok.Builder(apiKey, apiSecret).apiUrl("http://localhost:8080")
+                .deduplicateStarts(0).build();
+        assertThrows(RequestException.class, () -> noWindow.startArchive("OTHER"));
+        assertThrows(RequestException.class, () -> noWindow.startArchive("OTHER"));
+        verify(2, postRequestedFor(urlMatching(archivePath)).withRequestBody(containing("OTHER")));
+        opentok.close();
+        noWindow.close();
+
+        // Neither are errors, which do not leave the call in flight
+        CallDeduplicator deduplicator = new CallDeduplicator(500);
+        assertThrows(StackOverflowError.class, () -> deduplicator.call("key", () -> {
+            throw new StackOverflowError();
+        }));
+        assertEquals("again", deduplicator.call("key", () -> "again"));
+    }
+
+    @Test
+    public void testValidateBeforeSending() throws Exception {
+        String sessionId = "SESSIONID";
+        // 4097 two-byte characters are 8194 bytes
+        SignalProperties tooLarge = new SignalProperties.Builder().type("chat")
+                .data(StringUtils.repeat('é', 4097)).build();
+        RequestException signalError = assertThrows(RequestException.class, () -> sdk.signal(sessionId, tooLarge));
+        assertEquals(413, signalError.getStatusCode());
+        SignalProperties longType = new SignalProperties.Builder().type(StringUtils.repeat('t', 129)).build();
+        assertThrows(RequestException.class, () -> sdk.signal(sessionId, "CONNECTIONID", longType));
+
+        assertThrows(InvalidArgumentException.class, () -> sdk.startArchive(sessionId,
+                new ArchiveProperties.Builder().layout(new ArchiveLayout(ArchiveLayout.Type.CUSTOM)).build()));
+        assertThrows(InvalidArgumentException.class, () -> sdk.startArchive(sessionId,
+                new ArchiveProperties.Builder().maxBitrate(2_000_000).quantizationParameter(20).build()));
+        assertThrows(InvalidArgumentException.class, () -> sdk.dial(sessionId, "TOKEN",
+                new SipProperties.Builder().sipUri("sip:user@sip.partner.com")
+                        .headersJsonStartingWithXDash("[\"X-key\"]").build()));
+        assertThrows(InvalidArgumentException.class, () -> sdk.playDTMF(sessionId, "12a#"));
+        assertThrows(InvalidArgumentException.class, () -> sdk.startRender(sessionId, "TOKEN",
+                RenderProperties.Builder().url("https://example.com/main").maxDuration(30).build()));
+
+        // Layouts are checked when they are set, too
+        ArchiveLayout screenshare = new ArchiveLayout(ArchiveLayout.Type.PIP);
+        screenshare.setScreenshareType(ScreenShareLayoutType.PIP);
+        assertThrows(InvalidArgumentException.class, () -> sdk.setArchiveLayout("ARCHIVEID",
+                new ArchiveProperties.Builder().layout(screenshare).build()));
+        assertThrows(RequestException.class, () -> sdk.setBroadcastLayout("BROADCASTID",
+                new BroadcastProperties.Builder().layout(new BroadcastLayout(BroadcastLayout.Type.CUSTOM)).build()));
+        assertThrows(InvalidArgumentException.class, () -> sdk.setStreamLayouts(sessionId,
+                new StreamListProperties.Builder().addStreamProperties(
+                        new StreamProperties.Builder().addLayoutClass("full").build()).build()));
+        // None of them reached the server
+        assertTrue(findAll(anyRequestedFor(anyUrl())).isEmpty());
+
+        // Values the builders and the documentation allow are left to the server
+        Validator.validate(CaptionProperties.Builder().maxDuration(60).build());
+        Validator.validate(new BroadcastProperties.Builder().resolution("1024x768").build());
+        Validator.validate(new ArchiveProperties.Builder().layout(new ArchiveLayout(ArchiveLayout.Type.BESTFIT,
+                "stream.instructor {position: absolute;}")).resolution("1024x768").build());
+        Validator.validate(RenderProperties.Builder().url("http://a.io").build());
+        Validator.validate(new SipProperties.Builder().sipUri("user@sip.partner.com")
+                .headersJsonStartingWithXDash("{\"key\":\"value\"}").build());
+    }
+
+    @Test
+    public void testCallbackParser() throws Exception {
+        String archive = "{\"id\":\"ARCHIVEID\",\"event\":\"archive\",\"createdAt\":1384221730000,\"duration\":328,"
+                + "\"name\":\"Foo\",\"partnerId\":123456,\"reason\":\"\",\"sessionId\":\"SESSIONID\",\"size\":18023312,"
+                + "\"status\":\"available\",\"url\":\"https://example.com/archive.mp4\"}";
+        String broadcast = "{\"id\":\"BROADCASTID\",\"sessionId\":\"SESSIONID\",\"projectId\":123456,"
+                + "\"event\":\"broadcast\",\"status\":\"started\",\"broadcastUrls\":{\"hls\":\"https://example.com/hls.m3u8\"}}";
+        String render = "{\"id\":\"RENDERID\",\"sessionId\":\"SESSIONID\",\"projectId\":\"123456\",\"createdAt\":1437676551000,"
+                + "\"url\":\"https://example.com/main\",\"resolution\":\"1280x720\",\"status\":\"started\",\"streamId\":\"STREAMID\"}";
+        String captions = "{\"captionId\":\"CAPTIONSID\",\"applicationId\":\"APPID\",\"sessionId\":\"SESSIONID\","
+                + "\"status\":\"stopped\",\"createdAt\":1651856111000,\"updatedAt\":1651856122000,\"duration\":11,"
+                + "\"languageCode\":\"en-US\",\"provider\":\"aws-transcribe\",\"reason\":\"Maximum duration reached\","
+                + "\"group\":\"captions\"}";
+        String connection = "{\"sessionId\":\"SESSIONID\",\"projectId\":\"123456\",\"event\":\"connectionCreated\","
+                + "\"timestamp\":1470257688309,\"connection\":{\"id\":\"CONNECTIONID\",\"createdAt\":1470257688143,\"data\":\"\"}}";
+        String stream = "{\"sessionId\":\"SESSIONID\",\"projectId\":\"123456\",\"event\":\"streamDestroyed\","
+                + "\"reason\":\"clientDisconnected\",\"timestamp\":1470258896953,\"stream\":{\"id\":\"STREAMID\","
+                + "\"connection\":{\"id\":\"CONNECTIONID\",\"createdAt\":1470258860571,\"data\":\"\"},"
+                + "\"createdAt\":1470258861181,\"name\":\"\",\"videoType\":\"camera\"}}";
+        String sip = "{\"sessionId\":\"SESSIONID\",\"projectId\":\"123456\",\"event\":\"callCreated\","
+                + "\"timestamp\":1470258896953,\"call\":{\"id\":\"CALLID\",\"connectionId\":\"CONNECTIONID\"}}";
+        String unknown = "{\"sessionId\":\"SESSIONID\",\"event\":\"somethingNew\",\"payload\":{\"a\":[1,2]}}";
+
+        byte[] batch = ("[" + String.join(",", archive, broadcast, render, captions, connection, stream, sip, unknown)
+                + "]").getBytes(StandardCharsets.UTF_8);
+        List<CallbackEvent> events = CallbackParser.parse(batch);
+        assertEquals(8, events.size());
+        for (CallbackEvent event : events) {
+            assertEquals("SESSIONID", event.getSessionId());
+        }
+
+        Archive parsedArchive = ((ArchiveEvent) events.get(0)).getArchive();
+        assertEquals("ARCHIVEID", parsedArchive.getId());
+        assertEquals(Archive.Status.AVAILABLE, parsedArchive.getStatus());
+        assertEquals("started", ((BroadcastEvent) events.get(1)).getBroadcast().getStatus());
+        assertEquals(CallbackEvent.Type.RENDER, events.get(2).getType());
+        assertEquals(RenderStatus.STARTED, ((RenderEvent) events.get(2)).getRender().getStatus());
+        CaptionsEvent captionsEvent = (CaptionsEvent) events.get(3);
+        assertEquals("CAPTIONSID", captionsEvent.getCaptionsId());
+        assertEquals("stopped", captionsEvent.getStatus());
+        assertEquals(11, captionsEvent.getDuration());
+        ConnectionEvent connectionEvent = (ConnectionEvent) events.get(4);
+        assertTrue(connectionEvent.isCreated());
+        assertEquals("CONNECTIONID", connectionEvent.getConnection().getConnectionId());
+        assertEquals(1470257688309L, connectionEvent.getTimestamp());
+        StreamEvent streamEvent = (StreamEvent) events.get(5);
+        assertFalse(streamEvent.isCreated());
+        assertEquals("STREAMID", streamEvent.getStream().getId());
+        assertEquals("camera", streamEvent.getStream().getVideoType());
+        assertEquals("CONNECTIONID", streamEvent.getConnection().getConnectionId());
+        assertEquals("CALLID", ((SipCallEvent) events.get(6)).getCall().getId());
+        assertEquals(CallbackEvent.Type.UNKNOWN, events.get(7).getType());
+        assertEquals("somethingNew", events.get(7).getEvent());
+
+        // Direct buffers and callbacks sent one after the other
+        ByteBuffer direct = ByteBuffer.allocateDirect(batch.length);
+        direct.put((archive + "\n" + connection).getBytes(StandardCharsets.UTF_8)).flip();
+        List<CallbackEvent> fromBuffer = CallbackParser.parse(direct);
+        assertEquals(Arrays.asList(CallbackEvent.Type.ARCHIVE, CallbackEvent.Type.CONNECTION),
+                Arrays.asList(fromBuffer.get(0).getType(), fromBuffer.get(1).getType()));
+        assertEquals(0, direct.position());
+
+        assertThrows(OpenTokException.class, () -> CallbackParser.parse("{\"event\":".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(OpenTokException.class, () -> CallbackParser.parse("[1]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static int postCallback(String url, String method, String body) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        connection.disconnect();
+        return status;
+    }
+
+    @Test
+    public void testCallbackReceiver() throws Exception {
+        String archive = "{\"id\":\"ARCHIVEID\",\"event\":\"archive\",\"sessionId\":\"SESSIONID\",\"status\":\"started\"}";
+        String connection = "{\"sessionId\":\"SESSIONID\",\"event\":\"connectionCreated\",\"timestamp\":1,"
+                + "\"connection\":{\"id\":\"CONNECTIONID\",\"createdAt\":1}}";
+        CallbackReceiver receiver = new CallbackReceiver.Builder().host("127.0.0.1").path("/callbacks")
+                .queueCapacity(2).workers(1).build();
+        CountDownLatch release = new CountDownLatch(1);
+        List<CallbackEvent> all = Collections.synchronizedList(new ArrayList<>());
+        List<Archive> archives = Collections.synchronizedList(new ArrayList<>());
+        receiver.addListener(event -> {
+            all.add(event);
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        receiver.addListener(ArchiveEvent.class, event -> archives.add(event.getArchive()));
+        receiver.start();
+        String url = "http://127.0.0.1:" + receiver.getPort() + "/callbacks";
+        try {
+            assertEquals(200, postCallback(url, "POST", archive));
+            // The worker is now held by the first event, so the queue fills up
+            long deadline = System.currentTimeMillis() + 5000;
+            while (all.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(200, postCallback(url, "POST", "[" + archive + "," + connection + "]"));
+            assertEquals(503, postCallback(url, "POST", connection));
+            assertEquals(1, receiver.getRejectedRequests());
+            assertEquals(2, receiver.getQueuedEvents());
+            // More events than the whole queue holds would never fit
+            assertEquals(413, postCallback(url, "POST", "[" + archive + "," + connection + "," + archive + "]"));
+            assertEquals(2, receiver.getRejectedRequests());
+
+            assertEquals(400, postCallback(url, "POST", "{\"event\":"));
+            assertEquals(1, receiver.getMalformedRequests());
+            assertEquals(405, postCallback(url, "GET", null));
+            assertEquals(404, postCallback("http://127.0.0.1:" + receiver.getPort() + "/other", "POST", archive));
+        }
+        finally {
+            release.countDown();
+            // Closing waits for the queued events
+            assertEquals(0, receiver.close(5, TimeUnit.SECONDS));
+        }
+        assertEquals(3, receiver.getReceivedEvents());
+        assertEquals(3, receiver.getDispatchedEvents());
+        assertEquals(3, all.size());
+        assertEquals(2, archives.size());
+        assertEquals("ARCHIVEID", archives.get(0).getId());
+        assertEquals(CallbackEvent.Type.CONNECTION, all.get(2).getType());
+
+        // Events still queued at the drain timeout are dropped and counted, then the busy worker is interrupted
+        CallbackReceiver stuck = new CallbackReceiver.Builder().host("127.0.0.1").build();
+        CountDownLatch started = new CountDownLatch(1), interrupted = new CountDownLatch(1);
+        stuck.addListener(event -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+            }
+            catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        stuck.start();
+        assertEquals(200, postCallback("http://127.0.0.1:" + stuck.getPort() + "/", "POST",
+                "[" + archive + "," + connection + "," + archive + "]"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(2, stuck.close(100, TimeUnit.MILLISECONDS));
+        assertEquals(2, stuck.getDroppedEvents());
+        assertEquals(0, stuck.getQueuedEvents());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    private static CallbackEvent monitoringEvent(String sessionId, String event, String connectionId, String streamId) {
+        String connection = "{\"id\":\"" + connectionId + "\",\"createdAt\":1}";
+        String payload = streamId == null ? "\"connection\":" + connection
+                : "\"stream\":{\"id\":\"" + streamId + "\",\"videoType\":\"camera\",\"connection\":" + connection + "}";
+        return CallbackParser.parse(("{\"sessionId\":\"" + sessionId + "\",\"event\":\"" + event + "\",\"timestamp\":1,"
+                + payload + "}").getBytes(StandardCharsets.UTF_8)).get(0);
+    }
+
+    @Test
+    public void testSessionRoster() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            String sessionId = emulator.createSession();
+            String first = emulator.connect(sessionId);
+            String firstStream = emulator.publish(sessionId, first);
+            SessionRoster roster = new SessionRoster.Builder(opentok).reconcileInterval(0, TimeUnit.SECONDS).build();
+
+            // Tracking starts from the REST API
+            roster.track(sessionId);
+            roster.reconcile(sessionId);
+            assertEquals(1, roster.getConnectionCount(sessionId));
+            assertNotNull(roster.getStream(sessionId, firstStream));
+
+            // Then events keep it up to date without calls
+            long requests = emulator.getRequestCount();
+            roster.onEvent(monitoringEvent(sessionId, "connectionCreated", "SECOND", null));
+            roster.onEvent(monitoringEvent(sessionId, "streamCreated", "SECOND", "SECOND_STREAM"));
+            assertEquals(2, roster.getConnectionCount(sessionId));
+            assertEquals(2, roster.getStreamCount(sessionId));
+            assertEquals("camera", roster.getStream(sessionId, "SECOND_STREAM").getVideoType());
+            roster.onEvent(monitoringEvent(sessionId, "connectionDestroyed", "SECOND", null));
+            assertNull(roster.getConnection(sessionId, "SECOND"));
+            assertNull(roster.getStream(sessionId, "SECOND_STREAM"));
+            assertEquals(requests, emulator.getRequestCount());
+
+            // Sessions only known from events are dropped when they empty
+            roster.onEvent(monitoringEvent("OTHER", "connectionCreated", "C", null));
+            assertTrue(roster.isTracked("OTHER"));
+            roster.onEvent(monitoringEvent("OTHER", "connectionDestroyed", "C", null));
+            assertFalse(roster.isTracked("OTHER"));
+
+            // A reconciliation catches up with lost events, and explicitly tracked sessions stay when empty
+            emulator.disconnect(sessionId, first);
+            roster.reconcile(sessionId);
+            assertEquals(0, roster.getConnectionCount(sessionId));
+            assertEquals(0, roster.getStreamCount(sessionId));
+            assertTrue(roster.isTracked(sessionId));
+            assertTrue(roster.getReconciliations() >= 2);
+            assertEquals(0, roster.getReconcileFailures());
+            roster.close();
+            opentok.close();
+        }
+
+        // Sessions due together are reconciled at the same time, each in two 50 ms calls
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).latency(50).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            SessionRoster roster = new SessionRoster.Builder(opentok).reconcileInterval(300, TimeUnit.MILLISECONDS)
+                    .reconcileThreads(8).build();
+            Map<String, String> connections = new HashMap<>();
+            for (int i = 0; i < 8; i++) {
+                String sessionId = emulator.createSession();
+                connections.put(sessionId, emulator.connect(sessionId));
+                roster.track(sessionId);
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (roster.getReconciliations() < 8 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            for (String sessionId : connections.keySet()) {
+                assertEquals(1, roster.getConnectionCount(sessionId));
+            }
+            connections.forEach(emulator::disconnect);
+            // One thread would take 800 ms for the round after the interval
+            deadline = System.currentTimeMillis() + 1000;
+            while (connections.keySet().stream().anyMatch(sessionId -> roster.getConnectionCount(sessionId) > 0)
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            for (String sessionId : connections.keySet()) {
+                assertEquals(0, roster.getConnectionCount(sessionId));
+            }
+            assertThrows(InvalidArgumentException.class, () -> new SessionRoster.Builder(opentok).reconcileThreads(0));
+            roster.close();
+            opentok.close();
+        }
+    }
+
+    @Test
+    public void testArchiveWatcher() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret)
+                .archiveProcessingTime(300).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            String sessionId = emulator.createSession(), otherSessionId = emulator.createSession();
+            emulator.connect(sessionId);
+            emulator.connect(otherSessionId);
+            Archive first = opentok.stopArchive(opentok.startArchive(sessionId).getId());
+            Archive second = opentok.stopArchive(opentok.startArchive(sessionId).getId());
+            Archive other = opentok.stopArchive(opentok.startArchive(otherSessionId).getId());
+
+            ArchiveWatcher watcher = new ArchiveWatcher.Builder(opentok)
+                    .pollInterval(50, 200, TimeUnit.MILLISECONDS).build();
+            long requests = emulator.getRequestCount();
+            CompletableFuture<Archive> firstDone = watcher.watch(first), secondDone = watcher.watch(second);
+            assertSame(firstDone, watcher.watch(first));
+            CompletableFuture<Archive> otherDone = watcher.watch(other);
+            assertEquals(3, watcher.getWatchedCount());
+            assertEquals(Archive.Status.AVAILABLE, firstDone.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(Archive.Status.AVAILABLE, secondDone.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(Archive.Status.AVAILABLE, otherDone.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(emulator.getRequestCount() - requests, watcher.getPolls());
+            assertEquals(0, watcher.getPollFailures());
+            // A completed archive needs no polling
+            assertTrue(watcher.watch(firstDone.get()).isDone());
+            watcher.close();
+
+            // An archive callback completes the archive before the next poll
+            watcher = new ArchiveWatcher.Builder(opentok).pollInterval(10, 10, TimeUnit.MINUTES).build();
+            emulator.connect(sessionId);
+            Archive third = opentok.stopArchive(opentok.startArchive(sessionId).getId());
+            CompletableFuture<Archive> thirdDone = watcher.watch(third);
+            watcher.onEvent(CallbackParser.parse(("{\"event\":\"archive\",\"id\":\"" + third.getId()
+                    + "\",\"sessionId\":\"" + sessionId + "\",\"status\":\"uploaded\"}")
+                    .getBytes(StandardCharsets.UTF_8)).get(0));
+            assertEquals(Archive.Status.UPLOADED, thirdDone.getNow(null).getStatus());
+            assertEquals(1, watcher.getCompletedByCallback());
+            assertEquals(0, watcher.getPolls());
+            assertEquals(0, watcher.getWatchedCount());
+
+            // Closing cancels what is still watched
+            Archive fourth = opentok.stopArchive(opentok.startArchive(sessionId).getId());
+            CompletableFuture<Archive> fourthDone = watcher.watch(fourth);
+            watcher.close();
+            assertTrue(fourthDone.isCancelled());
+            opentok.close();
+        }
+    }
+
+    @Test
+    public void testLifecycleWatcher() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret)
+                .renderStartTime(200).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            String sessionId = emulator.createSession();
+            emulator.connect(sessionId);
+            LifecycleWatcher watcher = new LifecycleWatcher.Builder(opentok)
+                    .pollInterval(20, 100, TimeUnit.MILLISECONDS).build();
+            List<LifecycleEvent> events = new CopyOnWriteArrayList<>();
+            watcher.addListener(events::add);
+
+            // Polling sees the Experience Composer start, and stop after it is asked to
+            Render render = opentok.startRender(sessionId, opentok.generateToken(sessionId),
+                    new RenderProperties.Builder().url("https://example.com/main").build());
+            CompletableFuture<Render> renderDone = watcher.watchRender(render.getId());
+            long deadline = System.currentTimeMillis() + 5000;
+            while (events.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, events.size());
+            assertEquals(LifecycleEvent.Type.RENDER, events.get(0).getType());
+            assertEquals("starting", events.get(0).getPreviousStatus());
+            assertEquals("started", events.get(0).getStatus());
+            assertFalse(events.get(0).isTerminal());
+            opentok.stopRender(render.getId());
+            assertEquals(RenderStatus.STOPPED, renderDone.get(5, TimeUnit.SECONDS).getStatus());
+            assertEquals(2, events.size());
+            assertTrue(events.get(1).isTerminal());
+            assertEquals(render.getId(), events.get(1).getRender().getId());
+
+            // A callback ends the broadcast without waiting for a poll
+            Broadcast broadcast = opentok.startBroadcast(sessionId, new BroadcastProperties.Builder().hasHls(true).build());
+            CompletableFuture<Broadcast> broadcastDone = watcher.watchBroadcast(broadcast);
+            assertSame(broadcastDone, watcher.watchBroadcast(broadcast.getId()));
+            watcher.onEvent(CallbackParser.parse(("{\"event\":\"broadcast\",\"id\":\"" + broadcast.getId()
+                    + "\",\"sessionId\":\"" + sessionId + "\",\"status\":\"stopped\"}")
+                    .getBytes(StandardCharsets.UTF_8)).get(0));
+            assertEquals("stopped", broadcastDone.getNow(null).getStatus());
+            LifecycleEvent stopped = events.get(2);
+            assertEquals(LifecycleEvent.Type.BROADCAST, stopped.getType());
+            assertEquals("started", stopped.getPreviousStatus());
+            assertEquals("live", stopped.getPreviousBroadcast().getHlsStatus());
+            assertEquals(0, watcher.getWatchedCount());
+            assertEquals(0, watcher.getPollFailures());
+            watcher.close();
+            opentok.close();
+        }
+
+        // A watch cancelled while its poll is in flight is not polled again when that poll fails
+        String url = "/v2/project/" + apiKey + "/broadcast/SLOW";
+        stubFor(get(urlEqualTo(url)).willReturn(aResponse().withStatus(503).withFixedDelay(200)));
+        LifecycleWatcher watcher = new LifecycleWatcher.Builder(sdk).pollInterval(10, 50, TimeUnit.MILLISECONDS).build();
+        CompletableFuture<Broadcast> slow = watcher.watchBroadcast("SLOW");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (findAll(getRequestedFor(urlEqualTo(url))).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        slow.cancel(false);
+        Thread.sleep(600);
+        assertEquals(1, watcher.getPolls());
+        assertEquals(1, watcher.getPollFailures());
+        watcher.close();
+    }
+
+    private static StreamListProperties layout(List<String> streamIds, String focused) {
+        StreamListProperties.Builder builder = new StreamListProperties.Builder();
+        for (String streamId : streamIds) {
+            StreamProperties.Builder stream = new StreamProperties.Builder().id(streamId);
+            if (streamId.equals(focused)) {
+                stream.addLayoutClass("focus");
+            }
+            builder.addStreamProperties(stream.build());
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testStreamLayoutManager() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            String sessionId = emulator.createSession();
+            List<String> streamIds = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                streamIds.add(emulator.publish(sessionId, emulator.connect(sessionId)));
+            }
+            StreamLayoutManager layouts = new StreamLayoutManager(opentok);
+
+            // The first update reads the session, then sends only the stream that changed
+            long requests = emulator.getRequestCount();
+            assertEquals(1, layouts.setStreamLayouts(sessionId, layout(streamIds, streamIds.get(0))));
+            assertEquals(requests + 2, emulator.getRequestCount());
+            assertEquals(Collections.singletonList("focus"), opentok.getStream(sessionId, streamIds.get(0)).getLayoutClassList());
+
+            // Nothing changed, so no call
+            requests = emulator.getRequestCount();
+            assertEquals(0, layouts.setStreamLayouts(sessionId, layout(streamIds, streamIds.get(0))));
+            assertEquals(requests, emulator.getRequestCount());
+            assertEquals(1, layouts.getSkippedUpdates());
+
+            // A speaker change sends the two streams involved
+            assertEquals(2, layouts.setStreamLayouts(sessionId, layout(streamIds, streamIds.get(3))));
+            assertEquals(requests + 1, emulator.getRequestCount());
+            assertTrue(opentok.getStream(sessionId, streamIds.get(0)).getLayoutClassList().isEmpty());
+            assertEquals(Collections.singletonList("focus"), layouts.getLayoutClassList(sessionId, streamIds.get(3)));
+            assertEquals(2, layouts.getUpdates());
+            assertEquals(3, layouts.getStreamsSent());
+
+            // A failed update is sent again in full next time
+            try {
+                layouts.setStreamLayouts(sessionId, layout(Arrays.asList(streamIds.get(3), "MISSING"), "MISSING"));
+                fail("Expected a RequestException");
+            }
+            catch (RequestException e) {
+                assertNull(layouts.getLayoutClassList(sessionId, "MISSING"));
+                assertNull(layouts.getLayoutClassList(sessionId, streamIds.get(3)));
+            }
+            opentok.close();
+        }
+    }
+
+    @Test
+    public void testLayoutCoalescer() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).latency(20).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            String sessionId = emulator.createSession();
+            List<String> streamIds = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                streamIds.add(emulator.publish(sessionId, emulator.connect(sessionId)));
+            }
+            String archiveId = opentok.startArchive(sessionId).getId();
+            LayoutCoalescer layouts = new LayoutCoalescer.Builder(opentok).window(30, TimeUnit.MILLISECONDS).build();
+
+            // Speaker changes many times a second, for a single stream at a time, merged per stream
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String speaker = streamIds.get(i % streamIds.size());
+                futures.add(layouts.setStreamLayouts(sessionId, layout(Collections.singletonList(speaker), speaker)));
+                futures.add(layouts.setStreamLayouts(sessionId, layout(streamIds.stream()
+                        .filter(streamId -> !streamId.equals(speaker)).collect(Collectors.toList()), null)));
+                futures.add(layouts.setArchiveLayout(archiveId, new ArchiveProperties.Builder()
+                        .layout(new ArchiveLayout(i % 2 == 0 ? ArchiveLayout.Type.PIP : ArchiveLayout.Type.BESTFIT))
+                        .build()));
+                Thread.sleep(1);
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+            assertEquals(300, layouts.getChanges());
+            assertTrue("Sent " + layouts.getUpdates() + " updates", layouts.getUpdates() < 40);
+            assertEquals(0, layouts.getFailedUpdates());
+
+            // The last change wins
+            String last = streamIds.get(99 % streamIds.size());
+            for (String streamId : streamIds) {
+                assertEquals(streamId.equals(last) ? Collections.singletonList("focus") : Collections.emptyList(),
+                        opentok.getStream(sessionId, streamId).getLayoutClassList());
+            }
+
+            // Changes still buffered are sent on close
+            CompletableFuture<Void> buffered = layouts.setStreamLayouts(sessionId, layout(streamIds, streamIds.get(0)));
+            assertTrue(layouts.close(5, TimeUnit.SECONDS));
+            assertTrue(buffered.isDone());
+            assertEquals(Collections.singletonList("focus"), opentok.getStream(sessionId, streamIds.get(0)).getLayoutClassList());
+            try {
+                layouts.setStreamLayouts(sessionId, layout(streamIds, null));
+                fail("Expected a RequestException");
+            }
+            catch (RequestException e) {
+                // Closed
+            }
+            opentok.close();
+        }
+
+        // An update failing with a server error is sent again, one the server rejects fails
+        String url = "/v2/project/" + apiKey + "/archive/ARCHIVEID/layout";
+        stubFor(put(urlEqualTo(url)).inScenario("layout").whenScenarioStateIs(com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503)).willSetStateTo("recovered"));
+        stubFor(put(urlEqualTo(url)).inScenario("layout").whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200)));
+        stubFor(put(urlEqualTo("/v2/project/" + apiKey + "/broadcast/BROADCASTID/layout"))
+                .willReturn(aResponse().withStatus(400)));
+        LayoutCoalescer retrying = new LayoutCoalescer.Builder(sdk).window(10, TimeUnit.MILLISECONDS).build();
+        retrying.setArchiveLayout("ARCHIVEID", new ArchiveProperties.Builder()
+                .layout(new ArchiveLayout(ArchiveLayout.Type.PIP)).build()).get(5, TimeUnit.SECONDS);
+        assertEquals(2, findAll(putRequestedFor(urlEqualTo(url))).size());
+        try {
+            retrying.setBroadcastLayout("BROADCASTID", new BroadcastProperties.Builder()
+                    .layout(new BroadcastLayout(BroadcastLayout.Type.PIP)).build()).get(5, TimeUnit.SECONDS);
+            fail("Expected a RequestException");
+        }
+        catch (ExecutionException e) {
+            assertEquals(400, ((RequestException) e.getCause()).getStatusCode());
+        }
+        assertEquals(2, retrying.getFailedUpdates());
+        assertEquals(1, retrying.getUpdates());
+        retrying.close();
+    }
+
+    @Test
+    public void testStreamSetReconciler() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+            String sessionId = emulator.createSession();
+            String first = emulator.publish(sessionId, emulator.connect(sessionId));
+            String second = emulator.publish(sessionId, emulator.connect(sessionId));
+            String archiveId = opentok.startArchive(sessionId, new ArchiveProperties.Builder()
+                    .streamMode(Archive.StreamMode.MANUAL).build()).getId();
+            StreamSetReconciler streams = new StreamSetReconciler.Builder(opentok)
+                    .window(50, TimeUnit.MILLISECONDS).build();
+
+            // A stream added and removed again within the window makes no call
+            long requests = emulator.getRequestCount();
+            CompletableFuture<Void> added = streams.addArchiveStream(archiveId, first, true, true);
+            streams.removeArchiveStream(archiveId, first);
+            streams.addArchiveStream(archiveId, first, true, true);
+            streams.removeArchiveStream(archiveId, first).get(5, TimeUnit.SECONDS);
+            assertTrue(added.isDone());
+            assertEquals(requests, emulator.getRequestCount());
+            assertEquals(4, streams.getCancelled());
+
+            // Net changes are applied, one call per stream
+            CompletableFuture.allOf(streams.addArchiveStream(archiveId, first, true, true),
+                    streams.addArchiveStream(archiveId, second, true, false),
+                    streams.removeArchiveStream(archiveId, second),
+                    streams.addArchiveStream(archiveId, second, true, true)).get(5, TimeUnit.SECONDS);
+            assertEquals(requests + 2, emulator.getRequestCount());
+            assertEquals(2, streams.getSent());
+
+            // A stream removed and added back, as when a client republishes at once, stays as it was
+            streams.removeArchiveStream(archiveId, first);
+            streams.addArchiveStream(archiveId, first, true, true).get(5, TimeUnit.SECONDS);
+            assertEquals(requests + 2, emulator.getRequestCount());
+
+            // Failures are reported to every change the call applied
+            CompletableFuture<Void> missing = streams.addArchiveStream(archiveId, "MISSING", true, true);
+            try {
+                missing.get(5, TimeUnit.SECONDS);
+                fail("Expected a RequestException");
+            }
+            catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RequestException);
+            }
+            assertEquals(1, streams.getFailed());
+
+            // Changes still gathered are applied on close
+            CompletableFuture<Void> removed = streams.removeArchiveStream(archiveId, second);
+            streams.forget(archiveId);
+            assertTrue(streams.close(5, TimeUnit.SECONDS));
+            assertTrue(removed.isDone() && !removed.isCompletedExceptionally());
+            assertEquals(3, streams.getSent());
+            opentok.close();
+        }
+    }
+
+    @Test
+    public void testArchiveDownloader() throws Exception {
+        byte[] content = new byte[3 * 1024 * 1024 + 123];
+        new Random(42).nextBytes(content);
+        Path file = Files.createTempFile("opentok", ".mp4"), target = Files.createTempFile("opentok", ".mp4");
+        Path part = Paths.get(target + ".part"), journal = Paths.get(target + ".part.journal");
+        Files.write(file, content);
+        Files.delete(target);
+        ArchiveDownloader downloader = new ArchiveDownloader.Builder().retryDelay(10, TimeUnit.MILLISECONDS).build();
+        ArchiveDownloader failing = new ArchiveDownloader.Builder().maxRetries(0).build();
+        try (ArchiveFileServer server = new ArchiveFileServer().start()) {
+            String url = server.serve("/archive.mp4", file);
+
+            // Interrupted twice, resumed from where each attempt stopped
+            server.interrupt(2, 1_000_000);
+            List<Long> progress = new CopyOnWriteArrayList<>();
+            assertEquals(target, downloader.download(url, content.length, target,
+                    (downloaded, total) -> progress.add(downloaded)).get(10, TimeUnit.SECONDS));
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertEquals(Arrays.asList("", "bytes=1000000-", "bytes=2000000-"), server.getRanges());
+            assertEquals(2, downloader.getRetries());
+            assertEquals(Long.valueOf(content.length), progress.get(progress.size() - 1));
+            assertFalse(Files.exists(part) || Files.exists(journal));
+
+            // A different file at the target is replaced, not resumed
+            Files.write(target, new byte[100_000]);
+            server.getRanges().clear();
+            downloader.download(url, content.length, target, null).get(10, TimeUnit.SECONDS);
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertEquals(Collections.singletonList(""), server.getRanges());
+
+            // The part file of a failed download is resumed by the next one
+            Files.delete(target);
+            server.interrupt(1, 1_000_000);
+            try {
+                failing.download(url, content.length, target, null).get(10, TimeUnit.SECONDS);
+                fail("Expected a RequestException");
+            }
+            catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RequestException);
+            }
+            assertFalse(Files.exists(target));
+            assertEquals(1_000_000, Files.size(part));
+            server.getRanges().clear();
+            downloader.download(url, content.length, target, null).get(10, TimeUnit.SECONDS);
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertEquals(Collections.singletonList("bytes=1000000-"), server.getRanges());
+
+            // A part file without its journal is not trusted
+            Files.write(part, new byte[100_000]);
+            server.getRanges().clear();
+            downloader.download(url, content.length, target, null).get(10, TimeUnit.SECONDS);
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertEquals(Collections.singletonList(""), server.getRanges());
+
+            // If the file changed since the part was written, the server sends it whole and the download starts over
+            server.interrupt(1, 1_000_000);
+            try {
+                failing.download(url, 0, target, null).get(10, TimeUnit.SECONDS);
+                fail("Expected a RequestException");
+            }
+            catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RequestException);
+            }
+            byte[] changed = Arrays.copyOf(content, content.length - 1000);
+            changed[0]++;
+            Files.write(file, changed);
+            server.getRanges().clear();
+            downloader.download(url, 0, target, null).get(10, TimeUnit.SECONDS);
+            assertArrayEquals(changed, Files.readAllBytes(target));
+            assertEquals(Collections.singletonList("bytes=1000000-"), server.getRanges());
+            Files.write(file, content);
+
+            // A server without ranges makes the download start over
+            server.rangeSupport(false);
+            server.interrupt(1, 500_000);
+            downloader.download(url, 0, target, null).get(10, TimeUnit.SECONDS);
+            assertArrayEquals(content, Files.readAllBytes(target));
+            server.rangeSupport(true);
+
+            // A size other than the archive's fails without retrying
+            long retries = downloader.getRetries();
+            try {
+                downloader.download(url, content.length + 1, target, null).get(10, TimeUnit.SECONDS);
+                fail("Expected a RequestException");
+            }
+            catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RequestException);
+            }
+            assertEquals(retries, downloader.getRetries());
+            try {
+                downloader.download(new Archive(), target);
+                fail("Expected an InvalidArgumentException");
+            }
+            catch (InvalidArgumentException e) {
+                // No URL
+            }
+
+            // Sizes beyond 2 GiB are read in full
+            assertEquals(5_000_000_000L, ArchiveDownloader.parseContentLength("5000000000"));
+            assertEquals(-1, ArchiveDownloader.parseContentLength(null));
+            assertEquals(-1, ArchiveDownloader.parseContentLength("large"));
+            assertArrayEquals(new long[] {3_000_000_000L, 5_000_000_000L},
+                    ArchiveDownloader.parseContentRange("bytes 3000000000-4999999999/5000000000"));
+        }
+        finally {
+            downloader.close();
+            failing.close();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(target);
+            Files.deleteIfExists(part);
+            Files.deleteIfExists(journal);
+        }
+    }
+
+    @Test
+    public void testParallelArchiveDownload() throws Exception {
+        byte[] content = new byte[3 * 1024 * 1024 + 123];
+        new Random(7).nextBytes(content);
+        Path file = Files.createTempFile("opentok", ".mp4"), target = Files.createTempFile("opentok", ".mp4");
+        Files.write(file, content);
+        Files.delete(target);
+        int chunk = 256 * 1024, chunks = (content.length + chunk - 1) / chunk;
+        ArchiveDownloader downloader = new ArchiveDownloader.Builder().connections(4).chunkSize(chunk)
+                .retryDelay(10, TimeUnit.MILLISECONDS).build();
+        ArchiveDownloader failing = new ArchiveDownloader.Builder().connections(4).chunkSize(chunk)
+                .maxRetries(0).build();
+        ArchiveDownloader single = new ArchiveDownloader.Builder().build();
+        Path part = Paths.get(target + ".part"), journal = Paths.get(target + ".part.journal");
+        try (ArchiveFileServer server = new ArchiveFileServer().start()) {
+            String url = server.serve("/archive.mp4", file);
+
+            // Two chunks are interrupted and resumed on their own
+            server.interrupt(2, 100_000);
+            List<Long> progress = new CopyOnWriteArrayList<>();
+            downloader.download(url, content.length, target, (downloaded, total) -> progress.add(downloaded))
+                    .get(10, TimeUnit.SECONDS);
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertEquals("bytes=0-0", server.getRanges().get(0));
+            assertEquals(1 + chunks + 2, server.getRanges().size());
+            assertTrue(server.getRanges().contains("bytes=" + chunk + "-" + (2 * chunk - 1)));
+            assertEquals(2, downloader.getRetries());
+            assertEquals(Long.valueOf(content.length), progress.get(progress.size() - 1));
+
+            assertFalse(Files.exists(part) || Files.exists(journal));
+
+            // A failed download keeps its pre-allocated part file, and the next one fetches only the missing chunks
+            Files.delete(target);
+            Set<Integer> complete = failParallelDownload(failing, server, url, target, journal);
+            assertFalse(Files.exists(target));
+            assertEquals(content.length, Files.size(part));
+            server.getRanges().clear();
+            downloader.download(url, 0, target, null).get(10, TimeUnit.SECONDS);
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertEquals(1 + chunks - complete.size(), server.getRanges().size());
+            for (int index : complete) {
+                assertFalse(server.getRanges().contains("bytes=" + index * chunk + "-" + ((index + 1) * chunk - 1)));
+            }
+
+            // Over one connection, a part file left by chunks is trusted only up to the first missing chunk,
+            // not up to its pre-allocated length
+            Files.delete(target);
+            complete = failParallelDownload(failing, server, url, target, journal);
+            int missing = 0;
+            while (complete.contains(missing)) {
+                missing++;
+            }
+            server.getRanges().clear();
+            single.download(url, content.length, target, null).get(10, TimeUnit.SECONDS);
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertEquals(Collections.singletonList(missing == 0 ? "" : "bytes=" + missing * chunk + "-"),
+                    server.getRanges());
+            assertFalse(Files.exists(part) || Files.exists(journal));
+
+            // Without ranges, the file is downloaded over one connection
+            Files.delete(target);
+            server.rangeSupport(false);
+            server.getRanges().clear();
+            downloader.download(url, content.length, target, null).get(10, TimeUnit.SECONDS);
+            assertArrayEquals(content, Files.readAllBytes(target));
+            assertEquals(Arrays.asList("bytes=0-0", ""), server.getRanges());
+        }
+        finally {
+            downloader.close();
+            failing.close();
+            single.close();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(target);
+            Files.deleteIfExists(part);
+            Files.deleteIfExists(journal);
+        }
+    }
+
+    /**
+     * Fails a parallel download by cutting a chunk short, and returns the chunks its journal records as complete.
+     */
+    private Set<Integer> failParallelDownload(ArchiveDownloader failing, ArchiveFileServer server, String url,
+            Path target, Path journal) throws Exception {
+        server.interrupt(1, 100_000);
+        try {
+            failing.download(url, 0, target, null).get(10, TimeUnit.SECONDS);
+            fail("Expected a RequestException");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RequestException);
+        }
+        // Lets the chunks in flight when it failed stop
+        Thread.sleep(200);
+        return Files.readAllLines(journal).stream().filter(line -> line.startsWith("chunk="))
+                .map(line -> Integer.valueOf(line.substring(6))).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testOpenSsl() throws Exception {
+        String keyStore = Paths.get(getClass().getResource("localhost.p12").toURI()).toString();
+        WireMockServer tlsServer = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort()
+                .dynamicHttpsPort().keystorePath(keyStore).keystoreType("PKCS12")
+                .keystorePassword("password").keyManagerPassword("password"));
+        tlsServer.start();
+        Properties saved = (Properties) System.getProperties().clone();
+        // Trust the stub's self-signed certificate
+        System.setProperty("javax.net.ssl.trustStore", keyStore);
+        System.setProperty("javax.net.ssl.trustStoreType", "PKCS12");
+        System.setProperty("javax.net.ssl.trustStorePassword", "password");
+        try {
+            String archiveId = "ARCHIVEID";
+            tlsServer.stubFor(get(urlEqualTo("/v2/project/" + apiKey + "/archive/" + archiveId))
+                    .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json")
+                            .withBody("{\"id\":\"" + archiveId + "\",\"status\":\"available\"}")));
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret)
+                    .apiUrl("https://localhost:" + tlsServer.httpsPort()).useOpenSsl(true).build();
+            io.netty.handler.ssl.SslContext context = opentok.client.getConfig().getSslContext();
+            assertTrue(context.getClass().getSimpleName().contains("OpenSsl"));
+
+            assertEquals(archiveId, opentok.getArchive(archiveId).getId());
+            // The session is cached, so that the next connection to the host resumes it
+            assertTrue(context.sessionContext().getIds().hasMoreElements());
+            assertEquals(archiveId, opentok.getArchive(archiveId).getId());
+            opentok.close();
+        }
+        finally {
+            System.setProperties(saved);
+            tlsServer.stop();
+        }
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).latency(20).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).warmUp(4).build();
+            assertEquals(4, emulator.getRequestCount());
+            long deadline = System.currentTimeMillis() + 2000;
+            while (opentok.client.getClientStats().getTotalIdleConnectionCount() < 4
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(4, opentok.client.getClientStats().getTotalIdleConnectionCount());
+
+            // The first calls reuse the pooled connections
+            String sessionId = emulator.createSession();
+            opentok.signal(sessionId, new SignalProperties.Builder().data("hello").build());
+            assertEquals(4, opentok.client.getClientStats().getTotalConnectionCount());
+            opentok.close();
+        }
+
+        // Rejected credentials are reported, since every call would fail
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).build().start()) {
+            OpenTok.Builder wrongSecret = new OpenTok.Builder(apiKey, "wrong" + apiSecret).apiUrl(emulator.getApiUrl());
+            try {
+                wrongSecret.warmUp(2).build();
+                fail("Expected a RequestException");
+            }
+            catch (RequestException e) {
+                assertEquals(403, e.getStatusCode());
+            }
+        }
+
+        // Error responses do not count as warmed up
+        stubFor(options(urlEqualTo("/v2/project/" + apiKey + "/archive")).willReturn(aResponse().withStatus(500)));
+        assertEquals(0, sdk.warmUp(2));
+        assertTrue(findAll(getRequestedFor(anyUrl())).isEmpty());
+
+        // An unreachable API is left to the first call to report
+        OpenTok unreachable = new OpenTok.Builder(apiKey, apiSecret).apiUrl("http://localhost:1").build();
+        assertEquals(0, unreachable.warmUp(2));
+        unreachable.close();
+        assertThrows(InvalidArgumentException.class, () -> new OpenTok.Builder(apiKey, apiSecret).warmUp(-1));
+    }
+
+    @Test
+    public void testCallOptions() throws Exception {
+        String archiveId = "ARCHIVEID";
+        stubFor(get(urlEqualTo("/v2/project/" + apiKey + "/archive/" + archiveId))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(2000).withBody("{}")));
+
+        // The deadline cuts the call short, well before the request timeout
+        CallOptions options = new CallOptions.Builder().timeout(300, TimeUnit.MILLISECONDS).build();
+        long start = System.nanoTime();
+        RequestException timedOut = assertThrows(RequestException.class,
+                () -> sdk.withOptions(options, () -> sdk.getArchive(archiveId)));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsed + "ms", elapsed < 1500);
+        assertTrue(timedOut.getCause().getCause() instanceof java.util.concurrent.TimeoutException);
+
+        // Cancelling aborts the call in flight
+        CancellationToken token = new CancellationToken();
+        CallOptions cancellable = new CallOptions.Builder().cancellationToken(token).build();
+        CompletableFuture<Archive> call = CompletableFuture.supplyAsync(
+                () -> sdk.withOptions(cancellable, () -> sdk.getArchive(archiveId)));
+        Thread.sleep(200);
+        token.cancel();
+        ExecutionException cancelled = assertThrows(ExecutionException.class, () -> call.get(1, TimeUnit.SECONDS));
+        assertTrue(cancelled.getCause() instanceof RequestException);
+        assertEquals("The call was cancelled.", cancelled.getCause().getCause().getCause().getMessage());
+
+        // Nothing is sent once the token is cancelled or the deadline has passed
+        WireMock.resetAllRequests();
+        assertThrows(RequestException.class, () -> sdk.withOptions(cancellable, () -> sdk.getArchive(archiveId)));
+        assertThrows(RequestException.class, () -> sdk.withOptions(options, () -> sdk.getArchive(archiveId)));
+        verify(0, getRequestedFor(urlMatching(".*")));
+
+        // The earlier deadline wins when options are nested
+        CallOptions outer = new CallOptions.Builder().timeout(100, TimeUnit.MILLISECONDS).build();
+        CallOptions inner = new CallOptions.Builder().timeout(10, TimeUnit.SECONDS)
+                .priority(RequestPriority.BULK).build();
+        outer.call(() -> inner.call(() -> {
+            assertTrue(CallOptions.current().remainingMillis() <= 100);
+            assertEquals(RequestPriority.BULK, CallOptions.current().priority());
+            return null;
+        }));
+        assertNull(CallOptions.current());
+
+        // Retries stop when the next attempt would start after the deadline
+        String sessionId = "SESSIONID";
+        stubFor(delete(urlMatching("/v2/project/" + apiKey + "/session/" + sessionId + "/connection/.*"))
+                .willReturn(aResponse().withStatus(503)));
+        BatchProperties retries = new BatchProperties.Builder().maxRetries(5).retryBackoff(400).build();
+        start = System.nanoTime();
+        BatchResult result = sdk.withOptions(new CallOptions.Builder().timeout(300, TimeUnit.MILLISECONDS).build(),
+                () -> sdk.forceDisconnect(sessionId, Arrays.asList("a", "b"), retries));
+        elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsed + "ms", elapsed < 1000);
+        assertEquals(2, result.getFailures().size());
+    }
+
+    @Test
+    public void testRequestScheduler() throws Exception {
+        try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).latency(20).build().start()) {
+            OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl())
+                    .requestScheduler(new SchedulerProperties.Builder().maxInFlight(1).build())
+                    .registerMBeans(true)
+                    .build();
+            String sessionId = emulator.createSession();
+            HttpClient client = opentok.client;
+            CallOptions bulk = new CallOptions.Builder().priority(RequestPriority.BULK).build();
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String data = "bulk" + i;
+                futures.add(bulk.call(() ->
+                        client.signalAsync(sessionId, null, new SignalProperties.Builder().data(data).build())));
+            }
+            for (int i = 0; i < 4; i++) {
+                futures.add(client.signalAsync(sessionId, null,
+                        new SignalProperties.Builder().data("interactive" + i).build()));
+            }
+            // Listings are bulk by default
+            java.util.concurrent.Future<?> listing = client
+                    .prepareGet(emulator.getApiUrl() + "/v2/project/" + apiKey + "/archive").execute();
+            // The first is sent straight away, the rest wait for it
+            assertEquals(8, client.getScheduler().getQueuedRequests());
+            assertEquals(8, client.getMetrics().getQueuedRequests());
+            assertEquals(Integer.valueOf(4), client.getMetrics().getQueuedRequestsByPriority().get("BULK"));
+
+            // A queued request that is cancelled is never sent
+            assertTrue(listing.cancel(true));
+            assertEquals(7, client.getScheduler().getQueuedRequests());
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+            assertEquals(Arrays.asList("bulk0", "interactive0", "interactive1", "interactive2", "interactive3",
+                    "bulk1", "bulk2", "bulk3"), emulator.getRecentSignals(sessionId));
+            assertEquals(0, client.getScheduler().getQueuedRequests());
+            assertEquals(8, emulator.getRequestCount());
+
+            // Blocking calls go through the same queue
+            assertEquals(0, opentok.listArchives().size());
+            opentok.close();
+        }
+    }
+}
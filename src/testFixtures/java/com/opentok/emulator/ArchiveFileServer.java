@@ -0,0 +1,208 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.emulator;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for the storage archive files are downloaded from, for testing downloads. It serves files
+ * with an ETag and support for {@code Range} and {@code If-Range} requests, and can cut responses short to test
+ * how interrupted downloads resume:
+ *
+ * <pre>
+ * try (ArchiveFileServer server = new ArchiveFileServer().start()) {
+ *     String url = server.serve("/archive.mp4", file);
+ *     server.interrupt(2, 100_000);
+ *     ...
+ * }
+ * </pre>
+ */
+public class ArchiveFileServer implements AutoCloseable {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Map<String, Path> files = new ConcurrentHashMap<>();
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final AtomicInteger interruptions = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private volatile long interruptAfter;
+    private volatile boolean rangeSupport = true;
+    private EventLoopGroup group;
+    private Channel channel;
+
+    /**
+     * Binds the server to a free port on the loopback interface.
+     *
+     * @return This server.
+     */
+    public synchronized ArchiveFileServer start() throws InterruptedException {
+        if (channel != null) {
+            return this;
+        }
+        group = new NioEventLoopGroup(2);
+        channel = new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                          .addLast(new HttpServerCodec())
+                          .addLast(new HttpObjectAggregator(64 * 1024))
+                          .addLast(new Handler());
+                    }
+                })
+                .bind("127.0.0.1", 0).sync().channel();
+        return this;
+    }
+
+    /**
+     * Serves a file.
+     *
+     * @param path The path of the URL, such as "/archive.mp4".
+     * @param file The file.
+     *
+     * @return The URL of the file.
+     */
+    public String serve(String path, Path file) {
+        files.put(path, file);
+        return "http://127.0.0.1:" + ((InetSocketAddress) channel.localAddress()).getPort() + path;
+    }
+
+    /**
+     * Closes the connections of the next responses after part of their body is sent. Responses with bodies no
+     * longer than {@code afterBytes} are sent whole and not counted.
+     *
+     * @param responses The number of responses to cut short.
+     * @param afterBytes The number of body bytes sent before the connection is closed.
+     */
+    public void interrupt(int responses, long afterBytes) {
+        interruptAfter = afterBytes;
+        interruptions.set(responses);
+    }
+
+    /**
+     * @param rangeSupport Whether {@code Range} headers are honored; if not, the whole file is always sent.
+     */
+    public void rangeSupport(boolean rangeSupport) {
+        this.rangeSupport = rangeSupport;
+    }
+
+    /**
+     * @return The {@code Range} headers of the requests received, in order; "" for a request without one.
+     */
+    public List<String> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * @return The number of requests received.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel != null) {
+            channel.close().syncUninterruptibly();
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+            channel = null;
+        }
+    }
+
+    private class Handler extends SimpleChannelInboundHandler<FullHttpRequest> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) throws IOException {
+            requests.incrementAndGet();
+            String range = request.headers().get(HttpHeaderNames.RANGE, "");
+            ranges.add(range);
+            Path file = files.get(new QueryStringDecoder(request.uri()).path());
+            if (file == null || request.method() != HttpMethod.GET) {
+                respond(ctx, new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                        file == null ? HttpResponseStatus.NOT_FOUND : HttpResponseStatus.METHOD_NOT_ALLOWED));
+                return;
+            }
+            try (FileChannel content = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = content.size(), start = 0, end = size - 1;
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(modified) + "\"";
+                String ifRange = request.headers().get(HttpHeaderNames.IF_RANGE);
+                HttpResponseStatus status = HttpResponseStatus.OK;
+                // A range is only served if the file is still the one the If-Range validator names
+                if (rangeSupport && range.startsWith("bytes=") && (ifRange == null || ifRange.equals(etag))) {
+                    String[] bounds = range.substring(6).split("-", -1);
+                    start = Long.parseLong(bounds[0]);
+                    end = bounds[1].isEmpty() ? size - 1 : Math.min(Long.parseLong(bounds[1]), size - 1);
+                    if (start >= size || start > end) {
+                        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                                HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+                        response.headers().set(HttpHeaderNames.CONTENT_RANGE, "bytes */" + size);
+                        respond(ctx, response);
+                        return;
+                    }
+                    status = HttpResponseStatus.PARTIAL_CONTENT;
+                }
+                HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
+                response.headers().set(HttpHeaderNames.CONTENT_LENGTH, end - start + 1)
+                        .set(HttpHeaderNames.CONTENT_TYPE, "video/mp4")
+                        .set(HttpHeaderNames.ACCEPT_RANGES, "bytes")
+                        .set(HttpHeaderNames.ETAG, etag)
+                        .set(HttpHeaderNames.LAST_MODIFIED, DateFormatter.format(new Date(modified)));
+                if (status == HttpResponseStatus.PARTIAL_CONTENT) {
+                    response.headers().set(HttpHeaderNames.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+                }
+                ctx.write(response);
+                long limit = end - start + 1 > interruptAfter
+                        && interruptions.getAndUpdate(left -> Math.max(0, left - 1)) > 0 ? interruptAfter : Long.MAX_VALUE;
+                long sent = 0;
+                for (long position = start; position <= end; ) {
+                    int length = (int) Math.min(Math.min(CHUNK_SIZE, end - position + 1), limit - sent);
+                    if (length <= 0) {
+                        // Cut short, as a dropped connection would
+                        ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+                        return;
+                    }
+                    ByteBuf chunk = ctx.alloc().buffer(length);
+                    chunk.writeBytes(content, position, length);
+                    ctx.write(new DefaultHttpContent(chunk));
+                    position += length;
+                    sent += length;
+                }
+                ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+            }
+        }
+
+        private void respond(ChannelHandlerContext ctx, FullHttpResponse response) {
+            response.headers().set(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+            ctx.writeAndFlush(response);
+        }
+    }
+}
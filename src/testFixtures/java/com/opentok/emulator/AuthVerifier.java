@@ -0,0 +1,120 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.emulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+
+/**
+ * Checks the authentication header of each request the way the REST API does: an HS256 JWT signed with the
+ * project API secret in {@code X-OPENTOK-AUTH}, or an RS256 application JWT in {@code Authorization: Bearer}.
+ */
+class AuthVerifier {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String apiKey, applicationId;
+    private final PublicKey applicationPublicKey;
+    private final ThreadLocal<Mac> hmac;
+
+    AuthVerifier(int apiKey, String apiSecret, String applicationId, PublicKey applicationPublicKey) {
+        this.apiKey = Integer.toString(apiKey);
+        this.applicationId = applicationId;
+        this.applicationPublicKey = applicationPublicKey;
+        SecretKeySpec key = new SecretKeySpec(apiSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        hmac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            }
+            catch (GeneralSecurityException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+
+    /**
+     * @return Whether {@code project} is the API key or application ID used in request paths.
+     */
+    boolean isProject(String project) {
+        return apiKey.equals(project) || project.equals(applicationId);
+    }
+
+    /**
+     * @throws EmulatorException 403 if the request is not authorized.
+     */
+    void verify(String projectToken, String authorization) {
+        if (projectToken != null) {
+            JsonNode claims = verifiedClaims(projectToken, false);
+            if (!apiKey.equals(claims.path("iss").asText()) || !"project".equals(claims.path("ist").asText())) {
+                throw forbidden("The token was not issued for this project.");
+            }
+        }
+        else if (authorization != null && authorization.startsWith("Bearer ") && applicationId != null) {
+            JsonNode claims = verifiedClaims(authorization.substring(7), true);
+            if (!applicationId.equals(claims.path("application_id").asText())) {
+                throw forbidden("The token was not issued for this application.");
+            }
+        }
+        else {
+            throw forbidden("Authentication failed.");
+        }
+    }
+
+    private JsonNode verifiedClaims(String token, boolean application) {
+        int firstDot = token.indexOf('.'), lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || lastDot == firstDot) {
+            throw forbidden("Malformed token.");
+        }
+        byte[] signed = token.substring(0, lastDot).getBytes(StandardCharsets.US_ASCII);
+        JsonNode claims;
+        try {
+            byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+            boolean valid;
+            if (!application) {
+                valid = MessageDigest.isEqual(hmac.get().doFinal(signed), signature);
+            }
+            else if (applicationPublicKey != null) {
+                Signature rsa = Signature.getInstance("SHA256withRSA");
+                rsa.initVerify(applicationPublicKey);
+                rsa.update(signed);
+                valid = rsa.verify(signature);
+            }
+            else {
+                valid = true;
+            }
+            if (!valid) {
+                throw forbidden("Invalid token signature.");
+            }
+            claims = MAPPER.readTree(DECODER.decode(token.substring(firstDot + 1, lastDot)));
+        }
+        catch (IllegalArgumentException | IOException | GeneralSecurityException ex) {
+            throw forbidden("Malformed token.");
+        }
+        JsonNode exp = claims.get("exp");
+        if (exp != null && exp.asLong() < System.currentTimeMillis() / 1000) {
+            throw forbidden("The token has expired.");
+        }
+        return claims;
+    }
+
+    private static EmulatorException forbidden(String message) {
+        return new EmulatorException(403, message);
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.emulator;
+
+/**
+ * An error response of the emulated REST API, rendered as {@code {"code": status, "message": ...}}.
+ */
+class EmulatorException extends RuntimeException {
+    final int status;
+
+    EmulatorException(int status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    static EmulatorException badRequest(String message) {
+        return new EmulatorException(400, message);
+    }
+
+    static EmulatorException notFound(String message) {
+        return new EmulatorException(404, message);
+    }
+
+    static EmulatorException conflict(String message) {
+        return new EmulatorException(409, message);
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.emulator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routes REST API requests to the {@link EmulatorState}. Requests are handled on the event loop; the state
+ * operations only take short per-session locks.
+ */
+@ChannelHandler.Sharable
+class EmulatorHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String PROJECT_PATH = "/v2/project/";
+
+    private final EmulatorState state;
+    private final AuthVerifier auth;
+    private final long latencyMillis;
+    private final LongAdder requests = new LongAdder();
+
+    EmulatorHandler(EmulatorState state, AuthVerifier auth, long latencyMillis) {
+        this.state = state;
+        this.auth = auth;
+        this.latencyMillis = latencyMillis;
+    }
+
+    long requestCount() {
+        return requests.sum();
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+        requests.increment();
+        FullHttpResponse response;
+        try {
+            response = handle(request);
+        }
+        catch (EmulatorException ex) {
+            response = error(ex.status, ex.getMessage());
+        }
+        catch (JsonProcessingException ex) {
+            response = error(400, "Invalid JSON: " + ex.getOriginalMessage());
+        }
+        catch (IOException | RuntimeException ex) {
+            response = error(500, ex.toString());
+        }
+
+        boolean keepAlive = HttpUtil.isKeepAlive(request);
+        HttpUtil.setKeepAlive(response, keepAlive);
+        HttpUtil.setContentLength(response, response.content().readableBytes());
+        FullHttpResponse reply = response;
+        if (latencyMillis > 0) {
+            ctx.executor().schedule(() -> write(ctx, reply, keepAlive), latencyMillis, TimeUnit.MILLISECONDS);
+        }
+        else {
+            write(ctx, reply, keepAlive);
+        }
+    }
+
+    private static void write(ChannelHandlerContext ctx, FullHttpResponse response, boolean keepAlive) {
+        if (keepAlive) {
+            ctx.writeAndFlush(response, ctx.voidPromise());
+        }
+        else {
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    private FullHttpResponse handle(FullHttpRequest request) throws IOException {
+        QueryStringDecoder uri = new QueryStringDecoder(request.uri());
+        String path = uri.path();
+        auth.verify(request.headers().get("X-OPENTOK-AUTH"), request.headers().get(HttpHeaderNames.AUTHORIZATION));
+        HttpMethod method = request.method();
+
+        if (path.equals("/session/create")) {
+            if (!HttpMethod.POST.equals(method)) {
+                throw new EmulatorException(405, "Method not allowed.");
+            }
+            Map<String, String> form = new HashMap<>();
+            new QueryStringDecoder(request.content().toString(StandardCharsets.UTF_8), false).parameters()
+                    .forEach((name, values) -> form.put(name, values.get(0)));
+            return json(200, state.createSession(form));
+        }
+        if (!path.startsWith(PROJECT_PATH)) {
+            throw EmulatorException.notFound("Not found: " + path);
+        }
+        String[] segments = path.substring(PROJECT_PATH.length()).split("/");
+        if (!auth.isProject(segments[0])) {
+            throw new EmulatorException(403, "The token does not match the project in the URL.");
+        }
+        if (HttpMethod.OPTIONS.equals(method)) {
+            FullHttpResponse response = empty(204);
+            response.headers().set(HttpHeaderNames.ALLOW, "GET, POST, PUT, PATCH, DELETE, OPTIONS");
+            return response;
+        }
+
+        // Resource names and IDs alternate after the project, e.g. archive/{id}/stop
+        StringBuilder route = new StringBuilder(method.name()).append(' ');
+        for (int i = 1; i < segments.length; i++) {
+            route.append(i == 1 ? "" : "/").append(i % 2 == 0 ? "{}" : segments[i]);
+        }
+        String id = segments.length > 2 ? segments[2] : null;
+        String subId = segments.length > 4 ? segments[4] : null;
+
+        switch (route.toString()) {
+            case "POST session/{}/signal":
+                state.signal(id, null, body(request));
+                return empty(204);
+            case "POST session/{}/connection/{}/signal":
+                state.signal(id, subId, body(request));
+                return empty(204);
+            case "GET session/{}/connection":
+                return json(200, state.listConnections(id));
+            case "DELETE session/{}/connection/{}":
+                state.disconnect(state.session(id), subId);
+                return empty(204);
+            case "GET session/{}/stream":
+                return json(200, state.listStreams(id));
+            case "PUT session/{}/stream":
+                state.setStreamLayouts(id, body(request));
+                return empty(200);
+            case "GET session/{}/stream/{}":
+                return json(200, state.getStream(id, subId));
+            case "POST session/{}/stream/{}/mute":
+                state.muteStream(id, subId);
+                return empty(200);
+            case "POST session/{}/mute":
+                state.muteAll(id, body(request));
+                return empty(200);
+
+            case "POST archive":
+                return json(200, state.startArchive(body(request)));
+            case "GET archive":
+                return json(200, state.listArchives(query(uri, "sessionId"),
+                        intQuery(uri, "offset", 0), intQuery(uri, "count", EmulatorState.DEFAULT_PAGE_SIZE)));
+            case "GET archive/{}":
+                return json(200, state.getArchive(id));
+            case "DELETE archive/{}":
+                state.deleteArchive(id);
+                return empty(204);
+            case "POST archive/{}/stop":
+                return json(200, state.stopArchive(id));
+            case "PATCH archive/{}/streams":
+                state.patchArchiveStreams(id, body(request));
+                return empty(204);
+            case "PUT archive/{}/layout":
+                state.setArchiveLayout(id, body(request));
+                return empty(200);
+
+            case "POST broadcast":
+                return json(200, state.startBroadcast(body(request)));
+            case "GET broadcast":
+                return json(200, state.listBroadcasts(query(uri, "sessionId"),
+                        intQuery(uri, "offset", 0), intQuery(uri, "count", EmulatorState.DEFAULT_PAGE_SIZE)));
+            case "GET broadcast/{}":
+                return json(200, state.getBroadcast(id));
+            case "POST broadcast/{}/stop":
+                return json(200, state.stopBroadcast(id));
+            case "PATCH broadcast/{}/streams":
+                state.patchBroadcastStreams(id, body(request));
+                return empty(204);
+            case "PUT broadcast/{}/layout":
+                state.setBroadcastLayout(id, body(request));
+                return empty(200);
+
+            case "POST render":
+                return json(202, state.startRender(body(request)));
+            case "GET render":
+                return json(200, state.listRenders(intQuery(uri, "offset", 0),
+                        intQuery(uri, "count", EmulatorState.DEFAULT_PAGE_SIZE)));
+            case "GET render/{}":
+                return json(200, state.getRender(id));
+            case "DELETE render/{}":
+                state.stopRender(id);
+                return empty(200);
+
+            default:
+                throw EmulatorException.notFound("Not found: " + method + " " + path);
+        }
+    }
+
+    private static JsonNode body(FullHttpRequest request) throws IOException {
+        if (!request.content().isReadable()) {
+            throw EmulatorException.badRequest("A JSON body is required.");
+        }
+        return MAPPER.readTree(new ByteBufInputStream(request.content()));
+    }
+
+    private static String query(QueryStringDecoder uri, String name) {
+        List<String> values = uri.parameters().get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static int intQuery(QueryStringDecoder uri, String name, int defaultValue) {
+        String value = query(uri, name);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+        catch (NumberFormatException ex) {
+            throw EmulatorException.badRequest(name + " must be a number.");
+        }
+    }
+
+    private static FullHttpResponse json(int status, JsonNode body) throws JsonProcessingException {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.valueOf(status),
+                Unpooled.wrappedBuffer(MAPPER.writeValueAsBytes(body)));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+        return response;
+    }
+
+    private static FullHttpResponse empty(int status) {
+        return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.valueOf(status), Unpooled.EMPTY_BUFFER);
+    }
+
+    private static FullHttpResponse error(int status, String message) {
+        try {
+            return json(status, JsonNodeFactory.instance.objectNode().put("code", status).put("message", message));
+        }
+        catch (JsonProcessingException ex) {
+            return empty(status);
+        }
+    }
+}
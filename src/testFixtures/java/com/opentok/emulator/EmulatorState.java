@@ -0,0 +1,844 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.emulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The sessions, connections, streams, archives, broadcasts and Experience Composers of one emulated project.
+ * Each session is its own lock; archives, broadcasts and renders are locked after the session they belong to.
+ */
+class EmulatorState {
+    static final int DEFAULT_PAGE_SIZE = 50, MAX_PAGE_SIZE = 1000;
+    static final int MAX_SIGNAL_TYPE_BYTES = 128, MAX_SIGNAL_DATA_BYTES = 8192;
+    static final int MAX_RTMP_OUTPUTS = 5;
+    static final int MAX_RECENT_SIGNALS = 1000;
+
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final int apiKey;
+    private final long archiveProcessingMillis, renderStartMillis;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, SessionState> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ArchiveState> archives = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, BroadcastState> broadcasts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, RenderState> renders = new ConcurrentHashMap<>();
+    // Newest first, as the list endpoints return them
+    private final ConcurrentSkipListMap<Long, ArchiveState> archiveOrder = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final ConcurrentSkipListMap<Long, BroadcastState> broadcastOrder = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final ConcurrentSkipListMap<Long, RenderState> renderOrder = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+
+    EmulatorState(int apiKey, long archiveProcessingMillis, long renderStartMillis) {
+        this.apiKey = apiKey;
+        this.archiveProcessingMillis = archiveProcessingMillis;
+        this.renderStartMillis = renderStartMillis;
+    }
+
+    static class SessionState {
+        final String id, location;
+        final boolean relayed, alwaysArchived;
+        final long createdAt = System.currentTimeMillis();
+        final Map<String, ConnectionState> connections = new LinkedHashMap<>();
+        final Map<String, StreamState> streams = new LinkedHashMap<>();
+        final List<ArchiveState> activeArchives = new ArrayList<>();
+        final List<BroadcastState> activeBroadcasts = new ArrayList<>();
+        final AtomicLong signals = new AtomicLong();
+        final Deque<String> recentSignals = new ArrayDeque<>();
+
+        SessionState(String id, boolean relayed, boolean alwaysArchived, String location) {
+            this.id = id;
+            this.relayed = relayed;
+            this.alwaysArchived = alwaysArchived;
+            this.location = location;
+        }
+    }
+
+    static class ConnectionState {
+        final String id = UUID.randomUUID().toString();
+        final long createdAt = System.currentTimeMillis();
+    }
+
+    static class StreamState {
+        final String id = UUID.randomUUID().toString(), connectionId, videoType, name;
+        List<String> layoutClassList = Collections.emptyList();
+        boolean audioMuted;
+
+        StreamState(String connectionId, String videoType, String name) {
+            this.connectionId = connectionId;
+            this.videoType = videoType;
+            this.name = name;
+        }
+
+        ObjectNode toJson() {
+            ObjectNode json = JSON.objectNode()
+                    .put("id", id)
+                    .put("videoType", videoType)
+                    .put("name", name);
+            ArrayNode classes = json.putArray("layoutClassList");
+            layoutClassList.forEach(classes::add);
+            return json;
+        }
+    }
+
+    abstract static class Composition {
+        final String id = UUID.randomUUID().toString(), sessionId, tag;
+        final long createdAt = System.currentTimeMillis(), sequence;
+        final boolean hasAudio, hasVideo, manualStreams;
+        final String resolution;
+        final int maxBitrate;
+        final Set<String> streams = new LinkedHashSet<>();
+        JsonNode layout;
+
+        Composition(long sequence, String sessionId, JsonNode request, String tagField, String defaultResolution) {
+            this.sequence = sequence;
+            this.sessionId = sessionId;
+            this.tag = request.hasNonNull(tagField) ? request.get(tagField).asText() : null;
+            this.hasAudio = request.path("hasAudio").asBoolean(true);
+            this.hasVideo = request.path("hasVideo").asBoolean(true);
+            this.manualStreams = "manual".equals(request.path("streamMode").asText("auto"));
+            this.resolution = request.path("resolution").asText(defaultResolution);
+            this.maxBitrate = request.path("maxBitrate").asInt(0);
+            this.layout = request.get("layout");
+        }
+
+        abstract boolean isActive(long now);
+
+        void putCommon(ObjectNode json) {
+            json.put("id", id)
+                .put("sessionId", sessionId)
+                .put("createdAt", createdAt)
+                .put("hasAudio", hasAudio)
+                .put("hasVideo", hasVideo)
+                .put("streamMode", manualStreams ? "manual" : "auto")
+                .put("resolution", resolution);
+            if (maxBitrate > 0) {
+                json.put("maxBitrate", maxBitrate);
+            }
+            if (manualStreams) {
+                ArrayNode items = json.putArray("streams");
+                streams.forEach(stream -> items.addObject().put("streamId", stream));
+            }
+        }
+    }
+
+    class ArchiveState extends Composition {
+        final String name, outputMode;
+        String status = "started", reason = "";
+        long stoppedAt;
+
+        ArchiveState(long sequence, String sessionId, JsonNode request) {
+            super(sequence, sessionId, request, "multiArchiveTag", "640x480");
+            this.name = request.path("name").asText("");
+            this.outputMode = request.path("outputMode").asText("composed");
+        }
+
+        @Override
+        synchronized boolean isActive(long now) {
+            return "started".equals(status) || "paused".equals(status);
+        }
+
+        synchronized String status(long now) {
+            if ("stopped".equals(status) && now - stoppedAt >= archiveProcessingMillis) {
+                status = "available";
+            }
+            return status;
+        }
+
+        synchronized ObjectNode toJson(long now) {
+            String status = status(now);
+            long end = stoppedAt > 0 ? stoppedAt : now;
+            int duration = (int) ((end - createdAt) / 1000);
+            ObjectNode json = JSON.objectNode();
+            putCommon(json);
+            json.put("name", name)
+                .put("partnerId", apiKey)
+                .put("projectId", apiKey)
+                .put("outputMode", outputMode)
+                .put("status", status)
+                .put("reason", reason)
+                .put("duration", "started".equals(status) || "paused".equals(status) ? 0 : duration)
+                .put("size", "available".equals(status) ? 250_000L * Math.max(duration, 1) : 0)
+                .put("url", "available".equals(status) ? "https://archive.emulator.local/" + apiKey + "/" + id
+                        + ("individual".equals(outputMode) ? "/archive.zip" : "/archive.mp4") : null);
+            if (tag != null) {
+                json.put("multiArchiveTag", tag);
+            }
+            return json;
+        }
+    }
+
+    class BroadcastState extends Composition {
+        final int maxDuration;
+        final boolean hls, dvr, lowLatency;
+        final ArrayNode rtmp;
+        long stoppedAt;
+
+        BroadcastState(long sequence, String sessionId, JsonNode request) {
+            super(sequence, sessionId, request, "multiBroadcastTag", "640x480");
+            this.maxDuration = request.path("maxDuration").asInt(14400);
+            JsonNode outputs = request.path("outputs");
+            this.hls = outputs.has("hls");
+            this.dvr = outputs.path("hls").path("dvr").asBoolean(false);
+            this.lowLatency = outputs.path("hls").path("lowLatency").asBoolean(false);
+            this.rtmp = JSON.arrayNode();
+            for (JsonNode output : outputs.path("rtmp")) {
+                rtmp.addObject()
+                    .put("id", output.path("id").asText(null))
+                    .put("serverUrl", output.path("serverUrl").asText())
+                    .put("streamName", output.path("streamName").asText())
+                    .put("status", "live");
+            }
+        }
+
+        @Override
+        synchronized boolean isActive(long now) {
+            if (stoppedAt == 0 && now - createdAt >= maxDuration * 1000L) {
+                stoppedAt = createdAt + maxDuration * 1000L;
+            }
+            return stoppedAt == 0;
+        }
+
+        synchronized ObjectNode toJson(long now) {
+            boolean active = isActive(now);
+            ObjectNode json = JSON.objectNode();
+            putCommon(json);
+            json.put("projectId", apiKey)
+                .put("updatedAt", active ? now : stoppedAt)
+                .put("maxDuration", maxDuration)
+                .put("status", active ? "started" : "stopped");
+            if (tag != null) {
+                json.put("multiBroadcastTag", tag);
+            }
+            ObjectNode urls = json.putObject("broadcastUrls");
+            if (hls) {
+                urls.put("hls", "https://broadcast.emulator.local/" + id + "/index.m3u8")
+                    .put("hlsStatus", active ? "live" : "ended");
+                json.putObject("settings").putObject("hls").put("dvr", dvr).put("lowLatency", lowLatency);
+            }
+            ArrayNode rtmpUrls = urls.putArray("rtmp");
+            for (JsonNode output : rtmp) {
+                rtmpUrls.add(((ObjectNode) output.deepCopy()).put("status", active ? "live" : "offline"));
+            }
+            return json;
+        }
+    }
+
+    class RenderState {
+        final String id = UUID.randomUUID().toString(), sessionId, url, resolution, name;
+        final long createdAt = System.currentTimeMillis(), sequence;
+        final int maxDuration;
+        String status = "starting", reason, streamId, connectionId;
+        long updatedAt = createdAt;
+
+        RenderState(long sequence, String sessionId, JsonNode request) {
+            this.sequence = sequence;
+            this.sessionId = sessionId;
+            this.url = request.path("url").asText();
+            this.resolution = request.path("resolution").asText("1280x720");
+            this.name = request.path("properties").path("name").asText(url);
+            this.maxDuration = request.path("maxDuration").asInt(1800);
+        }
+
+        /**
+         * Moves the render through starting, started and (once its maximum duration passes) stopped.
+         */
+        void refresh(long now) {
+            SessionState session = sessions.get(sessionId);
+            synchronized (session) {
+                synchronized (this) {
+                    if ("starting".equals(status) && now - createdAt >= renderStartMillis) {
+                        status = "started";
+                        updatedAt = now;
+                        connectionId = connect(session).id;
+                        streamId = publish(session, connectionId, "camera", name).id;
+                    }
+                    if ("started".equals(status) && now - createdAt >= maxDuration * 1000L) {
+                        stop(session, now, "Maximum duration exceeded");
+                    }
+                }
+            }
+        }
+
+        void stop(SessionState session, long now, String reason) {
+            if (connectionId != null && session.connections.containsKey(connectionId)) {
+                disconnect(session, connectionId);
+            }
+            status = "stopped";
+            this.reason = reason;
+            updatedAt = now;
+        }
+
+        synchronized ObjectNode toJson() {
+            ObjectNode json = JSON.objectNode()
+                    .put("id", id)
+                    .put("sessionId", sessionId)
+                    .put("projectId", Integer.toString(apiKey))
+                    .put("createdAt", createdAt)
+                    .put("updatedAt", updatedAt)
+                    .put("url", url)
+                    .put("resolution", resolution)
+                    .put("status", status);
+            if (streamId != null) {
+                json.put("streamId", streamId);
+            }
+            if (reason != null) {
+                json.put("reason", reason);
+            }
+            return json;
+        }
+    }
+
+    // -- Sessions, connections and streams
+
+    SessionState createSession(boolean relayed, boolean alwaysArchived, String location) {
+        String seed = "1~" + apiKey + "~~" + new Date() + "~" + ThreadLocalRandom.current().nextDouble() + "~";
+        String id = "1_" + Base64.getUrlEncoder().withoutPadding().encodeToString(seed.getBytes(StandardCharsets.UTF_8));
+        SessionState session = new SessionState(id, relayed, alwaysArchived, location);
+        sessions.put(id, session);
+        return session;
+    }
+
+    ArrayNode createSession(Map<String, String> form) {
+        boolean relayed = "enabled".equals(form.get("p2p.preference"));
+        boolean alwaysArchived = "always".equals(form.get("archiveMode"));
+        if (relayed && alwaysArchived) {
+            throw EmulatorException.badRequest("A relayed session cannot be archived.");
+        }
+        SessionState session = createSession(relayed, alwaysArchived, form.get("location"));
+        ArrayNode json = JSON.arrayNode();
+        json.addObject()
+            .put("session_id", session.id)
+            .put("project_id", Integer.toString(apiKey))
+            .put("partner_id", Integer.toString(apiKey))
+            .put("create_dt", new Date(session.createdAt).toString())
+            .put("media_server_url", "");
+        return json;
+    }
+
+    SessionState session(String sessionId) {
+        SessionState session = sessions.get(sessionId);
+        if (session == null) {
+            throw EmulatorException.notFound("Session not found: " + sessionId);
+        }
+        return session;
+    }
+
+    ConnectionState connect(SessionState session) {
+        synchronized (session) {
+            ConnectionState connection = new ConnectionState();
+            session.connections.put(connection.id, connection);
+            for (ArchiveState archive : session.activeArchives) {
+                synchronized (archive) {
+                    if ("paused".equals(archive.status)) {
+                        archive.status = "started";
+                    }
+                }
+            }
+            return connection;
+        }
+    }
+
+    StreamState publish(SessionState session, String connectionId, String videoType, String name) {
+        synchronized (session) {
+            if (!session.connections.containsKey(connectionId)) {
+                throw EmulatorException.notFound("Connection not found: " + connectionId);
+            }
+            StreamState stream = new StreamState(connectionId, videoType, name);
+            session.streams.put(stream.id, stream);
+            if (session.alwaysArchived && session.activeArchives.isEmpty()) {
+                startArchive(session, JSON.objectNode().put("sessionId", session.id));
+            }
+            return stream;
+        }
+    }
+
+    void unpublish(SessionState session, String streamId) {
+        synchronized (session) {
+            StreamState stream = session.streams.remove(streamId);
+            if (stream == null) {
+                throw EmulatorException.notFound("Stream not found: " + streamId);
+            }
+            for (Composition composition : compositionsOf(session)) {
+                synchronized (composition) {
+                    composition.streams.remove(streamId);
+                }
+            }
+        }
+    }
+
+    void disconnect(SessionState session, String connectionId) {
+        synchronized (session) {
+            if (session.connections.remove(connectionId) == null) {
+                throw EmulatorException.notFound("Connection not found: " + connectionId);
+            }
+            List<String> published = new ArrayList<>();
+            for (StreamState stream : session.streams.values()) {
+                if (stream.connectionId.equals(connectionId)) {
+                    published.add(stream.id);
+                }
+            }
+            published.forEach(streamId -> unpublish(session, streamId));
+            if (session.connections.isEmpty()) {
+                // Archives pause while nobody is connected
+                for (ArchiveState archive : session.activeArchives) {
+                    synchronized (archive) {
+                        if ("started".equals(archive.status)) {
+                            archive.status = "paused";
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    void signal(String sessionId, String connectionId, JsonNode request) {
+        String type = request.path("type").asText(""), data = request.path("data").asText("");
+        if (type.getBytes(StandardCharsets.UTF_8).length > MAX_SIGNAL_TYPE_BYTES) {
+            throw new EmulatorException(413, "The type exceeds the maximum length of " + MAX_SIGNAL_TYPE_BYTES + " bytes.");
+        }
+        if (data.getBytes(StandardCharsets.UTF_8).length > MAX_SIGNAL_DATA_BYTES) {
+            throw new EmulatorException(413, "The data exceeds the maximum size of " + MAX_SIGNAL_DATA_BYTES + " bytes.");
+        }
+        SessionState session = session(sessionId);
+        if (connectionId != null) {
+            synchronized (session) {
+                if (!session.connections.containsKey(connectionId)) {
+                    throw EmulatorException.notFound("The client specified by the connection ID is not connected.");
+                }
+            }
+        }
+        session.signals.incrementAndGet();
+        synchronized (session.recentSignals) {
+            if (session.recentSignals.size() == MAX_RECENT_SIGNALS) {
+                session.recentSignals.poll();
+            }
+            session.recentSignals.add(data);
+        }
+    }
+
+    ObjectNode listConnections(String sessionId) {
+        SessionState session = session(sessionId);
+        ObjectNode json = JSON.objectNode();
+        synchronized (session) {
+            json.put("count", session.connections.size())
+                .put("projectId", Integer.toString(apiKey))
+                .put("sessionId", sessionId);
+            ArrayNode items = json.putArray("items");
+            for (ConnectionState connection : session.connections.values()) {
+                items.addObject()
+                     .put("connectionId", connection.id)
+                     .put("createdAt", connection.createdAt)
+                     .put("connectionState", "Connected");
+            }
+        }
+        return json;
+    }
+
+    ObjectNode getStream(String sessionId, String streamId) {
+        SessionState session = session(sessionId);
+        synchronized (session) {
+            StreamState stream = session.streams.get(streamId);
+            if (stream == null) {
+                throw EmulatorException.notFound("Stream not found: " + streamId);
+            }
+            return stream.toJson();
+        }
+    }
+
+    ObjectNode listStreams(String sessionId) {
+        SessionState session = session(sessionId);
+        ObjectNode json = JSON.objectNode();
+        synchronized (session) {
+            json.put("count", session.streams.size());
+            ArrayNode items = json.putArray("items");
+            session.streams.values().forEach(stream -> items.add(stream.toJson()));
+        }
+        return json;
+    }
+
+    void setStreamLayouts(String sessionId, JsonNode request) {
+        SessionState session = session(sessionId);
+        synchronized (session) {
+            for (JsonNode item : request.path("items")) {
+                if (!session.streams.containsKey(item.path("id").asText())) {
+                    throw EmulatorException.badRequest("Stream not found: " + item.path("id").asText());
+                }
+            }
+            for (JsonNode item : request.path("items")) {
+                List<String> classes = new ArrayList<>();
+                item.path("layoutClassList").forEach(layoutClass -> classes.add(layoutClass.asText()));
+                session.streams.get(item.path("id").asText()).layoutClassList = classes;
+            }
+        }
+    }
+
+    void muteStream(String sessionId, String streamId) {
+        SessionState session = session(sessionId);
+        synchronized (session) {
+            StreamState stream = session.streams.get(streamId);
+            if (stream == null) {
+                throw EmulatorException.notFound("Stream not found: " + streamId);
+            }
+            stream.audioMuted = true;
+        }
+    }
+
+    void muteAll(String sessionId, JsonNode request) {
+        SessionState session = session(sessionId);
+        if (!request.path("active").asBoolean(false)) {
+            return;
+        }
+        Set<String> excluded = new HashSet<>();
+        request.path("excludedStreamIds").forEach(id -> excluded.add(id.asText()));
+        synchronized (session) {
+            for (StreamState stream : session.streams.values()) {
+                if (!excluded.contains(stream.id)) {
+                    stream.audioMuted = true;
+                }
+            }
+        }
+    }
+
+    // -- Archives
+
+    ObjectNode startArchive(JsonNode request) {
+        SessionState session = session(request.path("sessionId").asText());
+        synchronized (session) {
+            return startArchive(session, request).toJson(System.currentTimeMillis());
+        }
+    }
+
+    private ArchiveState startArchive(SessionState session, JsonNode request) {
+        if (session.relayed) {
+            throw EmulatorException.conflict("The session is peer-to-peer and cannot be archived.");
+        }
+        if (session.connections.isEmpty()) {
+            throw EmulatorException.notFound("No clients are actively connected to the session.");
+        }
+        ArchiveState archive = new ArchiveState(sequence.incrementAndGet(), session.id, request);
+        ensureNotRunning(session.activeArchives, archive.tag, "The session is already being recorded.");
+        if (!archive.manualStreams) {
+            archive.streams.addAll(session.streams.keySet());
+        }
+        session.activeArchives.add(archive);
+        archives.put(archive.id, archive);
+        archiveOrder.put(archive.sequence, archive);
+        return archive;
+    }
+
+    ObjectNode stopArchive(String archiveId) {
+        ArchiveState archive = archive(archiveId);
+        SessionState session = session(archive.sessionId);
+        long now = System.currentTimeMillis();
+        synchronized (session) {
+            synchronized (archive) {
+                if (!archive.isActive(now)) {
+                    throw EmulatorException.conflict("The archive is not being recorded.");
+                }
+                archive.status = "stopped";
+                archive.reason = "user initiated";
+                archive.stoppedAt = now;
+                session.activeArchives.remove(archive);
+                return archive.toJson(now);
+            }
+        }
+    }
+
+    ObjectNode getArchive(String archiveId) {
+        return archive(archiveId).toJson(System.currentTimeMillis());
+    }
+
+    void deleteArchive(String archiveId) {
+        ArchiveState archive = archive(archiveId);
+        synchronized (archive) {
+            String status = archive.status(System.currentTimeMillis());
+            if (!"available".equals(status) && !"uploaded".equals(status) && !"deleted".equals(status)) {
+                throw EmulatorException.conflict("The archive cannot be deleted while it is " + status + ".");
+            }
+            archive.status = "deleted";
+        }
+    }
+
+    ObjectNode listArchives(String sessionId, int offset, int count) {
+        long now = System.currentTimeMillis();
+        return page(archiveOrder.values(), archive -> sessionId == null || archive.sessionId.equals(sessionId),
+                offset, count, archive -> archive.toJson(now));
+    }
+
+    void patchArchiveStreams(String archiveId, JsonNode request) {
+        patchStreams(archive(archiveId), request);
+    }
+
+    void setArchiveLayout(String archiveId, JsonNode request) {
+        ArchiveState archive = archive(archiveId);
+        validateLayout(request);
+        synchronized (archive) {
+            if (!"composed".equals(archive.outputMode)) {
+                throw EmulatorException.badRequest("Layouts only apply to composed archives.");
+            }
+            archive.layout = request;
+        }
+    }
+
+    private ArchiveState archive(String archiveId) {
+        ArchiveState archive = archives.get(archiveId);
+        if (archive == null) {
+            throw EmulatorException.notFound("Archive not found: " + archiveId);
+        }
+        return archive;
+    }
+
+    // -- Broadcasts
+
+    ObjectNode startBroadcast(JsonNode request) {
+        SessionState session = session(request.path("sessionId").asText());
+        JsonNode outputs = request.path("outputs");
+        if (!outputs.has("hls") && outputs.path("rtmp").size() == 0) {
+            throw EmulatorException.badRequest("At least one HLS or RTMP output is required.");
+        }
+        if (outputs.path("rtmp").size() > MAX_RTMP_OUTPUTS) {
+            throw EmulatorException.badRequest("A broadcast supports at most " + MAX_RTMP_OUTPUTS + " RTMP outputs.");
+        }
+        int maxDuration = request.path("maxDuration").asInt(14400);
+        if (maxDuration < 60 || maxDuration > 36000) {
+            throw EmulatorException.badRequest("maxDuration must be between 60 and 36000 seconds.");
+        }
+        validateLayout(request.path("layout"));
+        long now = System.currentTimeMillis();
+        synchronized (session) {
+            if (session.relayed) {
+                throw EmulatorException.conflict("The session is peer-to-peer and cannot be broadcast.");
+            }
+            session.activeBroadcasts.removeIf(broadcast -> !broadcast.isActive(now));
+            BroadcastState broadcast = new BroadcastState(sequence.incrementAndGet(), session.id, request);
+            ensureNotRunning(session.activeBroadcasts, broadcast.tag, "The broadcast has already started for the session.");
+            if (!broadcast.manualStreams) {
+                broadcast.streams.addAll(session.streams.keySet());
+            }
+            session.activeBroadcasts.add(broadcast);
+            broadcasts.put(broadcast.id, broadcast);
+            broadcastOrder.put(broadcast.sequence, broadcast);
+            return broadcast.toJson(now);
+        }
+    }
+
+    ObjectNode stopBroadcast(String broadcastId) {
+        BroadcastState broadcast = broadcast(broadcastId);
+        SessionState session = session(broadcast.sessionId);
+        long now = System.currentTimeMillis();
+        synchronized (session) {
+            synchronized (broadcast) {
+                if (!broadcast.isActive(now)) {
+                    throw EmulatorException.notFound("The broadcast has already stopped.");
+                }
+                broadcast.stoppedAt = now;
+                session.activeBroadcasts.remove(broadcast);
+                return broadcast.toJson(now);
+            }
+        }
+    }
+
+    ObjectNode getBroadcast(String broadcastId) {
+        return broadcast(broadcastId).toJson(System.currentTimeMillis());
+    }
+
+    ObjectNode listBroadcasts(String sessionId, int offset, int count) {
+        long now = System.currentTimeMillis();
+        return page(broadcastOrder.values(), broadcast -> sessionId == null || broadcast.sessionId.equals(sessionId),
+                offset, count, broadcast -> broadcast.toJson(now));
+    }
+
+    void patchBroadcastStreams(String broadcastId, JsonNode request) {
+        patchStreams(broadcast(broadcastId), request);
+    }
+
+    void setBroadcastLayout(String broadcastId, JsonNode request) {
+        BroadcastState broadcast = broadcast(broadcastId);
+        validateLayout(request);
+        synchronized (broadcast) {
+            if (!broadcast.isActive(System.currentTimeMillis())) {
+                throw EmulatorException.conflict("The broadcast has stopped.");
+            }
+            broadcast.layout = request;
+        }
+    }
+
+    private BroadcastState broadcast(String broadcastId) {
+        BroadcastState broadcast = broadcasts.get(broadcastId);
+        if (broadcast == null) {
+            throw EmulatorException.notFound("Broadcast not found: " + broadcastId);
+        }
+        return broadcast;
+    }
+
+    // -- Experience Composers
+
+    ObjectNode startRender(JsonNode request) {
+        SessionState session = session(request.path("sessionId").asText());
+        if (!request.hasNonNull("token") || !request.hasNonNull("url")) {
+            throw EmulatorException.badRequest("token and url are required.");
+        }
+        int maxDuration = request.path("maxDuration").asInt(1800);
+        if (maxDuration < 60 || maxDuration > 36000) {
+            throw EmulatorException.badRequest("maxDuration must be between 60 and 36000 seconds.");
+        }
+        RenderState render = new RenderState(sequence.incrementAndGet(), session.id, request);
+        renders.put(render.id, render);
+        renderOrder.put(render.sequence, render);
+        render.refresh(System.currentTimeMillis());
+        return render.toJson();
+    }
+
+    ObjectNode getRender(String renderId) {
+        RenderState render = render(renderId);
+        render.refresh(System.currentTimeMillis());
+        return render.toJson();
+    }
+
+    void stopRender(String renderId) {
+        RenderState render = render(renderId);
+        SessionState session = session(render.sessionId);
+        synchronized (session) {
+            synchronized (render) {
+                if (!"stopped".equals(render.status)) {
+                    render.stop(session, System.currentTimeMillis(), "Stop Requested");
+                }
+            }
+        }
+    }
+
+    ObjectNode listRenders(int offset, int count) {
+        long now = System.currentTimeMillis();
+        return page(renderOrder.values(), render -> true, offset, count, render -> {
+            render.refresh(now);
+            return render.toJson();
+        });
+    }
+
+    private RenderState render(String renderId) {
+        RenderState render = renders.get(renderId);
+        if (render == null) {
+            throw EmulatorException.notFound("Render not found: " + renderId);
+        }
+        return render;
+    }
+
+    // -- Shared
+
+    long signalCount(String sessionId) {
+        return session(sessionId).signals.get();
+    }
+
+    List<String> recentSignals(String sessionId) {
+        SessionState session = session(sessionId);
+        synchronized (session.recentSignals) {
+            return new ArrayList<>(session.recentSignals);
+        }
+    }
+
+    boolean isAudioMuted(String sessionId, String streamId) {
+        SessionState session = session(sessionId);
+        synchronized (session) {
+            StreamState stream = session.streams.get(streamId);
+            if (stream == null) {
+                throw EmulatorException.notFound("Stream not found: " + streamId);
+            }
+            return stream.audioMuted;
+        }
+    }
+
+    private List<Composition> compositionsOf(SessionState session) {
+        List<Composition> compositions = new ArrayList<>(session.activeArchives);
+        compositions.addAll(session.activeBroadcasts);
+        return compositions;
+    }
+
+    private static void ensureNotRunning(List<? extends Composition> active, String tag, String message) {
+        long now = System.currentTimeMillis();
+        for (Composition composition : active) {
+            if (composition.isActive(now) && Objects.equals(composition.tag, tag)) {
+                throw EmulatorException.conflict(message);
+            }
+        }
+    }
+
+    private void patchStreams(Composition composition, JsonNode request) {
+        SessionState session = session(composition.sessionId);
+        synchronized (session) {
+            synchronized (composition) {
+                if (!composition.manualStreams) {
+                    throw EmulatorException.badRequest("Streams can only be changed when streamMode is manual.");
+                }
+                if (!composition.isActive(System.currentTimeMillis())) {
+                    throw EmulatorException.conflict("The composition has stopped.");
+                }
+                if (request.hasNonNull("addStream")) {
+                    String streamId = request.get("addStream").asText();
+                    if (!session.streams.containsKey(streamId)) {
+                        throw EmulatorException.notFound("Stream not found: " + streamId);
+                    }
+                    composition.streams.add(streamId);
+                }
+                else if (request.hasNonNull("removeStream")) {
+                    composition.streams.remove(request.get("removeStream").asText());
+                }
+                else {
+                    throw EmulatorException.badRequest("Either addStream or removeStream is required.");
+                }
+            }
+        }
+    }
+
+    private static void validateLayout(JsonNode layout) {
+        if (layout == null || layout.isMissingNode() || layout.isNull()) {
+            return;
+        }
+        String type = layout.path("type").asText("");
+        boolean custom = "custom".equals(type);
+        if (type.isEmpty() || custom != layout.hasNonNull("stylesheet")) {
+            throw EmulatorException.badRequest("A custom layout requires a stylesheet, and only a custom layout may have one.");
+        }
+        if (layout.hasNonNull("screenshareType") && !"bestFit".equals(type)) {
+            throw EmulatorException.badRequest("screenshareType requires the bestFit layout type.");
+        }
+    }
+
+    private static <T> ObjectNode page(Collection<T> newestFirst, Predicate<T> filter, int offset, int count,
+                                       Function<T, ObjectNode> toJson) {
+        if (offset < 0 || count < 0) {
+            throw EmulatorException.badRequest("offset and count cannot be negative.");
+        }
+        count = Math.min(count, MAX_PAGE_SIZE);
+        ObjectNode json = JSON.objectNode();
+        ArrayNode items = JSON.arrayNode();
+        int total = 0;
+        for (T item : newestFirst) {
+            if (filter.test(item)) {
+                if (total >= offset && items.size() < count) {
+                    items.add(toJson.apply(item));
+                }
+                total++;
+            }
+        }
+        json.put("count", total);
+        json.set("items", items);
+        return json;
+    }
+}
@@ -0,0 +1,325 @@
+/**
+ * OpenTok Java SDK
+ * Copyright (C) 2026 Vonage.
+ * http://www.tokbox.com
+ *
+ * Licensed under The MIT License (MIT). See LICENSE file for more information.
+ */
+package com.opentok.emulator;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerKeepAliveHandler;
+
+import java.net.InetSocketAddress;
+import java.security.PublicKey;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-process emulator of the OpenTok REST API for integration and load tests, with real state: sessions,
+ * connections, streams, archives (started, paused, stopped, available, deleted), broadcasts and Experience
+ * Composers. It checks the authentication header of every request and enforces the documented limits,
+ * such as the 128-byte signal type and 8 kB signal data, 1000-item pages, and 409 responses when an archive
+ * or broadcast is already running for the session.
+ * <p>
+ * Clients connect and publish through the emulator itself, since there are no real clients:
+ * <pre>
+ * try (OpenTokEmulator emulator = new OpenTokEmulator.Builder(apiKey, apiSecret).build().start()) {
+ *     OpenTok opentok = new OpenTok.Builder(apiKey, apiSecret).apiUrl(emulator.getApiUrl()).build();
+ *     String sessionId = opentok.createSession(new SessionProperties.Builder()
+ *             .mediaMode(MediaMode.ROUTED).build()).getSessionId();
+ *     String connectionId = emulator.connect(sessionId);
+ *     String streamId = emulator.publish(sessionId, connectionId);
+ *     Archive archive = opentok.startArchive(sessionId);
+ * }
+ * </pre>
+ * Requests are served by Netty on a small event loop group, so the emulator sustains tens of thousands of
+ * requests per second on a laptop.
+ */
+public class OpenTokEmulator implements AutoCloseable {
+    private final EmulatorState state;
+    private final EmulatorHandler handler;
+    private final int requestedPort, workerThreads;
+    private EventLoopGroup bossGroup, workerGroup;
+    private Channel channel;
+
+    private OpenTokEmulator(Builder builder) {
+        state = new EmulatorState(builder.apiKey, builder.archiveProcessingMillis, builder.renderStartMillis);
+        handler = new EmulatorHandler(state,
+                new AuthVerifier(builder.apiKey, builder.apiSecret, builder.applicationId, builder.applicationPublicKey),
+                builder.latencyMillis);
+        requestedPort = builder.port;
+        workerThreads = builder.workerThreads;
+    }
+
+    /**
+     * Binds the emulator to its port and starts serving requests.
+     *
+     * @return This emulator.
+     */
+    public synchronized OpenTokEmulator start() throws InterruptedException {
+        if (channel != null) {
+            return this;
+        }
+        bossGroup = new NioEventLoopGroup(1);
+        workerGroup = new NioEventLoopGroup(workerThreads);
+        channel = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .option(ChannelOption.SO_BACKLOG, 1024)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                          .addLast(new HttpServerCodec())
+                          .addLast(new HttpServerKeepAliveHandler())
+                          .addLast(new HttpObjectAggregator(1024 * 1024))
+                          .addLast(handler);
+                    }
+                })
+                .bind("127.0.0.1", requestedPort).sync().channel();
+        return this;
+    }
+
+    /**
+     * @return The port the emulator listens on.
+     */
+    public int getPort() {
+        return ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    /**
+     * @return The URL to pass to {@code OpenTok.Builder.apiUrl()}.
+     */
+    public String getApiUrl() {
+        return "http://127.0.0.1:" + getPort();
+    }
+
+    /**
+     * @return The number of requests served so far.
+     */
+    public long getRequestCount() {
+        return handler.requestCount();
+    }
+
+    /**
+     * Creates a routed session with manual archiving.
+     *
+     * @return The session ID.
+     */
+    public String createSession() {
+        return createSession(false, false);
+    }
+
+    /**
+     * Creates a session.
+     *
+     * @param relayed Whether the session is relayed (peer-to-peer), so that it cannot be archived or broadcast.
+     * @param alwaysArchived Whether an archive starts automatically when the first stream is published.
+     *
+     * @return The session ID.
+     */
+    public String createSession(boolean relayed, boolean alwaysArchived) {
+        return state.createSession(relayed, alwaysArchived, null).id;
+    }
+
+    /**
+     * Connects a client to a session.
+     *
+     * @return The connection ID.
+     */
+    public String connect(String sessionId) {
+        return call(() -> state.connect(state.session(sessionId)).id);
+    }
+
+    /**
+     * Publishes a camera stream from a connected client.
+     *
+     * @return The stream ID.
+     */
+    public String publish(String sessionId, String connectionId) {
+        return publish(sessionId, connectionId, "camera", "");
+    }
+
+    /**
+     * Publishes a stream from a connected client.
+     *
+     * @param videoType "camera", "screen" or "custom".
+     *
+     * @return The stream ID.
+     */
+    public String publish(String sessionId, String connectionId, String videoType, String name) {
+        return call(() -> state.publish(state.session(sessionId), connectionId, videoType, name).id);
+    }
+
+    /**
+     * Stops publishing a stream.
+     */
+    public void unpublish(String sessionId, String streamId) {
+        call(() -> {
+            state.unpublish(state.session(sessionId), streamId);
+            return null;
+        });
+    }
+
+    /**
+     * Disconnects a client, unpublishing its streams. Archives pause while no clients are connected.
+     */
+    public void disconnect(String sessionId, String connectionId) {
+        call(() -> {
+            state.disconnect(state.session(sessionId), connectionId);
+            return null;
+        });
+    }
+
+    /**
+     * @return The number of signals accepted for the session.
+     */
+    public long getSignalCount(String sessionId) {
+        return call(() -> state.signalCount(sessionId));
+    }
+
+    /**
+     * @return The data of the most recent (up to 1000) signals accepted for the session, in the order they arrived.
+     */
+    public List<String> getRecentSignals(String sessionId) {
+        return call(() -> state.recentSignals(sessionId));
+    }
+
+    /**
+     * @return Whether the stream's audio was muted by a moderator.
+     */
+    public boolean isAudioMuted(String sessionId, String streamId) {
+        return call(() -> state.isAudioMuted(sessionId, streamId));
+    }
+
+    /**
+     * Stops serving requests and releases the port.
+     */
+    @Override
+    public synchronized void close() {
+        if (channel != null) {
+            channel.close().syncUninterruptibly();
+            bossGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+            workerGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+            channel = null;
+        }
+    }
+
+    private interface StateCall<T> {
+        T call();
+    }
+
+    private static <T> T call(StateCall<T> call) {
+        try {
+            return call.call();
+        }
+        catch (EmulatorException ex) {
+            throw new IllegalArgumentException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Runs a standalone emulator, e.g. to load test a service on a developer machine.
+     * Arguments: {@code port apiKey apiSecret [latencyMillis]}.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: OpenTokEmulator port apiKey apiSecret [latencyMillis]");
+            System.exit(1);
+        }
+        OpenTokEmulator emulator = new Builder(Integer.parseInt(args[1]), args[2])
+                .port(Integer.parseInt(args[0]))
+                .latency(args.length > 3 ? Integer.parseInt(args[3]) : 0)
+                .build()
+                .start();
+        Runtime.getRuntime().addShutdownHook(new Thread(emulator::close));
+        System.out.println("OpenTok emulator listening on " + emulator.getApiUrl());
+        emulator.channel.closeFuture().sync();
+    }
+
+    public static class Builder {
+        private final int apiKey;
+        private final String apiSecret;
+        private String applicationId;
+        private PublicKey applicationPublicKey;
+        private int port, latencyMillis;
+        private int workerThreads = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        private long archiveProcessingMillis = 1000, renderStartMillis = 500;
+
+        /**
+         * @param apiKey The API key clients must use.
+         * @param apiSecret The API secret the X-OPENTOK-AUTH tokens must be signed with.
+         */
+        public Builder(int apiKey, String apiSecret) {
+            this.apiKey = apiKey;
+            this.apiSecret = apiSecret;
+        }
+
+        /**
+         * Also accepts requests from a Vonage application, authenticated with a bearer JWT.
+         *
+         * @param applicationId The application ID.
+         * @param publicKey The application's public key, to verify token signatures; or {@code null} to skip the check.
+         */
+        public Builder application(String applicationId, PublicKey publicKey) {
+            this.applicationId = applicationId;
+            this.applicationPublicKey = publicKey;
+            return this;
+        }
+
+        /**
+         * @param port The port to listen on. The default of 0 picks a free port.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param latencyMillis A delay added to every response. The default is 0.
+         */
+        public Builder latency(int latencyMillis) {
+            this.latencyMillis = latencyMillis;
+            return this;
+        }
+
+        /**
+         * @param workerThreads The number of event loop threads serving requests.
+         */
+        public Builder workerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+            return this;
+        }
+
+        /**
+         * @param millis How long a stopped archive stays "stopped" before it becomes "available". The default is 1000.
+         */
+        public Builder archiveProcessingTime(long millis) {
+            this.archiveProcessingMillis = millis;
+            return this;
+        }
+
+        /**
+         * @param millis How long an Experience Composer stays "starting" before it is "started". The default is 500.
+         */
+        public Builder renderStartTime(long millis) {
+            this.renderStartMillis = millis;
+            return this;
+        }
+
+        public OpenTokEmulator build() {
+            return new OpenTokEmulator(this);
+        }
+    }
+}